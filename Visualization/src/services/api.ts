@@ -67,6 +67,7 @@ export const deleteInventoryItem = async (id: string): Promise<void> => {
 
 export const fetchOrders = async (): Promise<Order[]> => {
     try {
+        // Newest 500 orders only; outboundService.fetchOutboundOrders pages through all of them
         const response = await axios.get(`${API_URL}/dashboard/orders`);
         return response.data;
     } catch (error) {
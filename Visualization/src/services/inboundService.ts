@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/inbound';
 
@@ -29,8 +30,7 @@ export interface ReceiveItemRequest {
 
 export const fetchInboundOrders = async (): Promise<InboundOrder[]> => {
     try {
-        const response = await axios.get(API_URL);
-        return response.data;
+        return await fetchAllPages<InboundOrder>(API_URL);
     } catch (error) {
         console.error("Failed to fetch inbound orders", error);
         // Minimal fallback so UI can render when auth blocks API
@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/locations';
 
@@ -49,8 +50,7 @@ export interface LocationType {
 
 export const getAllLocations = async (): Promise<Location[]> => {
     try {
-        const response = await axios.get(API_URL);
-        return response.data;
+        return await fetchAllPages<Location>(API_URL);
     } catch (error) {
         console.error("Failed to load locations", error);
         return mockLocations;
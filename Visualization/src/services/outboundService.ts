@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/outbound';
 
@@ -37,8 +38,7 @@ export interface OutboundOrder {
 // ===== ORDERS =====
 
 export const fetchOutboundOrders = async (): Promise<OutboundOrder[]> => {
-    const response = await axios.get(API_URL);
-    return response.data;
+    return fetchAllPages<OutboundOrder>(API_URL);
 };
 
 export const fetchOutboundOrderById = async (id: number): Promise<OutboundOrder> => {
@@ -0,0 +1,16 @@
+import axios from 'axios';
+
+const NEXT_CURSOR_HEADER = 'x-next-cursor';
+const PAGE_SIZE = 500; // Largest page the backend accepts
+
+// List endpoints return one page per call; the cursor for the next page comes in X-Next-Cursor
+export const fetchAllPages = async <T>(url: string, params: Record<string, unknown> = {}): Promise<T[]> => {
+    const items: T[] = [];
+    let after: string | undefined;
+    do {
+        const response = await axios.get<T[]>(url, { params: { ...params, limit: PAGE_SIZE, after } });
+        items.push(...response.data);
+        after = response.headers[NEXT_CURSOR_HEADER] || undefined;
+    } while (after);
+    return items;
+};
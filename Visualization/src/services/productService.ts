@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/products';
 
@@ -18,8 +19,7 @@ export interface Product {
 }
 
 export const fetchProducts = async (): Promise<Product[]> => {
-    const response = await axios.get(API_URL);
-    return response.data;
+    return fetchAllPages<Product>(API_URL);
 };
 
 export const fetchProductById = async (id: number): Promise<Product> => {
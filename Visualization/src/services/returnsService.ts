@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/returns';
 
@@ -22,8 +23,7 @@ export interface ReturnItem {
 }
 
 export const fetchRmaRequests = async (): Promise<RmaRequest[]> => {
-    const response = await axios.get(API_URL);
-    return response.data;
+    return fetchAllPages<RmaRequest>(API_URL);
 };
 
 export const fetchRmaRequestById = async (id: number): Promise<RmaRequest> => {
@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { fetchAllPages } from './paging';
 
 const API_URL = '/api/shipping';
 
@@ -49,8 +50,7 @@ export const fetchCarrierById = async (id: number): Promise<Carrier> => {
 // ===== SHIPMENTS =====
 
 export const fetchShipments = async (): Promise<Shipment[]> => {
-    const response = await axios.get(`${API_URL}/shipments`);
-    return response.data;
+    return fetchAllPages<Shipment>(`${API_URL}/shipments`);
 };
 
 export const fetchShipmentById = async (id: number): Promise<Shipment> => {
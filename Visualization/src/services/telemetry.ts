@@ -1,25 +1,74 @@
 export type TelemetryPayload = {
   type: string;
   ts: number;
+  durationMs?: number;
   payload: Record<string, unknown>;
 };
 
-const send = async (data: TelemetryPayload) => {
+// Events are buffered and posted together - one request per FLUSH_MS or MAX_BATCH events
+const BATCH_URL = '/api/telemetry/batch';
+const FLUSH_MS = 5000;
+const MAX_BATCH = 50;
+const MAX_BUFFERED = 500;
+
+let buffer: TelemetryPayload[] = [];
+let timer: ReturnType<typeof setTimeout> | undefined;
+
+const flush = async () => {
+  if (timer !== undefined) {
+    clearTimeout(timer);
+    timer = undefined;
+  }
+  if (buffer.length === 0) {
+    return;
+  }
+  const batch = buffer;
+  buffer = [];
   try {
-    await fetch('/api/telemetry', {
+    await fetch(BATCH_URL, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       credentials: 'include',
-      body: JSON.stringify(data),
+      body: JSON.stringify(batch),
+      keepalive: true,
     });
   } catch (err) {
     console.warn('telemetry send failed', err);
   }
 };
 
+const flushOnExit = () => {
+  if (buffer.length === 0) {
+    return;
+  }
+  const body = new Blob([JSON.stringify(buffer)], { type: 'application/json' });
+  if (navigator.sendBeacon?.(BATCH_URL, body)) {
+    buffer = [];
+  } else {
+    void flush();
+  }
+};
+
+const enqueue = (event: TelemetryPayload) => {
+  if (buffer.length >= MAX_BUFFERED) {
+    // Backend unreachable for a while - drop rather than grow without bound
+    buffer.shift();
+  }
+  buffer.push(event);
+  if (buffer.length >= MAX_BATCH) {
+    void flush();
+  } else if (timer === undefined) {
+    timer = setTimeout(() => void flush(), FLUSH_MS);
+  }
+};
+
+export const logTiming = (type: string, durationMs: number, payload: Record<string, unknown> = {}) => {
+  enqueue({ type, ts: Date.now(), durationMs, payload });
+};
+
 export const initTelemetry = () => {
   const log = (type: string, payload: Record<string, unknown>) => {
-    void send({ type, ts: Date.now(), payload });
+    enqueue({ type, ts: Date.now(), payload });
   };
 
   document.addEventListener('click', (e) => {
@@ -46,4 +95,11 @@ export const initTelemetry = () => {
       reason: typeof e.reason === 'string' ? e.reason : JSON.stringify(e.reason ?? {}),
     });
   });
+
+  window.addEventListener('pagehide', flushOnExit);
+  document.addEventListener('visibilitychange', () => {
+    if (document.visibilityState === 'hidden') {
+      flushOnExit();
+    }
+  });
 };
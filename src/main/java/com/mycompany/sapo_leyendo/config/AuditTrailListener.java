@@ -0,0 +1,232 @@
+package com.mycompany.sapo_leyendo.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.model.AuditLog;
+import com.mycompany.sapo_leyendo.model.AuditTrail;
+import com.mycompany.sapo_leyendo.service.AuditLogWriter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.hibernate.type.Type;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures inserts, updates and deletes of {@link AuditTrail} entities as AuditLog rows while
+ * Hibernate flushes: the changed properties with their old and new values as JSON (associations
+ * by id, collections and the version left out). An update that changes {@code status} is
+ * logged as STATUS_CHANGE.
+ * Rows are collected per transaction and handed to {@link AuditLogWriter} when it completes -
+ * written into the same transaction (commit durability, or async with a full queue) or queued
+ * after a successful commit. Rolled back changes leave no rows.
+ */
+@Component
+@Slf4j
+public class AuditTrailListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String MASK = "***";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final AuditLogWriter writer;
+    private final ObjectMapper objectMapper;
+
+    private final Map<EntityPersister, Optional<Set<String>>> maskedByEntity = new ConcurrentHashMap<>();
+    // One batch per session and transaction; removed when the transaction completes
+    private final Map<SessionImplementor, TransactionRows> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public AuditTrailListener(EntityManagerFactory entityManagerFactory, AuditLogWriter writer, ObjectMapper objectMapper) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+
+        if (writer.isEnabled()) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_INSERT, this);
+            registry.appendListeners(EventType.POST_UPDATE, this);
+            registry.appendListeners(EventType.POST_DELETE, this);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), "CREATE", null, event.getState(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), "UPDATE", event.getOldState(), event.getState(),
+                event.getDirtyProperties());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), "DELETE", event.getDeletedState(), null, null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void capture(EventSource session, EntityPersister persister, Object id, String action,
+                         Object[] oldState, Object[] newState, int[] dirtyProperties) {
+        Optional<Set<String>> masked = maskedByEntity.computeIfAbsent(persister, AuditTrailListener::maskedProperties);
+        if (masked.isEmpty()) {
+            return;
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        int version = persister.isVersioned() ? persister.getVersionProperty() : -1;
+        Map<String, Object> oldValues = new LinkedHashMap<>();
+        Map<String, Object> newValues = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (i == version || types[i].isCollectionType()) {
+                continue;
+            }
+            Object before = oldState != null ? render(oldState[i], types[i]) : null;
+            Object after = newState != null ? render(newState[i], types[i]) : null;
+            boolean changed = dirtyProperties != null ? contains(dirtyProperties, i) : !Objects.equals(before, after);
+            if (!changed || (before == null && after == null)) {
+                continue;
+            }
+            boolean mask = masked.get().contains(names[i]);
+            if (oldState != null) {
+                oldValues.put(names[i], mask && before != null ? MASK : before);
+            }
+            if (newState != null) {
+                newValues.put(names[i], mask && after != null ? MASK : after);
+            }
+        }
+        if (oldValues.isEmpty() && newValues.isEmpty()) {
+            // Only the version or a collection changed
+            return;
+        }
+
+        AuditLog row = new AuditLog();
+        row.setAction("UPDATE".equals(action) && newValues.containsKey("status") ? "STATUS_CHANGE" : action);
+        row.setEntity(persister.getMappedClass().getSimpleName());
+        row.setEntityId(id != null ? id.toString() : null);
+        row.setOldValue(oldState != null ? toJson(oldValues) : null);
+        row.setNewValue(newState != null ? toJson(newValues) : null);
+        row.setUsername(currentUser());
+        row.setTimestamp(LocalDateTime.now());
+        rowsOf(session).rows.add(row);
+    }
+
+    private TransactionRows rowsOf(EventSource session) {
+        TransactionRows rows = pending.get(session);
+        if (rows == null) {
+            rows = new TransactionRows(session);
+            pending.put(session, rows);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) rows);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) rows);
+        }
+        return rows;
+    }
+
+    private Object render(Object value, Type type) {
+        if (value == null) {
+            return null;
+        }
+        if (type.isEntityType()) {
+            return sessionFactory.getPersistenceUnitUtil().getIdentifier(value);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private String toJson(Map<String, Object> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            return values.toString();
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<Set<String>> maskedProperties(EntityPersister persister) {
+        AuditTrail auditTrail = persister.getMappedClass().getAnnotation(AuditTrail.class);
+        return auditTrail == null ? Optional.empty() : Optional.of(Set.of(auditTrail.masked()));
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "system";
+    }
+
+    /**
+     * Rows of one transaction. In commit mode - or when the async queue has no room - they are
+     * inserted through a temporary session on the same connection right before the commit, so a
+     * failing insert fails the commit. Otherwise they are queued once the commit succeeded.
+     */
+    private final class TransactionRows implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final SessionImplementor session;
+        private final List<AuditLog> rows = new ArrayList<>();
+        private boolean reserved;
+
+        TransactionRows(SessionImplementor session) {
+            this.session = session;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            if (writer.getDurability() == AuditLogWriter.Durability.ASYNC) {
+                if (writer.tryReserve(rows.size())) {
+                    reserved = true;
+                    return;
+                }
+                log.debug("Audit queue full - writing {} rows in the committing transaction", rows.size());
+            }
+            try (Session auditSession = session.sessionWithOptions()
+                    .connection()
+                    .autoClose(false)
+                    .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                    .openSession()) {
+                rows.forEach(auditSession::persist);
+                auditSession.flush();
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.remove(this.session);
+            if (!reserved) {
+                return;
+            }
+            if (success) {
+                writer.enqueue(rows);
+            } else {
+                writer.release(rows.size());
+            }
+        }
+    }
+}
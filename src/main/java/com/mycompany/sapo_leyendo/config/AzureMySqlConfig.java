@@ -1,22 +1,31 @@
 package com.mycompany.sapo_leyendo.config;
 
 import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Konfiguracja DataSource dla Azure MySQL.
  * Parsuje AZURE_MYSQL_CONNECTIONSTRING z formatu Azure na JDBC.
- * 
+ *
  * Format Azure: Database=...;Server=...;User Id=...;Password=...
  * Format JDBC:  jdbc:mysql://server:port/database
+ *
+ * Opcjonalnie (AZURE_MYSQL_REPLICA_HOSTS) transakcje readOnly idą do replik odczytu,
+ * a zapisy do serwera głównego - patrz {@link ReadReplicas}.
  */
 @Configuration
 @Profile("mysql")
@@ -26,36 +35,106 @@ public class AzureMySqlConfig {
     private String azureConnectionString;
 
     @Bean
-    public DataSource dataSource() {
+    public DataSource dataSource(ObjectProvider<ReadWriteRoutingDataSource> mysqlRoutingDataSource) {
+        ReadWriteRoutingDataSource routing = mysqlRoutingDataSource.getIfAvailable();
+        if (routing != null) {
+            return routing.lazy(Connection.TRANSACTION_REPEATABLE_READ);
+        }
         Map<String, String> params = parseAzureConnectionString(azureConnectionString);
-        
-        String server = params.getOrDefault("Server", "localhost");
+        return createPool("mysql-primary", params, params.getOrDefault("Server", "localhost"), 10, false);
+    }
+
+    /**
+     * Repliki odczytu: raporty i dashboard (metody {@code @Transactional(readOnly = true)})
+     * nie konkurują z alokacją fal o serwer główny. Replika opóźniona o więcej niż max-lag-seconds
+     * albo niedostępna jest pomijana; gdy żadna się nie nadaje, odczyty idą do serwera głównego.
+     *
+     * Hosty replik (te same baza i dane logowania): AZURE_MYSQL_REPLICA_HOSTS=host1,host2:3307
+     */
+    @Configuration
+    @ConditionalOnExpression("!'${app.mysql.read-replicas.hosts:}'.isBlank()")
+    static class ReadReplicas {
+
+        @Value("${AZURE_MYSQL_CONNECTIONSTRING:}")
+        private String azureConnectionString;
+
+        @Value("${app.mysql.read-replicas.hosts}")
+        private String replicaHosts;
+
+        @Value("${app.mysql.read-replicas.pool-size:10}")
+        private int replicaPoolSize;
+
+        @Value("${app.mysql.read-replicas.max-lag-seconds:5}")
+        private long maxLagSeconds;
+
+        @Value("${app.mysql.read-replicas.lag-check-ms:2000}")
+        private long lagCheckMs;
+
+        @Bean(destroyMethod = "close")
+        public ReadWriteRoutingDataSource mysqlRoutingDataSource() {
+            Map<String, String> params = parseAzureConnectionString(azureConnectionString);
+            HikariDataSource primary = createPool("mysql-primary", params, params.getOrDefault("Server", "localhost"), 10, false);
+
+            List<ReplicaDataSource.Replica> replicas = new ArrayList<>();
+            for (String host : replicaHosts.split(",")) {
+                if (!host.isBlank()) {
+                    String name = "mysql-replica-" + (replicas.size() + 1);
+                    replicas.add(new ReplicaDataSource.Replica(name, createPool(name, params, host.trim(), replicaPoolSize, true)));
+                }
+            }
+            ReplicaDataSource readers = new ReplicaDataSource(replicas, primary, ReplicaLagProbe.MYSQL,
+                    Duration.ofSeconds(maxLagSeconds));
+            readers.startLagChecks(Duration.ofMillis(lagCheckMs));
+
+            System.out.println("✅ Read replicas configured: " + replicaHosts + " (max lag " + maxLagSeconds + "s)");
+            return new ReadWriteRoutingDataSource(primary, readers);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer mysqlReplicaConnectionHandling() {
+            return ReadWriteRoutingDataSource.releaseConnectionsAfterTransaction();
+        }
+    }
+
+    /**
+     * Pool Hikari dla jednego serwera; host może zawierać port (host:port).
+     */
+    private static HikariDataSource createPool(String poolName, Map<String, String> params, String host,
+                                               int maximumPoolSize, boolean readOnly) {
         String database = params.getOrDefault("Database", "sapo_leyendo");
         String userId = params.getOrDefault("User Id", "");
         String password = params.getOrDefault("Password", "");
         String port = params.getOrDefault("Port", "3306");
-        
-        // Buduj JDBC URL
+        int colon = host.indexOf(':');
+        if (colon > 0) {
+            port = host.substring(colon + 1);
+            host = host.substring(0, colon);
+        }
+
+        // Buduj JDBC URL (useCursorFetch: zapytania z fetch size, np. eksporty, czytają kursorem
+        // po stronie serwera zamiast ładować cały wynik do pamięci)
         String jdbcUrl = String.format(
-            "jdbc:mysql://%s:%s/%s?useSSL=true&requireSSL=true&serverTimezone=UTC",
-            server, port, database
+            "jdbc:mysql://%s:%s/%s?useSSL=true&requireSSL=true&serverTimezone=UTC&useCursorFetch=true",
+            host, port, database
         );
-        
+
         HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
         dataSource.setJdbcUrl(jdbcUrl);
         dataSource.setUsername(userId);
         dataSource.setPassword(password);
         dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        
+        dataSource.setReadOnly(readOnly);
+
         // Konfiguracja pool'a
-        dataSource.setMaximumPoolSize(10);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
         dataSource.setMinimumIdle(2);
         dataSource.setConnectionTimeout(30000);
         dataSource.setIdleTimeout(600000);
         dataSource.setMaxLifetime(1800000);
-        
-        System.out.println("✅ Azure MySQL DataSource configured for: " + server + "/" + database);
-        
+
+        System.out.println("✅ Azure MySQL DataSource configured for: " + host + "/" + database + " (" + poolName + ")");
+
         return dataSource;
     }
 
@@ -63,14 +142,14 @@ public class AzureMySqlConfig {
      * Parsuje Azure connection string do mapy parametrów.
      * Format: Key1=Value1;Key2=Value2;...
      */
-    private Map<String, String> parseAzureConnectionString(String connectionString) {
+    private static Map<String, String> parseAzureConnectionString(String connectionString) {
         Map<String, String> params = new HashMap<>();
-        
+
         if (connectionString == null || connectionString.isEmpty()) {
             System.err.println("⚠️ AZURE_MYSQL_CONNECTIONSTRING is empty!");
             return params;
         }
-        
+
         String[] parts = connectionString.split(";");
         for (String part : parts) {
             int eqIndex = part.indexOf('=');
@@ -80,7 +159,7 @@ public class AzureMySqlConfig {
                 params.put(key, value);
             }
         }
-        
+
         return params;
     }
 }
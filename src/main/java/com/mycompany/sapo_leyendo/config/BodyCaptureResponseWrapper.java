@@ -0,0 +1,141 @@
+package com.mycompany.sapo_leyendo.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Passes the body straight through to the client and keeps a copy of its first {@code limit}
+ * bytes for the log. Unlike ContentCachingResponseWrapper nothing is held back, so large and
+ * streamed responses keep their Content-Length, flushes and memory footprint.
+ */
+class BodyCaptureResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int limit;
+    private final ByteArrayOutputStream captured;
+    private long bodyLength;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    BodyCaptureResponseWrapper(HttpServletResponse response, int limit) {
+        super(response);
+        this.limit = limit;
+        this.captured = new ByteArrayOutputStream(Math.min(limit, 1024));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            // PrintWriter over a Writer adds no buffer of its own - the container's writer flushes as usual
+            writer = new PrintWriter(new CapturingWriter(super.getWriter(), Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    byte[] getCapturedBody() {
+        return captured.toByteArray();
+    }
+
+    /** Bytes written so far (characters, for bodies written through the writer). */
+    long getBodyLength() {
+        return bodyLength;
+    }
+
+    private void capture(byte[] bytes, int offset, int length) {
+        int room = limit - captured.size();
+        if (room > 0) {
+            captured.write(bytes, offset, Math.min(room, length));
+        }
+    }
+
+    private class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bodyLength++;
+            if (captured.size() < limit) {
+                captured.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bodyLength += len;
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+
+    private class CapturingWriter extends Writer {
+
+        private final Writer delegate;
+        private final Charset charset;
+
+        CapturingWriter(Writer delegate, Charset charset) {
+            this.delegate = delegate;
+            this.charset = charset;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            delegate.write(cbuf, off, len);
+            bodyLength += len;
+            if (captured.size() < limit) {
+                byte[] bytes = new String(cbuf, off, Math.min(len, limit)).getBytes(charset);
+                capture(bytes, 0, bytes.length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
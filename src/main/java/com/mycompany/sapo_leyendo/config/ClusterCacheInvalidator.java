@@ -0,0 +1,286 @@
+package com.mycompany.sapo_leyendo.config;
+
+import com.mycompany.sapo_leyendo.model.CacheInvalidation;
+import com.mycompany.sapo_leyendo.repository.CacheInvalidationRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the second-level caches of several app instances on one database consistent without
+ * a message broker. Committed inserts, updates and deletes of cached entities are written to
+ * the CacheInvalidations table; every instance polls that table and evicts what the others
+ * changed (entity entries, their cached collections and all cached query results).
+ * A change is written to the table right after its transaction commits (on the poller thread),
+ * so another node sees it within one poll interval plus that short write. If the write fails,
+ * the batch is retried on the next poll. Bulk JPQL updates and changes
+ * made outside the application are not published - those age out with the region TTL.
+ * Ids are taken at insert, not at commit: a row with a lower id can commit after a higher one
+ * was read. The last {@code overlap-seconds} of rows are therefore read again on every poll and
+ * the ones not yet applied are evicted; the window must exceed the longest publishing
+ * transaction plus the clock skew between instances.
+ * Enabled on the mysql profile ({@code app.cache.invalidation.enabled}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class ClusterCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(10);
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollMs;
+    private final Duration retention;
+    private final Duration overlap;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Queue<CacheInvalidation> outgoing = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private volatile long lastSeenId;
+    // Rows applied within the overlap window, by id - owned by poll()
+    private final Map<Long, LocalDateTime> applied = new HashMap<>();
+    private volatile LocalDateTime lastCleanup = LocalDateTime.now();
+
+    public ClusterCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                   CacheInvalidationRepository cacheInvalidationRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.cache.invalidation.poll-ms:2000}") long pollMs,
+                                   @Value("${app.cache.invalidation.retention-minutes:60}") long retentionMinutes,
+                                   @Value("${app.cache.invalidation.overlap-seconds:60}") long overlapSeconds) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollMs = pollMs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.overlap = Duration.ofSeconds(overlapSeconds);
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Older changes are already reflected in the database this instance reads from
+        lastSeenId = cacheInvalidationRepository.findMaxId();
+        poller.scheduleWithFixedDelay(this::pollSafely, pollMs, pollMs, TimeUnit.MILLISECONDS);
+        log.info("Cache invalidation started on node {} (poll every {} ms)", nodeId, pollMs);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // Other nodes cannot hold the new row, but their cached query results may miss it
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    /**
+     * Publishes this node's changes and evicts the ones made by other nodes.
+     * Runs on the poller thread; public so tests can drive it.
+     */
+    public synchronized void poll() {
+        flush();
+
+        LocalDateTime since = LocalDateTime.now().minus(overlap);
+        applied.values().removeIf(createdAt -> createdAt.isBefore(since));
+        boolean evicted = false;
+        // Late commits below the watermark
+        for (CacheInvalidation change : cacheInvalidationRepository.findByIdLessThanEqualAndCreatedAtAfterOrderByIdAsc(lastSeenId, since)) {
+            evicted |= apply(change);
+        }
+        List<CacheInvalidation> changes;
+        do {
+            changes = cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastSeenId);
+            for (CacheInvalidation change : changes) {
+                evicted |= apply(change);
+                lastSeenId = Math.max(lastSeenId, change.getId());
+            }
+        } while (changes.size() == 500);
+        if (evicted) {
+            sessionFactory.getCache().evictQueryRegions();
+        }
+
+        if (lastCleanup.plus(CLEANUP_INTERVAL).isBefore(LocalDateTime.now())) {
+            lastCleanup = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    cacheInvalidationRepository.deleteOlderThan(lastCleanup.minus(retention)));
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    /** Writes the queued local changes; on failure they stay queued for the next attempt. */
+    private synchronized void flush() {
+        List<CacheInvalidation> batch = new ArrayList<>();
+        for (CacheInvalidation invalidation; (invalidation = outgoing.poll()) != null; ) {
+            batch.add(invalidation);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> cacheInvalidationRepository.saveAll(batch));
+        } catch (RuntimeException e) {
+            batch.forEach(invalidation -> invalidation.setId(null));
+            outgoing.addAll(batch);
+            throw e;
+        }
+    }
+
+    private void flushSafely() {
+        flushPending.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Publishing cache invalidations failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        CacheInvalidation invalidation = new CacheInvalidation();
+        invalidation.setEntityName(persister.getEntityName());
+        invalidation.setEntityId(id != null ? id.toString() : null);
+        invalidation.setNodeId(nodeId);
+        invalidation.setCreatedAt(LocalDateTime.now());
+        outgoing.add(invalidation);
+        // Called after commit: write now instead of waiting for the next poll
+        if (flushPending.compareAndSet(false, true)) {
+            try {
+                poller.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                flushPending.set(false); // shutting down
+            }
+        }
+    }
+
+    private boolean apply(CacheInvalidation change) {
+        if (applied.putIfAbsent(change.getId(), change.getCreatedAt()) != null) {
+            return false;
+        }
+        return !nodeId.equals(change.getNodeId()) && evict(change);
+    }
+
+    private boolean evict(CacheInvalidation change) {
+        EntityPersister persister;
+        try {
+            persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(change.getEntityName());
+        } catch (RuntimeException e) {
+            return false; // entity unknown to this (older or newer) version of the app
+        }
+        Cache cache = sessionFactory.getCache();
+        Object id = parseId(persister, change.getEntityId());
+        if (id == null) {
+            cache.evictEntityData(change.getEntityName());
+        } else {
+            cache.evictEntityData(change.getEntityName(), id);
+        }
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (collection.hasCache() && collection.getOwnerEntityPersister() == persister) {
+                if (id == null) {
+                    cache.evictCollectionData(collection.getRole());
+                } else {
+                    cache.evictCollectionData(collection.getRole(), id);
+                }
+            }
+        });
+        return true;
+    }
+
+    private static Object parseId(EntityPersister persister, String value) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> type = persister.getIdentifierType().getReturnedClass();
+        try {
+            if (type == Integer.class) {
+                return Integer.valueOf(value);
+            }
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == String.class) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // fall through - drop the whole region
+        }
+        return null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+}
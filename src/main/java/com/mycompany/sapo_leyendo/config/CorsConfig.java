@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.config;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -18,6 +19,8 @@ public class CorsConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
+        // Paging metadata travels in headers, which cross-origin scripts only see when exposed
+        configuration.setExposedHeaders(List.of(KeysetPage.NEXT_CURSOR_HEADER, "X-Total-Count"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -5,18 +5,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.stereotype.Component;
 import org.springframework.boot.CommandLineRunner;
 
 import javax.sql.DataSource;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * Initializes or resets the database at startup.
- * - For SQLite: Auto-initializes if database is empty, or resets when CLEARDATABASE=1
+ * - For SQLite: Auto-initializes if database is empty, or resets when CLEARDATABASE=1.
+ *   An existing file is upgraded in place (missing columns, tables and indexes are added).
  * - For MySQL: Only resets when CLEARDATABASE=1 (DemoDataLoader handles initialization)
  */
 @Component
@@ -25,6 +28,41 @@ import java.util.List;
 @Slf4j
 public class DatabaseResetRunner implements CommandLineRunner {
 
+    /**
+     * Columns added to existing tables after the first release of CreateDB_sqlite.sql.
+     * Format: { table, column, column definition } - keep in sync with CreateDB_sqlite.sql.
+     */
+    private static final List<String[]> SQLITE_ADDED_COLUMNS = List.of(
+            new String[] {"PickingTasks", "id_allocation", "INTEGER NULL REFERENCES InventoryAllocations(id_allocation) ON DELETE SET NULL"},
+            new String[] {"ProductCategories", "allocation_strategy", "TEXT NULL CHECK(allocation_strategy IN ('FIFO', 'FEFO'))"},
+            new String[] {"Inventory", "version", "INTEGER NOT NULL DEFAULT 0"},
+            new String[] {"PickingTasks", "version", "INTEGER NOT NULL DEFAULT 0"},
+            new String[] {"MoveTasks", "version", "INTEGER NOT NULL DEFAULT 0"},
+            new String[] {"Waves", "version", "INTEGER NOT NULL DEFAULT 0"},
+            new String[] {"PickingTasks", "id_pick_list", "INTEGER NULL REFERENCES PickLists(id_pick_list) ON DELETE SET NULL"}
+    );
+
+    /**
+     * Tables whose earlier CreateDB_sqlite.sql definition did not match the entity - no row could
+     * be written through JPA, so they are dropped and UpgradeDB_sqlite.sql creates them anew.
+     * Format: { table, column the current definition has }.
+     */
+    private static final List<String[]> SQLITE_REPLACED_TABLES = List.<String[]>of(
+            new String[] {"KpiMetrics", "name"},
+            new String[] {"AuditLogs", "id_audit"}
+    );
+
+    /**
+     * NOT NULL columns made nullable after the first release - SQLite cannot alter a column,
+     * so the table is rebuilt from its own definition with these text replacements.
+     * Format: { table, column, replaced text, replacement, ... } - keep in sync with CreateDB_sqlite.sql.
+     */
+    private static final List<String[]> SQLITE_RELAXED_COLUMNS = List.<String[]>of(
+            new String[] {"PickingTasks", "id_inventory",
+                    "id_inventory INTEGER NOT NULL", "id_inventory INTEGER NULL",
+                    "REFERENCES Inventory(id_inventory) ON DELETE RESTRICT", "REFERENCES Inventory(id_inventory) ON DELETE SET NULL"}
+    );
+
     private final DataSource dataSource;
     private final Environment environment;
 
@@ -32,6 +70,11 @@ public class DatabaseResetRunner implements CommandLineRunner {
     public void run(String... args) {
         List<String> activeProfiles = Arrays.asList(environment.getActiveProfiles());
         boolean sqliteProfile = !activeProfiles.contains("mysql");
+        if (sqliteProfile && !isSqliteDataSource()) {
+            // e.g. an H2 datasource in tests - Hibernate DDL owns the schema there
+            log.info("Non-SQLite datasource on profiles {}. Skipping SQLite initialization.", activeProfiles);
+            return;
+        }
         boolean shouldClear = shouldClearDatabase();
         
         if (shouldClear) {
@@ -50,6 +93,7 @@ public class DatabaseResetRunner implements CommandLineRunner {
             seedSqlite();
         } else if (sqliteProfile) {
             log.info("📦 SQLite database already initialized. Skipping seed.");
+            upgradeSqlite();
         }
     }
 
@@ -64,6 +108,11 @@ public class DatabaseResetRunner implements CommandLineRunner {
         return "1".equals(flag);
     }
     
+    private boolean isSqliteDataSource() {
+        String url = environment.getProperty("spring.datasource.url");
+        return url == null || url.startsWith("jdbc:sqlite");
+    }
+
     private boolean isDatabaseEmpty() {
         try {
             JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
@@ -101,6 +150,69 @@ public class DatabaseResetRunner implements CommandLineRunner {
         seedSqlite();
     }
 
+    /**
+     * Idempotent: only adds what is missing and replaces tables that could hold no data
+     * (SQLITE_REPLACED_TABLES); never rewrites data.
+     */
+    private void upgradeSqlite() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String[] column : SQLITE_ADDED_COLUMNS) {
+            List<String> existing = jdbcTemplate.queryForList(
+                    "SELECT name FROM pragma_table_info(?)", String.class, column[0]);
+            if (!existing.isEmpty() && !existing.contains(column[1])) {
+                jdbcTemplate.execute("ALTER TABLE " + column[0] + " ADD COLUMN " + column[1] + " " + column[2]);
+                log.info("SQLite upgrade: added column {}.{}", column[0], column[1]);
+            }
+        }
+        for (String[] column : SQLITE_RELAXED_COLUMNS) {
+            Integer notNull = jdbcTemplate.query("SELECT \"notnull\" FROM pragma_table_info(?) WHERE name = ?",
+                    rs -> rs.next() ? rs.getInt(1) : null, column[0], column[1]);
+            if (notNull != null && notNull == 1) {
+                rebuildSqliteTable(jdbcTemplate, column);
+                log.info("SQLite upgrade: {}.{} is now nullable", column[0], column[1]);
+            }
+        }
+        for (String[] table : SQLITE_REPLACED_TABLES) {
+            List<String> existing = jdbcTemplate.queryForList(
+                    "SELECT name FROM pragma_table_info(?)", String.class, table[0]);
+            if (!existing.isEmpty() && !existing.contains(table[1])) {
+                jdbcTemplate.execute("DROP TABLE " + table[0]);
+                log.info("SQLite upgrade: replaced table {} (old layout)", table[0]);
+            }
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.addScript(new ClassPathResource("database/UpgradeDB_sqlite.sql"));
+        populator.execute(dataSource);
+    }
+
+    /**
+     * SQLite's documented table rebuild: copy into a relaxed twin, drop, rename. One connection,
+     * foreign keys off - the pragma is per connection. Indexes come back from UpgradeDB_sqlite.sql.
+     */
+    private void rebuildSqliteTable(JdbcTemplate jdbcTemplate, String[] column) {
+        String table = column[0];
+        String definition = jdbcTemplate.queryForObject(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?", String.class, table);
+        for (int i = 2; i + 1 < column.length; i += 2) {
+            definition = definition.replace(column[i], column[i + 1]);
+        }
+        String relaxed = definition.replaceFirst("(?i)CREATE TABLE\\s+\"?" + table + "\"?", "CREATE TABLE " + table + "_relaxed");
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA foreign_keys = OFF");
+                try {
+                    statement.execute(relaxed);
+                    statement.execute("INSERT INTO " + table + "_relaxed SELECT * FROM " + table);
+                    statement.execute("DROP TABLE " + table);
+                    statement.execute("ALTER TABLE " + table + "_relaxed RENAME TO " + table);
+                } finally {
+                    statement.execute("PRAGMA foreign_keys = ON");
+                }
+            }
+            return null;
+        });
+    }
+
     private void seedSqlite() {
         ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
         populator.addScript(new ClassPathResource("database/CreateDB_sqlite.sql"));
@@ -0,0 +1,25 @@
+package com.mycompany.sapo_leyendo.config;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One request as captured on the request thread: raw headers and body prefixes. Redaction and
+ * formatting happen later on the log writer thread.
+ * Bodies are null when they were not captured (unsampled, bypassed or binary); a body length of
+ * -1 means unknown.
+ */
+record HttpLogRecord(Instant timestamp,
+                     String user,
+                     String method,
+                     String path,
+                     String query,
+                     int status,
+                     long durationMs,
+                     Map<String, String> requestHeaders,
+                     byte[] requestBody,
+                     long requestBodyLength,
+                     Map<String, String> responseHeaders,
+                     byte[] responseBody,
+                     long responseBodyLength) {
+}
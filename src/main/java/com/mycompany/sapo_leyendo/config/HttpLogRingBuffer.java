@@ -0,0 +1,63 @@
+package com.mycompany.sapo_leyendo.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free queue for many producers (request threads) and one consumer (the log writer).
+ * Producers claim a sequence with a CAS and publish into its slot; when the consumer is a full
+ * ring behind, {@link #offer} fails at once instead of blocking the request.
+ */
+final class HttpLogRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+
+    HttpLogRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.capacity = size;
+        this.mask = size - 1;
+    }
+
+    /** Returns false when the buffer is full; never blocks. */
+    boolean offer(T item) {
+        while (true) {
+            long claimed = head.get();
+            if (claimed - tail >= capacity) {
+                return false;
+            }
+            if (head.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) claimed & mask, item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Next item, or null when empty. A slot claimed but not yet published also reads as empty;
+     * it is picked up by the next poll. Only the consumer thread may call this.
+     */
+    T poll() {
+        long next = tail;
+        int index = (int) next & mask;
+        T item = slots.get(index);
+        if (item == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        tail = next + 1;
+        return item;
+    }
+
+    int size() {
+        return (int) Math.max(0, head.get() - tail);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,190 @@
+package com.mycompany.sapo_leyendo.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Writes captured requests to the HTTP_LOG logger from one background thread, so request
+ * threads never wait for the log file. Records pass through a lock-free ring buffer
+ * ({@code app.http.logging.buffer-capacity}); when it is full a record is dropped and counted,
+ * never queued without bound.
+ * Redaction happens here as well: values of {@code redact-headers} and of JSON / form fields
+ * named in {@code redact-fields} are replaced by ***. Body prefixes are cut mid-document, so
+ * fields are matched textually rather than by parsing.
+ */
+@Component
+@Slf4j
+public class HttpLogWriter {
+
+    private static final Logger HTTP_LOG = LoggerFactory.getLogger("HTTP_LOG");
+    private static final String MASK = "***";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final HttpLogRingBuffer<HttpLogRecord> buffer;
+    private final Set<String> redactedHeaders;
+    private final List<Pattern> redactedFields;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public HttpLogWriter(@Value("${app.http.logging.buffer-capacity:8192}") int capacity,
+                         @Value("${app.http.logging.redact-headers:Authorization,Proxy-Authorization,Cookie,Set-Cookie,X-Api-Key}") String redactHeaders,
+                         @Value("${app.http.logging.redact-fields:password,newPassword,oldPassword,token,accessToken,refreshToken,secret}") String redactFields) {
+        this.buffer = new HttpLogRingBuffer<>(capacity);
+        this.redactedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        this.redactedHeaders.addAll(split(redactHeaders));
+        this.redactedFields = fieldPatterns(split(redactFields));
+        this.writerThread = new Thread(this::drain, "http-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /** Hands the record to the writer thread; returns false (and counts a drop) when the buffer is full. */
+    public boolean submit(HttpLogRecord record) {
+        if (!running || !buffer.offer(record)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    private void drain() {
+        long reportedDrops = 0;
+        long lastReport = System.nanoTime();
+        while (running || buffer.size() > 0) {
+            HttpLogRecord record = buffer.poll();
+            if (record == null) {
+                if (!running) {
+                    // Claimed but never published - the producer is gone
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                write(record);
+            }
+            long drops = dropped.get();
+            if (drops > reportedDrops && System.nanoTime() - lastReport > DROP_REPORT_INTERVAL_NANOS) {
+                log.warn("HTTP log buffer full: {} records dropped so far", drops);
+                reportedDrops = drops;
+                lastReport = System.nanoTime();
+            }
+        }
+    }
+
+    private void write(HttpLogRecord record) {
+        try {
+            HTTP_LOG.info("ts={} user={} method={} path={} query={} status={} durationMs={} reqHeaders={} reqBody={} resHeaders={} resBody={}",
+                    record.timestamp(),
+                    record.user(),
+                    record.method(),
+                    record.path(),
+                    record.query(),
+                    record.status(),
+                    record.durationMs(),
+                    redactHeaders(record.requestHeaders()),
+                    body(record.requestBody(), record.requestBodyLength()),
+                    redactHeaders(record.responseHeaders()),
+                    body(record.responseBody(), record.responseBodyLength()));
+            written.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Could not write HTTP log record for {} {}: {}", record.method(), record.path(), e.toString());
+        }
+    }
+
+    Map<String, String> redactHeaders(Map<String, String> headers) {
+        if (headers == null) {
+            return Map.of();
+        }
+        Map<String, String> redacted = new LinkedHashMap<>(headers);
+        redacted.replaceAll((name, value) -> redactedHeaders.contains(name) ? MASK : value);
+        return redacted;
+    }
+
+    String body(byte[] prefix, long length) {
+        if (prefix == null) {
+            return "-";
+        }
+        String text = redactFields(new String(prefix, StandardCharsets.UTF_8));
+        if (length > prefix.length) {
+            return text + "...[truncated, " + length + " bytes]";
+        }
+        return text;
+    }
+
+    String redactFields(String body) {
+        for (Pattern field : redactedFields) {
+            if (body.isEmpty()) {
+                break;
+            }
+            body = field.matcher(body).replaceAll(match -> Matcher.quoteReplacement(match.group(1) + MASK + match.group(3)));
+        }
+        return body;
+    }
+
+    /**
+     * {@code "name": "value"} (JSON string), {@code "name": 123} (other JSON scalars) and
+     * {@code name=value} (form body), case-insensitive. The value may run to the end of a cut prefix.
+     */
+    private static List<Pattern> fieldPatterns(Set<String> fields) {
+        if (fields.isEmpty()) {
+            return List.of();
+        }
+        String names = fields.stream().map(Pattern::quote).collect(Collectors.joining("|"));
+        return List.of(
+                Pattern.compile("(\"(?:" + names + ")\"\\s*:\\s*\")((?:\\\\.|[^\"\\\\])*)(\"?)", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("(\"(?:" + names + ")\"\\s*:\\s*)([^\\s\",}\\]\\[{]+)()", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("((?:^|&)(?:" + names + ")=)([^&]*)()", Pattern.CASE_INSENSITIVE));
+    }
+
+    private static Set<String> split(String list) {
+        return Arrays.stream(list.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toCollection(() -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Lets the writer finish what is queued, briefly - records still arriving are dropped
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
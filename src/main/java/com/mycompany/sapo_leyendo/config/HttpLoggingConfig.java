@@ -1,79 +1,74 @@
 package com.mycompany.sapo_leyendo.config;
 
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.security.Principal;
-import java.time.Instant;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
+/**
+ * Request/response log (HTTP_LOG): bounded body prefixes, per-path sampling and redaction,
+ * written off the request thread by {@link HttpLogWriter}.
+ * <pre>
+ * app.http.logging.max-body-bytes=4096                      body prefix kept per request/response
+ * app.http.logging.sample-rate=1.0                          default share of requests logged
+ * app.http.logging.path-sample-rates=/api/inventory=0.1     prefix=rate, comma separated; failures (400+) are always logged
+ * app.http.logging.body-bypass-paths=/api/export/           never wrapped - streamed responses
+ * </pre>
+ */
 @Configuration
 public class HttpLoggingConfig {
 
-    private static final Logger LOG = LoggerFactory.getLogger("HTTP_LOG");
-
     @Value("${app.http.logging.enabled:true}")
     private boolean httpLoggingEnabled;
 
+    @Value("${app.http.logging.max-body-bytes:4096}")
+    private int maxBodyBytes;
+
+    @Value("${app.http.logging.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${app.http.logging.path-sample-rates:}")
+    private String pathSampleRates;
+
+    @Value("${app.http.logging.body-bypass-paths:/api/export/}")
+    private String bodyBypassPaths;
+
     @Bean
-    public FilterRegistrationBean<OncePerRequestFilter> httpLoggingFilter() {
+    public FilterRegistrationBean<OncePerRequestFilter> httpLoggingFilter(HttpLogWriter httpLogWriter) {
         FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new OncePerRequestFilter() {
-            @Override
-            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-                    throws ServletException, IOException {
-                if (!httpLoggingEnabled) {
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, 64 * 1024);
-                ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
-                long start = System.currentTimeMillis();
-                try {
-                    filterChain.doFilter(wrappedRequest, wrappedResponse);
-                } finally {
-                    long durationMs = System.currentTimeMillis() - start;
-                    String requestBody = new String(wrappedRequest.getContentAsByteArray(), StandardCharsets.UTF_8);
-                    String responseBody = new String(wrappedResponse.getContentAsByteArray(), StandardCharsets.UTF_8);
-                    Map<String, String> requestHeaders = Collections.list(wrappedRequest.getHeaderNames())
-                            .stream()
-                            .collect(Collectors.toMap(h -> h, wrappedRequest::getHeader, (v1, v2) -> v1));
-                    Map<String, String> responseHeaders = wrappedResponse.getHeaderNames()
-                            .stream()
-                            .collect(Collectors.toMap(h -> h, wrappedResponse::getHeader, (v1, v2) -> v1));
-                    Principal principal = wrappedRequest.getUserPrincipal();
-                    LOG.info("ts={} user={} method={} path={} query={} status={} durationMs={} reqHeaders={} reqBody={} resHeaders={} resBody={}",
-                            Instant.now(),
-                            principal != null ? principal.getName() : "anon",
-                            wrappedRequest.getMethod(),
-                            wrappedRequest.getRequestURI(),
-                            wrappedRequest.getQueryString(),
-                            wrappedResponse.getStatus(),
-                            durationMs,
-                            requestHeaders,
-                            requestBody,
-                            responseHeaders,
-                            responseBody);
-                    wrappedResponse.copyBodyToResponse();
-                }
-            }
-        });
+        registration.setFilter(new HttpLoggingFilter(httpLogWriter, maxBodyBytes, sampleRate,
+                parseSampleRates(pathSampleRates), split(bodyBypassPaths)));
+        registration.setEnabled(httpLoggingEnabled);
         registration.setOrder(1);
         return registration;
     }
+
+    static Map<String, Double> parseSampleRates(String value) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (String entry : split(value)) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid app.http.logging.path-sample-rates entry '" + entry
+                        + "' - expected /path/prefix=rate");
+            }
+            double rate = Double.parseDouble(entry.substring(separator + 1).trim());
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Sample rate for " + entry + " must be between 0 and 1");
+            }
+            rates.put(entry.substring(0, separator).trim(), rate);
+        }
+        return rates;
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+    }
 }
@@ -0,0 +1,153 @@
+package com.mycompany.sapo_leyendo.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Captures requests for {@link HttpLogWriter} without holding up the response:
+ * <ul>
+ *   <li>a request is sampled with the rate of the longest matching path prefix (or the default
+ *   rate); unsampled requests are only logged - without bodies - when they fail (status 400+)</li>
+ *   <li>bodies are captured up to {@code maxBodyBytes} while passing through, and only when
+ *   textual (JSON, XML, text, forms)</li>
+ *   <li>paths under a body-bypass prefix (streamed exports) are never wrapped at all</li>
+ *   <li>async requests are logged when they complete, with their full duration</li>
+ * </ul>
+ */
+class HttpLoggingFilter extends OncePerRequestFilter {
+
+    private final HttpLogWriter writer;
+    private final int maxBodyBytes;
+    private final double defaultSampleRate;
+    private final List<Map.Entry<String, Double>> pathSampleRates;
+    private final List<String> bodyBypassPaths;
+
+    HttpLoggingFilter(HttpLogWriter writer, int maxBodyBytes, double defaultSampleRate,
+                      Map<String, Double> pathSampleRates, List<String> bodyBypassPaths) {
+        this.writer = writer;
+        this.maxBodyBytes = Math.max(0, maxBodyBytes);
+        this.defaultSampleRate = defaultSampleRate;
+        // Longest prefix first, so /api/inventory/export wins over /api/inventory
+        this.pathSampleRates = pathSampleRates.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Double> entry) -> entry.getKey().length()).reversed())
+                .toList();
+        this.bodyBypassPaths = List.copyOf(bodyBypassPaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        long start = System.nanoTime();
+        Instant timestamp = Instant.now();
+
+        boolean sampled = isSampled(path);
+        if (!sampled || bodyBypassPaths.stream().anyMatch(path::startsWith)) {
+            // Nothing wrapped: streamed responses reach the client as written
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                whenComplete(request, () -> {
+                    if (sampled || response.getStatus() >= 400) {
+                        writer.submit(record(timestamp, start, request, response, null, null));
+                    }
+                });
+            }
+            return;
+        }
+
+        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+        BodyCaptureResponseWrapper wrappedResponse = new BodyCaptureResponseWrapper(response, maxBodyBytes);
+        try {
+            filterChain.doFilter(wrappedRequest, wrappedResponse);
+        } finally {
+            whenComplete(wrappedRequest, () -> writer.submit(record(timestamp, start, wrappedRequest, wrappedResponse,
+                    wrappedRequest, wrappedResponse)));
+        }
+    }
+
+    boolean isSampled(String path) {
+        double rate = defaultSampleRate;
+        for (Map.Entry<String, Double> entry : pathSampleRates) {
+            if (path.startsWith(entry.getKey())) {
+                rate = entry.getValue();
+                break;
+            }
+        }
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static void whenComplete(HttpServletRequest request, Runnable action) {
+        if (!request.isAsyncStarted()) {
+            action.run();
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                action.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private HttpLogRecord record(Instant timestamp, long start, HttpServletRequest request, HttpServletResponse response,
+                                 ContentCachingRequestWrapper requestBody, BodyCaptureResponseWrapper responseBody) {
+        Principal principal = request.getUserPrincipal();
+        Map<String, String> requestHeaders = new LinkedHashMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            requestHeaders.putIfAbsent(name, request.getHeader(name));
+        }
+        Map<String, String> responseHeaders = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            responseHeaders.putIfAbsent(name, response.getHeader(name));
+        }
+        boolean captureRequest = requestBody != null && isTextual(request.getContentType());
+        boolean captureResponse = responseBody != null && isTextual(response.getContentType());
+        return new HttpLogRecord(timestamp,
+                principal != null ? principal.getName() : "anon",
+                request.getMethod(),
+                request.getRequestURI(),
+                request.getQueryString(),
+                response.getStatus(),
+                (System.nanoTime() - start) / 1_000_000,
+                requestHeaders,
+                captureRequest ? requestBody.getContentAsByteArray() : null,
+                captureRequest ? Math.max(request.getContentLengthLong(), requestBody.getContentAsByteArray().length) : -1,
+                responseHeaders,
+                captureResponse ? responseBody.getCapturedBody() : null,
+                captureResponse ? responseBody.getBodyLength() : -1);
+    }
+
+    private static boolean isTextual(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.contains("json") || type.contains("xml") || type.startsWith("text/")
+                || type.startsWith("application/x-www-form-urlencoded");
+    }
+}
@@ -0,0 +1,94 @@
+package com.mycompany.sapo_leyendo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Meters beyond what Actuator binds by itself (endpoint timers, JVM, Hibernate statistics):
+ * <ul>
+ *   <li>{@code @Timed("wms.operation")} on service operations, tagged with class and method</li>
+ *   <li>Hikari pool meters (hikaricp.*) for the pools behind {@link ReadWriteRoutingDataSource} -
+ *   they are not beans, so Actuator cannot find them; the plain single pool is bound by Actuator</li>
+ *   <li>connections handed out per route and replica lag, for comparing the SQLite WAL and the
+ *   MySQL replica setups</li>
+ * </ul>
+ */
+@Configuration
+@Slf4j
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder routingDataSourceMetrics(ObjectProvider<ReadWriteRoutingDataSource> routingDataSources) {
+        return registry -> routingDataSources.forEach(routing -> bind(routing, registry));
+    }
+
+    private static void bind(ReadWriteRoutingDataSource routing, MeterRegistry registry) {
+        FunctionCounter.builder("wms.datasource.connections", routing, ReadWriteRoutingDataSource::getWriteConnectionCount)
+                .description("Connections handed out by the read/write router")
+                .tag("route", "write")
+                .register(registry);
+        FunctionCounter.builder("wms.datasource.connections", routing, ReadWriteRoutingDataSource::getReadConnectionCount)
+                .description("Connections handed out by the read/write router")
+                .tag("route", "read")
+                .register(registry);
+
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectPools(routing.getWriteDataSource(), pools);
+        collectPools(routing.getReadDataSource(), pools);
+        if (routing.getReadDataSource() instanceof ReplicaDataSource replicas) {
+            for (ReplicaDataSource.Replica replica : replicas.getReplicas()) {
+                Gauge.builder("wms.datasource.replica.lag", replica, r -> seconds(r.getLag()))
+                        .description("Replication lag found by the last check (NaN if unknown)")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                Gauge.builder("wms.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                        .tag("replica", replica.getName())
+                        .register(registry);
+            }
+        }
+        for (HikariDataSource pool : pools) {
+            if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                try {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                } catch (RuntimeException e) {
+                    log.warn("No pool metrics for {}: {}", pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void collectPools(DataSource dataSource, Set<HikariDataSource> pools) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            pools.add(hikari);
+        } else if (dataSource instanceof ReplicaDataSource replicas) {
+            for (ReplicaDataSource.Replica replica : replicas.getReplicas()) {
+                collectPools(replica.getDataSource(), pools);
+            }
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration == null ? Double.NaN : duration.toMillis() / 1000.0;
+    }
+}
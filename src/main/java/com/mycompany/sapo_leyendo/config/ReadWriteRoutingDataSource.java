@@ -0,0 +1,106 @@
+package com.mycompany.sapo_leyendo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the work of {@code @Transactional(readOnly = true)} methods to a read pool and
+ * everything else (writes, non-transactional access, schema setup) to the write pool.
+ *
+ * The routing decision is taken when the first statement needs a physical connection, so the
+ * data source must be used through {@link #lazy()}: Hibernate asks for a connection when the
+ * transaction begins, before Spring has marked the transaction read-only.
+ * A read-only transaction that calls a writing method joins the read connection and fails -
+ * start writes outside the read-only transaction.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    enum Route { WRITE, READ }
+
+    private final DataSource writeDataSource;
+    private final DataSource readDataSource;
+    private final AtomicLong writeConnections = new AtomicLong();
+    private final AtomicLong readConnections = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        setTargetDataSources(Map.of(Route.WRITE, writeDataSource, Route.READ, readDataSource));
+        setDefaultTargetDataSource(writeDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readConnections.incrementAndGet();
+            return Route.READ;
+        }
+        writeConnections.incrementAndGet();
+        return Route.WRITE;
+    }
+
+    /**
+     * The data source to hand to JPA and JdbcTemplate: defers fetching the physical
+     * connection (and with it the routing decision) to the first statement.
+     */
+    public DataSource lazy(int defaultTransactionIsolation) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(this);
+        // Known defaults - otherwise the proxy borrows a connection to find them out
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(defaultTransactionIsolation);
+        return proxy;
+    }
+
+    /**
+     * Spring keeps the connection until the EntityManager closes by default; hand it back at the
+     * end of each transaction instead so that the next one can be routed to the other pool.
+     */
+    public static HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    public DataSource getWriteDataSource() {
+        return writeDataSource;
+    }
+
+    public DataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    public long getWriteConnectionCount() {
+        return writeConnections.get();
+    }
+
+    public long getReadConnectionCount() {
+        return readConnections.get();
+    }
+
+    @Override
+    public void close() {
+        // Readers first: in SQLite WAL mode the last connection to close checkpoints the log
+        closeQuietly(readDataSource);
+        closeQuietly(writeDataSource);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // shutting down anyway
+            }
+        }
+    }
+}
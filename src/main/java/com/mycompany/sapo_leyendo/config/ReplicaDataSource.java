@@ -0,0 +1,174 @@
+package com.mycompany.sapo_leyendo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read side of {@link ReadWriteRoutingDataSource} over one or more replicas: connections are
+ * handed out round-robin from the replicas that are reachable and no more than {@code maxLag}
+ * behind the primary. When none qualifies, reads go to the fallback (the primary) - a slow
+ * report is better than one that misses the last allocations.
+ *
+ * Lag is checked on a background thread ({@link #startLagChecks}); a replica that fails to hand
+ * out a connection is skipped until the next check finds it healthy again.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * One replica pool and what the last lag check found.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available = true;
+        private volatile Duration lag;
+        private final AtomicLong connections = new AtomicLong();
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /** Lag found by the last check, {@code null} if unknown. */
+        public Duration getLag() {
+            return lag;
+        }
+
+        public long getConnectionCount() {
+            return connections.get();
+        }
+    }
+
+    private final List<Replica> replicas;
+    private final DataSource fallback;
+    private final ReplicaLagProbe probe;
+    private final Duration maxLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private ScheduledExecutorService lagChecks;
+
+    public ReplicaDataSource(List<Replica> replicas, DataSource fallback, ReplicaLagProbe probe, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.fallback = fallback;
+        this.probe = probe;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int first = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((first + i) % size);
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.connections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replica.available = false;
+                log.warn("Read replica {} unavailable, skipping it until the next lag check: {}", replica.name, e.getMessage());
+            }
+        }
+        fallbacks.incrementAndGet();
+        return fallback.getConnection();
+    }
+
+    /**
+     * Not supported: the replica pools hold connections for their configured user, and Hikari
+     * refuses per-call credentials as well.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica pools use their configured credentials");
+    }
+
+    /**
+     * Measures the lag of every replica and marks those behind by more than {@code maxLag}
+     * (or not replicating, or unreachable) as unavailable.
+     */
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            Duration lag;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                lag = probe.lag(connection);
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Lag check of read replica {} failed: {}", replica.name, e.toString());
+                lag = null;
+            }
+            boolean available = lag != null && lag.compareTo(maxLag) <= 0;
+            if (available != replica.available) {
+                log.info("Read replica {} {} (lag {})", replica.name, available ? "back in use" : "taken out of use", lag);
+            }
+            replica.lag = lag;
+            replica.available = available;
+        }
+    }
+
+    public synchronized void startLagChecks(Duration interval) {
+        if (lagChecks != null) {
+            return;
+        }
+        checkLag();
+        lagChecks = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecks.scheduleWithFixedDelay(this::checkLag, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /** Reads sent to the primary because no replica was usable. */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (lagChecks != null) {
+            lagChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // shutting down anyway
+                }
+            }
+        }
+    }
+}
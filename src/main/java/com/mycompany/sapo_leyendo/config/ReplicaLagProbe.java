@@ -0,0 +1,47 @@
+package com.mycompany.sapo_leyendo.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Measures how far a read replica is behind its source.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * @return the replication lag, or {@code null} when replication is not running
+     */
+    Duration lag(Connection connection) throws SQLException;
+
+    /**
+     * MySQL replica status. A server without replica status (e.g. the primary itself) has no lag.
+     */
+    ReplicaLagProbe MYSQL = connection -> {
+        try {
+            return secondsBehind(connection, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        } catch (SQLException e) {
+            // MySQL before 8.0.22
+            try {
+                return secondsBehind(connection, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            } catch (SQLException legacy) {
+                // Neither statement works - report both errors
+                legacy.addSuppressed(e);
+                throw legacy;
+            }
+        }
+    };
+
+    private static Duration secondsBehind(Connection connection, String sql, String column) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next()) {
+                return Duration.ZERO;
+            }
+            long seconds = rs.getLong(column);
+            return rs.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycompany.sapo_leyendo.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for master data (Product, Location, Zone, ...).
+ * Regions, sizes and expiry are defined in ehcache.xml; the entities opt in with @Cache.
+ *
+ * The Ehcache manager is created here rather than looked up by Hibernate from the config URI:
+ * JCache hands out one manager per URI, so two application contexts in one JVM (integration
+ * tests against different databases) would otherwise share cached rows.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Value("${app.cache.config:ehcache.xml}")
+    private String cacheConfig;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), getClass().getClassLoader());
+        XmlConfiguration configuration = new XmlConfiguration(new ClassPathResource(cacheConfig).getURL(),
+                getClass().getClassLoader());
+        return provider.getCacheManager(URI.create("urn:sapo-leyendo:l2:" + UUID.randomUUID()), configuration);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -34,6 +34,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll() // Allow login/logout
                 .requestMatchers("/", "/index.html", "/assets/**", "/favicon.ico").permitAll() // Allow static resources
+                .requestMatchers("/api/diagnostics/**").hasRole("ADMIN") // Recording dumps hold process internals
                 .requestMatchers("/api/**").permitAll() // Allow all API endpoints for development
                 .anyRequest().permitAll() // Allow everything else (frontend routes handled by client)
             )
@@ -0,0 +1,98 @@
+package com.mycompany.sapo_leyendo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * SQLite in WAL mode with one writer and a pool of readers.
+ *
+ * With the default rollback journal the whole file is locked for a write, so the sqlite profile
+ * runs on a single connection and every dashboard read waits for the current receipt or
+ * allocation. In WAL mode readers see the last committed state while one writer appends to the
+ * log, so read-only transactions get their own pool of read-only connections
+ * ({@link ReadWriteRoutingDataSource}) and writes keep a single connection - SQLite allows one
+ * writer at a time anyway, and queueing in the pool is cheaper than SQLITE_BUSY retries.
+ *
+ * Enabled with {@code app.sqlite.wal.enabled=true} (SQLITE_WAL=true on the sqlite profile).
+ * The database file must be on a local disk - WAL does not work over network file systems.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sqlite.wal.enabled", havingValue = "true")
+@Slf4j
+public class SqliteWalConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${app.sqlite.wal.read-pool-size:0}")
+    private int readPoolSize;
+
+    @Value("${app.sqlite.wal.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${app.sqlite.wal.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource sqliteRoutingDataSource() {
+        if (!url.startsWith("jdbc:sqlite:") || url.contains(":memory:") || url.contains("mode=memory")) {
+            throw new IllegalStateException("SQLite WAL mode needs a database file, got " + url);
+        }
+        int readers = readPoolSize > 0 ? readPoolSize : Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        SQLiteConfig writeConfig = baseConfig();
+        writeConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        writeConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        // Created first: it creates the file and switches it to WAL before any reader opens it
+        HikariDataSource writer = pool("sqlite-writer", 1, writeConfig, false);
+
+        SQLiteConfig readConfig = baseConfig();
+        readConfig.setReadOnly(true);
+        HikariDataSource reader = pool("sqlite-reader", readers, readConfig, true);
+
+        log.info("SQLite WAL mode on {}: 1 writer, {} readers", url, readers);
+        return new ReadWriteRoutingDataSource(writer, reader);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource sqliteRoutingDataSource) {
+        return sqliteRoutingDataSource.lazy(Connection.TRANSACTION_SERIALIZABLE);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqliteWalConnectionHandling() {
+        return ReadWriteRoutingDataSource.releaseConnectionsAfterTransaction();
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeoutMs);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSize));
+        return config;
+    }
+
+    private HikariDataSource pool(String name, int size, SQLiteConfig sqliteConfig, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        // The driver refuses to flip the flag on an open connection, so Hikari must agree with it
+        config.setReadOnly(readOnly);
+        config.setJdbcUrl(url);
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(1);
+        config.setDataSourceProperties(sqliteConfig.toProperties());
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.dto.cache.CacheStats;
+import com.mycompany.sapo_leyendo.service.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @GetMapping("/stats")
+    public CacheStats getStats() {
+        return cacheStatsService.getStats();
+    }
+
+    @DeleteMapping("/stats")
+    public ResponseEntity<Void> resetStats() {
+        cacheStatsService.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/evict")
+    public ResponseEntity<Void> evictAll() {
+        cacheStatsService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
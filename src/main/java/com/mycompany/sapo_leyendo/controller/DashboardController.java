@@ -1,16 +1,19 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem;
 import com.mycompany.sapo_leyendo.model.Inventory;
 import com.mycompany.sapo_leyendo.model.InventoryStatus;
 import com.mycompany.sapo_leyendo.model.Location;
 import com.mycompany.sapo_leyendo.model.OutboundOrder;
 import com.mycompany.sapo_leyendo.model.Product;
 import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.repository.KeysetPaging;
 import com.mycompany.sapo_leyendo.service.InventoryService;
 import com.mycompany.sapo_leyendo.service.LocationService;
 import com.mycompany.sapo_leyendo.service.OutboundService;
 import com.mycompany.sapo_leyendo.service.ProductService;
-import com.mycompany.sapo_leyendo.repository.UnitOfMeasureRepository;
+import com.mycompany.sapo_leyendo.service.UomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,13 +36,13 @@ public class DashboardController {
     private LocationService locationService;
     
     @Autowired
-    private UnitOfMeasureRepository unitOfMeasureRepository;
+    private UomService uomService;
     
     @Autowired
     private OutboundService outboundService;
 
     @GetMapping("/inventory")
-    public List<Inventory> getInventory() {
+    public List<InventoryListItem> getInventory() {
         return inventoryService.getAllInventory();
     }
 
@@ -71,32 +74,19 @@ public class DashboardController {
         // Ustaw domyślny UOM jeśli nie podano
         if (request.containsKey("uomId")) {
             Integer uomId = (Integer) request.get("uomId");
-            UnitOfMeasure uom = unitOfMeasureRepository.findById(uomId)
-                    .orElseThrow(() -> new RuntimeException("UOM not found: " + uomId));
+            UnitOfMeasure uom = uomService.resolve(uomId, null);
             inventory.setUom(uom);
         } else {
-            // Użyj domyślnego UOM z produktu lub utwórz nowy
-            Integer baseUomId = inventory.getProduct().getIdBaseUom();
-            UnitOfMeasure uom;
+            // Użyj domyślnego UOM z produktu (lub ID=1) z rejestru jednostek
+            UnitOfMeasure uom = uomService.baseUom(inventory.getProduct());
             
-            if (baseUomId != null) {
-                uom = unitOfMeasureRepository.findById(baseUomId).orElse(null);
-            } else {
-                uom = null;
-            }
-            
-            // Jeśli nie znaleziono, spróbuj ID=1
-            if (uom == null) {
-                uom = unitOfMeasureRepository.findById(1).orElse(null);
-            }
-            
-            // Jeśli nadal null, utwórz domyślny UOM
+            // Jeśli nie ma żadnego, utwórz domyślny UOM
             if (uom == null) {
                 uom = new UnitOfMeasure();
-                uom.setId(1);
+                uom.setId(UomService.DEFAULT_UOM_ID);
                 uom.setCode("EA");
                 uom.setName("Each");
-                uom = unitOfMeasureRepository.save(uom);
+                uom = uomService.save(uom);
             }
             
             inventory.setUom(uom);
@@ -200,9 +190,14 @@ public class DashboardController {
         return stats;
     }
 
+    /**
+     * Only the newest {@value KeysetPaging#MAX_LIMIT} orders, not the whole table; the full list is paged by
+     * cursor on /api/outbound.
+     */
     @GetMapping("/orders")
     public List<OutboundOrder> getDashboardOrders() {
-        return outboundService.getAllOutboundOrders();
+        return outboundService.getOutboundOrders(null, null, null,
+                KeysetRequest.first(KeysetPaging.MAX_LIMIT, "-id")).items();
     }
 
     @PostMapping("/orders")
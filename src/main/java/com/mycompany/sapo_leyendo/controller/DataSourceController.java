@@ -0,0 +1,21 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.dto.datasource.DataSourceStats;
+import com.mycompany.sapo_leyendo.service.DataSourceStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/datasource")
+public class DataSourceController {
+
+    @Autowired
+    private DataSourceStatsService dataSourceStatsService;
+
+    @GetMapping("/stats")
+    public DataSourceStats getStats() {
+        return dataSourceStatsService.getStats();
+    }
+}
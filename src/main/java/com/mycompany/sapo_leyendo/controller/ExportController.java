@@ -0,0 +1,65 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.service.ExportFormat;
+import com.mycompany.sapo_leyendo.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Full-table exports, streamed - e.g. {@code curl -o inventory.csv "/api/export/inventory?format=csv"}.
+ * The format comes from the {@code format} parameter (ndjson, csv) or the Accept header; NDJSON by default.
+ * Rows are written as they are read, so the download starts at once whatever the table size.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/inventory")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(required = false) String format,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat resolved = format(format, accept);
+        return stream("inventory", resolved, out -> exportService.exportInventory(out, resolved));
+    }
+
+    @GetMapping("/outbound-orders")
+    public ResponseEntity<StreamingResponseBody> exportOutboundOrders(@RequestParam(required = false) String format,
+                                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat resolved = format(format, accept);
+        return stream("outbound-orders", resolved, out -> exportService.exportOutboundOrders(out, resolved));
+    }
+
+    @GetMapping("/audit-logs")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(@RequestParam(required = false) String format,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat resolved = format(format, accept);
+        return stream("audit-logs", resolved, out -> exportService.exportAuditLogs(out, resolved));
+    }
+
+    private static ExportFormat format(String format, String accept) {
+        ExportFormat resolved = ExportFormat.resolve(format, accept);
+        if (resolved == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format - use csv or ndjson");
+        }
+        return resolved;
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        String fileName = name + "-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
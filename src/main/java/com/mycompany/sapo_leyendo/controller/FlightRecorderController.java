@@ -0,0 +1,65 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.dto.jfr.RecordingStatus;
+import com.mycompany.sapo_leyendo.service.FlightRecorderService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+
+/**
+ * Flight Recorder control: start a recording, check it, and download a dump of it as a .jfr
+ * file (JDK Mission Control, {@code jfr print --events sapo.WaveAllocation}).
+ */
+@RestController
+@RequestMapping("/api/diagnostics/jfr")
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    public FlightRecorderController(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @GetMapping
+    public RecordingStatus getStatus() {
+        return flightRecorderService.getStatus();
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(required = false) String settings,
+                                   @RequestParam(required = false) Long maxAgeMinutes,
+                                   @RequestParam(required = false) Long maxSizeMb) {
+        try {
+            return ResponseEntity.ok(flightRecorderService.start(settings, maxAgeMinutes, maxSizeMb));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/stop")
+    public RecordingStatus stop() {
+        return flightRecorderService.stop();
+    }
+
+    /**
+     * Dumps the running recording (also kept in app.jfr.directory) and returns the file.
+     */
+    @PostMapping("/dump")
+    public ResponseEntity<?> dump() {
+        try {
+            Path file = flightRecorderService.dump();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(new FileSystemResource(file));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.dto.importer.ImportResult;
+import com.mycompany.sapo_leyendo.service.ImportFormat;
+import com.mycompany.sapo_leyendo.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk imports. The request body is the file itself (CSV with a header row, or NDJSON),
+ * read as a stream - e.g. {@code curl --data-binary @catalog.csv -H "Content-Type: text/csv"}.
+ * The format comes from the {@code format} parameter or the Content-Type.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    @PostMapping("/products")
+    public ResponseEntity<?> importProducts(InputStream body,
+                                            @RequestParam(required = false) String format,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) {
+        ImportFormat resolved = ImportFormat.resolve(format, contentType);
+        if (resolved == null) {
+            return ResponseEntity.badRequest().body("Unsupported format - use csv or ndjson");
+        }
+        try {
+            return ResponseEntity.ok(importService.importProducts(body, resolved));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/asn")
+    public ResponseEntity<?> importAsn(InputStream body,
+                                       @RequestParam(required = false) String format,
+                                       @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) {
+        ImportFormat resolved = ImportFormat.resolve(format, contentType);
+        if (resolved == null) {
+            return ResponseEntity.badRequest().body("Unsupported format - use csv or ndjson");
+        }
+        try {
+            return ResponseEntity.ok(importService.importAsn(body, resolved));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/running")
+    public List<ImportResult> getRunningImports() {
+        return importService.getRunningImports();
+    }
+}
@@ -1,15 +1,22 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.dto.ReceiveItemRequest;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchRequest;
 import com.mycompany.sapo_leyendo.model.InboundOrder;
 import com.mycompany.sapo_leyendo.model.Product;
 import com.mycompany.sapo_leyendo.model.Receipt;
 import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import com.mycompany.sapo_leyendo.service.DockSchedulerService;
 import com.mycompany.sapo_leyendo.service.InboundService;
+import com.mycompany.sapo_leyendo.service.WriteCommandExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,9 +29,20 @@ public class InboundController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private DockSchedulerService dockSchedulerService;
+
+    @Autowired
+    private WriteCommandExecutor writeCommands;
+
     @GetMapping
-    public List<InboundOrder> getAllInboundOrders() {
-        return inboundService.getAllInboundOrders();
+    public ResponseEntity<List<InboundOrder>> getInboundOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String supplier,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return inboundService.getInboundOrders(status, supplier, from, to, page).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -72,33 +90,87 @@ public class InboundController {
         }
         
         try {
-            Receipt receipt = inboundService.receiveItem(
+            Receipt receipt = writeCommands.execute(() -> inboundService.receiveItem(
                     request.getInboundOrderItemId(),
                     request.getLpn() != null ? request.getLpn() : inboundService.generateLpn(),
                     request.getQuantity(),
                     request.getOperatorId(),
-                    request.getDamageCode()
-            );
-            return ResponseEntity.ok(receipt);
+                    request.getDamageCode(),
+                    request.getUomId(),
+                    request.getUomCode()
+            ));
+            // Committed by the writer thread - render it from this request's session
+            return ResponseEntity.ok(inboundService.getReceiptById(receipt.getId()).orElse(receipt));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/receive-batch")
+    public ResponseEntity<?> receiveBatch(@PathVariable Integer id, @RequestBody ReceiveBatchRequest request) {
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            return ResponseEntity.badRequest().body("lines are required");
+        }
+
+        try {
+            return ResponseEntity.ok(inboundService.receiveBatch(id, request));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @PostMapping("/appointments")
-    public ResponseEntity<com.mycompany.sapo_leyendo.model.DockAppointment> scheduleDock(
+    public ResponseEntity<?> scheduleDock(
             @RequestParam Integer inboundOrderId,
             @RequestParam Integer dockId,
             @RequestParam String startTime,
             @RequestParam String endTime,
-            @RequestParam String carrierName) {
-        return ResponseEntity.ok(inboundService.scheduleDock(
-                inboundOrderId,
-                dockId,
-                java.time.LocalDateTime.parse(startTime),
-                java.time.LocalDateTime.parse(endTime),
-                carrierName
-        ));
+            @RequestParam String carrierName,
+            @RequestParam(defaultValue = "false") boolean autoShift) {
+        try {
+            return ResponseEntity.ok(inboundService.scheduleDock(
+                    inboundOrderId,
+                    dockId,
+                    LocalDateTime.parse(startTime),
+                    LocalDateTime.parse(endTime),
+                    carrierName,
+                    autoShift
+            ));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/appointments/{id}")
+    public ResponseEntity<?> cancelDockAppointment(@PathVariable Integer id) {
+        try {
+            inboundService.cancelDockAppointment(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/appointments/next-free")
+    public ResponseEntity<?> nextFreeDockSlot(
+            @RequestParam long durationMinutes,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) Integer dockId) {
+        if (durationMinutes <= 0) {
+            return ResponseEntity.badRequest().body("durationMinutes must be a positive number");
+        }
+        Duration length = Duration.ofMinutes(durationMinutes);
+        try {
+            LocalDateTime notBefore = from != null ? LocalDateTime.parse(from) : LocalDateTime.now();
+            if (dockId != null) {
+                return ResponseEntity.ok(dockSchedulerService.nextFreeSlot(dockId, length, notBefore));
+            }
+            return dockSchedulerService.nextFreeSlot(length, notBefore)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/lpn/generate")
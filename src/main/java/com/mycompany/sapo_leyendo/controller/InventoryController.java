@@ -1,8 +1,10 @@
 package com.mycompany.sapo_leyendo.controller;
 
 import com.mycompany.sapo_leyendo.model.Inventory;
+import com.mycompany.sapo_leyendo.model.InventoryStatus;
 import com.mycompany.sapo_leyendo.model.MoveTask;
 import com.mycompany.sapo_leyendo.dto.MoveTaskRequest;
+import com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem;
 import com.mycompany.sapo_leyendo.service.InventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,18 +20,24 @@ public class InventoryController {
     private InventoryService inventoryService;
 
     @GetMapping
-    public List<Inventory> getAllInventory() {
+    public List<InventoryListItem> getAllInventory() {
         return inventoryService.getAllInventory();
     }
 
     @GetMapping("/product/{productId}")
-    public List<Inventory> getInventoryByProduct(@PathVariable Integer productId) {
-        return inventoryService.getInventoryByProduct(productId);
+    public List<InventoryListItem> getInventoryByProduct(@PathVariable Integer productId,
+                                                         @RequestParam(required = false) InventoryStatus status) {
+        return status != null
+                ? inventoryService.getInventoryByProduct(productId, status)
+                : inventoryService.getInventoryByProduct(productId);
     }
 
     @GetMapping("/location/{locationId}")
-    public List<Inventory> getInventoryByLocation(@PathVariable Integer locationId) {
-        return inventoryService.getInventoryByLocation(locationId);
+    public List<InventoryListItem> getInventoryByLocation(@PathVariable Integer locationId,
+                                                          @RequestParam(required = false) InventoryStatus status) {
+        return status != null
+                ? inventoryService.getInventoryByLocation(locationId, status)
+                : inventoryService.getInventoryByLocation(locationId);
     }
 
     @PostMapping
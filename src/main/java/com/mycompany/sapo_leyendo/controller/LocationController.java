@@ -1,7 +1,9 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.dto.LocationCreateRequest;
 import com.mycompany.sapo_leyendo.model.Location;
+import com.mycompany.sapo_leyendo.model.LocationStatus;
 import com.mycompany.sapo_leyendo.model.LocationType;
 import com.mycompany.sapo_leyendo.model.Zone;
 import com.mycompany.sapo_leyendo.service.LocationService;
@@ -19,8 +21,11 @@ public class LocationController {
     private LocationService locationService;
 
     @GetMapping
-    public List<Location> getAllLocations() {
-        return locationService.getAllLocations();
+    public ResponseEntity<List<Location>> getLocations(@RequestParam(required = false) Integer zoneId,
+                                                       @RequestParam(required = false) Integer locationTypeId,
+                                                       @RequestParam(required = false) LocationStatus status,
+                                                       KeysetRequest page) {
+        return locationService.getLocations(zoneId, locationTypeId, status, page).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -1,12 +1,15 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.OutboundOrder;
 import com.mycompany.sapo_leyendo.model.OutboundOrderItem;
 import com.mycompany.sapo_leyendo.service.OutboundService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,8 +20,12 @@ public class OutboundController {
     private OutboundService outboundService;
 
     @GetMapping
-    public List<OutboundOrder> getAllOutboundOrders() {
-        return outboundService.getAllOutboundOrders();
+    public ResponseEntity<List<OutboundOrder>> getOutboundOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return outboundService.getOutboundOrders(status, from, to, page).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -3,6 +3,7 @@ package com.mycompany.sapo_leyendo.controller;
 import com.mycompany.sapo_leyendo.model.Parcel;
 import com.mycompany.sapo_leyendo.model.Shipment;
 import com.mycompany.sapo_leyendo.service.PackingService;
+import com.mycompany.sapo_leyendo.service.WriteCommandExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,9 @@ public class PackingController {
     @Autowired
     private PackingService packingService;
 
+    @Autowired
+    private WriteCommandExecutor writeCommands;
+
     @PostMapping("/shipments/start/{outboundOrderId}")
     public ResponseEntity<Shipment> startPacking(@PathVariable Integer outboundOrderId) {
         return ResponseEntity.ok(packingService.startPacking(outboundOrderId));
@@ -26,7 +30,8 @@ public class PackingController {
 
     @PostMapping("/parcels/{parcelId}/items")
     public ResponseEntity<Parcel> addItemToParcel(@PathVariable Integer parcelId, @RequestParam Integer productId, @RequestParam Integer quantity) {
-        return ResponseEntity.ok(packingService.addItemToParcel(parcelId, productId, quantity));
+        Parcel parcel = writeCommands.execute(() -> packingService.addItemToParcel(parcelId, productId, quantity));
+        return ResponseEntity.ok(packingService.getParcelById(parcel.getId()).orElse(parcel));
     }
     
     @PostMapping("/shipments/{shipmentId}/close")
@@ -1,10 +1,17 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
 import com.mycompany.sapo_leyendo.model.PickingTask;
+import com.mycompany.sapo_leyendo.model.PickingTaskStatus;
 import com.mycompany.sapo_leyendo.model.Wave;
 import com.mycompany.sapo_leyendo.repository.PickingTaskRepository;
 import com.mycompany.sapo_leyendo.service.PickingService;
+import com.mycompany.sapo_leyendo.service.WriteCommandExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,12 +21,17 @@ import java.util.List;
 @RequestMapping("/api/picking")
 public class PickingController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private PickingService pickingService;
 
     @Autowired
     private PickingTaskRepository pickingTaskRepository;
 
+    @Autowired
+    private WriteCommandExecutor writeCommands;
+
     /**
      * Get all picking tasks - for dashboard/list view
      */
@@ -33,19 +45,38 @@ public class PickingController {
         return ResponseEntity.ok(pickingService.createWave(outboundOrderIds));
     }
 
+    @PostMapping("/waves/{waveId}/allocate")
+    public ResponseEntity<WaveAllocationResult> allocateWave(@PathVariable Integer waveId, @RequestBody List<Integer> outboundOrderIds) {
+        return ResponseEntity.ok(pickingService.allocateWave(waveId, outboundOrderIds));
+    }
+
     @PostMapping("/waves/{waveId}/run")
     public ResponseEntity<Wave> runWave(@PathVariable Integer waveId, @RequestBody List<Integer> outboundOrderIds) {
         return ResponseEntity.ok(pickingService.runWave(waveId, outboundOrderIds));
     }
 
+    /**
+     * Tasks of one wave, paged. The body stays a plain array for the scanner UI;
+     * the total number of matching tasks is returned in X-Total-Count.
+     */
     @GetMapping("/waves/{waveId}/tasks")
-    public ResponseEntity<List<PickingTask>> getPickingTasks(@PathVariable Integer waveId) {
-        return ResponseEntity.ok(pickingService.getPickingTasks(waveId));
+    public ResponseEntity<List<PickingTask>> getPickingTasks(@PathVariable Integer waveId,
+                                                             @RequestParam(required = false) PickingTaskStatus status,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "200") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+        Page<PickingTask> tasks = pickingService.getPickingTasks(waveId, status, pageable);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(tasks.getTotalElements()))
+                .body(tasks.getContent());
     }
 
     @PostMapping("/tasks/{taskId}/confirm")
     public ResponseEntity<Void> confirmTask(@PathVariable Integer taskId, @RequestParam Integer quantityPicked) {
-        pickingService.confirmPickTask(taskId, quantityPicked);
+        writeCommands.execute(() -> {
+            pickingService.confirmPickTask(taskId, quantityPicked);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 }
@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.dto.ProductCreateRequest;
 import com.mycompany.sapo_leyendo.model.Product;
 import com.mycompany.sapo_leyendo.service.ProductService;
@@ -21,8 +22,10 @@ public class ProductController {
     }
 
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<Product>> getProducts(@RequestParam(required = false) Integer categoryId,
+                                                     @RequestParam(required = false) String sku,
+                                                     KeysetRequest page) {
+        return productService.getProducts(categoryId, sku, page).toResponse();
     }
 
     @GetMapping("/{id}")
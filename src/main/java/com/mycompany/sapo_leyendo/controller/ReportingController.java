@@ -1,12 +1,16 @@
 package com.mycompany.sapo_leyendo.controller;
 
 import com.mycompany.sapo_leyendo.dto.DashboardStats;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import com.mycompany.sapo_leyendo.model.AuditLog;
 import com.mycompany.sapo_leyendo.model.KpiMetric;
 import com.mycompany.sapo_leyendo.service.ReportingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,7 +26,23 @@ public class ReportingController {
     }
 
     @GetMapping("/kpi/{name}")
-    public ResponseEntity<List<KpiMetric>> getKpiHistory(@PathVariable String name) {
-        return ResponseEntity.ok(reportingService.getKpiHistory(name));
+    public ResponseEntity<List<KpiMetric>> getKpiHistory(
+            @PathVariable String name,
+            @RequestParam(required = false) String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return reportingService.getKpiHistory(name, dimension, from, to, page).toResponse();
+    }
+
+    @GetMapping("/audit")
+    public ResponseEntity<List<AuditLog>> getAuditTrail(
+            @RequestParam(required = false) String entity,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return reportingService.getAuditTrail(entity, entityId, username, from, to, page).toResponse();
     }
 }
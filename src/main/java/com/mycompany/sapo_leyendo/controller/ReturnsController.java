@@ -1,13 +1,17 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.GradingStatus;
 import com.mycompany.sapo_leyendo.model.ReturnItem;
 import com.mycompany.sapo_leyendo.model.RmaRequest;
+import com.mycompany.sapo_leyendo.model.RmaStatus;
 import com.mycompany.sapo_leyendo.service.ReturnsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,8 +22,12 @@ public class ReturnsController {
     private ReturnsService returnsService;
 
     @GetMapping
-    public List<RmaRequest> getAllRmaRequests() {
-        return returnsService.getAllRmaRequests();
+    public ResponseEntity<List<RmaRequest>> getRmaRequests(
+            @RequestParam(required = false) RmaStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return returnsService.getRmaRequests(status, from, to, page).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -1,14 +1,18 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.Carrier;
 import com.mycompany.sapo_leyendo.model.Manifest;
 import com.mycompany.sapo_leyendo.model.Shipment;
+import com.mycompany.sapo_leyendo.model.ShipmentStatus;
 import com.mycompany.sapo_leyendo.model.TransportLoad;
 import com.mycompany.sapo_leyendo.service.ShippingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -35,8 +39,13 @@ public class ShippingController {
     // ===== SHIPMENTS =====
     
     @GetMapping("/shipments")
-    public List<Shipment> getAllShipments() {
-        return shippingService.getAllShipments();
+    public ResponseEntity<List<Shipment>> getShipments(
+            @RequestParam(required = false) ShipmentStatus status,
+            @RequestParam(required = false) Integer carrierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            KeysetRequest page) {
+        return shippingService.getShipments(status, carrierId, from, to, page).toResponse();
     }
 
     @GetMapping("/shipments/{id}")
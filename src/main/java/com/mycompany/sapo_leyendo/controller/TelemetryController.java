@@ -1,11 +1,16 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryBatchResult;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryEvent;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryStats;
+import com.mycompany.sapo_leyendo.service.TelemetryService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.security.Principal;
-import java.util.Map;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,15 +20,45 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/telemetry")
 public class TelemetryController {
 
-    private static final Logger LOG = LoggerFactory.getLogger("TELEMETRY");
+    private final TelemetryService telemetryService;
+    private final int maxBatch;
+
+    public TelemetryController(TelemetryService telemetryService,
+                               @Value("${app.telemetry.max-batch:500}") int maxBatch) {
+        this.telemetryService = telemetryService;
+        this.maxBatch = maxBatch;
+    }
 
     @PostMapping
-    public ResponseEntity<Void> logEvent(@RequestBody Map<String, Object> event,
-                                         Principal principal,
-                                         HttpServletRequest request) {
+    public ResponseEntity<?> logEvent(@RequestBody TelemetryEvent event,
+                                      Principal principal,
+                                      HttpServletRequest request) {
+        return logBatch(List.of(event), principal, request);
+    }
+
+    /**
+     * Queues a batch of events and returns at once (202); they are aggregated in the background.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> logBatch(@RequestBody List<TelemetryEvent> events,
+                                      Principal principal,
+                                      HttpServletRequest request) {
+        if (events == null || events.isEmpty()) {
+            return ResponseEntity.badRequest().body("Telemetry batch is empty");
+        }
+        if (events.size() > maxBatch) {
+            return ResponseEntity.badRequest().body("Telemetry batch too large: " + events.size() + " events, max " + maxBatch);
+        }
+        if (events.stream().anyMatch(event -> event == null || event.type() == null || event.type().isBlank())) {
+            return ResponseEntity.badRequest().body("Every telemetry event needs a type");
+        }
         String user = principal != null ? principal.getName() : "anon";
-        String ip = request.getRemoteAddr();
-        LOG.info("user={} ip={} event={}", user, ip, event);
-        return ResponseEntity.ok().build();
+        TelemetryBatchResult result = telemetryService.submit(user, request.getRemoteAddr(), events);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<TelemetryStats> getStats() {
+        return ResponseEntity.ok(telemetryService.getStats());
     }
 }
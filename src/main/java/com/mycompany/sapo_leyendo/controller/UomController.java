@@ -0,0 +1,76 @@
+package com.mycompany.sapo_leyendo.controller;
+
+import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.model.UomConversion;
+import com.mycompany.sapo_leyendo.service.UomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Units of measure and per-product conversions. Changes made here refresh the in-memory
+ * UOM registry used by receiving and ordering.
+ */
+@RestController
+@RequestMapping("/api/uom")
+public class UomController {
+
+    @Autowired
+    private UomService uomService;
+
+    @GetMapping
+    public List<UnitOfMeasure> getAllUoms() {
+        return uomService.getAll();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> saveUom(@RequestBody UnitOfMeasure uom) {
+        if (uom.getId() == null || uom.getCode() == null || uom.getName() == null) {
+            return ResponseEntity.badRequest().body("id, code and name are required");
+        }
+        return ResponseEntity.ok(uomService.save(uom));
+    }
+
+    @GetMapping("/conversions")
+    public List<UomConversion> getConversions(@RequestParam Integer productId) {
+        return uomService.getConversions(productId);
+    }
+
+    @PostMapping("/conversions")
+    public ResponseEntity<?> saveConversion(@RequestBody UomConversion conversion) {
+        try {
+            return ResponseEntity.ok(uomService.saveConversion(conversion));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/conversions")
+    public ResponseEntity<Void> deleteConversion(@RequestParam Integer productId,
+                                                 @RequestParam Integer fromUomId,
+                                                 @RequestParam Integer toUomId) {
+        return uomService.deleteConversion(productId, fromUomId, toUomId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/convert")
+    public ResponseEntity<?> convert(@RequestParam Integer productId,
+                                     @RequestParam double quantity,
+                                     @RequestParam Integer fromUomId,
+                                     @RequestParam Integer toUomId) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "productId", productId,
+                    "fromUomId", fromUomId,
+                    "toUomId", toUomId,
+                    "quantity", quantity,
+                    "converted", uomService.convert(productId, quantity, fromUomId, toUomId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.mycompany.sapo_leyendo.converter;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -40,7 +41,12 @@ public class LocalDateTimeStringConverter implements AttributeConverter<LocalDat
             try {
                 return LocalDateTime.parse(dbValue);
             } catch (Exception ex) {
-                return null;
+                // Date-only columns (e.g. expiry_date = '2026-03-31')
+                try {
+                    return LocalDate.parse(dbValue).atStartOfDay();
+                } catch (Exception dateEx) {
+                    return null;
+                }
             }
         }
     }
@@ -0,0 +1,13 @@
+package com.mycompany.sapo_leyendo.dto;
+
+/**
+ * Paging parameters shared by the list endpoints, bound from the query string:
+ * {@code after} is the cursor from the previous page's X-Next-Cursor header (none for the first page),
+ * {@code limit} the page size and {@code sort} a field name, prefixed with '-' for descending order.
+ */
+public record KeysetRequest(String after, Integer limit, String sort) {
+
+    public static KeysetRequest first(int limit, String sort) {
+        return new KeysetRequest(null, limit, sort);
+    }
+}
@@ -9,4 +9,7 @@ public class ReceiveItemRequest {
     private Integer quantity;
     private Long operatorId;
     private String damageCode;
+    // Unit the quantity is counted in (id or code); defaults to the product's base unit
+    private Integer uomId;
+    private String uomCode;
 }
@@ -0,0 +1,10 @@
+package com.mycompany.sapo_leyendo.dto.cache;
+
+public record CacheRegionStats(
+    String region,
+    long hits,
+    long misses,
+    long puts,
+    double hitRatio,
+    long elementsInMemory
+) {}
@@ -0,0 +1,18 @@
+package com.mycompany.sapo_leyendo.dto.cache;
+
+import java.util.List;
+
+/**
+ * Second-level and query cache counters since startup (or the last reset).
+ */
+public record CacheStats(
+    boolean statisticsEnabled,
+    long hits,
+    long misses,
+    long puts,
+    double hitRatio,
+    long queryHits,
+    long queryMisses,
+    long queryPuts,
+    List<CacheRegionStats> regions
+) {}
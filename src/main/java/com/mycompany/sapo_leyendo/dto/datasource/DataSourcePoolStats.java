@@ -0,0 +1,16 @@
+package com.mycompany.sapo_leyendo.dto.datasource;
+
+/**
+ * One connection pool. {@code lagMs} is only set for read replicas (null if the last check failed).
+ */
+public record DataSourcePoolStats(
+    String pool,
+    String route,
+    boolean available,
+    Long lagMs,
+    long connectionsRouted,
+    int activeConnections,
+    int idleConnections,
+    int totalConnections,
+    int threadsAwaitingConnection
+) {}
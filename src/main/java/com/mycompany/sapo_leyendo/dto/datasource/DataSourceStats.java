@@ -0,0 +1,14 @@
+package com.mycompany.sapo_leyendo.dto.datasource;
+
+import java.util.List;
+
+/**
+ * Connection pools behind the application DataSource and how connections were routed since startup.
+ */
+public record DataSourceStats(
+    boolean readWriteRouting,
+    long writeConnections,
+    long readConnections,
+    long replicaFallbacks,
+    List<DataSourcePoolStats> pools
+) {}
@@ -0,0 +1,7 @@
+package com.mycompany.sapo_leyendo.dto.importer;
+
+public record ImportRejection(
+    long row,
+    String reason
+) {
+}
@@ -0,0 +1,22 @@
+package com.mycompany.sapo_leyendo.dto.importer;
+
+import java.util.List;
+
+/**
+ * Progress of one import - a snapshot while it runs (status RUNNING), the outcome afterwards.
+ * {@code rejections} is capped; {@code rowsRejected} is always the full count.
+ */
+public record ImportResult(
+    long importId,
+    String type,
+    String format,
+    String status,
+    long rowsRead,
+    long rowsImported,
+    long rowsRejected,
+    int batches,
+    long elapsedMs,
+    double rowsPerSecond,
+    List<ImportRejection> rejections
+) {
+}
@@ -0,0 +1,10 @@
+package com.mycompany.sapo_leyendo.dto.inbound;
+
+import java.time.LocalDateTime;
+
+public record DockSlot(
+    Integer dockId,
+    LocalDateTime startTime,
+    LocalDateTime endTime
+) {
+}
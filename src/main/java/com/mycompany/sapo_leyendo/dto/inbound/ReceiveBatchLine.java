@@ -0,0 +1,14 @@
+package com.mycompany.sapo_leyendo.dto.inbound;
+
+import lombok.Data;
+
+@Data
+public class ReceiveBatchLine {
+    private Integer inboundOrderItemId;
+    private String lpn;
+    private Integer quantity;
+    private String damageCode;
+    // Unit the quantity is counted in (id or code); defaults to the product's base unit
+    private Integer uomId;
+    private String uomCode;
+}
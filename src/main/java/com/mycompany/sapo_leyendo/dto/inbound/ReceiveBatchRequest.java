@@ -0,0 +1,11 @@
+package com.mycompany.sapo_leyendo.dto.inbound;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReceiveBatchRequest {
+    private Long operatorId;
+    private List<ReceiveBatchLine> lines;
+}
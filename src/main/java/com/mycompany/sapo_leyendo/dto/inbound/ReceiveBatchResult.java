@@ -0,0 +1,11 @@
+package com.mycompany.sapo_leyendo.dto.inbound;
+
+import java.util.List;
+
+public record ReceiveBatchResult(
+    Integer inboundOrderId,
+    String orderStatus,
+    int linesReceived,
+    int linesRejected,
+    List<ReceiveLineResult> lines
+) {}
@@ -0,0 +1,21 @@
+package com.mycompany.sapo_leyendo.dto.inbound;
+
+/**
+ * Outcome of one line of a batch receipt. Rejected lines carry only the reason.
+ */
+public record ReceiveLineResult(
+    int lineIndex,
+    Integer inboundOrderItemId,
+    String lpn,
+    boolean received,
+    String message,
+    Integer receiptId,
+    Integer inventoryId,
+    Integer moveTaskId,
+    Integer targetLocationId
+) {
+    public static ReceiveLineResult rejected(int lineIndex, ReceiveBatchLine line, String message) {
+        return new ReceiveLineResult(lineIndex, line.getInboundOrderItemId(), line.getLpn(), false, message,
+                null, null, null, null);
+    }
+}
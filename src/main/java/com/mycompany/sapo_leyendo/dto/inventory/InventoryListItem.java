@@ -0,0 +1,74 @@
+package com.mycompany.sapo_leyendo.dto.inventory;
+
+import com.mycompany.sapo_leyendo.model.Inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Inventory row for the list endpoints, read in one JOIN query
+ * (see {@link com.mycompany.sapo_leyendo.repository.InventoryRepository#LIST_ITEM_SELECT}).
+ * Serialises to the same JSON as the {@link Inventory} entity.
+ */
+public record InventoryListItem(
+    String id,
+    Product product,
+    String location,
+    Uom uom,
+    Integer quantity,
+    String lpn,
+    String batchNumber,
+    LocalDateTime expiryDate,
+    Integer reorderLevel,
+    BigDecimal unitPrice,
+    LocalDateTime receivedAt,
+    String sku,
+    String name,
+    BigDecimal price,
+    String status,
+    String lastUpdated,
+    String category
+) {
+
+    public record Product(
+        Integer id,
+        String sku,
+        String name,
+        String description,
+        Integer idBaseUom,
+        Double weightKg,
+        Double lengthCm,
+        Double widthCm,
+        Double heightCm,
+        BigDecimal unitPrice,
+        Integer minStockLevel,
+        BigDecimal price,
+        String category
+    ) {}
+
+    public record Uom(Integer id, String code, String name) {}
+
+    /**
+     * Constructor expression target: one flat row of Inventory JOIN Products, Locations,
+     * UnitOfMeasure LEFT JOIN ProductCategories.
+     */
+    public InventoryListItem(Integer id, Integer quantity, String lpn, String batchNumber, LocalDateTime expiryDate,
+                             Integer reorderLevel, BigDecimal unitPrice, LocalDateTime receivedAt, String locationName,
+                             Integer productId, String sku, String productName, String description, Integer idBaseUom,
+                             Double weightKg, Double lengthCm, Double widthCm, Double heightCm,
+                             BigDecimal productUnitPrice, Integer minStockLevel, String categoryName,
+                             Integer uomId, String uomCode, String uomName) {
+        this(id != null ? id.toString() : null,
+                new Product(productId, sku, productName, description, idBaseUom, weightKg, lengthCm, widthCm, heightCm,
+                        productUnitPrice, minStockLevel, productUnitPrice, categoryName),
+                locationName,
+                new Uom(uomId, uomCode, uomName),
+                quantity, lpn, batchNumber, expiryDate,
+                reorderLevel != null ? reorderLevel : (minStockLevel != null ? minStockLevel : 0),
+                unitPrice, receivedAt, sku, productName,
+                unitPrice != null ? unitPrice : productUnitPrice,
+                Inventory.statusLabel(quantity, reorderLevel),
+                Inventory.lastUpdated(receivedAt),
+                categoryName);
+    }
+}
@@ -0,0 +1,17 @@
+package com.mycompany.sapo_leyendo.dto.jfr;
+
+import java.time.Instant;
+
+/**
+ * State of the application's Flight Recorder recording and where the last dump went.
+ */
+public record RecordingStatus(
+    boolean available,
+    boolean recording,
+    String settings,
+    Instant startTime,
+    long maxAgeMinutes,
+    long maxSizeMb,
+    long sizeBytes,
+    String lastDump
+) {}
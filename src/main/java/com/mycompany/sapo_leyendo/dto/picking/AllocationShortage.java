@@ -0,0 +1,11 @@
+package com.mycompany.sapo_leyendo.dto.picking;
+
+public record AllocationShortage(
+    Integer outboundOrderId,
+    Integer outboundOrderItemId,
+    Integer productId,
+    String sku,
+    double quantityOrdered,
+    double quantityAllocated,
+    double quantityShort
+) {}
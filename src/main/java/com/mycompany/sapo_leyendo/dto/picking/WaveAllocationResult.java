@@ -0,0 +1,16 @@
+package com.mycompany.sapo_leyendo.dto.picking;
+
+import java.util.List;
+
+public record WaveAllocationResult(
+    Integer waveId,
+    int ordersProcessed,
+    int linesProcessed,
+    int linesFullyAllocated,
+    double quantityAllocated,
+    List<AllocationShortage> shortages
+) {
+    public boolean isFullyAllocated() {
+        return shortages.isEmpty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.mycompany.sapo_leyendo.dto.telemetry;
+
+/**
+ * Outcome of one telemetry post: events queued, and events dropped because the queue was full.
+ */
+public record TelemetryBatchResult(
+    int accepted,
+    int dropped
+) {
+}
@@ -0,0 +1,16 @@
+package com.mycompany.sapo_leyendo.dto.telemetry;
+
+import java.util.Map;
+
+/**
+ * One frontend event, as sent by Visualization/src/services/telemetry.ts.
+ * {@code ts} is the client clock (epoch ms); {@code durationMs} is set for timed events
+ * (page loads, API round trips) and feeds the latency percentiles.
+ */
+public record TelemetryEvent(
+    String type,
+    Long ts,
+    Double durationMs,
+    Map<String, Object> payload
+) {
+}
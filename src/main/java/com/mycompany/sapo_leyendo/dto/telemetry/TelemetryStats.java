@@ -0,0 +1,14 @@
+package com.mycompany.sapo_leyendo.dto.telemetry;
+
+/**
+ * Telemetry pipeline counters since startup.
+ */
+public record TelemetryStats(
+    long received,
+    long dropped,
+    int queued,
+    long rawEventsWritten,
+    int openRollups,
+    long rollupRowsWritten
+) {
+}
@@ -0,0 +1,55 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Packing decisions: a packing material suggested for a set of products, or an item
+ * placed into a parcel.
+ */
+@Name("sapo.Cartonization")
+@Label("Cartonization")
+@Category({"Sapo WMS", "Outbound"})
+@Description("Packing material chosen or item added to a parcel")
+public class CartonizationEvent extends WmsEvent {
+
+    @Label("Operation")
+    @Description("suggestMaterial or addItem")
+    public String operation;
+
+    @Label("Shipment Id")
+    public int shipmentId;
+
+    @Label("Parcel Id")
+    public int parcelId;
+
+    @Label("Product Id")
+    public int productId;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Products")
+    @Description("Products considered for the material")
+    public int products;
+
+    @Label("Materials Checked")
+    public int materialsChecked;
+
+    @Label("Packing Material Id")
+    @Description("Suggested material, 0 if none fits")
+    public int packingMaterialId;
+
+    @Label("Parcel Items")
+    @Description("Items already packed in the shipment's parcels")
+    public int parcelItems;
+
+    public void setIds(Integer shipmentId, Integer parcelId, Integer productId, Integer packingMaterialId) {
+        this.shipmentId = id(shipmentId);
+        this.parcelId = id(parcelId);
+        this.productId = id(productId);
+        this.packingMaterialId = id(packingMaterialId);
+    }
+}
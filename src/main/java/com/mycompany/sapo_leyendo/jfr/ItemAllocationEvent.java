@@ -0,0 +1,50 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Allocation of one order line inside a wave. Emitted once per line, so a large wave
+ * produces many of these; disable with {@code sapo.ItemAllocation#enabled=false} if needed.
+ */
+@Name("sapo.ItemAllocation")
+@Label("Item Allocation")
+@Category({"Sapo WMS", "Outbound"})
+@Description("Stock drawn for one order line of a wave")
+public class ItemAllocationEvent extends WmsEvent {
+
+    @Label("Wave Id")
+    public int waveId;
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Order Item Id")
+    public int orderItemId;
+
+    @Label("Product Id")
+    public int productId;
+
+    @Label("Quantity Ordered")
+    public double quantityOrdered;
+
+    @Label("Quantity Allocated")
+    public double quantityAllocated;
+
+    @Label("Candidate Rows")
+    @Description("Available Inventory rows of the product")
+    public int candidateRows;
+
+    @Label("Source Rows")
+    @Description("Inventory rows drawn from, one allocation row each")
+    public int sourceRows;
+
+    public void setIds(Integer waveId, Integer orderId, Integer orderItemId, Integer productId) {
+        this.waveId = id(waveId);
+        this.orderId = id(orderId);
+        this.orderItemId = id(orderItemId);
+        this.productId = id(productId);
+    }
+}
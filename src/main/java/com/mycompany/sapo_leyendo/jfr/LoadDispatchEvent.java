@@ -0,0 +1,37 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Dispatch of one transport load. The status updates are flushed when the transaction
+ * commits, after the event ends.
+ */
+@Name("sapo.LoadDispatch")
+@Label("Load Dispatch")
+@Category({"Sapo WMS", "Shipping"})
+@Description("Load sent in transit, its shipments and orders marked shipped, manifest written")
+public class LoadDispatchEvent extends WmsEvent {
+
+    @Label("Load Id")
+    public int loadId;
+
+    @Label("Manifest Id")
+    public int manifestId;
+
+    @Label("Shipments")
+    public int shipments;
+
+    @Label("Orders")
+    public int orders;
+
+    @Label("Parcels")
+    public int parcels;
+
+    public void setIds(Integer loadId, Integer manifestId) {
+        this.loadId = id(loadId);
+        this.manifestId = id(manifestId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One put-away target search in the slotting index, the wait for the index lock included.
+ */
+@Name("sapo.PutAwaySelection")
+@Label("Put-Away Selection")
+@Category({"Sapo WMS", "Inbound"})
+@Description("Put-away target chosen and booked in the slotting index")
+public class PutAwaySelectionEvent extends WmsEvent {
+
+    @Label("Product Id")
+    public int productId;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Location Id")
+    @Description("Chosen location, 0 if none had room")
+    public int locationId;
+
+    @Label("Slots Checked")
+    public int slotsChecked;
+
+    @Label("Same Product")
+    @Description("The location already held the product")
+    public boolean sameProduct;
+
+    public void setIds(Integer productId, Integer locationId) {
+        this.productId = id(productId);
+        this.locationId = id(locationId);
+    }
+}
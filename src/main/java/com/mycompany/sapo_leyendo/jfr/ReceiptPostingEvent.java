@@ -0,0 +1,47 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Receipts posted for an inbound order: one line (receiveItem) or a whole truck (receiveBatch).
+ * The rows are flushed when the transaction commits, after the event ends.
+ */
+@Name("sapo.ReceiptPosting")
+@Label("Receipt Posting")
+@Category({"Sapo WMS", "Inbound"})
+@Description("Receipts, dock inventory and put-away tasks written for an inbound order")
+public class ReceiptPostingEvent extends WmsEvent {
+
+    @Label("Inbound Order Id")
+    public int inboundOrderId;
+
+    @Label("Inbound Order Item Id")
+    @Description("The received line, 0 for a batch")
+    public int inboundOrderItemId;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Receipts")
+    @Description("Lines accepted - one Receipt, Inventory and put-away task row each")
+    public int receipts;
+
+    @Label("Rejected")
+    public int rejected;
+
+    @Label("Quantity")
+    @Description("Units received, in base units")
+    public long quantity;
+
+    @Label("Put-Away Targets")
+    @Description("Put-away tasks that got a target location")
+    public int putAwayTargets;
+
+    public void setIds(Integer inboundOrderId, Integer inboundOrderItemId) {
+        this.inboundOrderId = id(inboundOrderId);
+        this.inboundOrderItemId = id(inboundOrderItemId);
+    }
+}
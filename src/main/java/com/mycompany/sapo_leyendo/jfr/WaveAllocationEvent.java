@@ -0,0 +1,42 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One wave allocation, optimistic lock retries and the commit included.
+ */
+@Name("sapo.WaveAllocation")
+@Label("Wave Allocation")
+@Category({"Sapo WMS", "Outbound"})
+@Description("Stock reserved for the orders of one wave, retries and commit included")
+public class WaveAllocationEvent extends WmsEvent {
+
+    @Label("Wave Id")
+    public int waveId;
+
+    @Label("Orders")
+    public int orders;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Lines Fully Allocated")
+    public int linesFullyAllocated;
+
+    @Label("Shortages")
+    public int shortages;
+
+    @Label("Quantity Allocated")
+    public double quantityAllocated;
+
+    @Label("Attempts")
+    @Description("Transactions run; more than one means optimistic lock conflicts on Inventory")
+    public int attempts;
+
+    public void setWaveId(Integer waveId) {
+        this.waveId = id(waveId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mycompany.sapo_leyendo.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the Flight Recorder events of warehouse operations (sapo.*).
+ * An event spans one operation - its duration is the JFR duration - and carries the ids and
+ * row counts needed to tie SQL time, GC pauses and lock contention in the same recording to a
+ * specific wave, receipt or load. No stack traces: the thread and time range are enough to
+ * line them up with the JVM events, and they keep each event cheap.
+ * Without a running recording begin/commit cost next to nothing.
+ */
+@StackTrace(false)
+public abstract class WmsEvent extends Event {
+
+    static int id(Integer id) {
+        return id != null ? id : 0;
+    }
+}
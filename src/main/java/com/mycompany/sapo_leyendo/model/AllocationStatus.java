@@ -0,0 +1,8 @@
+package com.mycompany.sapo_leyendo.model;
+
+public enum AllocationStatus {
+    ALLOCATED,
+    TASKED,
+    PICKED,
+    CANCELLED
+}
@@ -0,0 +1,6 @@
+package com.mycompany.sapo_leyendo.model;
+
+public enum AllocationStrategy {
+    FIFO, // First In, First Out - oldest received_at first
+    FEFO  // First Expired, First Out - earliest expiry_date first
+}
@@ -14,16 +14,21 @@ import java.time.LocalDateTime;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_audit")
     private Integer id;
 
+    // CREATE, UPDATE, STATUS_CHANGE, DELETE
     @Column(nullable = false)
     private String action;
 
     @Column(nullable = false)
     private String entity;
 
+    @Column(name = "entity_id")
+    private String entityId;
+
+    // JSON of the changed properties
     @Column(name = "old_value", columnDefinition = "TEXT")
     private String oldValue;
 
@@ -0,0 +1,21 @@
+package com.mycompany.sapo_leyendo.model;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Inserts, updates and deletes of the entity are written to AuditLogs with the old and new
+ * values of the changed properties (see AuditTrailListener).
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface AuditTrail {
+
+    /**
+     * Properties whose values are never written - only that they changed ("***").
+     */
+    String[] masked() default {};
+}
@@ -0,0 +1,39 @@
+package com.mycompany.sapo_leyendo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to a second-level cached entity, published by one app instance so the
+ * others can drop their cached copy (see ClusterCacheInvalidator).
+ */
+@Entity
+@Table(name = "CacheInvalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_invalidation")
+    private Long id;
+
+    @Column(name = "entity_name", nullable = false)
+    private String entityName;
+
+    // Null when the whole entity region is to be dropped
+    @Column(name = "entity_id", length = 100)
+    private String entityId;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 public class DockAppointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_dock_appointment")
     private Integer id;
 
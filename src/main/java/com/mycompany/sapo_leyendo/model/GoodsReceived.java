@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
 public class GoodsReceived {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_receipt")
     private Integer id;
 
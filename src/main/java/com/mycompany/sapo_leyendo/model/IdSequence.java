@@ -0,0 +1,26 @@
+package com.mycompany.sapo_leyendo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Next free value of one identifier sequence (LPN, order references, ...) or of the ids of one
+ * entity table (@PooledId, row named after the table).
+ * IdentifierService and PooledIdGenerator move it forward a block at a time.
+ */
+@Entity
+@Table(name = "IdSequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdSequence {
+
+    @Id
+    @Column(name = "sequence_name", length = 100)
+    private String sequenceName;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextVal;
+}
@@ -10,14 +10,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "InboundOrders")
+@Table(name = "InboundOrders", indexes = {
+        @Index(name = "idx_inbound_orders_status", columnList = "status, id_inbound_order"),
+        @Index(name = "idx_inbound_orders_expected", columnList = "expected_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class InboundOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_inbound_order")
     private Integer id;
 
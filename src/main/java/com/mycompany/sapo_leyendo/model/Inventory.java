@@ -3,6 +3,7 @@ package com.mycompany.sapo_leyendo.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mycompany.sapo_leyendo.converter.LocalDateTimeStringConverter;
+import com.mycompany.sapo_leyendo.service.InventorySlottingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,14 +15,20 @@ import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 
 @Entity
-@Table(name = "Inventory")
+@AuditTrail
+@EntityListeners(InventorySlottingListener.class)
+@Table(name = "Inventory", indexes = {
+        @Index(name = "idx_inventory_product_status_received", columnList = "id_product, status, received_at"),
+        @Index(name = "idx_inventory_product_status_expiry", columnList = "id_product, status, expiry_date"),
+        @Index(name = "idx_inventory_location_status", columnList = "id_location, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_inventory")
     private Integer id;
 
@@ -46,6 +53,10 @@ public class Inventory {
     @Column(name = "batch_number")
     private String batchNumber;
 
+    @Convert(converter = LocalDateTimeStringConverter.class)
+    @Column(name = "expiry_date")
+    private LocalDateTime expiryDate;
+
     @Column(name = "reorder_level")
     private Integer reorderLevel;
 
@@ -61,6 +72,12 @@ public class Inventory {
     @Column(name = "received_at")
     private LocalDateTime receivedAt;
 
+    // Optimistic locking - concurrent allocations/picks of the same row fail fast and are retried
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
     @JsonProperty("id")
     public String getExternalId() {
         return id != null ? id.toString() : null;
@@ -88,13 +105,7 @@ public class Inventory {
 
     @JsonProperty("status")
     public String getStatusLabel() {
-        if (quantity == null || quantity == 0) {
-            return "Out of Stock";
-        }
-        if (Optional.ofNullable(reorderLevel).orElse(0) >= quantity) {
-            return "Low Stock";
-        }
-        return "In Stock";
+        return statusLabel(quantity, reorderLevel);
     }
 
     @JsonProperty("price")
@@ -118,6 +129,22 @@ public class Inventory {
 
     @JsonProperty("lastUpdated")
     public String getLastUpdated() {
+        return lastUpdated(receivedAt);
+    }
+
+    // Shared with InventoryListItem, which renders list rows without loading the entity
+
+    public static String statusLabel(Integer quantity, Integer reorderLevel) {
+        if (quantity == null || quantity == 0) {
+            return "Out of Stock";
+        }
+        if (Optional.ofNullable(reorderLevel).orElse(0) >= quantity) {
+            return "Low Stock";
+        }
+        return "In Stock";
+    }
+
+    public static String lastUpdated(LocalDateTime receivedAt) {
         if (receivedAt == null) {
             return LocalDate.now().toString();
         }
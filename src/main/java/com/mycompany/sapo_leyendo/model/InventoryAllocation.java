@@ -0,0 +1,55 @@
+package com.mycompany.sapo_leyendo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import com.mycompany.sapo_leyendo.converter.LocalDateTimeStringConverter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Hard allocation of a quantity on one ALLOCATED Inventory row to one outbound order line.
+ */
+@Entity
+@Table(name = "InventoryAllocations", indexes = {
+        @Index(name = "idx_allocations_order_line", columnList = "id_outbound_order_item"),
+        @Index(name = "idx_allocations_inventory", columnList = "id_inventory")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAllocation {
+
+    @Id
+    @PooledId
+    @Column(name = "id_allocation")
+    private Integer id;
+
+    @ManyToOne
+    @JoinColumn(name = "id_outbound_order_item", nullable = false)
+    @JsonIgnore
+    private OutboundOrderItem outboundOrderItem;
+
+    // Nulled when the allocated stock leaves the warehouse (fully picked)
+    @ManyToOne
+    @JoinColumn(name = "id_inventory")
+    private Inventory inventory;
+
+    @Column(name = "id_wave")
+    private Integer waveId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "quantity_picked", nullable = false)
+    private Integer quantityPicked = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private AllocationStatus status = AllocationStatus.ALLOCATED;
+
+    @Convert(converter = LocalDateTimeStringConverter.class)
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -7,14 +7,16 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "KpiMetrics")
+@Table(name = "KpiMetrics", indexes = {
+        @Index(name = "idx_kpi_metrics_name_time", columnList = "name, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class KpiMetric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_kpi")
     private Integer id; // Changed to Integer to match other entities, though UUID was in spec
 
@@ -24,9 +26,15 @@ public class KpiMetric {
     @Column(nullable = false)
     private Double value;
 
+    private String unit;
+
+    // Start of the period the value covers (rollups) or when it was measured
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    @Column(name = "period_end")
+    private LocalDateTime periodEnd;
+
     @Column(name = "dimension")
     private String dimension;
 }
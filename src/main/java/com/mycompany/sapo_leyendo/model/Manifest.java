@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 public class Manifest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_manifest")
     private Integer id;
 
@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import com.mycompany.sapo_leyendo.converter.LocalDateTimeStringConverter;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@AuditTrail
 @Table(name = "MoveTasks")
 @Data
 @NoArgsConstructor
@@ -15,7 +17,7 @@ import java.time.LocalDateTime;
 public class MoveTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_move_task")
     private Integer id;
 
@@ -45,4 +47,10 @@ public class MoveTask {
     @Convert(converter = LocalDateTimeStringConverter.class)
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Optimistic locking - concurrent allocations/picks of the same row fail fast and are retried
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
 }
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 public class NonConformanceReport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_ncr")
     private Integer id;
 
@@ -7,6 +7,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,14 +16,18 @@ import java.util.List;
 import java.util.Optional;
 
 @Entity
-@Table(name = "OutboundOrders")
+@AuditTrail
+@Table(name = "OutboundOrders", indexes = {
+        @Index(name = "idx_outbound_orders_status", columnList = "status, id_outbound_order"),
+        @Index(name = "idx_outbound_orders_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class OutboundOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_outbound_order")
     private Integer id;
 
@@ -80,7 +85,9 @@ public class OutboundOrder {
     @Column(name = "order_date")
     private LocalDateTime orderDate;
     
+    // getTotalItems/getOrderTotal read the lines: a list page loads them for all its orders in one select
     @OneToMany(mappedBy = "outboundOrder", cascade = CascadeType.ALL)
+    @BatchSize(size = 200)
     private List<OutboundOrderItem> items;
 
     @JsonProperty("orderNumber")
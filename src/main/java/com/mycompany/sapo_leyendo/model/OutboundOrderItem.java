@@ -17,7 +17,7 @@ import java.math.BigDecimal;
 public class OutboundOrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_outbound_order_item")
     private Integer id;
 
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -14,7 +15,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @AllArgsConstructor
 public class Parcel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_parcel")
     private Integer id;
 
@@ -34,5 +35,6 @@ public class Parcel {
     private String trackingSubNumber;
 
     @OneToMany(mappedBy = "parcel", cascade = CascadeType.ALL)
+    @BatchSize(size = 200)
     private List<ParcelItem> items;
 }
@@ -9,14 +9,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "PickLists")
+@Table(name = "PickLists", indexes = {
+        @Index(name = "idx_pick_lists_wave", columnList = "id_wave")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PickList {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_pick_list")
     private Integer id;
 
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 public class PickTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_pick_task")
     private Integer id;
 
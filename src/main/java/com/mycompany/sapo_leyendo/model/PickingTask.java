@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import com.mycompany.sapo_leyendo.converter.LocalDateTimeStringConverter;
 import lombok.AllArgsConstructor;
@@ -9,25 +10,38 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "PickingTasks")
+@Table(name = "PickingTasks", indexes = {
+        @Index(name = "idx_picking_tasks_pick_list_status", columnList = "id_pick_list, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PickingTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_picking_task")
     private Integer id;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_pick_list")
+    @JsonIgnore
+    private PickList pickList;
+
     @ManyToOne
     @JoinColumn(name = "id_outbound_order_item", nullable = false)
     private OutboundOrderItem outboundOrderItem;
 
+    // Nulled when the picked stock row is removed (its last task was picked)
     @ManyToOne
-    @JoinColumn(name = "id_inventory", nullable = false)
+    @JoinColumn(name = "id_inventory")
     private Inventory inventory;
 
+    @ManyToOne
+    @JoinColumn(name = "id_allocation")
+    @JsonIgnore
+    private InventoryAllocation allocation;
+
     @Column(name = "quantity_to_pick", nullable = false)
     private Double quantityToPick;
 
@@ -42,4 +56,10 @@ public class PickingTask {
     @Convert(converter = LocalDateTimeStringConverter.class)
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    // Optimistic locking - concurrent allocations/picks of the same row fail fast and are retried
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
 }
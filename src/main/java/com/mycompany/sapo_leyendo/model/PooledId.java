@@ -0,0 +1,25 @@
+package com.mycompany.sapo_leyendo.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Entity id handed out from blocks reserved in the IdSequences table (one row per entity table).
+ * Unlike IDENTITY the id is known before the INSERT, so Hibernate can batch inserts.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledId {
+
+    /**
+     * Ids reserved per round trip to IdSequences - at least hibernate.jdbc.batch_size.
+     */
+    int blockSize() default 50;
+}
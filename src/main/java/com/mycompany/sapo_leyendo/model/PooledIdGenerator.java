@@ -0,0 +1,115 @@
+package com.mycompany.sapo_leyendo.model;
+
+import org.hibernate.HibernateException;
+import org.hibernate.community.dialect.SQLiteDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.mapping.PersistentClass;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Pooled id generator behind {@link PooledId}. Each refill moves the entity's IdSequences row
+ * past a block of ids, starting no lower than MAX(id) + 1 of the table - rows written by the
+ * SQL scripts or before the switch from IDENTITY are skipped, so no migration of the counters
+ * is needed.
+ *
+ * The refill normally runs in a transaction of its own (as Hibernate's table generator does),
+ * so the row lock is released at once. SQLite has a single writer connection, which the caller
+ * is holding: there the refill joins the caller's transaction. If that transaction rolls back,
+ * the block stays in use here and the next refill starts above it; other processes cannot
+ * write the same SQLite file concurrently.
+ */
+public class PooledIdGenerator implements IdentifierGenerator {
+
+    private static final String SEQUENCE_TABLE = "IdSequences";
+
+    private final int blockSize;
+    private final String sequenceName;
+    private final String maxIdSql;
+    private final boolean longId;
+
+    private long next;
+    private long limit;
+
+    public PooledIdGenerator(PooledId config, Member member, CustomIdGeneratorCreationContext context) {
+        PersistentClass entity = context.getPersistentClass();
+        String table = entity.getTable().getName();
+        String idColumn = entity.getIdentifier().getColumns().get(0).getName();
+        this.blockSize = Math.max(1, config.blockSize());
+        this.sequenceName = table;
+        this.maxIdSql = "SELECT MAX(" + idColumn + ") FROM " + table;
+        this.longId = entity.getIdentifier().getType().getReturnedClass() == Long.class;
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (next >= limit) {
+            long start = reserve(session, Math.max(next, 1));
+            next = start;
+            limit = start + blockSize;
+        }
+        long id = next++;
+        return longId ? (Object) id : (Object) Math.toIntExact(id);
+    }
+
+    private long reserve(SharedSessionContractImplementor session, long floor) {
+        AbstractReturningWork<Long> work = new AbstractReturningWork<>() {
+            @Override
+            public Long execute(Connection connection) throws SQLException {
+                return reserve(connection, floor);
+            }
+        };
+        if (session.getJdbcServices().getDialect() instanceof SQLiteDialect) {
+            return session.doReturningWork(work);
+        }
+        return session.getTransactionCoordinator().createIsolationDelegate().delegateWork(work, true);
+    }
+
+    /**
+     * Returns the first id of a fresh block; the row then points right after it.
+     */
+    private long reserve(Connection connection, long floor) throws SQLException {
+        long start = Math.max(floor, queryLong(connection, maxIdSql, null) + 1);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (PreparedStatement advance = connection.prepareStatement("UPDATE " + SEQUENCE_TABLE
+                    + " SET next_val = (CASE WHEN next_val < ? THEN ? ELSE next_val END) + ? WHERE sequence_name = ?")) {
+                advance.setLong(1, start);
+                advance.setLong(2, start);
+                advance.setLong(3, blockSize);
+                advance.setString(4, sequenceName);
+                if (advance.executeUpdate() == 1) {
+                    return queryLong(connection, "SELECT next_val FROM " + SEQUENCE_TABLE + " WHERE sequence_name = ?",
+                            sequenceName) - blockSize;
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + SEQUENCE_TABLE
+                    + " (sequence_name, next_val) VALUES (?, ?)")) {
+                insert.setString(1, sequenceName);
+                insert.setLong(2, start + blockSize);
+                insert.executeUpdate();
+                return start;
+            } catch (SQLException e) {
+                // Another instance created the row first - advance it instead
+            }
+        }
+        throw new HibernateException("Could not reserve ids for " + sequenceName);
+    }
+
+    private static long queryLong(Connection connection, String sql, String parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (parameter != null) {
+                statement.setString(1, parameter);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
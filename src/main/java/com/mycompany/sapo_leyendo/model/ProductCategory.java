@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
+// Product.category is lazy: lists of products (e.g. parcel contents) load their categories together
 @Entity
 @Table(name = "ProductCategories")
+@BatchSize(size = 100)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,4 +23,9 @@ public class ProductCategory {
 
     @Column(name = "parent_category_id")
     private Integer parentCategoryId;
+
+    // Null inherits the parent category's strategy (FIFO at the root)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "allocation_strategy")
+    private AllocationStrategy allocationStrategy;
 }
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 public class QcInspection {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_qc_inspection")
     private Integer id;
 
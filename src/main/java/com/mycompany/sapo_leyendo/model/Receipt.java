@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 public class Receipt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_receipt")
     private Integer id;
 
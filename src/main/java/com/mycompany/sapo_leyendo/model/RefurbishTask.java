@@ -14,7 +14,7 @@ import java.util.List;
 public class RefurbishTask {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_task")
     private Integer id;
 
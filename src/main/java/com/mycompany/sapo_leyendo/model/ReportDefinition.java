@@ -14,7 +14,7 @@ import lombok.NoArgsConstructor;
 public class ReportDefinition {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_report")
     private Integer id;
 
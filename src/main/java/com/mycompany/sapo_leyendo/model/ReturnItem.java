@@ -14,7 +14,7 @@ import lombok.NoArgsConstructor;
 public class ReturnItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_return_item")
     private Integer id;
 
@@ -8,14 +8,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "RmaRequests")
+@Table(name = "RmaRequests", indexes = {
+        @Index(name = "idx_rma_requests_status", columnList = "status, id_rma")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class RmaRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_rma")
     private Integer id;
 
@@ -6,16 +6,20 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import java.util.List;
 
 @Entity
-@Table(name = "Shipments")
+@AuditTrail
+@Table(name = "Shipments", indexes = {
+        @Index(name = "idx_shipments_status", columnList = "status, id_shipment")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Shipment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_shipment")
     private Integer id;
 
@@ -45,5 +49,6 @@ public class Shipment {
      private Double totalWeightKg;
 
     @OneToMany(mappedBy = "shipment", cascade = CascadeType.ALL)
+    @BatchSize(size = 200)
     private List<Parcel> parcels;
 }
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 public class TestPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_test_plan")
     private Integer id;
 
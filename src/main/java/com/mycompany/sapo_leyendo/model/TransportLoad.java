@@ -15,7 +15,7 @@ import java.util.List;
 public class TransportLoad {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_load")
     private Integer id;
 
@@ -0,0 +1,34 @@
+package com.mycompany.sapo_leyendo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-product unit conversion: {@code quantity in toUom = quantity in fromUom * factor},
+ * e.g. 1 KAR = 12 SZT is (product, KAR, SZT, 12).
+ */
+@Entity
+@Table(name = "UOM_Conversions")
+@IdClass(UomConversionId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UomConversion {
+
+    @Id
+    @Column(name = "id_product")
+    private Integer productId;
+
+    @Id
+    @Column(name = "id_uom_from")
+    private Integer fromUomId;
+
+    @Id
+    @Column(name = "id_uom_to")
+    private Integer toUomId;
+
+    @Column(name = "conversion_factor", nullable = false)
+    private Double factor;
+}
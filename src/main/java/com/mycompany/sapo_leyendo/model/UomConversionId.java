@@ -0,0 +1,16 @@
+package com.mycompany.sapo_leyendo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UomConversionId implements Serializable {
+    private Integer productId;
+    private Integer fromUomId;
+    private Integer toUomId;
+}
@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,7 +16,7 @@ import java.util.List;
 public class Wave {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     @Column(name = "id_wave")
     private Integer id;
 
@@ -41,6 +42,12 @@ public class Wave {
     @Column(name = "id_user_created")
     private Integer userCreatedId;
 
+    // Optimistic locking - two concurrent allocations of the same wave cannot both move it out of CREATED
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
     @OneToMany(mappedBy = "wave", cascade = CascadeType.ALL)
     private List<PickList> pickLists;
 }
@@ -1,9 +1,16 @@
 package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.Carrier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CarrierRepository extends JpaRepository<Carrier, Integer> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Carrier> findAll();
 }
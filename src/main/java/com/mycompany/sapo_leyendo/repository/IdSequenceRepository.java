@@ -0,0 +1,21 @@
+package com.mycompany.sapo_leyendo.repository;
+
+import com.mycompany.sapo_leyendo.model.IdSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    // Moves the sequence to at least :floor, then past a block of :size values
+    @Modifying
+    @Query("UPDATE IdSequence s SET s.nextVal = (CASE WHEN s.nextVal < :floor THEN :floor ELSE s.nextVal END) + :size " +
+           "WHERE s.sequenceName = :name")
+    int advance(@Param("name") String name, @Param("floor") long floor, @Param("size") long size);
+
+    @Query("SELECT s.nextVal FROM IdSequence s WHERE s.sequenceName = :name")
+    Long findNextVal(@Param("name") String name);
+}
@@ -1,9 +1,15 @@
 package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.InboundOrderItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface InboundOrderItemRepository extends JpaRepository<InboundOrderItem, Integer> {
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"product"})
+    List<InboundOrderItem> findByInboundOrderId(Integer inboundOrderId);
 }
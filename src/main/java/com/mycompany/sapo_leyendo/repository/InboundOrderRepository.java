@@ -2,8 +2,14 @@ package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.InboundOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface InboundOrderRepository extends JpaRepository<InboundOrder, Integer> {
+public interface InboundOrderRepository extends JpaRepository<InboundOrder, Integer>, JpaSpecificationExecutor<InboundOrder> {
+
+    List<InboundOrder> findByReferenceNumberIn(Collection<String> referenceNumbers);
 }
@@ -0,0 +1,20 @@
+package com.mycompany.sapo_leyendo.repository;
+
+import com.mycompany.sapo_leyendo.model.AllocationStatus;
+import com.mycompany.sapo_leyendo.model.InventoryAllocation;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryAllocationRepository extends JpaRepository<InventoryAllocation, Integer> {
+    List<InventoryAllocation> findByOutboundOrderItemId(Integer outboundOrderItemId);
+    List<InventoryAllocation> findByInventoryId(Integer inventoryId);
+    boolean existsByInventoryIdAndStatusIn(Integer inventoryId, Collection<AllocationStatus> statuses);
+
+    @EntityGraph(attributePaths = {"outboundOrderItem", "inventory"})
+    List<InventoryAllocation> findByOutboundOrderItemOutboundOrderIdInAndStatus(Collection<Integer> outboundOrderIds, AllocationStatus status);
+}
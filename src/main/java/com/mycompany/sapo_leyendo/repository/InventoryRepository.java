@@ -1,14 +1,90 @@
 package com.mycompany.sapo_leyendo.repository;
 
+import com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem;
 import com.mycompany.sapo_leyendo.model.Inventory;
+import com.mycompany.sapo_leyendo.model.InventoryStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
+
+    /**
+     * List rows with everything the JSON needs in a single statement - loading the entities
+     * instead costs follow-up selects for the lazy product categories and uncached products.
+     */
+    String LIST_ITEM_SELECT = "select new com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem(" +
+            "i.id, i.quantity, i.lpn, i.batchNumber, i.expiryDate, i.reorderLevel, i.unitPrice, i.receivedAt, l.name, " +
+            "p.id, p.sku, p.name, p.description, p.idBaseUom, p.weightKg, p.lengthCm, p.widthCm, p.heightCm, " +
+            "p.unitPrice, p.minStockLevel, c.name, u.id, u.code, u.name) " +
+            "from Inventory i join i.product p join i.location l join i.uom u left join p.category c ";
+
     List<Inventory> findByProductId(Integer productId);
     List<Inventory> findByLocationId(Integer locationId);
     java.util.Optional<Inventory> findByLpn(String lpn);
+
+    /** Which of the given LPNs are already on stock - one query for a whole receiving batch. */
+    @Query("select distinct i.lpn from Inventory i where i.lpn in :lpns")
+    Set<String> findExistingLpns(@Param("lpns") Collection<String> lpns);
+
+    // Backed by idx_inventory_product_status_received
+    List<Inventory> findByProductIdAndStatusOrderByReceivedAtAscIdAsc(Integer productId, InventoryStatus status);
+
+    // Backed by idx_inventory_location_status
+    List<Inventory> findByLocationIdAndStatus(Integer locationId, InventoryStatus status);
+
+    @Query(LIST_ITEM_SELECT + "order by i.id")
+    List<InventoryListItem> findAllListItems();
+
+    /** Export: read forward in fetch-size chunks, never the whole table at once. */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(LIST_ITEM_SELECT + "order by i.id")
+    Stream<InventoryListItem> streamAllListItems();
+
+    @Query(LIST_ITEM_SELECT + "where p.id = :productId order by i.id")
+    List<InventoryListItem> findListItemsByProductId(@Param("productId") Integer productId);
+
+    @Query(LIST_ITEM_SELECT + "where p.id = :productId and i.status = :status order by i.receivedAt, i.id")
+    List<InventoryListItem> findListItemsByProductIdAndStatus(@Param("productId") Integer productId,
+                                                              @Param("status") InventoryStatus status);
+
+    @Query(LIST_ITEM_SELECT + "where l.id = :locationId order by i.id")
+    List<InventoryListItem> findListItemsByLocationId(@Param("locationId") Integer locationId);
+
+    @Query(LIST_ITEM_SELECT + "where l.id = :locationId and i.status = :status order by i.id")
+    List<InventoryListItem> findListItemsByLocationIdAndStatus(@Param("locationId") Integer locationId,
+                                                               @Param("status") InventoryStatus status);
+
+    /**
+     * FIFO candidates: oldest receipt first.
+     */
+    @EntityGraph(attributePaths = {"product", "location", "uom"})
+    List<Inventory> findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(Collection<Integer> productIds, InventoryStatus status);
+
+    /**
+     * ALLOCATED rows the wave's splits may be merged into - one per product/location/LPN/batch.
+     */
+    List<Inventory> findByProductIdInAndLocationIdInAndStatus(Collection<Integer> productIds,
+                                                             Collection<Integer> locationIds,
+                                                             InventoryStatus status);
+
+    /**
+     * FEFO candidates: earliest expiry first, rows without an expiry date last, then FIFO.
+     */
+    @EntityGraph(attributePaths = {"product", "location", "uom"})
+    @Query("select i from Inventory i where i.product.id in :productIds and i.status = :status " +
+            "order by case when i.expiryDate is null then 1 else 0 end, i.expiryDate asc, i.receivedAt asc, i.id asc")
+    List<Inventory> findFefoCandidates(@Param("productIds") Collection<Integer> productIds,
+                                       @Param("status") InventoryStatus status);
 }
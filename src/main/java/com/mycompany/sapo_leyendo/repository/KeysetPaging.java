@@ -0,0 +1,173 @@
+package com.mycompany.sapo_leyendo.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.beans.PropertyDescriptor;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keyset (cursor) paging over a {@link JpaSpecificationExecutor}: each page continues after the
+ * sort key and id of the previous page's last row ({@code WHERE (key, id) > (:key, :id)}), so deep
+ * pages cost the same as the first one - unlike OFFSET, which reads and discards the skipped rows.
+ *
+ * Only non-null columns can serve as sort keys; the id always breaks ties.
+ */
+public final class KeysetPaging {
+
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 500;
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * @param sortable the fields the caller may sort by; the first one (with its direction) is the default
+     */
+    public static <T> KeysetPage<T> page(JpaSpecificationExecutor<T> repository, Class<T> type,
+                                         Specification<T> filter, KeysetRequest request, String... sortable) {
+        Sort sort = sort(request.sort(), sortable);
+        int limit = request.limit() == null ? DEFAULT_LIMIT : Math.min(Math.max(request.limit(), 1), MAX_LIMIT);
+        KeysetScrollPosition position = decode(request.after(), type);
+
+        Window<T> window = repository.findBy(Specification.where(filter),
+                query -> query.sortBy(sort).limit(limit).scroll(position));
+        String next = window.hasNext() && !window.isEmpty()
+                ? encode((KeysetScrollPosition) window.positionAt(window.size() - 1))
+                : null;
+        return new KeysetPage<>(window.getContent(), next);
+    }
+
+    static Sort sort(String sort, String... sortable) {
+        if (sort == null || sort.isBlank()) {
+            sort = sortable[0];
+        }
+        boolean descending = sort.startsWith("-");
+        String field = descending ? sort.substring(1) : sort;
+        List<String> fields = Arrays.stream(sortable).map(f -> f.startsWith("-") ? f.substring(1) : f).toList();
+        if (!fields.contains(field)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported sort field: " + field + " (allowed: " + String.join(", ", fields) + ")");
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, field);
+        return field.equals("id") ? result : result.and(Sort.by(direction, "id"));
+    }
+
+    private static String encode(KeysetScrollPosition position) {
+        try {
+            byte[] json = CURSOR_MAPPER.writeValueAsBytes(position.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * Cursor keys come back as JSON values; convert each to the entity's property type
+     * (e.g. a LocalDateTime) so it binds to the query like the column it is compared with.
+     */
+    private static KeysetScrollPosition decode(String cursor, Class<?> type) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> raw = CURSOR_MAPPER.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {
+            });
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> key : raw.entrySet()) {
+                PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, key.getKey());
+                if (property == null) {
+                    throw new IllegalArgumentException(key.getKey());
+                }
+                keys.put(key.getKey(), CURSOR_MAPPER.convertValue(key.getValue(), property.getPropertyType()));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException | java.io.IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // ===== Filters: a null value adds no condition =====
+
+    public static <T> Specification<T> equal(String attribute, Object value) {
+        return value == null ? null : (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    /**
+     * Compares the id of a many-to-one association, e.g. {@code zone.id} - the foreign key
+     * column itself, no join.
+     */
+    public static <T> Specification<T> equalId(String association, Object id) {
+        return id == null ? null : (root, query, cb) -> cb.equal(root.get(association).get("id"), id);
+    }
+
+    public static <T, Y extends Comparable<? super Y>> Specification<T> between(String attribute, Y from, Y to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get(attribute), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), from);
+            }
+            return cb.between(root.get(attribute), from, to);
+        };
+    }
+
+    /**
+     * Prefix match written as a range ({@code >= prefix AND < prefix + U+FFFF}) so that an index
+     * on the column is used - LIKE 'x%' is not index-backed on SQLite by default.
+     */
+    public static <T> Specification<T> startsWith(String attribute, String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(cb.greaterThanOrEqualTo(root.get(attribute), prefix),
+                cb.lessThan(root.get(attribute), prefix + '\uFFFF'));
+    }
+
+    /**
+     * Fetch-joins a to-one association into the page query instead of one select per row.
+     * Not for collections: a row limit over a collection join is applied in memory.
+     */
+    public static <T> Specification<T> fetch(String association) {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                root.fetch(association, JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    @SafeVarargs
+    public static <T> Specification<T> allOf(Specification<T>... filters) {
+        return Specification.allOf(Arrays.stream(filters).filter(Objects::nonNull).toList());
+    }
+}
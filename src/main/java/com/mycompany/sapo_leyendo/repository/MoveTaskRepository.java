@@ -1,8 +1,12 @@
 package com.mycompany.sapo_leyendo.repository;
 
+import com.mycompany.sapo_leyendo.model.Inventory;
 import com.mycompany.sapo_leyendo.model.MoveTask;
 import com.mycompany.sapo_leyendo.model.MoveTaskStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +14,8 @@ import java.util.List;
 @Repository
 public interface MoveTaskRepository extends JpaRepository<MoveTask, Integer> {
     List<MoveTask> findByStatus(MoveTaskStatus status);
+
+    @Modifying
+    @Query("UPDATE MoveTask t SET t.inventory = :to WHERE t.inventory = :from")
+    int reassignInventory(@Param("from") Inventory from, @Param("to") Inventory to);
 }
@@ -1,10 +1,31 @@
 package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.OutboundOrder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface OutboundOrderRepository extends JpaRepository<OutboundOrder, Integer> {
+public interface OutboundOrderRepository extends JpaRepository<OutboundOrder, Integer>, JpaSpecificationExecutor<OutboundOrder> {
     boolean existsByReferenceNumber(String referenceNumber);
+
+    /** Order with its lines and their products and UOMs in one select - the detail view. */
+    @EntityGraph(attributePaths = {"items", "items.product", "items.uom"})
+    Optional<OutboundOrder> findWithItemsById(Integer id);
+
+    /** Export: read forward in fetch-size chunks; read-only, so Hibernate keeps no dirty-checking snapshots. */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from OutboundOrder o order by o.id")
+    Stream<OutboundOrder> streamAll();
 }
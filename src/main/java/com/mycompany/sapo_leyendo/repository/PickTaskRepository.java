@@ -1,9 +1,16 @@
 package com.mycompany.sapo_leyendo.repository;
 
+import com.mycompany.sapo_leyendo.model.Inventory;
 import com.mycompany.sapo_leyendo.model.PickTask;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PickTaskRepository extends JpaRepository<PickTask, Integer> {
+    @Modifying
+    @Query("UPDATE PickTask t SET t.inventory = :to WHERE t.inventory = :from")
+    int reassignInventory(@Param("from") Inventory from, @Param("to") Inventory to);
 }
@@ -1,7 +1,34 @@
 package com.mycompany.sapo_leyendo.repository;
 
+import com.mycompany.sapo_leyendo.model.Inventory;
 import com.mycompany.sapo_leyendo.model.PickingTask;
+import com.mycompany.sapo_leyendo.model.PickingTaskStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface PickingTaskRepository extends JpaRepository<PickingTask, Integer> {
+
+    // Wave -> PickList -> PickingTask; filters on PickLists.id_wave, backed by
+    // idx_pick_lists_wave and idx_picking_tasks_pick_list_status.
+    // LOAD graph: everything the scanner JSON needs comes back in the page query.
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {
+            "outboundOrderItem.product", "outboundOrderItem.uom", "inventory.location", "inventory.product", "inventory.uom"})
+    Page<PickingTask> findByPickListWaveId(Integer waveId, Pageable pageable);
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {
+            "outboundOrderItem.product", "outboundOrderItem.uom", "inventory.location", "inventory.product", "inventory.uom"})
+    Page<PickingTask> findByPickListWaveIdAndStatus(Integer waveId, PickingTaskStatus status, Pageable pageable);
+
+    boolean existsByInventoryIdAndStatusIn(Integer inventoryId, Collection<PickingTaskStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE PickingTask t SET t.inventory = null WHERE t.inventory = :inventory")
+    int detachInventory(@Param("inventory") Inventory inventory);
 }
@@ -2,8 +2,9 @@ package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.RmaRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RmaRequestRepository extends JpaRepository<RmaRequest, Integer> {
+public interface RmaRequestRepository extends JpaRepository<RmaRequest, Integer>, JpaSpecificationExecutor<RmaRequest> {
 }
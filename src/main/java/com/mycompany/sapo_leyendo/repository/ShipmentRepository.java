@@ -1,12 +1,21 @@
 package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.Shipment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface ShipmentRepository extends JpaRepository<Shipment, Integer> {
+public interface ShipmentRepository extends JpaRepository<Shipment, Integer>, JpaSpecificationExecutor<Shipment> {
     Optional<Shipment> findByOutboundOrderId(Integer outboundOrderId);
+
+    /**
+     * Shipment with its order and parcels. Only one collection can be fetch-joined (two bags
+     * would multiply rows); the order lines and parcel items follow in one batch select each.
+     */
+    @EntityGraph(attributePaths = {"outboundOrder", "parcels", "parcels.packingMaterial"})
+    Optional<Shipment> findWithOrderAndParcelsById(Integer id);
 }
@@ -1,9 +1,20 @@
 package com.mycompany.sapo_leyendo.repository;
 
 import com.mycompany.sapo_leyendo.model.TransportLoad;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransportLoadRepository extends JpaRepository<TransportLoad, Integer> {
+
+    /** Load with its shipments and their orders - what dispatch walks. */
+    @EntityGraph(attributePaths = {"carrier", "shipments", "shipments.outboundOrder"})
+    Optional<TransportLoad> findWithShipmentsById(Integer id);
+
+    @EntityGraph(attributePaths = {"carrier", "shipments", "shipments.outboundOrder"})
+    List<TransportLoad> findAllWithShipmentsBy();
 }
@@ -4,6 +4,9 @@ import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface UnitOfMeasureRepository extends JpaRepository<UnitOfMeasure, Integer> {
+    Optional<UnitOfMeasure> findByCode(String code);
 }
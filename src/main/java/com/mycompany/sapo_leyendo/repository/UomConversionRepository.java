@@ -0,0 +1,13 @@
+package com.mycompany.sapo_leyendo.repository;
+
+import com.mycompany.sapo_leyendo.model.UomConversion;
+import com.mycompany.sapo_leyendo.model.UomConversionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UomConversionRepository extends JpaRepository<UomConversion, UomConversionId> {
+    List<UomConversion> findByProductId(Integer productId);
+}
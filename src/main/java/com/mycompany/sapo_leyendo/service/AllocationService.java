@@ -0,0 +1,342 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.picking.AllocationShortage;
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
+import com.mycompany.sapo_leyendo.jfr.ItemAllocationEvent;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.InventoryAllocationRepository;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.MoveTaskRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.PickTaskRepository;
+import com.mycompany.sapo_leyendo.repository.ProductCategoryRepository;
+import com.mycompany.sapo_leyendo.repository.QcInspectionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Set-based allocation engine for waves.
+ * Loads every order line and all AVAILABLE stock for the wave up front, computes the
+ * splits in memory and writes the touched Inventory rows back in one batch, so the
+ * number of statements no longer grows with (lines x stock rows).
+ * Every line draw is recorded as an InventoryAllocation pointing at the ALLOCATED row.
+ * Inventory is unique per product, location, LPN, batch and status, so stock drawn from a row
+ * that an earlier wave already split is added to that wave's ALLOCATED row; a row emptied
+ * that way is deleted once its move, QC and pick tasks point at the ALLOCATED row.
+ * Stock is consumed FIFO or FEFO depending on the product category's allocation strategy.
+ */
+@Service
+public class AllocationService {
+
+    private final OutboundOrderRepository outboundOrderRepository;
+    private final OutboundOrderItemRepository outboundOrderItemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryAllocationRepository inventoryAllocationRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final MoveTaskRepository moveTaskRepository;
+    private final QcInspectionRepository qcInspectionRepository;
+    private final PickTaskRepository pickTaskRepository;
+
+    public AllocationService(OutboundOrderRepository outboundOrderRepository,
+                             OutboundOrderItemRepository outboundOrderItemRepository,
+                             InventoryRepository inventoryRepository,
+                             InventoryAllocationRepository inventoryAllocationRepository,
+                             ProductCategoryRepository productCategoryRepository,
+                             MoveTaskRepository moveTaskRepository,
+                             QcInspectionRepository qcInspectionRepository,
+                             PickTaskRepository pickTaskRepository) {
+        this.outboundOrderRepository = outboundOrderRepository;
+        this.outboundOrderItemRepository = outboundOrderItemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryAllocationRepository = inventoryAllocationRepository;
+        this.productCategoryRepository = productCategoryRepository;
+        this.moveTaskRepository = moveTaskRepository;
+        this.qcInspectionRepository = qcInspectionRepository;
+        this.pickTaskRepository = pickTaskRepository;
+    }
+
+    @Transactional
+    public WaveAllocationResult allocateOrders(Integer waveId, List<Integer> outboundOrderIds) {
+        List<Integer> orderIds = outboundOrderIds.stream().distinct().toList();
+
+        // 1. Orders and lines - two queries for the whole wave
+        Set<Integer> foundOrderIds = new HashSet<>();
+        outboundOrderRepository.findAllById(orderIds).forEach(order -> foundOrderIds.add(order.getId()));
+        for (Integer orderId : orderIds) {
+            if (!foundOrderIds.contains(orderId)) {
+                throw new RuntimeException("Order not found: " + orderId);
+            }
+        }
+
+        Map<Integer, Integer> orderPosition = new HashMap<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            orderPosition.put(orderIds.get(i), i);
+        }
+        List<OutboundOrderItem> items = orderIds.isEmpty()
+                ? List.of()
+                : new ArrayList<>(outboundOrderItemRepository.findByOutboundOrderIdIn(orderIds));
+        // Keep the caller's order priority, then line order within an order
+        items.sort(Comparator
+                .comparing((OutboundOrderItem item) -> orderPosition.get(item.getOutboundOrder().getId()))
+                .thenComparing(OutboundOrderItem::getId));
+
+        // 2. Candidate stock for every product in the wave - one query per strategy,
+        //    already in picking order (FIFO / FEFO) from the database
+        Map<Integer, ProductCategory> categories = loadCategories(items);
+        Set<Integer> fifoProductIds = new LinkedHashSet<>();
+        Set<Integer> fefoProductIds = new LinkedHashSet<>();
+        for (OutboundOrderItem item : items) {
+            Product product = item.getProduct();
+            if (resolveStrategy(product, categories) == AllocationStrategy.FEFO) {
+                fefoProductIds.add(product.getId());
+            } else {
+                fifoProductIds.add(product.getId());
+            }
+        }
+        List<Inventory> candidates = new ArrayList<>();
+        if (!fifoProductIds.isEmpty()) {
+            candidates.addAll(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(fifoProductIds, InventoryStatus.AVAILABLE));
+        }
+        if (!fefoProductIds.isEmpty()) {
+            candidates.addAll(inventoryRepository.findFefoCandidates(fefoProductIds, InventoryStatus.AVAILABLE));
+        }
+        Map<Integer, List<StockSource>> stockByProduct = new HashMap<>();
+        for (Inventory inv : candidates) {
+            stockByProduct.computeIfAbsent(inv.getProduct().getId(), id -> new ArrayList<>())
+                    .add(new StockSource(inv));
+        }
+
+        // 3. Compute allocations in memory
+        List<AllocationShortage> shortages = new ArrayList<>();
+        List<StockSource> touched = new ArrayList<>();
+        List<LineDraw> draws = new ArrayList<>();
+        int linesFullyAllocated = 0;
+        double quantityAllocated = 0.0;
+
+        for (OutboundOrderItem item : items) {
+            ItemAllocationEvent event = new ItemAllocationEvent();
+            event.begin();
+            int drawsBefore = draws.size();
+            double qtyOrdered = item.getQuantityOrdered() != null ? item.getQuantityOrdered() : 0.0;
+            double qtyNeeded = qtyOrdered;
+
+            List<StockSource> stock = stockByProduct.getOrDefault(item.getProduct().getId(), List.of());
+            for (StockSource source : stock) {
+                if (qtyNeeded <= 0) break;
+                if (source.remaining <= 0) continue;
+
+                // Convert to int since Inventory.quantity is Integer
+                int qtyToTake = (int) Math.min(qtyNeeded, source.remaining);
+                if (qtyToTake <= 0) break;
+
+                if (source.taken == 0) {
+                    touched.add(source);
+                }
+                source.remaining -= qtyToTake;
+                source.taken += qtyToTake;
+                qtyNeeded -= qtyToTake;
+                draws.add(new LineDraw(item, source, qtyToTake));
+            }
+
+            double allocated = qtyOrdered - Math.max(qtyNeeded, 0.0);
+            quantityAllocated += allocated;
+            if (qtyNeeded > 0) {
+                shortages.add(new AllocationShortage(
+                        item.getOutboundOrder().getId(),
+                        item.getId(),
+                        item.getProduct().getId(),
+                        item.getProduct().getSku(),
+                        qtyOrdered,
+                        allocated,
+                        qtyNeeded));
+            } else {
+                linesFullyAllocated++;
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.setIds(waveId, item.getOutboundOrder().getId(), item.getId(), item.getProduct().getId());
+                event.quantityOrdered = qtyOrdered;
+                event.quantityAllocated = allocated;
+                event.candidateRows = stock.size();
+                event.sourceRows = draws.size() - drawsBefore;
+                event.commit();
+            }
+        }
+
+        // 4. Write back: one ALLOCATED row per touched source, flushed as a single batch.
+        //    An ALLOCATED row with the same key (left by an earlier wave) is topped up instead.
+        Map<StockKey, Inventory> allocatedRows = loadAllocatedRows(touched);
+        List<Inventory> toSave = new ArrayList<>(touched.size() * 2);
+        Set<Inventory> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<StockSource> emptied = new ArrayList<>();
+        for (StockSource source : touched) {
+            Inventory inv = source.inventory;
+            StockKey key = StockKey.of(inv);
+            Inventory sibling = key != null ? allocatedRows.get(key) : null;
+            if (sibling != null) {
+                sibling.setQuantity(sibling.getQuantity() + source.taken);
+                source.allocated = sibling;
+                if (source.remaining == 0) {
+                    emptied.add(source); // taken whole - merged into the sibling below
+                } else {
+                    inv.setQuantity(source.remaining);
+                    toSave.add(inv);
+                }
+                if (queued.add(sibling)) {
+                    toSave.add(sibling);
+                }
+            } else if (source.remaining == 0) {
+                // Take whole record
+                inv.setStatus(InventoryStatus.ALLOCATED);
+                source.allocated = inv;
+                toSave.add(inv);
+                remember(allocatedRows, key, inv);
+                queued.add(inv);
+            } else {
+                // Split: Reduce original, create new Allocated record
+                inv.setQuantity(source.remaining);
+                source.allocated = splitAllocated(inv, source.taken);
+                toSave.add(inv);
+                toSave.add(source.allocated);
+                remember(allocatedRows, key, source.allocated);
+                queued.add(source.allocated);
+            }
+        }
+        inventoryRepository.saveAll(toSave);
+        for (StockSource source : emptied) {
+            // Tasks on the emptied row follow the stock to the ALLOCATED row, then it goes
+            moveTaskRepository.reassignInventory(source.inventory, source.allocated);
+            qcInspectionRepository.reassignInventory(source.inventory, source.allocated);
+            pickTaskRepository.reassignInventory(source.inventory, source.allocated);
+            inventoryRepository.delete(source.inventory);
+        }
+
+        List<InventoryAllocation> allocations = new ArrayList<>(draws.size());
+        for (LineDraw draw : draws) {
+            InventoryAllocation allocation = new InventoryAllocation();
+            allocation.setOutboundOrderItem(draw.item());
+            allocation.setInventory(draw.source().allocated);
+            allocation.setWaveId(waveId);
+            allocation.setQuantity(draw.quantity());
+            allocation.setStatus(AllocationStatus.ALLOCATED);
+            allocations.add(allocation);
+        }
+        inventoryAllocationRepository.saveAll(allocations);
+
+        return new WaveAllocationResult(waveId, orderIds.size(), items.size(),
+                linesFullyAllocated, quantityAllocated, shortages);
+    }
+
+    /**
+     * Walks up the category tree until a category with an explicit strategy is found.
+     */
+    AllocationStrategy resolveStrategy(Product product, Map<Integer, ProductCategory> categories) {
+        Integer categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        int depth = 0;
+        while (categoryId != null && depth++ < categories.size()) {
+            ProductCategory category = categories.get(categoryId);
+            if (category == null) {
+                break;
+            }
+            if (category.getAllocationStrategy() != null) {
+                return category.getAllocationStrategy();
+            }
+            categoryId = category.getParentCategoryId();
+        }
+        return AllocationStrategy.FIFO;
+    }
+
+    private Map<Integer, ProductCategory> loadCategories(List<OutboundOrderItem> items) {
+        boolean anyCategorised = items.stream().anyMatch(item -> item.getProduct().getCategory() != null);
+        if (!anyCategorised) {
+            return Map.of();
+        }
+        // Category tree is small reference data - one query instead of walking lazy parents
+        Map<Integer, ProductCategory> categories = new HashMap<>();
+        for (ProductCategory category : productCategoryRepository.findAll()) {
+            categories.put(category.getId(), category);
+        }
+        return categories;
+    }
+
+    private Map<StockKey, Inventory> loadAllocatedRows(List<StockSource> touched) {
+        Map<StockKey, Inventory> rows = new HashMap<>();
+        if (touched.isEmpty()) {
+            return rows;
+        }
+        Set<Integer> productIds = new HashSet<>();
+        Set<Integer> locationIds = new HashSet<>();
+        for (StockSource source : touched) {
+            if (StockKey.of(source.inventory) != null) {
+                productIds.add(source.inventory.getProduct().getId());
+                locationIds.add(source.inventory.getLocation().getId());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return rows;
+        }
+        for (Inventory row : inventoryRepository.findByProductIdInAndLocationIdInAndStatus(productIds, locationIds,
+                InventoryStatus.ALLOCATED)) {
+            remember(rows, StockKey.of(row), row);
+        }
+        return rows;
+    }
+
+    private static void remember(Map<StockKey, Inventory> rows, StockKey key, Inventory row) {
+        if (key != null) {
+            rows.putIfAbsent(key, row);
+        }
+    }
+
+    private Inventory splitAllocated(Inventory source, int quantity) {
+        Inventory allocatedInv = new Inventory();
+        allocatedInv.setProduct(source.getProduct());
+        allocatedInv.setLocation(source.getLocation());
+        allocatedInv.setQuantity(quantity);
+        allocatedInv.setLpn(source.getLpn());
+        allocatedInv.setBatchNumber(source.getBatchNumber());
+        allocatedInv.setExpiryDate(source.getExpiryDate());
+        allocatedInv.setStatus(InventoryStatus.ALLOCATED);
+        allocatedInv.setUom(source.getUom()); // Copy UOM from source inventory
+        allocatedInv.setReceivedAt(source.getReceivedAt() != null ? source.getReceivedAt() : LocalDateTime.now());
+        return allocatedInv;
+    }
+
+    /**
+     * Working copy of one AVAILABLE row. Lines drawing on the same row accumulate into
+     * {@code taken}, so a row is split at most once per wave.
+     */
+    private static final class StockSource {
+        private final Inventory inventory;
+        private int remaining;
+        private int taken;
+        private Inventory allocated;
+
+        private StockSource(Inventory inventory) {
+            this.inventory = inventory;
+            this.remaining = inventory.getQuantity() != null ? inventory.getQuantity() : 0;
+        }
+    }
+
+    private record LineDraw(OutboundOrderItem item, StockSource source, int quantity) {}
+
+    /**
+     * The columns Inventory is unique on, status aside. Null when LPN or batch is missing -
+     * the unique constraint does not hold for NULLs, so such rows are never merged.
+     */
+    private record StockKey(Integer productId, Integer locationId, String lpn, String batchNumber) {
+
+        static StockKey of(Inventory inventory) {
+            if (inventory.getLpn() == null || inventory.getBatchNumber() == null) {
+                return null;
+            }
+            return new StockKey(inventory.getProduct().getId(), inventory.getLocation().getId(),
+                    inventory.getLpn(), inventory.getBatchNumber());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.AuditLog;
+import com.mycompany.sapo_leyendo.repository.AuditLogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where audit rows go ({@code app.audit.durability}):
+ * <ul>
+ *   <li>{@code commit} - written in the transaction that made the change, as one batch when it
+ *   commits; the change and its audit rows are durable together</li>
+ *   <li>{@code async} - handed over after commit and inserted by one background thread in
+ *   batches of up to {@code max-batch} rows, one transaction per batch. Rows still queued are
+ *   lost if the process dies.</li>
+ * </ul>
+ * The queue holds at most {@code queue-capacity} rows. Room is reserved before the change
+ * commits; a transaction that finds no room writes its rows itself, in commit mode, so rows
+ * are never dropped and nobody waits for the queue.
+ */
+@Service
+@Slf4j
+public class AuditLogWriter {
+
+    public enum Durability {
+        COMMIT, ASYNC
+    }
+
+    private final AuditLogRepository auditLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Durability durability;
+    private final int capacity;
+    private final int maxBatch;
+
+    private final BlockingQueue<AuditLog> queue = new LinkedBlockingQueue<>();
+    private final Semaphore room;
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.audit.enabled:true}") boolean enabled,
+                          @Value("${app.audit.durability:commit}") String durability,
+                          @Value("${app.audit.queue-capacity:10000}") int capacity,
+                          @Value("${app.audit.max-batch:500}") int maxBatch) {
+        this.auditLogRepository = auditLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.durability = Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+        this.capacity = Math.max(1, capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.room = new Semaphore(this.capacity);
+        this.writerThread = new Thread(this::drain, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Reserves queue room for rows that will be {@link #enqueue enqueued} once their transaction
+     * has committed, or {@link #release released} if it rolls back. False when the queue is full.
+     */
+    public boolean tryReserve(int rows) {
+        return running && room.tryAcquire(rows);
+    }
+
+    public void release(int rows) {
+        room.release(rows);
+    }
+
+    /** Queues rows whose room was reserved with {@link #tryReserve}. */
+    public void enqueue(List<AuditLog> rows) {
+        queued.addAndGet(rows.size());
+        queue.addAll(rows);
+    }
+
+    /**
+     * Writes one row outside entity change capture (ReportingService.logAudit): queued in async
+     * mode, otherwise - or when the queue is full - saved at once, in the caller's transaction
+     * if there is one.
+     */
+    public void submit(AuditLog row) {
+        if (durability == Durability.ASYNC && tryReserve(1)) {
+            enqueue(List.of(row));
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> auditLogRepository.save(row));
+    }
+
+    /**
+     * Waits until every row queued so far has been written (or has failed).
+     */
+    public void flush() {
+        long target = queued.get();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (written.get() + failed.get() < target) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException("Audit log writer did not catch up within 30 s");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while flushing the audit log", e);
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public int getPendingCount() {
+        return capacity - room.availablePermits();
+    }
+
+    private void drain() {
+        List<AuditLog> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean saved = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> auditLogRepository.saveAll(batch));
+            saved = true;
+        } catch (RuntimeException e) {
+            log.error("Could not write {} audit log rows ({} .. {}): {}", batch.size(),
+                    describe(batch.get(0)), describe(batch.get(batch.size() - 1)), e.toString());
+        }
+        // Room first: flush() returns once the counters catch up
+        room.release(batch.size());
+        (saved ? written : failed).addAndGet(batch.size());
+    }
+
+    private static String describe(AuditLog row) {
+        return row.getAction() + " " + row.getEntity() + "#" + row.getEntityId() + " at " + row.getTimestamp();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Not interrupted: the thread finishes the queue, then stops at its next empty poll
+        running = false;
+        try {
+            writerThread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} audit log rows not written at shutdown", queue.size());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.cache.CacheRegionStats;
+import com.mycompany.sapo_leyendo.dto.cache.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit/miss statistics and manual eviction for the Hibernate second-level cache.
+ */
+@Service
+public class CacheStatsService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public CacheStats getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStats> regions = new ArrayList<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(new CacheRegionStats(name, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), ratio(region.getHitCount(), region.getMissCount()),
+                        region.getElementCountInMemory()));
+            }
+        }
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        return new CacheStats(statistics.isStatisticsEnabled(), hits, misses, statistics.getSecondLevelCachePutCount(),
+                ratio(hits, misses), statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), regions);
+    }
+
+    public void resetStats() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    /** Drops all cached entities, collections and query results on this instance. */
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
@@ -0,0 +1,76 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.config.ReadWriteRoutingDataSource;
+import com.mycompany.sapo_leyendo.config.ReplicaDataSource;
+import com.mycompany.sapo_leyendo.dto.datasource.DataSourcePoolStats;
+import com.mycompany.sapo_leyendo.dto.datasource.DataSourceStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-pool connection statistics for the write pool, the read pool or replicas, or the single
+ * pool when reads and writes are not routed separately.
+ */
+@Service
+public class DataSourceStatsService {
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public DataSourceStatsService(DataSource dataSource, ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.dataSource = dataSource;
+        this.routingDataSource = routingDataSource;
+    }
+
+    public DataSourceStats getStats() {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        List<DataSourcePoolStats> pools = new ArrayList<>();
+        if (routing == null) {
+            pools.add(pool(dataSource, "write", true, null, 0));
+            return new DataSourceStats(false, 0, 0, 0, pools);
+        }
+
+        pools.add(pool(routing.getWriteDataSource(), "write", true, null, routing.getWriteConnectionCount()));
+        long fallbacks = 0;
+        if (routing.getReadDataSource() instanceof ReplicaDataSource replicas) {
+            for (ReplicaDataSource.Replica replica : replicas.getReplicas()) {
+                Long lagMs = replica.getLag() == null ? null : replica.getLag().toMillis();
+                pools.add(pool(replica.getDataSource(), "read", replica.isAvailable(), lagMs, replica.getConnectionCount()));
+            }
+            fallbacks = replicas.getFallbackCount();
+        } else {
+            pools.add(pool(routing.getReadDataSource(), "read", true, null, routing.getReadConnectionCount()));
+        }
+        return new DataSourceStats(true, routing.getWriteConnectionCount(), routing.getReadConnectionCount(),
+                fallbacks, pools);
+    }
+
+    private static DataSourcePoolStats pool(DataSource source, String route, boolean available, Long lagMs, long routed) {
+        HikariDataSource hikari = unwrapHikari(source);
+        HikariPoolMXBean bean = hikari == null ? null : hikari.getHikariPoolMXBean();
+        String name = hikari == null ? source.getClass().getSimpleName() : hikari.getPoolName();
+        if (bean == null) {
+            return new DataSourcePoolStats(name, route, available, lagMs, routed, 0, 0, 0, 0);
+        }
+        return new DataSourcePoolStats(name, route, available, lagMs, routed, bean.getActiveConnections(),
+                bean.getIdleConnections(), bean.getTotalConnections(), bean.getThreadsAwaitingConnection());
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource source) {
+        if (source instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return source.isWrapperFor(HikariDataSource.class) ? source.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.inbound.DockSlot;
+import com.mycompany.sapo_leyendo.model.DockAppointment;
+import com.mycompany.sapo_leyendo.model.Location;
+import com.mycompany.sapo_leyendo.repository.DockAppointmentRepository;
+import com.mycompany.sapo_leyendo.repository.LocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory dock calendar.
+ * Keeps a DockTimeline (interval index) per dock, built from DockAppointments at startup and
+ * updated as appointments are booked, so overlap checks and "next free slot" answers never
+ * query the database. Docks are the active locations whose type is a dock, plus any dock id
+ * that already has appointments. Appointments that ended before the rebuild are not loaded.
+ * Any other dock id is rejected; a location that became a dock after the rebuild is looked up
+ * once and then kept.
+ */
+@Service
+@Slf4j
+public class DockSchedulerService {
+
+    private final DockAppointmentRepository dockAppointmentRepository;
+    private final LocationRepository locationRepository;
+
+    private final Object lock = new Object();
+    private final SortedMap<Integer, DockTimeline> timelines = new TreeMap<>();
+    // Individual bookings per dock - a merged block is rebuilt from them when one is released
+    private final Map<Integer, TreeSet<Booking>> bookingsByDock = new HashMap<>();
+    private final Map<Long, Booking> bookings = new HashMap<>();
+    private final Map<Integer, Long> bookingByAppointment = new HashMap<>();
+    private final Map<Long, Integer> appointmentByBooking = new HashMap<>();
+    private final AtomicLong bookingIds = new AtomicLong();
+    private volatile boolean initialized;
+
+    public DockSchedulerService(DockAppointmentRepository dockAppointmentRepository,
+                                LocationRepository locationRepository) {
+        this.dockAppointmentRepository = dockAppointmentRepository;
+        this.locationRepository = locationRepository;
+    }
+
+    /**
+     * Dock time held for one appointment.
+     */
+    public record Booking(long id, Integer dockId, LocalDateTime startTime, LocalDateTime endTime) {
+
+        private static final Comparator<Booking> BY_START = Comparator
+                .comparing(Booking::startTime)
+                .thenComparingLong(Booking::id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            timelines.clear();
+            bookingsByDock.clear();
+            bookings.clear();
+            bookingByAppointment.clear();
+            appointmentByBooking.clear();
+
+            for (Location location : locationRepository.findAll()) {
+                if (isDock(location)) {
+                    timelines.put(location.getId(), new DockTimeline());
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (DockAppointment appointment : dockAppointmentRepository.findAll()) {
+                if (appointment.getDockId() == null || appointment.getStartTime() == null
+                        || appointment.getEndTime() == null || !appointment.getEndTime().isAfter(now)
+                        || !appointment.getEndTime().isAfter(appointment.getStartTime())) {
+                    continue;
+                }
+                Booking booking = add(appointment.getDockId(), appointment.getStartTime(), appointment.getEndTime());
+                link(booking.id(), appointment.getId());
+            }
+            initialized = true;
+            log.info("Dock scheduler ready: {} docks, {} upcoming appointments", timelines.size(), bookings.size());
+        }
+    }
+
+    /**
+     * Books [startTime, endTime) on a dock. When the range is taken, either fails or - with
+     * {@code autoShift} - moves the booking to the first free slot of the same length after it.
+     * Runs only inside a transaction - the booking is dropped again if it rolls back, so it
+     * cannot outlive a caller that fails before saving the appointment.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Booking book(Integer dockId, LocalDateTime startTime, LocalDateTime endTime, boolean autoShift) {
+        if (dockId == null || startTime == null || endTime == null) {
+            throw new RuntimeException("dockId, startTime and endTime are required");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new RuntimeException("End time must be after start time");
+        }
+        Booking booking;
+        synchronized (lock) {
+            ensureInitialized();
+            DockTimeline timeline = knownTimeline(dockId);
+            long start = toSeconds(startTime);
+            long length = toSeconds(endTime) - start;
+            long[] conflict = timeline.conflict(start, start + length);
+            if (conflict != null) {
+                if (!autoShift) {
+                    throw new RuntimeException("Dock " + dockId + " is already booked from "
+                            + toDateTime(conflict[0]) + " to " + toDateTime(conflict[1]));
+                }
+                start = timeline.nextFree(start, length);
+            }
+            booking = add(dockId, toDateTime(start), toDateTime(start + length));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(booking.id());
+                }
+            }
+        });
+        return booking;
+    }
+
+    /**
+     * Ties a booking to the saved appointment, so the appointment can release it later.
+     */
+    public void bind(Booking booking, Integer appointmentId) {
+        synchronized (lock) {
+            if (bookings.containsKey(booking.id())) {
+                link(booking.id(), appointmentId);
+            }
+        }
+    }
+
+    /**
+     * Frees the dock time of a cancelled appointment. Inside a transaction the time is freed only
+     * once it commits, so a rolled back cancellation keeps the booking.
+     */
+    public void releaseAppointment(Integer appointmentId) {
+        Long bookingId;
+        synchronized (lock) {
+            bookingId = bookingByAppointment.get(appointmentId);
+        }
+        if (bookingId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(bookingId);
+                }
+            });
+        } else {
+            release(bookingId);
+        }
+    }
+
+    /** Earliest slot of the given length on any dock, starting at or after {@code notBefore}. */
+    public Optional<DockSlot> nextFreeSlot(Duration length, LocalDateTime notBefore) {
+        synchronized (lock) {
+            ensureInitialized();
+            DockSlot best = null;
+            for (Integer dockId : timelines.keySet()) {
+                DockSlot slot = freeSlot(dockId, length, notBefore);
+                if (best == null || slot.startTime().isBefore(best.startTime())) {
+                    best = slot;
+                }
+            }
+            return Optional.ofNullable(best);
+        }
+    }
+
+    /** Earliest slot of the given length on one dock, starting at or after {@code notBefore}. */
+    public DockSlot nextFreeSlot(Integer dockId, Duration length, LocalDateTime notBefore) {
+        synchronized (lock) {
+            ensureInitialized();
+            return freeSlot(dockId, length, notBefore);
+        }
+    }
+
+    private DockSlot freeSlot(Integer dockId, Duration length, LocalDateTime notBefore) {
+        if (length.isNegative() || length.isZero()) {
+            throw new RuntimeException("Slot length must be positive");
+        }
+        long start = knownTimeline(dockId).nextFree(toSeconds(notBefore), length.getSeconds());
+        return new DockSlot(dockId, toDateTime(start), toDateTime(start + length.getSeconds()));
+    }
+
+    private void release(long bookingId) {
+        synchronized (lock) {
+            Booking booking = bookings.remove(bookingId);
+            if (booking == null) {
+                return;
+            }
+            TreeSet<Booking> dockBookings = bookingsByDock.get(booking.dockId());
+            dockBookings.remove(booking);
+            Integer appointmentId = appointmentByBooking.remove(bookingId);
+            if (appointmentId != null) {
+                bookingByAppointment.remove(appointmentId);
+            }
+
+            // Rebuild the merged block the booking belonged to from the bookings left in it
+            DockTimeline timeline = timelines.get(booking.dockId());
+            long[] block = timeline.floor(toSeconds(booking.startTime()));
+            if (block == null) {
+                return;
+            }
+            timeline.removeBlock(block[0]);
+            Booking from = new Booking(Long.MIN_VALUE, booking.dockId(), toDateTime(block[0]), null);
+            Booking to = new Booking(Long.MIN_VALUE, booking.dockId(), toDateTime(block[1]), null);
+            for (Booking remaining : dockBookings.subSet(from, to)) {
+                timeline.add(toSeconds(remaining.startTime()), toSeconds(remaining.endTime()));
+            }
+        }
+    }
+
+    private void link(long bookingId, Integer appointmentId) {
+        bookingByAppointment.put(appointmentId, bookingId);
+        appointmentByBooking.put(bookingId, appointmentId);
+    }
+
+    private Booking add(Integer dockId, LocalDateTime startTime, LocalDateTime endTime) {
+        Booking booking = new Booking(bookingIds.incrementAndGet(), dockId, startTime, endTime);
+        timelines.computeIfAbsent(dockId, id -> new DockTimeline()).add(toSeconds(startTime), toSeconds(endTime));
+        bookingsByDock.computeIfAbsent(dockId, id -> new TreeSet<>(Booking.BY_START)).add(booking);
+        bookings.put(booking.id(), booking);
+        return booking;
+    }
+
+    private DockTimeline knownTimeline(Integer dockId) {
+        DockTimeline timeline = timelines.get(dockId);
+        if (timeline != null) {
+            return timeline;
+        }
+        if (dockId == null || !locationRepository.findById(dockId).map(DockSchedulerService::isDock).orElse(false)) {
+            throw new RuntimeException("Dock " + dockId + " not found");
+        }
+        timeline = new DockTimeline();
+        timelines.put(dockId, timeline);
+        return timeline;
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            rebuild();
+        }
+    }
+
+    private static boolean isDock(Location location) {
+        return location.isActive() && location.getLocationType() != null
+                && location.getLocationType().getName() != null
+                && location.getLocationType().getName().toUpperCase(Locale.ROOT).contains("DOCK");
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,205 @@
+package com.mycompany.sapo_leyendo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Busy time of one dock: disjoint intervals [start, end) in epoch seconds, kept in a treap
+ * ordered by start. Overlapping or touching bookings are merged into one block.
+ * Every node also carries the earliest start, latest end and largest free gap of its subtree,
+ * so overlap checks and "first gap of at least X from t" are O(log n) - no scan of the day.
+ * Not thread-safe; DockSchedulerService guards it.
+ */
+class DockTimeline {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        long minStart;
+        long maxEnd;
+        long maxGap;
+
+        Node(long start, long end) {
+            this.start = start;
+            this.end = end;
+            update(this);
+        }
+    }
+
+    private Node root;
+    private int blocks;
+
+    int size() {
+        return blocks;
+    }
+
+    /** The block covering or preceding {@code t} - start <= t - as {start, end}, or null. */
+    long[] floor(long t) {
+        Node node = floorNode(t);
+        return node != null ? new long[]{node.start, node.end} : null;
+    }
+
+    /** First block that intersects [start, end) as {start, end}, or null when the range is free. */
+    long[] conflict(long start, long end) {
+        // Blocks are disjoint and sorted, so the first conflict is the block covering start
+        // or else the first one starting inside the range
+        Node node = floorNode(start);
+        if (node == null || node.end <= start) {
+            node = ceilingNode(start);
+            if (node == null || node.start >= end) {
+                return null;
+            }
+        }
+        return new long[]{node.start, node.end};
+    }
+
+    /** Marks [start, end) busy, merging it with the blocks it overlaps or touches. */
+    void add(long start, long end) {
+        Node node = floorNode(end);
+        while (node != null && node.end >= start) {
+            start = Math.min(start, node.start);
+            end = Math.max(end, node.end);
+            removeBlock(node.start);
+            node = floorNode(end);
+        }
+        Node[] parts = split(root, start);
+        root = merge(merge(parts[0], new Node(start, end)), parts[1]);
+        blocks++;
+    }
+
+    /** Drops the block starting exactly at {@code start}. */
+    void removeBlock(long start) {
+        Node[] lower = split(root, start);
+        Node[] upper = split(lower[1], start + 1);
+        if (upper[0] != null) {
+            blocks--;
+        }
+        root = merge(lower[0], upper[1]);
+    }
+
+    /** Earliest s >= t such that [s, s + length) is free. */
+    long nextFree(long t, long length) {
+        long candidate = t;
+        Node covering = floorNode(t);
+        if (covering != null && covering.end > candidate) {
+            candidate = covering.end;
+        }
+        Node next = ceilingNode(candidate);
+        if (next == null || next.start - candidate >= length) {
+            return candidate;
+        }
+        long[] prevEnd = {NONE};
+        Long gapStart = firstGap(root, next.start, length, prevEnd);
+        return gapStart != null ? gapStart : prevEnd[0];
+    }
+
+    /**
+     * In-order search, over blocks starting at or after {@code from}, for the first block followed
+     * by a gap of at least {@code length}; returns that block's end. Subtrees that lie entirely
+     * after {@code from} and hold no such gap are skipped whole using their summaries.
+     * {@code prevEnd[0]} tracks the end of the last block passed (the tail if nothing is found).
+     */
+    private static Long firstGap(Node node, long from, long length, long[] prevEnd) {
+        if (node == null) {
+            return null;
+        }
+        if (node.minStart >= from && node.maxGap < length
+                && (prevEnd[0] == NONE || node.minStart - prevEnd[0] < length)) {
+            prevEnd[0] = node.maxEnd;
+            return null;
+        }
+        if (node.start >= from) {
+            Long found = firstGap(node.left, from, length, prevEnd);
+            if (found != null) {
+                return found;
+            }
+            if (prevEnd[0] != NONE && node.start - prevEnd[0] >= length) {
+                return prevEnd[0];
+            }
+            prevEnd[0] = node.end;
+        }
+        return firstGap(node.right, from, length, prevEnd);
+    }
+
+    private Node floorNode(long t) {
+        Node node = root;
+        Node best = null;
+        while (node != null) {
+            if (node.start <= t) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    private Node ceilingNode(long t) {
+        Node node = root;
+        Node best = null;
+        while (node != null) {
+            if (node.start >= t) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /** Splits into blocks starting before {@code key} and the rest. */
+    private static Node[] split(Node node, long key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.start < key) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    /** Joins two treaps where every block of {@code a} starts before those of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static void update(Node node) {
+        long gap = 0;
+        node.minStart = node.start;
+        node.maxEnd = node.end;
+        if (node.left != null) {
+            node.minStart = node.left.minStart;
+            gap = Math.max(node.left.maxGap, node.start - node.left.maxEnd);
+        }
+        if (node.right != null) {
+            node.maxEnd = node.right.maxEnd;
+            gap = Math.max(gap, Math.max(node.right.maxGap, node.right.minStart - node.end));
+        }
+        node.maxGap = gap;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.sapo_leyendo.service;
+
+import java.util.Locale;
+
+/**
+ * Formats of the streaming exports: NDJSON (one JSON object per line, the same JSON as the
+ * list endpoints) or CSV with a header row, nested objects flattened to "product.sku" columns.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolves the format from an explicit name ("csv", "ndjson", "jsonl") or, failing that,
+     * from the Accept header. NDJSON when neither asks for anything; null for an unknown name -
+     * including "json", since the output is not one JSON document.
+     */
+    public static ExportFormat resolve(String name, String accept) {
+        if (name != null && !name.isBlank()) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "csv":
+                    return CSV;
+                case "ndjson":
+                case "jsonl":
+                    return NDJSON;
+                default:
+                    return null;
+            }
+        }
+        if (accept != null && accept.toLowerCase(Locale.ROOT).contains("csv")) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
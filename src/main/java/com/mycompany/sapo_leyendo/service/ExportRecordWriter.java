@@ -0,0 +1,148 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes export records one at a time as NDJSON or CSV - the counterpart of ImportRecordReader.
+ * Records are serialised with the application's ObjectMapper, so a line holds the same JSON the
+ * list endpoints return. For CSV, the header row comes from the record type's JSON properties,
+ * so a column exists even when the first rows leave it empty; nested objects are flattened
+ * ("product.sku"), arrays and self-nested types written as JSON text.
+ * CSV follows RFC 4180: fields with separators, quotes or line breaks are quoted.
+ * The target stream is only flushed, never closed - it belongs to the caller.
+ */
+public class ExportRecordWriter implements Flushable {
+
+    private final Writer out;
+    private final ExportFormat format;
+    private final ObjectMapper mapper;
+    private final Class<?> recordType;
+    // CSV columns as property paths, e.g. ["product", "sku"]
+    private List<List<String>> columns;
+    private long recordsWritten;
+
+    public ExportRecordWriter(OutputStream target, ExportFormat format, ObjectMapper mapper, Class<?> recordType) {
+        this.out = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.mapper = mapper;
+        this.recordType = recordType;
+    }
+
+    public void write(Object record) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            out.write(mapper.writeValueAsString(record));
+            out.write('\n');
+        } else {
+            if (columns == null) {
+                writeHeader();
+            }
+            JsonNode json = mapper.valueToTree(record);
+            List<String> values = new ArrayList<>(columns.size());
+            for (List<String> path : columns) {
+                values.add(value(json, path));
+            }
+            writeCsvLine(values);
+        }
+        recordsWritten++;
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeHeader() throws IOException {
+        columns = new ArrayList<>();
+        collectColumns(mapper.constructType(recordType), new ArrayList<>(), new HashSet<>());
+        List<String> header = new ArrayList<>(columns.size());
+        for (List<String> path : columns) {
+            header.add(String.join(".", path));
+        }
+        writeCsvLine(header);
+    }
+
+    /** Walks the serialized properties of a type; bean-serialized ones become nested columns. */
+    private void collectColumns(JavaType type, List<String> prefix, Set<Class<?>> enclosing) throws JsonMappingException {
+        enclosing.add(type.getRawClass());
+        SerializerProvider provider = mapper.getSerializerProviderInstance();
+        for (BeanPropertyDefinition property : mapper.getSerializationConfig().introspect(type).findProperties()) {
+            if (!property.couldSerialize()) {
+                continue;
+            }
+            List<String> path = new ArrayList<>(prefix);
+            path.add(property.getName());
+            JavaType propertyType = property.getPrimaryType();
+            if (isBean(provider, propertyType) && !enclosing.contains(propertyType.getRawClass())) {
+                collectColumns(propertyType, path, enclosing);
+            } else {
+                columns.add(path);
+            }
+        }
+        enclosing.remove(type.getRawClass());
+    }
+
+    private static boolean isBean(SerializerProvider provider, JavaType type) throws JsonMappingException {
+        if (type.isContainerType() || type.getRawClass() == Object.class) {
+            return false;
+        }
+        JsonSerializer<Object> serializer = provider.findValueSerializer(type);
+        return serializer instanceof BeanSerializerBase;
+    }
+
+    private static String value(JsonNode json, List<String> path) {
+        JsonNode node = json;
+        for (String name : path) {
+            node = node.get(name);
+            if (node == null) {
+                return null;
+            }
+        }
+        if (node.isNull()) {
+            return null;
+        }
+        return node.isContainerNode() ? node.toString() : node.asText();
+    }
+
+    private void writeCsvLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+}
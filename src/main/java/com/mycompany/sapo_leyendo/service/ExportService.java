@@ -0,0 +1,97 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem;
+import com.mycompany.sapo_leyendo.model.AuditLog;
+import com.mycompany.sapo_leyendo.model.OutboundOrder;
+import com.mycompany.sapo_leyendo.repository.AuditLogRepository;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Full-table exports for BI extracts and the nightly inventory reconciliation.
+ * Rows are read through a forward-only stream (fetch size 500) and written to the response as
+ * they arrive; every {@code app.export.clear-every} rows the persistence context is cleared and
+ * the output flushed, so memory stays flat at any row count.
+ * Each export is one read-only transaction - on MySQL with read replicas it runs on a replica.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    private final InventoryRepository inventoryRepository;
+    private final OutboundOrderRepository outboundOrderRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int clearEvery;
+
+    public ExportService(InventoryRepository inventoryRepository,
+                         OutboundOrderRepository outboundOrderRepository,
+                         AuditLogRepository auditLogRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.export.clear-every:500}") int clearEvery) {
+        this.inventoryRepository = inventoryRepository;
+        this.outboundOrderRepository = outboundOrderRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clearEvery = Math.max(1, clearEvery);
+    }
+
+    /** Inventory rows as the inventory list returns them (InventoryListItem). */
+    public long exportInventory(OutputStream out, ExportFormat format) {
+        return run("inventory", out, format, InventoryListItem.class, inventoryRepository::streamAllListItems);
+    }
+
+    public long exportOutboundOrders(OutputStream out, ExportFormat format) {
+        return run("outbound-orders", out, format, OutboundOrder.class, outboundOrderRepository::streamAll);
+    }
+
+    public long exportAuditLogs(OutputStream out, ExportFormat format) {
+        return run("audit-logs", out, format, AuditLog.class, auditLogRepository::streamAll);
+    }
+
+    private <T> long run(String type, OutputStream out, ExportFormat format, Class<T> recordType,
+                         Supplier<Stream<T>> query) {
+        long start = System.nanoTime();
+        Long rows = readOnlyTransaction.execute(status -> {
+            ExportRecordWriter writer = new ExportRecordWriter(out, format, objectMapper, recordType);
+            try (Stream<T> stream = query.get()) {
+                Iterator<T> records = stream.iterator();
+                while (records.hasNext()) {
+                    writer.write(records.next());
+                    if (writer.getRecordsWritten() % clearEvery == 0) {
+                        entityManager.clear();
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // Usually the client went away mid-download
+                throw new UncheckedIOException("Export of " + type + " aborted: " + e.getMessage(), e);
+            }
+            return writer.getRecordsWritten();
+        });
+        log.info("{} export ({}) finished: {} rows in {} ms", type, format, rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+}
@@ -0,0 +1,205 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.jfr.RecordingStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Continuous Flight Recorder recording of the application: JVM events (GC, locks, I/O,
+ * allocation) together with the sapo.* events of the warehouse operations (com.mycompany.sapo_leyendo.jfr).
+ * Started at boot with {@code app.jfr.enabled=true} or at runtime through /api/diagnostics/jfr,
+ * kept as a ring of {@code max-age-minutes} / {@code max-size-mb} on disk, and dumped on request
+ * into {@code app.jfr.directory} (the newest {@code keep-dumps} files are kept) and at shutdown.
+ * The sapo.* events are also recorded by a recording started with -XX:StartFlightRecording.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private static final String RECORDING_NAME = "sapo-wms";
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    // Environment variables and system properties carry connection strings and passwords
+    private static final List<String> EXCLUDED_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final boolean startOnBoot;
+    private final String defaultSettings;
+    private final long defaultMaxAgeMinutes;
+    private final long defaultMaxSizeMb;
+    private final Path directory;
+    private final int keepDumps;
+    private final boolean dumpOnExit;
+
+    // Guarded by this
+    private Recording recording;
+    private String settings;
+    private Path lastDump;
+
+    public FlightRecorderService(@Value("${app.jfr.enabled:false}") boolean startOnBoot,
+                                 @Value("${app.jfr.settings:default}") String defaultSettings,
+                                 @Value("${app.jfr.max-age-minutes:360}") long defaultMaxAgeMinutes,
+                                 @Value("${app.jfr.max-size-mb:250}") long defaultMaxSizeMb,
+                                 @Value("${app.jfr.directory:recordings}") String directory,
+                                 @Value("${app.jfr.keep-dumps:10}") int keepDumps,
+                                 @Value("${app.jfr.dump-on-exit:true}") boolean dumpOnExit) {
+        this.startOnBoot = startOnBoot;
+        this.defaultSettings = defaultSettings;
+        this.defaultMaxAgeMinutes = defaultMaxAgeMinutes;
+        this.defaultMaxSizeMb = defaultMaxSizeMb;
+        this.directory = Path.of(directory);
+        this.keepDumps = Math.max(1, keepDumps);
+        this.dumpOnExit = dumpOnExit;
+    }
+
+    @PostConstruct
+    void startOnBoot() {
+        if (startOnBoot) {
+            try {
+                start(null, null, null);
+            } catch (RuntimeException e) {
+                log.warn("Flight Recorder recording not started: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts the recording. {@code settings} names a JDK configuration ("default" - about 1%
+     * overhead, "profile" - more detail, for a short investigation); null values fall back to
+     * the app.jfr.* settings. The initial environment and system properties are never recorded.
+     */
+    public synchronized RecordingStatus start(String settings, Long maxAgeMinutes, Long maxSizeMb) {
+        if (!FlightRecorder.isAvailable()) {
+            throw new RuntimeException("Flight Recorder is not available in this JVM");
+        }
+        if (isRunning()) {
+            throw new RuntimeException("Recording already running");
+        }
+        String name = settings != null && !settings.isBlank() ? settings : defaultSettings;
+        long maxAge = maxAgeMinutes != null ? maxAgeMinutes : defaultMaxAgeMinutes;
+        long maxSize = maxSizeMb != null ? maxSizeMb : defaultMaxSizeMb;
+        if (maxAge <= 0 || maxSize <= 0) {
+            throw new RuntimeException("maxAgeMinutes and maxSizeMb must be positive");
+        }
+
+        Recording started = new Recording(configuration(name));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofMinutes(maxAge));
+        started.setMaxSize(maxSize * 1024 * 1024);
+        EXCLUDED_EVENTS.forEach(started::disable);
+        started.start();
+        if (recording != null) {
+            recording.close();
+        }
+        recording = started;
+        this.settings = name;
+        log.info("Flight Recorder recording started ({} settings, last {} min / {} MB kept)", name, maxAge, maxSize);
+        return getStatus();
+    }
+
+    /**
+     * Stops and discards the recording; dump first to keep it.
+     */
+    public synchronized RecordingStatus stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("Flight Recorder recording stopped");
+        }
+        return getStatus();
+    }
+
+    /**
+     * Writes what the running recording holds to a new .jfr file; the recording goes on.
+     */
+    public synchronized Path dump() {
+        if (!isRunning()) {
+            throw new RuntimeException("No recording running");
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(RECORDING_NAME + "-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            recording.dump(file);
+            lastDump = file;
+            pruneDumps();
+            log.info("Flight Recorder recording dumped to {}", file.toAbsolutePath());
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Recording dump failed: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized RecordingStatus getStatus() {
+        boolean running = isRunning();
+        return new RecordingStatus(
+                FlightRecorder.isAvailable(),
+                running,
+                running ? settings : null,
+                running ? recording.getStartTime() : null,
+                running ? recording.getMaxAge().toMinutes() : 0,
+                running ? recording.getMaxSize() / (1024 * 1024) : 0,
+                running ? recording.getSize() : 0,
+                lastDump != null ? lastDump.toAbsolutePath().toString() : null);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (isRunning() && dumpOnExit) {
+            try {
+                dump();
+            } catch (RuntimeException e) {
+                log.warn("Flight Recorder recording not dumped at shutdown: {}", e.getMessage());
+            }
+        }
+        stop();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private static Configuration configuration(String name) {
+        if (!SETTINGS.contains(name)) {
+            throw new RuntimeException("Unknown recording settings: " + name + " (default or profile)");
+        }
+        try {
+            return Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Unknown recording settings: " + name);
+        }
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(RECORDING_NAME + "-") && name.endsWith(".jfr");
+                    })
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+        }
+        for (Path old : dumps.subList(Math.min(keepDumps, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+}
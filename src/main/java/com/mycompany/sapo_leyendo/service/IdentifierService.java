@@ -0,0 +1,167 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.IdSequence;
+import com.mycompany.sapo_leyendo.repository.IdSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues LPNs and document numbers (prefix + zero-padded counter) that never collide.
+ * Each type reserves a block of {@code app.ids.block-size} values from its IdSequences row
+ * and hands them out from memory with a single atomic increment; the database is touched
+ * once per block. Values from a block may be skipped (restart, rollback) but never reused.
+ *
+ * A block is reserved and committed in a transaction of its own (REQUIRES_NEW inside a
+ * caller's transaction), so a caller's rollback never hands the same block to another node.
+ * SQLite is the exception: its pool has a single connection, held by the caller, so the
+ * block is reserved there and, if that transaction rolls back, dropped from memory - the
+ * next refill starts past it. One process owns the file, so no other node can take it.
+ */
+@Service
+@Slf4j
+public class IdentifierService {
+
+    private final IdSequenceRepository idSequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final boolean singleConnection;
+    private final int blockSize;
+    private final int digits;
+
+    private final Map<IdentifierType, Sequence> sequences = new EnumMap<>(IdentifierType.class);
+
+    public IdentifierService(IdSequenceRepository idSequenceRepository,
+                             PlatformTransactionManager transactionManager,
+                             Environment environment,
+                             @Value("${app.ids.block-size:100}") int blockSize,
+                             @Value("${app.ids.digits:8}") int digits) {
+        this.idSequenceRepository = idSequenceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        String url = environment.getProperty("spring.datasource.url");
+        this.singleConnection = url == null || url.startsWith("jdbc:sqlite");
+        this.blockSize = Math.max(1, blockSize);
+        this.digits = digits;
+        for (IdentifierType type : IdentifierType.values()) {
+            sequences.put(type, new Sequence(type, environment.getProperty(
+                    "app.ids." + type.getKey() + ".prefix", type.getDefaultPrefix())));
+        }
+    }
+
+    /** One half-open range [next, limit) of reserved values. */
+    private record Block(AtomicLong next, long limit) {
+    }
+
+    private static final class Sequence {
+        final IdentifierType type;
+        final String prefix;
+        volatile Block block = new Block(new AtomicLong(), 0);
+
+        Sequence(IdentifierType type, String prefix) {
+            this.type = type;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Creates the IdSequences rows that do not exist yet (MySQL gets the table from Hibernate,
+     * SQLite from the schema scripts - neither seeds the rows).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initSequences() {
+        for (IdentifierType type : IdentifierType.values()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!idSequenceRepository.existsById(type.getKey())) {
+                        idSequenceRepository.save(new IdSequence(type.getKey(), 1L));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it first
+            }
+        }
+    }
+
+    public String next(IdentifierType type) {
+        Sequence sequence = sequences.get(type);
+        while (true) {
+            Block block = sequence.block;
+            long value = block.next().getAndIncrement();
+            if (value < block.limit()) {
+                return format(sequence.prefix, value);
+            }
+            refill(sequence, block);
+        }
+    }
+
+    private void refill(Sequence sequence, Block exhausted) {
+        synchronized (sequence) {
+            if (sequence.block != exhausted) {
+                return; // another thread already refilled
+            }
+            long start = reserve(sequence, exhausted.limit());
+            sequence.block = new Block(new AtomicLong(start), start + blockSize);
+            log.debug("Reserved {} values {}..{}", sequence.type, start, start + blockSize - 1);
+        }
+    }
+
+    /** Reserves the next block, never below {@code floor}; returns its first value. */
+    private long reserve(Sequence sequence, long floor) {
+        String name = sequence.type.getKey();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> advance(name, floor));
+        }
+        if (!singleConnection) {
+            return newTransaction.execute(status -> advance(name, floor));
+        }
+        long start = advance(name, floor);
+        long limit = start + blockSize;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (sequence) {
+                        if (sequence.block.limit() == limit) {
+                            // The reservation rolled back with the caller - refill past it
+                            sequence.block = new Block(new AtomicLong(limit), limit);
+                        }
+                    }
+                }
+            }
+        });
+        return start;
+    }
+
+    private long advance(String name, long floor) {
+        if (idSequenceRepository.advance(name, floor, blockSize) == 0) {
+            idSequenceRepository.save(new IdSequence(name, Math.max(floor, 1L) + blockSize));
+            idSequenceRepository.flush();
+        }
+        return idSequenceRepository.findNextVal(name) - blockSize;
+    }
+
+    private String format(String prefix, long value) {
+        String number = Long.toString(value);
+        StringBuilder sb = new StringBuilder(prefix.length() + Math.max(digits, number.length()));
+        sb.append(prefix);
+        for (int i = number.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(number).toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycompany.sapo_leyendo.service;
+
+/**
+ * Business identifiers issued by IdentifierService, each backed by its own row in IdSequences.
+ * The prefix can be overridden with {@code app.ids.<key>.prefix}.
+ */
+public enum IdentifierType {
+    LPN("lpn", "LPN-"),
+    INBOUND_ORDER("inbound-order", "INB-"),
+    OUTBOUND_ORDER("outbound-order", "OUT-"),
+    PICK_LIST("pick-list", "PL-"),
+    TRANSPORT_LOAD("transport-load", "LOAD-"),
+    MANIFEST("manifest", "MAN-"),
+    NCR("ncr", "NCR-");
+
+    private final String key;
+    private final String defaultPrefix;
+
+    IdentifierType(String key, String defaultPrefix) {
+        this.key = key;
+        this.defaultPrefix = defaultPrefix;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getDefaultPrefix() {
+        return defaultPrefix;
+    }
+}
@@ -0,0 +1,41 @@
+package com.mycompany.sapo_leyendo.service;
+
+import java.util.Locale;
+
+/**
+ * File formats accepted by the streaming importer.
+ * CSV has a header row; NDJSON has one JSON object per line.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Resolves the format from an explicit name ("csv", "ndjson", "jsonl") or, failing that,
+     * from the request Content-Type. Returns null when neither says anything useful.
+     */
+    public static ImportFormat resolve(String name, String contentType) {
+        if (name != null && !name.isBlank()) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "csv":
+                    return CSV;
+                case "ndjson":
+                case "jsonl":
+                case "json":
+                    return NDJSON;
+                default:
+                    return null;
+            }
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("csv")) {
+                return CSV;
+            }
+            if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json")) {
+                return NDJSON;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Reads import records one at a time from a CSV or NDJSON stream - the file is never held
+ * in memory, only the current record.
+ * Field names are normalized (lower case, without '_', '-' and spaces), so "unit_price",
+ * "unitPrice" and "Unit Price" are the same column.
+ * CSV follows RFC 4180: quoted fields may contain separators, doubled quotes and line breaks.
+ * A record that cannot be parsed comes back as a Row with an error instead of stopping the read.
+ */
+public class ImportRecordReader implements Closeable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private List<String> header;
+    private long lineNumber;
+    private Row next;
+    private boolean finished;
+
+    public ImportRecordReader(Reader source, ImportFormat format) {
+        this.reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source, 64 * 1024);
+        this.format = format;
+    }
+
+    /**
+     * One record. {@code rowNumber} is the line the record starts on (1-based, header included),
+     * so rejections point at the line a person would open the file at.
+     */
+    public record Row(long rowNumber, Map<String, String> fields, String error) {
+
+        public static Row rejected(long rowNumber, String error) {
+            return new Row(rowNumber, Map.of(), error);
+        }
+
+        /** First non-blank value among the given (normalized) column names, trimmed. */
+        public String text(String... names) {
+            for (String name : names) {
+                String value = fields.get(name);
+                if (value != null && !value.isBlank()) {
+                    return value.trim();
+                }
+            }
+            return null;
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        if (next == null && !finished) {
+            next = format == ImportFormat.CSV ? readCsv() : readNdjson();
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    public Row next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '_' && c != '-' && c != '\uFEFF' && !Character.isWhitespace(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private Row readNdjson() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = JSON.readTree(line);
+            } catch (JsonProcessingException e) {
+                return Row.rejected(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                return Row.rejected(lineNumber, "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    fields.put(normalize(field.getKey()), value.isValueNode() ? value.asText() : value.toString());
+                }
+            });
+            return new Row(lineNumber, fields, null);
+        }
+        return null;
+    }
+
+    private Row readCsv() throws IOException {
+        if (header == null) {
+            List<String> names = readCsvRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(normalize(name));
+            }
+        }
+        List<String> values;
+        long start;
+        do {
+            start = lineNumber + 1;
+            values = readCsvRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty()); // blank line
+
+        if (values.size() != header.size()) {
+            return Row.rejected(start, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return new Row(start, fields, null);
+    }
+
+    /** Reads one CSV record, which may span several physical lines. Null at end of input. */
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (c == -1) {
+                values.add(field.toString());
+                return values;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                values.add(field.toString());
+                return values;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.importer.ImportRejection;
+import com.mycompany.sapo_leyendo.dto.importer.ImportResult;
+import com.mycompany.sapo_leyendo.model.InboundOrder;
+import com.mycompany.sapo_leyendo.model.InboundOrderItem;
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.model.ProductCategory;
+import com.mycompany.sapo_leyendo.repository.InboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.InboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.ProductCategoryRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming importer for the product catalog and supplier ASNs.
+ * Records are read one at a time (see ImportRecordReader) and written in batches of
+ * {@code app.import.batch-size} rows, each batch in its own transaction with the persistence
+ * context cleared afterwards - memory stays flat however large the file is.
+ * Bad rows are rejected individually; a batch the database refuses is rejected as a whole,
+ * earlier batches stay committed.
+ */
+@Service
+@Slf4j
+public class ImportService {
+
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final Integer DEFAULT_UOM_ID = 1;
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final InboundOrderRepository inboundOrderRepository;
+    private final InboundOrderItemRepository inboundOrderItemRepository;
+    private final UomService uomService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicLong importIds = new AtomicLong();
+    private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+
+    public ImportService(ProductRepository productRepository,
+                         ProductCategoryRepository productCategoryRepository,
+                         InboundOrderRepository inboundOrderRepository,
+                         InboundOrderItemRepository inboundOrderItemRepository,
+                         UomService uomService,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.import.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productCategoryRepository = productCategoryRepository;
+        this.inboundOrderRepository = inboundOrderRepository;
+        this.inboundOrderItemRepository = inboundOrderItemRepository;
+        this.uomService = uomService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Upserts products by SKU. Columns: sku, name, description, category (name), uom (id),
+     * weight_kg, length_cm, width_cm, height_cm, unit_price, min_stock.
+     * Only the columns present in a row change an existing product; name is required for a new one.
+     */
+    public ImportResult importProducts(InputStream input, ImportFormat format) {
+        Map<String, Integer> categories = new HashMap<>();
+        for (ProductCategory category : productCategoryRepository.findAll()) {
+            categories.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+        return run("products", input, format, (rows, rejected) -> writeProducts(rows, rejected, categories));
+    }
+
+    /**
+     * Creates inbound orders and their lines. Columns: reference, supplier, expected_date, sku,
+     * quantity, batch_number. Rows sharing a reference become lines of one order; lines may only
+     * be added to an order that is still PLANNED.
+     */
+    public ImportResult importAsn(InputStream input, ImportFormat format) {
+        return run("asn", input, format, this::writeAsnLines);
+    }
+
+    /** Snapshots of the imports currently in progress. */
+    public List<ImportResult> getRunningImports() {
+        List<ImportResult> snapshots = new ArrayList<>();
+        for (Progress progress : running.values()) {
+            snapshots.add(progress.snapshot("RUNNING"));
+        }
+        return snapshots;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        /** Writes the valid rows of one batch, adds the others to {@code rejected}; returns rows written. */
+        int write(List<ImportRecordReader.Row> rows, List<ImportRejection> rejected);
+    }
+
+    private ImportResult run(String type, InputStream input, ImportFormat format, BatchWriter writer) {
+        Progress progress = new Progress(importIds.incrementAndGet(), type, format);
+        running.put(progress.id, progress);
+        try (ImportRecordReader reader = new ImportRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8), format)) {
+            List<ImportRecordReader.Row> batch = new ArrayList<>(batchSize);
+            while (reader.hasNext()) {
+                ImportRecordReader.Row row = reader.next();
+                progress.rowsRead++;
+                if (row.error() != null) {
+                    progress.reject(row.rowNumber(), row.error());
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, writer, progress);
+                    batch.clear();
+                }
+            }
+            writeBatch(batch, writer, progress);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read import file: " + e.getMessage(), e);
+        } finally {
+            running.remove(progress.id);
+        }
+        ImportResult result = progress.snapshot("COMPLETED");
+        log.info("{} import finished: {} rows read, {} imported, {} rejected in {} ms ({} rows/s)",
+                type, result.rowsRead(), result.rowsImported(), result.rowsRejected(),
+                result.elapsedMs(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private void writeBatch(List<ImportRecordReader.Row> batch, BatchWriter writer, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ImportRejection> rejected = new ArrayList<>();
+        try {
+            int written = transactionTemplate.execute(status -> {
+                int count = writer.write(batch, rejected);
+                // Push the batch out and forget it - the session must not grow with the file
+                entityManager.flush();
+                entityManager.clear();
+                return count;
+            });
+            progress.rowsImported += written;
+            rejected.forEach(rejection -> progress.reject(rejection.row(), rejection.reason()));
+        } catch (DataAccessException | PersistenceException e) {
+            String reason = "Batch rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            batch.forEach(row -> progress.reject(row.rowNumber(), reason));
+        }
+        progress.batches++;
+        log.debug("{} import #{}: {} rows read, {} imported, {} rejected",
+                progress.type, progress.id, progress.rowsRead, progress.rowsImported, progress.rowsRejected);
+    }
+
+    private int writeProducts(List<ImportRecordReader.Row> rows, List<ImportRejection> rejected,
+                              Map<String, Integer> categories) {
+        Set<String> skus = new HashSet<>();
+        for (ImportRecordReader.Row row : rows) {
+            String sku = row.text("sku");
+            if (sku != null) {
+                skus.add(sku);
+            }
+        }
+        Map<String, Product> bySku = new HashMap<>();
+        for (Product product : productRepository.findBySkuIn(skus)) {
+            bySku.put(product.getSku(), product);
+        }
+
+        Map<String, Product> changed = new LinkedHashMap<>();
+        int written = 0;
+        for (ImportRecordReader.Row row : rows) {
+            String sku = row.text("sku");
+            if (sku == null) {
+                rejected.add(new ImportRejection(row.rowNumber(), "sku is required"));
+                continue;
+            }
+            Product product = bySku.get(sku);
+            String name = row.text("name");
+            if (product == null && name == null) {
+                rejected.add(new ImportRejection(row.rowNumber(), "name is required for new product " + sku));
+                continue;
+            }
+
+            // Parse everything first, so a bad value leaves the product untouched
+            Integer categoryId;
+            Integer uomId;
+            Double weight, length, width, height;
+            BigDecimal price;
+            Integer minStock;
+            try {
+                String category = row.text("category");
+                categoryId = category != null ? categories.get(category.toLowerCase(Locale.ROOT)) : null;
+                if (category != null && categoryId == null) {
+                    throw new IllegalArgumentException("Unknown category: " + category);
+                }
+                uomId = integer(row, "uom", "idbaseuom", "baseuom");
+                // In-memory unit cache - no query per row
+                if (uomId != null && uomService.get(uomId).isEmpty()) {
+                    throw new IllegalArgumentException("Unknown unit of measure: " + uomId);
+                }
+                weight = decimal(row, "weightkg", "weight");
+                length = decimal(row, "lengthcm", "length");
+                width = decimal(row, "widthcm", "width");
+                height = decimal(row, "heightcm", "height");
+                price = money(row, "unitprice", "price");
+                minStock = integer(row, "minstock", "minstocklevel");
+            } catch (IllegalArgumentException e) {
+                rejected.add(new ImportRejection(row.rowNumber(), e.getMessage()));
+                continue;
+            }
+
+            if (product == null) {
+                product = new Product();
+                product.setSku(sku);
+                product.setIdBaseUom(DEFAULT_UOM_ID);
+                product.setMinStockLevel(0);
+                bySku.put(sku, product);
+            }
+            if (name != null) product.setName(name);
+            String description = row.text("description");
+            if (description != null) product.setDescription(description);
+            if (categoryId != null) product.setCategory(productCategoryRepository.getReferenceById(categoryId));
+            if (uomId != null) product.setIdBaseUom(uomId);
+            if (weight != null) product.setWeightKg(weight);
+            if (length != null) product.setLengthCm(length);
+            if (width != null) product.setWidthCm(width);
+            if (height != null) product.setHeightCm(height);
+            if (price != null) product.setUnitPrice(price);
+            if (minStock != null) product.setMinStockLevel(minStock);
+            changed.put(sku, product);
+            written++;
+        }
+        productRepository.saveAll(changed.values());
+        return written;
+    }
+
+    private int writeAsnLines(List<ImportRecordReader.Row> rows, List<ImportRejection> rejected) {
+        Set<String> references = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (ImportRecordReader.Row row : rows) {
+            String reference = reference(row);
+            String sku = row.text("sku");
+            if (reference != null) references.add(reference);
+            if (sku != null) skus.add(sku);
+        }
+        Map<String, InboundOrder> orders = new HashMap<>();
+        for (InboundOrder order : inboundOrderRepository.findByReferenceNumberIn(references)) {
+            orders.put(order.getReferenceNumber(), order);
+        }
+        Map<String, Product> products = new HashMap<>();
+        for (Product product : productRepository.findBySkuIn(skus)) {
+            products.put(product.getSku(), product);
+        }
+
+        List<InboundOrder> newOrders = new ArrayList<>();
+        List<InboundOrderItem> items = new ArrayList<>();
+        for (ImportRecordReader.Row row : rows) {
+            String reference = reference(row);
+            String sku = row.text("sku");
+            Integer quantity;
+            LocalDateTime expectedDate;
+            try {
+                if (reference == null) {
+                    throw new IllegalArgumentException("reference is required");
+                }
+                if (sku == null) {
+                    throw new IllegalArgumentException("sku is required");
+                }
+                quantity = integer(row, "quantity", "quantityexpected", "expectedquantity");
+                if (quantity == null || quantity <= 0) {
+                    throw new IllegalArgumentException("quantity must be a positive number");
+                }
+                expectedDate = dateTime(row.text("expecteddate", "expectedarrival"));
+            } catch (IllegalArgumentException e) {
+                rejected.add(new ImportRejection(row.rowNumber(), e.getMessage()));
+                continue;
+            }
+            Product product = products.get(sku);
+            if (product == null) {
+                rejected.add(new ImportRejection(row.rowNumber(), "Product not found: " + sku));
+                continue;
+            }
+
+            InboundOrder order = orders.get(reference);
+            if (order == null) {
+                order = new InboundOrder();
+                order.setReferenceNumber(reference);
+                order.setSupplier(row.text("supplier"));
+                order.setExpectedDate(expectedDate);
+                order.setStatus("PLANNED");
+                orders.put(reference, order);
+                newOrders.add(order);
+            } else if (!"PLANNED".equals(order.getStatus())) {
+                rejected.add(new ImportRejection(row.rowNumber(),
+                        "Inbound order " + reference + " is already " + order.getStatus()));
+                continue;
+            }
+
+            InboundOrderItem item = new InboundOrderItem();
+            item.setInboundOrder(order);
+            item.setProduct(product);
+            item.setQuantityExpected(quantity);
+            item.setQuantityReceived(0);
+            item.setBatchNumber(row.text("batchnumber", "batch"));
+            items.add(item);
+        }
+        inboundOrderRepository.saveAll(newOrders);
+        inboundOrderItemRepository.saveAll(items);
+        return items.size();
+    }
+
+    private static String reference(ImportRecordReader.Row row) {
+        return row.text("reference", "referencenumber", "orderreference");
+    }
+
+    private static Integer integer(ImportRecordReader.Row row, String... names) {
+        String value = row.text(names);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(names[0] + " is not a whole number: " + value);
+        }
+    }
+
+    private static Double decimal(ImportRecordReader.Row row, String... names) {
+        String value = row.text(names);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(names[0] + " is not a number: " + value);
+        }
+    }
+
+    private static BigDecimal money(ImportRecordReader.Row row, String... names) {
+        String value = row.text(names);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(names[0] + " is not a number: " + value);
+        }
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("expected_date is not an ISO date: " + value);
+        }
+    }
+
+    /** Mutable counters of one import; only its own thread writes them. */
+    private static class Progress {
+        private final long id;
+        private final String type;
+        private final ImportFormat format;
+        private final long startedAt = System.nanoTime();
+        private final List<ImportRejection> rejections = Collections.synchronizedList(new ArrayList<>());
+        private volatile long rowsRead;
+        private volatile long rowsImported;
+        private volatile long rowsRejected;
+        private volatile int batches;
+
+        Progress(long id, String type, ImportFormat format) {
+            this.id = id;
+            this.type = type;
+            this.format = format;
+        }
+
+        void reject(long row, String reason) {
+            rowsRejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new ImportRejection(row, reason));
+            }
+        }
+
+        ImportResult snapshot(String status) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+            double rowsPerSecond = rowsRead * 1_000_000_000.0 / elapsedNanos;
+            List<ImportRejection> reported;
+            synchronized (rejections) {
+                reported = List.copyOf(rejections);
+            }
+            return new ImportResult(id, type, format.name(), status, rowsRead, rowsImported, rowsRejected,
+                    batches, elapsedNanos / 1_000_000, rowsPerSecond, reported);
+        }
+    }
+}
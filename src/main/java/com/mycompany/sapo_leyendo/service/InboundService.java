@@ -1,14 +1,21 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchLine;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchRequest;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchResult;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveLineResult;
+import com.mycompany.sapo_leyendo.jfr.ReceiptPostingEvent;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class InboundService {
@@ -35,52 +42,109 @@ public class InboundService {
     private DockAppointmentRepository dockAppointmentRepository;
 
     @Autowired
-    private UnitOfMeasureRepository unitOfMeasureRepository;
+    private UomService uomService;
 
-    public List<InboundOrder> getAllInboundOrders() {
-        return inboundOrderRepository.findAll();
+    @Autowired
+    private SlottingService slottingService;
+
+    @Autowired
+    private DockSchedulerService dockSchedulerService;
+
+    @Autowired
+    private IdentifierService identifierService;
+
+    /**
+     * Orders by status, supplier and/or expected date range; sortable by id or reference number.
+     */
+    public KeysetPage<InboundOrder> getInboundOrders(String status, String supplier, LocalDateTime from,
+                                                     LocalDateTime to, KeysetRequest page) {
+        return KeysetPaging.page(inboundOrderRepository, InboundOrder.class,
+                KeysetPaging.allOf(KeysetPaging.equal("status", status),
+                        KeysetPaging.equal("supplier", supplier),
+                        KeysetPaging.between("expectedDate", from, to)),
+                page, "id", "referenceNumber");
     }
 
     public Optional<InboundOrder> getInboundOrderById(Integer id) {
         return inboundOrderRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Receipt> getReceiptById(Integer id) {
+        return receiptRepository.findById(id);
+    }
+
     public InboundOrder saveInboundOrder(InboundOrder order) {
         // Auto-generate referenceNumber if not provided (required field)
         if (order.getReferenceNumber() == null || order.getReferenceNumber().isEmpty()) {
-            order.setReferenceNumber("INB-" + System.currentTimeMillis());
+            order.setReferenceNumber(identifierService.next(IdentifierType.INBOUND_ORDER));
         }
         return inboundOrderRepository.save(order);
     }
 
-    @Transactional
     public DockAppointment scheduleDock(Integer inboundOrderId, Integer dockId, LocalDateTime startTime, LocalDateTime endTime, String carrierName) {
+        return scheduleDock(inboundOrderId, dockId, startTime, endTime, carrierName, false);
+    }
+
+    /**
+     * Books a dock for an inbound order. An overlapping slot is rejected, or with
+     * {@code autoShift} moved to the next free slot of the same length on that dock.
+     */
+    @Transactional
+    public DockAppointment scheduleDock(Integer inboundOrderId, Integer dockId, LocalDateTime startTime, LocalDateTime endTime,
+                                        String carrierName, boolean autoShift) {
         InboundOrder order = inboundOrderRepository.findById(inboundOrderId)
                 .orElseThrow(() -> new RuntimeException("Inbound Order not found"));
 
-        // Basic validation: Check for overlapping appointments on the same dock
-        // This is a simplified check. In production, we'd use a custom query.
-        // For now, we just save it.
-        
+        // Overlaps are checked against the in-memory dock calendar
+        DockSchedulerService.Booking booking = dockSchedulerService.book(dockId, startTime, endTime, autoShift);
+
         DockAppointment appointment = new DockAppointment();
         appointment.setInboundOrder(order);
         appointment.setDockId(dockId);
-        appointment.setStartTime(startTime);
-        appointment.setEndTime(endTime);
+        appointment.setStartTime(booking.startTime());
+        appointment.setEndTime(booking.endTime());
         appointment.setCarrierName(carrierName);
-        
-        return dockAppointmentRepository.save(appointment);
+
+        DockAppointment saved = dockAppointmentRepository.save(appointment);
+        dockSchedulerService.bind(booking, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Cancels a dock appointment and gives its time back to the dock calendar once the delete commits.
+     */
+    @Transactional
+    public void cancelDockAppointment(Integer appointmentId) {
+        DockAppointment appointment = dockAppointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new RuntimeException("Dock appointment not found"));
+        dockAppointmentRepository.delete(appointment);
+        dockSchedulerService.releaseAppointment(appointmentId);
     }
 
     public String generateLpn() {
-        // Simple LPN generation logic: "LPN-" + Timestamp + Random
-        return "LPN-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        return identifierService.next(IdentifierType.LPN);
     }
 
+    @Timed(value = "wms.operation", histogram = true)
     @Transactional
     public Receipt receiveItem(Integer inboundOrderItemId, String lpn, Integer quantity, Long operatorId, String damageCode) {
+        return receiveItem(inboundOrderItemId, lpn, quantity, operatorId, damageCode, null, null);
+    }
+
+    /**
+     * Receives one line. The quantity may be counted in any unit of the product (by id or code);
+     * it is converted to the product's base unit, which is what Receipt and Inventory hold.
+     */
+    @Timed(value = "wms.operation", histogram = true)
+    @Transactional
+    public Receipt receiveItem(Integer inboundOrderItemId, String lpn, Integer quantity, Long operatorId, String damageCode,
+                               Integer uomId, String uomCode) {
+        ReceiptPostingEvent event = new ReceiptPostingEvent();
+        event.begin();
         InboundOrderItem item = inboundOrderItemRepository.findById(inboundOrderItemId)
                 .orElseThrow(() -> new RuntimeException("Inbound Order Item not found"));
+        quantity = uomService.toBaseWhole(item.getProduct(), quantity, uomService.resolve(uomId, uomCode));
 
         Receipt receipt = new Receipt();
         receipt.setInboundOrderItem(item);
@@ -94,16 +158,7 @@ public class InboundService {
 
         // Create Inventory at Dock
         InboundOrder order = item.getInboundOrder();
-        Location dockLocation;
-        if (order.getDockId() != null) {
-            dockLocation = locationRepository.findById(order.getDockId())
-                    .orElseThrow(() -> new RuntimeException("Dock location not found"));
-        } else {
-            // Use first available DOCK location as default
-            dockLocation = locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("DOCK")
-                    .orElseGet(() -> locationRepository.findAll().stream().findFirst()
-                            .orElseThrow(() -> new RuntimeException("No locations available")));
-        }
+        Location dockLocation = resolveDockLocation(order);
 
         Inventory inventory = new Inventory();
         inventory.setProduct(item.getProduct());
@@ -113,16 +168,7 @@ public class InboundService {
         inventory.setBatchNumber(item.getBatchNumber());
         inventory.setStatus(InventoryStatus.AVAILABLE);
         inventory.setReceivedAt(LocalDateTime.now()); // Required field
-        
-        // Set UOM - use product's base UOM or find default "SZT" (pieces)
-        UnitOfMeasure uom = null;
-        if (item.getProduct() != null && item.getProduct().getIdBaseUom() != null) {
-            uom = unitOfMeasureRepository.findById(item.getProduct().getIdBaseUom()).orElse(null);
-        }
-        if (uom == null) {
-            uom = unitOfMeasureRepository.findById(1).orElse(null); // Default to first UOM
-        }
-        inventory.setUom(uom);
+        inventory.setUom(uomService.baseUom(item.getProduct()));
         
         inventoryRepository.save(inventory);
 
@@ -132,8 +178,12 @@ public class InboundService {
         task.setInventory(inventory);
         task.setSourceLocation(dockLocation);
         
-        // Find Target Location (Simple Strategy: First available SHELF)
-        Location targetLocation = locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")
+        // Find Target Location from the slotting index (capacity, mixed-SKU rules, pick sequence)
+        Location targetLocation = slottingService.reserve(item.getProduct(), quantity)
+                .flatMap(slot -> {
+                    slottingService.bind(slot, inventory.getId());
+                    return locationRepository.findById(slot.locationId());
+                })
                 .orElse(null);
         task.setTargetLocation(targetLocation);
 
@@ -150,6 +200,180 @@ public class InboundService {
             inboundOrderRepository.save(order);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.setIds(order.getId(), item.getId());
+            event.lines = 1;
+            event.receipts = 1;
+            event.quantity = quantity;
+            event.putAwayTargets = targetLocation != null ? 1 : 0;
+            event.commit();
+        }
         return receipt;
     }
+
+    /**
+     * Receives several lines of one inbound order (a whole truck) in one transaction.
+     * Order, lines and dock are loaded once, units come from the UOM registry; Receipts, Inventory and PUTAWAY tasks are
+     * written with saveAll. A line that cannot be received is rejected on its own and does
+     * not stop the others.
+     */
+    @Transactional
+    public ReceiveBatchResult receiveBatch(Integer inboundOrderId, ReceiveBatchRequest request) {
+        ReceiptPostingEvent event = new ReceiptPostingEvent();
+        event.begin();
+        InboundOrder order = inboundOrderRepository.findById(inboundOrderId)
+                .orElseThrow(() -> new RuntimeException("Inbound Order not found"));
+        List<ReceiveBatchLine> lines = request.getLines() != null ? request.getLines() : List.of();
+
+        // Reference data - once per batch instead of once per line
+        Map<Integer, InboundOrderItem> items = new HashMap<>();
+        for (InboundOrderItem item : inboundOrderItemRepository.findByInboundOrderId(inboundOrderId)) {
+            items.put(item.getId(), item);
+        }
+        Location dockLocation = resolveDockLocation(order);
+        Set<String> requestedLpns = new HashSet<>();
+        for (ReceiveBatchLine line : lines) {
+            if (line.getLpn() != null) {
+                requestedLpns.add(line.getLpn());
+            }
+        }
+        Set<String> existingLpns = requestedLpns.isEmpty() ? Set.of() : inventoryRepository.findExistingLpns(requestedLpns);
+
+        LocalDateTime now = LocalDateTime.now();
+        ReceiveLineResult[] results = new ReceiveLineResult[lines.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Receipt> receipts = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+        Set<InboundOrderItem> touchedItems = new LinkedHashSet<>();
+        Set<String> lpns = new HashSet<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            ReceiveBatchLine line = lines.get(i);
+            InboundOrderItem item = line.getInboundOrderItemId() != null ? items.get(line.getInboundOrderItemId()) : null;
+            if (item == null) {
+                results[i] = ReceiveLineResult.rejected(i, line, "Inbound Order Item not found in order " + inboundOrderId);
+                continue;
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                results[i] = ReceiveLineResult.rejected(i, line, "quantity must be a positive number");
+                continue;
+            }
+            int quantity;
+            try {
+                quantity = uomService.toBaseWhole(item.getProduct(), line.getQuantity(),
+                        uomService.resolve(line.getUomId(), line.getUomCode()));
+            } catch (RuntimeException e) {
+                results[i] = ReceiveLineResult.rejected(i, line, e.getMessage());
+                continue;
+            }
+            String lpn = line.getLpn() != null ? line.getLpn() : generateLpn();
+            if (existingLpns.contains(lpn)) {
+                results[i] = ReceiveLineResult.rejected(i, line, "LPN already in stock: " + lpn);
+                continue;
+            }
+            if (!lpns.add(lpn)) {
+                results[i] = ReceiveLineResult.rejected(i, line, "Duplicate LPN in batch: " + lpn);
+                continue;
+            }
+
+            Receipt receipt = new Receipt();
+            receipt.setInboundOrderItem(item);
+            receipt.setLpn(lpn);
+            receipt.setQuantity(quantity);
+            receipt.setOperatorId(request.getOperatorId());
+            receipt.setTimestamp(now);
+            receipt.setDamageCode(line.getDamageCode());
+            receipts.add(receipt);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(item.getProduct());
+            inventory.setLocation(dockLocation);
+            inventory.setQuantity(quantity);
+            inventory.setLpn(lpn);
+            inventory.setBatchNumber(item.getBatchNumber());
+            inventory.setStatus(InventoryStatus.AVAILABLE);
+            inventory.setReceivedAt(now);
+            inventory.setUom(uomService.baseUom(item.getProduct()));
+            inventories.add(inventory);
+
+            item.setQuantityReceived(item.getQuantityReceived() + quantity);
+            touchedItems.add(item);
+            acceptedIndexes.add(i);
+        }
+
+        receiptRepository.saveAll(receipts);
+        inventoryRepository.saveAll(inventories);
+
+        // Put-away targets come from the in-memory slotting index; the chosen
+        // locations are then fetched in one query
+        List<SlottingService.Reservation> slots = new ArrayList<>(inventories.size());
+        Set<Integer> targetIds = new HashSet<>();
+        for (Inventory inventory : inventories) {
+            SlottingService.Reservation slot = slottingService.reserve(inventory.getProduct(), inventory.getQuantity()).orElse(null);
+            if (slot != null) {
+                slottingService.bind(slot, inventory.getId());
+                targetIds.add(slot.locationId());
+            }
+            slots.add(slot);
+        }
+        Map<Integer, Location> targets = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            locationRepository.findAllById(targetIds).forEach(location -> targets.put(location.getId(), location));
+        }
+
+        List<MoveTask> tasks = new ArrayList<>(inventories.size());
+        for (int k = 0; k < inventories.size(); k++) {
+            SlottingService.Reservation slot = slots.get(k);
+            MoveTask task = new MoveTask();
+            task.setType(MoveTaskType.PUTAWAY);
+            task.setInventory(inventories.get(k));
+            task.setSourceLocation(dockLocation);
+            task.setTargetLocation(slot != null ? targets.get(slot.locationId()) : null);
+            task.setPriority(5);
+            task.setStatus(MoveTaskStatus.PENDING);
+            task.setCreatedAt(now);
+            tasks.add(task);
+        }
+        moveTaskRepository.saveAll(tasks);
+        inboundOrderItemRepository.saveAll(touchedItems);
+
+        if (!receipts.isEmpty() && ("PLANNED".equals(order.getStatus()) || "ARRIVED".equals(order.getStatus()))) {
+            order.setStatus("IN_PROGRESS");
+            inboundOrderRepository.save(order);
+        }
+
+        for (int k = 0; k < acceptedIndexes.size(); k++) {
+            int i = acceptedIndexes.get(k);
+            Inventory inventory = inventories.get(k);
+            MoveTask task = tasks.get(k);
+            results[i] = new ReceiveLineResult(i, lines.get(i).getInboundOrderItemId(), inventory.getLpn(), true,
+                    task.getTargetLocation() != null ? "Received" : "Received - no put-away location available",
+                    receipts.get(k).getId(), inventory.getId(), task.getId(),
+                    task.getTargetLocation() != null ? task.getTargetLocation().getId() : null);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setIds(inboundOrderId, null);
+            event.lines = lines.size();
+            event.receipts = receipts.size();
+            event.rejected = lines.size() - receipts.size();
+            event.quantity = receipts.stream().mapToLong(Receipt::getQuantity).sum();
+            event.putAwayTargets = (int) tasks.stream().filter(task -> task.getTargetLocation() != null).count();
+            event.commit();
+        }
+        return new ReceiveBatchResult(inboundOrderId, order.getStatus(), acceptedIndexes.size(),
+                lines.size() - acceptedIndexes.size(), Arrays.asList(results));
+    }
+
+    private Location resolveDockLocation(InboundOrder order) {
+        if (order.getDockId() != null) {
+            return locationRepository.findById(order.getDockId())
+                    .orElseThrow(() -> new RuntimeException("Dock location not found"));
+        }
+        // Use first available DOCK location as default
+        return locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("DOCK")
+                .orElseGet(() -> locationRepository.findAll().stream().findFirst()
+                        .orElseThrow(() -> new RuntimeException("No locations available")));
+    }
 }
@@ -1,5 +1,6 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.inventory.InventoryListItem;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.InventoryRepository;
 import com.mycompany.sapo_leyendo.repository.LocationRepository;
@@ -27,21 +28,38 @@ public class InventoryService {
     @Autowired
     private ReceiptRepository receiptRepository;
 
+    @Autowired
+    private SlottingService slottingService;
+
     @Autowired
     private com.mycompany.sapo_leyendo.repository.StockCountSessionRepository stockCountSessionRepository;
 
-    public List<Inventory> getAllInventory() {
-        return inventoryRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<InventoryListItem> getAllInventory() {
+        return inventoryRepository.findAllListItems();
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryListItem> getInventoryByProduct(Integer productId) {
+        return inventoryRepository.findListItemsByProductId(productId);
     }
 
-    public List<Inventory> getInventoryByProduct(Integer productId) {
-        return inventoryRepository.findByProductId(productId);
+    @Transactional(readOnly = true)
+    public List<InventoryListItem> getInventoryByProduct(Integer productId, InventoryStatus status) {
+        return inventoryRepository.findListItemsByProductIdAndStatus(productId, status);
     }
 
-    public List<Inventory> getInventoryByLocation(Integer locationId) {
-        return inventoryRepository.findByLocationId(locationId);
+    @Transactional(readOnly = true)
+    public List<InventoryListItem> getInventoryByLocation(Integer locationId) {
+        return inventoryRepository.findListItemsByLocationId(locationId);
     }
 
+    @Transactional(readOnly = true)
+    public List<InventoryListItem> getInventoryByLocation(Integer locationId, InventoryStatus status) {
+        return inventoryRepository.findListItemsByLocationIdAndStatus(locationId, status);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Inventory> getInventoryById(Integer id) {
         return inventoryRepository.findById(id);
     }
@@ -65,16 +83,17 @@ public class InventoryService {
         // For simplicity, let's assume the receipt implies the item is at a "DOCK" location.
         // We need to find a target location.
 
-        // Simple strategy: Find first active location of type 'SHELF' that is empty or has same product
-        // This is a placeholder for the complex algorithm described in spec.
-        Location targetLocation = locationRepository.findAll().stream()
-                .filter(l -> l.isActive() && "SHELF".equals(l.getLocationType() != null ? l.getLocationType().getName() : ""))
-                .findFirst()
+        // Slotting index: a location with room for the weight/volume that accepts this SKU,
+        // capacity is booked until the stock arrives there
+        Product product = receipt.getInboundOrderItem().getProduct();
+        SlottingService.Reservation slot = slottingService.reserve(product, receipt.getQuantity())
                 .orElseThrow(() -> new RuntimeException("No suitable location found for put-away"));
+        Location targetLocation = locationRepository.findById(slot.locationId())
+                .orElseThrow(() -> new RuntimeException("Location not found"));
 
         // Create Inventory record (Virtual move to system)
         Inventory inventory = new Inventory();
-        inventory.setProduct(receipt.getInboundOrderItem().getProduct());
+        inventory.setProduct(product);
         inventory.setQuantity(receipt.getQuantity());
         inventory.setLpn(receipt.getLpn());
         inventory.setStatus(InventoryStatus.AVAILABLE); // Or QC_HOLD if QC module says so
@@ -83,13 +102,12 @@ public class InventoryService {
         // Let's say current location is null or a special "RECEIVING" location.
         // But Inventory entity requires a location.
         // Let's fetch a "DOCK" location.
-        Location dockLocation = locationRepository.findAll().stream()
-                .filter(l -> "DOCK".equals(l.getLocationType() != null ? l.getLocationType().getName() : ""))
-                .findFirst()
+        Location dockLocation = locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("DOCK")
                 .orElse(targetLocation); // Fallback
 
         inventory.setLocation(dockLocation);
         inventory = inventoryRepository.save(inventory);
+        slottingService.bind(slot, inventory.getId());
 
         // 2. Create Move Task
         MoveTask task = new MoveTask();
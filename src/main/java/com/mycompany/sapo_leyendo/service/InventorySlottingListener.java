@@ -0,0 +1,54 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.Inventory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Feeds Inventory inserts, moves, quantity changes and deletes into the slotting index.
+ * Values are captured when Hibernate flushes and applied only after commit, so a rolled
+ * back move never shows up as occupied space.
+ */
+@Component
+public class InventorySlottingListener {
+
+    // Provider: listeners are created with the EntityManagerFactory, before the service
+    private final ObjectProvider<SlottingService> slottingService;
+
+    public InventorySlottingListener(ObjectProvider<SlottingService> slottingService) {
+        this.slottingService = slottingService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void stored(Inventory inventory) {
+        Integer inventoryId = inventory.getId();
+        Integer locationId = inventory.getLocation().getId();
+        SlottingService.Load load = SlottingService.loadOf(inventory);
+        afterCommit(() -> slottingService.getObject().onInventoryStored(inventoryId, locationId, load));
+    }
+
+    @PostRemove
+    public void removed(Inventory inventory) {
+        Integer inventoryId = inventory.getId();
+        afterCommit(() -> slottingService.getObject().onInventoryRemoved(inventoryId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.dto.LocationCreateRequest;
 import com.mycompany.sapo_leyendo.model.Location;
+import com.mycompany.sapo_leyendo.model.LocationStatus;
 import com.mycompany.sapo_leyendo.model.LocationType;
 import com.mycompany.sapo_leyendo.model.Zone;
+import com.mycompany.sapo_leyendo.repository.KeysetPaging;
 import com.mycompany.sapo_leyendo.repository.LocationRepository;
 import com.mycompany.sapo_leyendo.repository.LocationTypeRepository;
 import com.mycompany.sapo_leyendo.repository.ZoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,33 +30,53 @@ public class LocationService {
     @Autowired
     private LocationTypeRepository locationTypeRepository;
 
-    public List<Location> getAllLocations() {
-        return locationRepository.findAll();
+    @Autowired
+    private SlottingService slottingService;
+
+    /**
+     * Locations by zone, type and/or status; sortable by id or name.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Location> getLocations(Integer zoneId, Integer locationTypeId, LocationStatus status,
+                                             KeysetRequest page) {
+        return KeysetPaging.page(locationRepository, Location.class,
+                KeysetPaging.allOf(KeysetPaging.equalId("zone", zoneId),
+                        KeysetPaging.equalId("locationType", locationTypeId),
+                        KeysetPaging.equal("status", status)),
+                page, "id", "name");
     }
 
+    @Transactional(readOnly = true)
     public Optional<Location> getLocationById(Integer id) {
         return locationRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Location> getLocationByName(String name) {
         return locationRepository.findByName(name);
     }
 
     public Location saveLocation(Location location) {
-        return locationRepository.save(location);
+        Location saved = locationRepository.save(location);
+        slottingService.invalidate();
+        return saved;
     }
 
     public void deleteLocation(Integer id) {
         locationRepository.deleteById(id);
+        slottingService.invalidate();
     }
 
     // Zone methods
+    @Transactional(readOnly = true)
     public List<Zone> getAllZones() {
         return zoneRepository.findAll();
     }
 
     public Zone saveZone(Zone zone) {
-        return zoneRepository.save(zone);
+        Zone saved = zoneRepository.save(zone);
+        slottingService.invalidate();
+        return saved;
     }
 
     public Location createLocationFromRequest(LocationCreateRequest request) {
@@ -83,15 +108,20 @@ public class LocationService {
                     .ifPresent(location::setLocationType);
         }
         
-        return locationRepository.save(location);
+        Location saved = locationRepository.save(location);
+        slottingService.invalidate();
+        return saved;
     }
 
     // LocationType methods
+    @Transactional(readOnly = true)
     public List<LocationType> getAllLocationTypes() {
         return locationTypeRepository.findAll();
     }
 
     public LocationType saveLocationType(LocationType locationType) {
-        return locationTypeRepository.save(locationType);
+        LocationType saved = locationTypeRepository.save(locationType);
+        slottingService.invalidate();
+        return saved;
     }
 }
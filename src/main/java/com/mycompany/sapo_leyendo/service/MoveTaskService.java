@@ -7,7 +7,6 @@ import com.mycompany.sapo_leyendo.repository.InventoryRepository;
 import com.mycompany.sapo_leyendo.repository.MoveTaskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class MoveTaskService {
@@ -18,8 +17,14 @@ public class MoveTaskService {
     @Autowired
     private InventoryRepository inventoryRepository;
 
-    @Transactional
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetry;
+
     public MoveTask completeTask(Integer taskId) {
+        return optimisticRetry.execute("completeMoveTask", () -> doCompleteTask(taskId));
+    }
+
+    private MoveTask doCompleteTask(Integer taskId) {
         MoveTask task = moveTaskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
 
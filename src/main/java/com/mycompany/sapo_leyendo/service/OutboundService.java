@@ -1,18 +1,22 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.OutboundOrder;
 import com.mycompany.sapo_leyendo.model.OutboundOrderItem;
 import com.mycompany.sapo_leyendo.model.Product;
 import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.repository.KeysetPaging;
 import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
 import com.mycompany.sapo_leyendo.repository.OutboundOrderItemRepository;
 import com.mycompany.sapo_leyendo.repository.ProductRepository;
-import com.mycompany.sapo_leyendo.repository.UnitOfMeasureRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,21 +33,32 @@ public class OutboundService {
     private ProductRepository productRepository;
 
     @Autowired
-    private UnitOfMeasureRepository uomRepository;
+    private UomService uomService;
 
-    public List<OutboundOrder> getAllOutboundOrders() {
-        return outboundOrderRepository.findAll();
+    @Autowired
+    private IdentifierService identifierService;
+
+    /**
+     * Orders by status and/or creation date range; sortable by id or reference number.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<OutboundOrder> getOutboundOrders(String status, LocalDateTime from, LocalDateTime to,
+                                                       KeysetRequest page) {
+        return KeysetPaging.page(outboundOrderRepository, OutboundOrder.class,
+                KeysetPaging.allOf(KeysetPaging.equal("status", status),
+                        KeysetPaging.between("createdAt", from, to)),
+                page, "id", "referenceNumber");
     }
 
+    @Transactional(readOnly = true)
     public Optional<OutboundOrder> getOutboundOrderById(Integer id) {
-        return outboundOrderRepository.findById(id);
+        return outboundOrderRepository.findWithItemsById(id);
     }
 
     public OutboundOrder saveOutboundOrder(OutboundOrder order) {
-        // Auto-generate unique reference number if not provided or already exists
-        if (order.getReferenceNumber() == null || order.getReferenceNumber().isEmpty() ||
-            outboundOrderRepository.existsByReferenceNumber(order.getReferenceNumber())) {
-            order.setReferenceNumber("OUT-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000));
+        // Auto-generate reference number if not provided - generated numbers are unique by construction
+        if (order.getReferenceNumber() == null || order.getReferenceNumber().isEmpty()) {
+            order.setReferenceNumber(identifierService.next(IdentifierType.OUTBOUND_ORDER));
         }
         // Set createdAt if not provided
         if (order.getCreatedAt() == null) {
@@ -58,6 +73,7 @@ public class OutboundService {
 
     // ===== ITEM OPERATIONS =====
 
+    @Transactional(readOnly = true)
     public List<OutboundOrderItem> getItemsByOrderId(Integer orderId) {
         return outboundOrderItemRepository.findByOutboundOrderId(orderId);
     }
@@ -82,16 +98,25 @@ public class OutboundService {
                         }
                     }
                     
-                    // Set default UOM if not provided (use product's base UOM or fallback to ID 1 = SZT)
-                    if (item.getUom() == null) {
-                        if (item.getProduct() != null && item.getProduct().getIdBaseUom() != null) {
-                            UnitOfMeasure uom = uomRepository.findById(item.getProduct().getIdBaseUom())
-                                    .orElseGet(() -> uomRepository.findById(1).orElse(null));
-                            item.setUom(uom);
-                        } else {
-                            // Default to SZT (id=1)
-                            item.setUom(uomRepository.findById(1).orElse(null));
+                    // Lines are kept in the product's base UOM (fallback ID 1 = SZT); a line ordered
+                    // in another unit, e.g. cartons, is converted using the product's UOM conversions
+                    UnitOfMeasure ordered = item.getUom() != null
+                            ? uomService.resolve(item.getUom().getId(), item.getUom().getCode()) : null;
+                    UnitOfMeasure base = uomService.baseUom(item.getProduct());
+                    if (ordered == null || item.getProduct() == null || base == null) {
+                        item.setUom(ordered != null ? ordered : base);
+                    } else {
+                        if (item.getQuantityOrdered() != null && !ordered.getId().equals(base.getId())) {
+                            double quantity = uomService.toBase(item.getProduct(), item.getQuantityOrdered(), ordered);
+                            if (item.getUnitPrice() != null && quantity > 0) {
+                                // Same line total, price per base unit
+                                item.setUnitPrice(item.getUnitPrice()
+                                        .multiply(BigDecimal.valueOf(item.getQuantityOrdered()))
+                                        .divide(BigDecimal.valueOf(quantity), 4, RoundingMode.HALF_UP));
+                            }
+                            item.setQuantityOrdered(quantity);
                         }
+                        item.setUom(base);
                     }
                     
                     if (item.getQuantityPicked() == null) item.setQuantityPicked(0.0);
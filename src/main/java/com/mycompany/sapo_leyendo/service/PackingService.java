@@ -1,7 +1,9 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.jfr.CartonizationEvent;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +33,11 @@ public class PackingService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Transactional(readOnly = true)
+    public Optional<Parcel> getParcelById(Integer id) {
+        return parcelRepository.findById(id);
+    }
+
     @Transactional
     public Shipment startPacking(Integer outboundOrderId) {
         OutboundOrder order = outboundOrderRepository.findById(outboundOrderId)
@@ -69,8 +76,11 @@ public class PackingService {
         return parcelRepository.save(parcel);
     }
 
+    @Timed(value = "wms.operation", histogram = true)
     @Transactional
     public Parcel addItemToParcel(Integer parcelId, Integer productId, Integer quantity) {
+        CartonizationEvent event = new CartonizationEvent();
+        event.begin();
         Parcel parcel = parcelRepository.findById(parcelId)
                 .orElseThrow(() -> new RuntimeException("Parcel not found"));
 
@@ -109,6 +119,15 @@ public class PackingService {
             shipmentRepository.save(shipment);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "addItem";
+            event.setIds(shipment.getId(), parcel.getId(), productId,
+                    parcel.getPackingMaterial() != null ? parcel.getPackingMaterial().getId() : null);
+            event.quantity = quantity != null ? quantity : 0;
+            event.parcelItems = parcelItems.size();
+            event.commit();
+        }
         return parcel;
     }
     
@@ -143,6 +162,8 @@ public class PackingService {
      * Simplified Cartonization Logic.
      */
     public PackingMaterial suggestPackingMaterial(List<Product> products) {
+        CartonizationEvent event = new CartonizationEvent();
+        event.begin();
         double totalVolume = 0.0;
         for (Product p : products) {
             // Assuming Product has dimensions, if not we use a default or skip
@@ -157,11 +178,21 @@ public class PackingService {
         List<PackingMaterial> materials = packingMaterialRepository.findAll();
         
         double finalVolume = totalVolume;
-        return materials.stream()
+        PackingMaterial suggested = materials.stream()
                 .filter(m -> calculateVolume(m) >= finalVolume)
                 .sorted((m1, m2) -> Double.compare(calculateVolume(m1), calculateVolume(m2)))
                 .findFirst()
                 .orElse(null); // No box fits
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "suggestMaterial";
+            event.setIds(null, null, null, suggested != null ? suggested.getId() : null);
+            event.products = products.size();
+            event.materialsChecked = materials.size();
+            event.commit();
+        }
+        return suggested;
     }
 
     private double calculateVolume(PackingMaterial m) {
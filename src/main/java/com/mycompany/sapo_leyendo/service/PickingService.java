@@ -1,6 +1,9 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
+import com.mycompany.sapo_leyendo.jfr.WaveAllocationEvent;
 import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.InventoryAllocationRepository;
 import com.mycompany.sapo_leyendo.repository.InventoryRepository;
 import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
 
@@ -9,14 +12,21 @@ import com.mycompany.sapo_leyendo.repository.ProductRepository;
 import com.mycompany.sapo_leyendo.repository.UserRepository;
 import com.mycompany.sapo_leyendo.repository.WaveRepository;
 import com.mycompany.sapo_leyendo.repository.PickListRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PickingService {
@@ -28,6 +38,10 @@ public class PickingService {
     private final UserRepository userRepository;
     private final WaveRepository waveRepository;
     private final PickListRepository pickListRepository;
+    private final AllocationService allocationService;
+    private final InventoryAllocationRepository inventoryAllocationRepository;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final IdentifierService identifierService;
 
     public PickingService(OutboundOrderRepository outboundOrderRepository,
                           InventoryRepository inventoryRepository,
@@ -35,7 +49,11 @@ public class PickingService {
                           ProductRepository productRepository,
                           UserRepository userRepository,
                           WaveRepository waveRepository,
-                          PickListRepository pickListRepository) {
+                          PickListRepository pickListRepository,
+                          AllocationService allocationService,
+                          InventoryAllocationRepository inventoryAllocationRepository,
+                          OptimisticRetryExecutor optimisticRetry,
+                          IdentifierService identifierService) {
         this.outboundOrderRepository = outboundOrderRepository;
         this.inventoryRepository = inventoryRepository;
         this.pickingTaskRepository = pickingTaskRepository;
@@ -43,6 +61,10 @@ public class PickingService {
         this.userRepository = userRepository;
         this.waveRepository = waveRepository;
         this.pickListRepository = pickListRepository;
+        this.allocationService = allocationService;
+        this.inventoryAllocationRepository = inventoryAllocationRepository;
+        this.optimisticRetry = optimisticRetry;
+        this.identifierService = identifierService;
     }
 
     /**
@@ -65,30 +87,52 @@ public class PickingService {
         return waveRepository.save(wave);
     }
 
-    @Transactional
     public Wave runWave(Integer waveId, List<Integer> outboundOrderIds) {
-        allocateWave(waveId, outboundOrderIds);
-        releaseWave(waveId, outboundOrderIds);
-        return waveRepository.findById(waveId).orElseThrow();
+        return optimisticRetry.execute("runWave", () -> {
+            doAllocateWave(waveId, outboundOrderIds);
+            doReleaseWave(waveId, outboundOrderIds);
+            return waveRepository.findById(waveId).orElseThrow();
+        });
     }
 
-    public List<PickingTask> getPickingTasks(Integer waveId) {
-        // This assumes we can find tasks by wave.
-        // PickTask -> PickList -> Wave
-        // We need a custom query or filter.
-        // For now, let's fetch all tasks and filter in memory (inefficient but works for small scale)
-        List<PickingTask> allTasks = pickingTaskRepository.findAll();
-        return allTasks.stream()
-                .filter(t -> t.getOutboundOrderItem().getOutboundOrder().getId().equals(waveId))
-                .toList();
+    /**
+     * Tasks of a wave (PickingTask -> PickList -> Wave), optionally only those in one status.
+     */
+    public Page<PickingTask> getPickingTasks(Integer waveId, PickingTaskStatus status, Pageable pageable) {
+        if (status == null) {
+            return pickingTaskRepository.findByPickListWaveId(waveId, pageable);
+        }
+        return pickingTaskRepository.findByPickListWaveIdAndStatus(waveId, status, pageable);
     }
 
     /**
      * 2. Allocation: Reserve inventory for the orders in the wave
-     * This is a simplified version of Hard Allocation.
+     * Delegates to the set-based AllocationService; shortages are reported per line.
+     * A wave that lost an optimistic lock race on Inventory is re-run against fresh stock.
+     * Recorded as a sapo.WaveAllocation JFR event spanning all attempts and the commit.
      */
-    @Transactional
-    public void allocateWave(Integer waveId, List<Integer> outboundOrderIds) {
+    @Timed(value = "wms.operation", histogram = true)
+    public WaveAllocationResult allocateWave(Integer waveId, List<Integer> outboundOrderIds) {
+        WaveAllocationEvent event = new WaveAllocationEvent();
+        event.begin();
+        WaveAllocationResult result = optimisticRetry.execute("allocateWave", () -> {
+            event.attempts++;
+            return doAllocateWave(waveId, outboundOrderIds);
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.setWaveId(waveId);
+            event.orders = result.ordersProcessed();
+            event.lines = result.linesProcessed();
+            event.linesFullyAllocated = result.linesFullyAllocated();
+            event.shortages = result.shortages().size();
+            event.quantityAllocated = result.quantityAllocated();
+            event.commit();
+        }
+        return result;
+    }
+
+    private WaveAllocationResult doAllocateWave(Integer waveId, List<Integer> outboundOrderIds) {
         Wave wave = waveRepository.findById(waveId)
                 .orElseThrow(() -> new RuntimeException("Wave not found"));
 
@@ -96,74 +140,26 @@ public class PickingService {
             throw new RuntimeException("Wave must be in CREATED status to allocate");
         }
 
-        for (Integer orderId : outboundOrderIds) {
-            OutboundOrder order = outboundOrderRepository.findById(orderId)
-                    .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-
-            for (OutboundOrderItem item : order.getItems()) {
-                allocateItem(item, order, wave);
-            }
-        }
+        WaveAllocationResult result = allocationService.allocateOrders(waveId, outboundOrderIds);
 
         wave.setStatus(WaveStatus.RELEASED);
         wave.setReleasedAt(LocalDateTime.now());
         waveRepository.save(wave);
-    }
-
-    private void allocateItem(OutboundOrderItem item, OutboundOrder order, Wave wave) {
-        double qtyNeeded = item.getQuantityOrdered() != null ? item.getQuantityOrdered() : 0.0;
-        Product product = item.getProduct();
-
-        // Find available inventory
-        List<Inventory> availableInventory = inventoryRepository.findByProductId(product.getId());
-        // Filter for AVAILABLE status manually if repository method doesn't
-        availableInventory = availableInventory.stream()
-                .filter(inv -> inv.getStatus() == InventoryStatus.AVAILABLE)
-                .toList();
-
-        for (Inventory inv : availableInventory) {
-            if (qtyNeeded <= 0) break;
-
-            // Convert to int since Inventory.quantity is Integer
-            int qtyToTake = (int) Math.min(qtyNeeded, inv.getQuantity().doubleValue());
-
-            // Logic to split inventory for allocation
-            if (inv.getQuantity() > qtyToTake) {
-                // Split: Reduce original, create new Allocated record
-                inv.setQuantity(inv.getQuantity() - qtyToTake);
-                inventoryRepository.save(inv);
-
-                Inventory allocatedInv = new Inventory();
-                allocatedInv.setProduct(product);
-                allocatedInv.setLocation(inv.getLocation());
-                allocatedInv.setQuantity(qtyToTake);
-                allocatedInv.setLpn(inv.getLpn());
-                allocatedInv.setBatchNumber(inv.getBatchNumber());
-                allocatedInv.setStatus(InventoryStatus.ALLOCATED);
-                allocatedInv.setUom(inv.getUom()); // Copy UOM from source inventory
-                allocatedInv.setReceivedAt(inv.getReceivedAt() != null ? inv.getReceivedAt() : LocalDateTime.now()); // Copy receivedAt or set current time
-                inventoryRepository.save(allocatedInv);
-            } else {
-                // Take whole record
-                inv.setStatus(InventoryStatus.ALLOCATED);
-                inventoryRepository.save(inv);
-            }
-
-            qtyNeeded -= qtyToTake;
-        }
-
-        if (qtyNeeded > 0) {
-            // Shortage detected!
-            // In a real system, we would mark the order as SHORT or partial.
-            System.out.println("Shortage for product " + product.getName() + ". Missing: " + qtyNeeded);
-        }
+        return result;
     }
 
     /**
      * 3. Release Wave: Generate Pick Lists and Tasks
      */
-    @Transactional
+    @Timed(value = "wms.operation", histogram = true)
     public void releaseWave(Integer waveId, List<Integer> outboundOrderIds) {
+        optimisticRetry.execute("releaseWave", () -> {
+            doReleaseWave(waveId, outboundOrderIds);
+            return null;
+        });
+    }
+
+    private void doReleaseWave(Integer waveId, List<Integer> outboundOrderIds) {
         Wave wave = waveRepository.findById(waveId)
                 .orElseThrow(() -> new RuntimeException("Wave not found"));
 
@@ -171,84 +167,115 @@ public class PickingService {
             throw new RuntimeException("Wave must be RELEASED to process");
         }
 
+        Set<Integer> foundOrderIds = new HashSet<>();
+        outboundOrderRepository.findAllById(outboundOrderIds).forEach(order -> foundOrderIds.add(order.getId()));
+
+        // Open allocations of every order in the wave, fetched in one keyed query
+        Map<Integer, List<InventoryAllocation>> allocationsByOrder = new HashMap<>();
+        if (!foundOrderIds.isEmpty()) {
+            for (InventoryAllocation allocation : inventoryAllocationRepository
+                    .findByOutboundOrderItemOutboundOrderIdInAndStatus(foundOrderIds, AllocationStatus.ALLOCATED)) {
+                allocationsByOrder.computeIfAbsent(allocation.getOutboundOrderItem().getOutboundOrder().getId(),
+                        id -> new ArrayList<>()).add(allocation);
+            }
+        }
+
         // Strategy: Discrete Picking (One PickList per Order)
+        List<PickingTask> tasks = new ArrayList<>();
         for (Integer orderId : outboundOrderIds) {
-            OutboundOrder order = outboundOrderRepository.findById(orderId)
-                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (!foundOrderIds.contains(orderId)) {
+                throw new RuntimeException("Order not found");
+            }
 
             PickList pickList = new PickList();
             pickList.setWave(wave);
-            pickList.setPickListNumber("PL-" + System.currentTimeMillis() + "-" + orderId);
+            pickList.setPickListNumber(identifierService.next(IdentifierType.PICK_LIST));
             pickList.setStatus(PickListStatus.PENDING);
             pickList.setCreatedAt(LocalDateTime.now());
             pickList = pickListRepository.save(pickList);
 
-            // Generate Tasks based on Allocated Inventory
-            // This is tricky because we need to know WHICH allocated inventory belongs to THIS order.
-            // In a simple implementation, we can just find ANY allocated inventory for the product.
-            // But correctly, we should have linked the Allocation to the Order Line.
-            // For this gap filling, we will iterate items and find allocated inventory again.
-            
-            for (OutboundOrderItem item : order.getItems()) {
-                createTasksForItem(item, pickList, order);
+            // One task per allocation: each allocation already names the exact Inventory row
+            // and quantity reserved for this order line, so nothing can be picked twice.
+            for (InventoryAllocation allocation : allocationsByOrder.getOrDefault(orderId, List.of())) {
+                tasks.add(createTaskForAllocation(pickList, allocation));
             }
         }
+        pickingTaskRepository.saveAll(tasks);
 
         wave.setStatus(WaveStatus.IN_PROGRESS);
         waveRepository.save(wave);
     }
 
-    private void createTasksForItem(OutboundOrderItem item, PickList pickList, OutboundOrder order) {
-        // Find allocated inventory for this product
-        // Ideally we should filter by "Allocated for this order", but we lack that link.
-        // We will just take any ALLOCATED inventory for now (Simplified).
-        List<Inventory> allocatedInv = inventoryRepository.findByProductId(item.getProduct().getId()).stream()
-                .filter(inv -> inv.getStatus() == InventoryStatus.ALLOCATED)
-                .toList();
-        double qtyToPick = item.getQuantityOrdered() != null ? item.getQuantityOrdered() : 0.0;
-        for (Inventory inv : allocatedInv) {
-            if (qtyToPick <= 0) break;
-            // Check if this inventory is already assigned to a task?
-            // We need a way to avoid double picking.
-            // Let's assume we consume the allocation by creating a task.
-            double qty = Math.min(qtyToPick, inv.getQuantity());
-            PickingTask task = new PickingTask();
-            task.setOutboundOrderItem(item);
-            task.setInventory(inv);
-            task.setQuantityToPick(qty);
-            task.setStatus(PickingTaskStatus.PENDING);
-            task.setCreatedAt(LocalDateTime.now());
-            pickingTaskRepository.save(task);
-            qtyToPick -= qty;
-            // In a real system, we would link the task to the inventory ID to know exactly what to pick.
-        }
+    private PickingTask createTaskForAllocation(PickList pickList, InventoryAllocation allocation) {
+        PickingTask task = new PickingTask();
+        task.setPickList(pickList);
+        task.setOutboundOrderItem(allocation.getOutboundOrderItem());
+        task.setInventory(allocation.getInventory());
+        task.setAllocation(allocation);
+        task.setQuantityToPick(allocation.getQuantity().doubleValue());
+        task.setStatus(PickingTaskStatus.PENDING);
+        task.setCreatedAt(LocalDateTime.now());
+        allocation.setStatus(AllocationStatus.TASKED);
+        return task;
     }
+
     /**
      * 4. Confirm Pick Task
      */
-    @Transactional
     public void confirmPickTask(Integer taskId, Integer quantityPicked) {
+        optimisticRetry.execute("confirmPickTask", () -> {
+            doConfirmPickTask(taskId, quantityPicked);
+            return null;
+        });
+    }
+
+    private void doConfirmPickTask(Integer taskId, Integer quantityPicked) {
         PickingTask task = pickingTaskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
+        if (task.getStatus() == PickingTaskStatus.PICKED) {
+            // Already confirmed (e.g. by a concurrent scan that won the version check)
+            return;
+        }
         task.setStatus(PickingTaskStatus.PICKED);
         pickingTaskRepository.save(task);
-        // Update Inventory: Remove the Allocated inventory
-        // We need to find the inventory at that location.
-        // Since we didn't store inventoryId in PickTask, we have to search.
-        List<Inventory> invs = inventoryRepository.findByLocationId(task.getInventory().getLocation().getId());
-        for (Inventory inv : invs) {
-            if (inv.getProduct().getId().equals(task.getOutboundOrderItem().getProduct().getId())
-                    && inv.getStatus() == InventoryStatus.ALLOCATED) {
-                if (inv.getQuantity() <= quantityPicked) {
-                    inventoryRepository.delete(inv); // Picked fully
-                    quantityPicked -= inv.getQuantity();
-                } else {
-                    inv.setQuantity(inv.getQuantity() - quantityPicked);
-                    inventoryRepository.save(inv);
-                    quantityPicked = 0;
-                }
-                if (quantityPicked <= 0) break;
-            }
+
+        // Update Inventory: the task points at the exact ALLOCATED row it was generated from.
+        // Several waves' tasks may share that row, so only this task's quantity is taken off it.
+        Inventory inv = task.getInventory();
+        int picked = Math.min(quantityPicked, Math.min(inv.getQuantity(), task.getQuantityToPick().intValue()));
+
+        InventoryAllocation allocation = task.getAllocation();
+        if (allocation != null) {
+            picked = Math.min(picked, allocation.getQuantity() - allocation.getQuantityPicked());
+        }
+        picked = Math.max(picked, 0);
+        if (allocation != null) {
+            allocation.setQuantityPicked(allocation.getQuantityPicked() + picked);
+            allocation.setStatus(AllocationStatus.PICKED);
+            inventoryAllocationRepository.save(allocation);
+        }
+
+        inv.setQuantity(inv.getQuantity() - picked);
+        if (inv.getQuantity() == 0 && !stillNeeded(inv)) {
+            // Picked fully - detach the picked tasks and allocations still referencing the row
+            task.setInventory(null);
+            pickingTaskRepository.detachInventory(inv);
+            List<InventoryAllocation> holders = inventoryAllocationRepository.findByInventoryId(inv.getId());
+            holders.forEach(holder -> holder.setInventory(null));
+            inventoryAllocationRepository.saveAll(holders);
+            inventoryRepository.delete(inv);
+        } else {
+            inventoryRepository.save(inv);
         }
     }
+
+    /**
+     * True while an unpicked task or an open allocation of another wave still points at the row.
+     */
+    private boolean stillNeeded(Inventory inv) {
+        return pickingTaskRepository.existsByInventoryIdAndStatusIn(inv.getId(),
+                        List.of(PickingTaskStatus.PENDING, PickingTaskStatus.IN_PROGRESS))
+                || inventoryAllocationRepository.existsByInventoryIdAndStatusIn(inv.getId(),
+                        List.of(AllocationStatus.ALLOCATED, AllocationStatus.TASKED));
+    }
 }
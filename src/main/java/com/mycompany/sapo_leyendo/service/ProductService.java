@@ -1,9 +1,13 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.repository.KeysetPaging;
 import com.mycompany.sapo_leyendo.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,10 +22,18 @@ public class ProductService {
         this.productRepository = productRepository;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    /**
+     * Products by category and/or SKU prefix; sortable by id, sku or name.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Product> getProducts(Integer categoryId, String skuPrefix, KeysetRequest page) {
+        return KeysetPaging.page(productRepository, Product.class,
+                KeysetPaging.allOf(KeysetPaging.equalId("category", categoryId),
+                        KeysetPaging.startsWith("sku", skuPrefix)),
+                page, "id", "sku", "name");
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Integer id) {
         return productRepository.findById(id);
     }
@@ -24,6 +24,9 @@ public class QualityControlService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private IdentifierService identifierService;
+
     @Transactional
     public QcInspection createInspection(Integer productId, InspectionSourceType sourceType, Integer referenceId, Integer sampleSize) {
         Product product = productRepository.findById(productId)
@@ -69,7 +72,7 @@ public class QualityControlService {
         }
 
         NonConformanceReport ncr = new NonConformanceReport();
-        ncr.setNcrNumber("NCR-" + System.currentTimeMillis());
+        ncr.setNcrNumber(identifierService.next(IdentifierType.NCR));
         ncr.setInspection(inspection);
         ncr.setDefectType(defectType);
         ncr.setSeverity(NcrSeverity.MINOR); // Default severity
@@ -1,6 +1,8 @@
 package com.mycompany.sapo_leyendo.service;
 
 import com.mycompany.sapo_leyendo.dto.DashboardStats;
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.AuditLog;
 import com.mycompany.sapo_leyendo.model.KpiMetric;
 import com.mycompany.sapo_leyendo.repository.*;
@@ -28,6 +30,8 @@ public class ReportingService {
     private AuditLogRepository auditLogRepository;
     @Autowired
     private KpiMetricRepository kpiMetricRepository;
+    @Autowired
+    private AuditLogWriter auditLogWriter;
 
     public DashboardStats getDashboardStats() {
         long totalProducts = productRepository.count();
@@ -39,7 +43,10 @@ public class ReportingService {
         return new DashboardStats(totalProducts, totalLocations, totalInventoryItems, totalInboundOrders, totalOutboundOrders);
     }
 
-    @Transactional
+    /**
+     * Audit entry for something entity change capture (AuditTrailListener) does not see;
+     * written or queued according to app.audit.durability.
+     */
     public void logAudit(String action, String entity, String oldValue, String newValue, String username) {
         AuditLog log = new AuditLog();
         log.setAction(action);
@@ -48,7 +55,7 @@ public class ReportingService {
         log.setNewValue(newValue);
         log.setUsername(username);
         log.setTimestamp(LocalDateTime.now());
-        auditLogRepository.save(log);
+        auditLogWriter.submit(log);
     }
 
     @Transactional
@@ -61,7 +68,28 @@ public class ReportingService {
         kpiMetricRepository.save(kpi);
     }
     
-    public List<KpiMetric> getKpiHistory(String name) {
-        return kpiMetricRepository.findByNameOrderByTimestampDesc(name);
+    /**
+     * History of one metric, newest first by default.
+     */
+    public KeysetPage<KpiMetric> getKpiHistory(String name, String dimension, LocalDateTime from, LocalDateTime to,
+                                               KeysetRequest page) {
+        return KeysetPaging.page(kpiMetricRepository, KpiMetric.class,
+                KeysetPaging.allOf(KeysetPaging.equal("name", name),
+                        KeysetPaging.equal("dimension", dimension),
+                        KeysetPaging.between("timestamp", from, to)),
+                page, "-timestamp", "id");
+    }
+
+    /**
+     * Audit trail, newest first by default; entity is the simple class name (e.g. OutboundOrder).
+     */
+    public KeysetPage<AuditLog> getAuditTrail(String entity, String entityId, String username, LocalDateTime from,
+                                              LocalDateTime to, KeysetRequest page) {
+        return KeysetPaging.page(auditLogRepository, AuditLog.class,
+                KeysetPaging.allOf(KeysetPaging.equal("entity", entity),
+                        KeysetPaging.equal("entityId", entityId),
+                        KeysetPaging.equal("username", username),
+                        KeysetPaging.between("timestamp", from, to)),
+                page, "-timestamp", "id");
     }
 }
@@ -1,5 +1,7 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -93,8 +95,12 @@ public class ReturnsService {
         return item;
     }
 
-    public List<RmaRequest> getAllRmaRequests() {
-        return rmaRequestRepository.findAll();
+    public KeysetPage<RmaRequest> getRmaRequests(RmaStatus status, LocalDateTime from, LocalDateTime to,
+                                                 KeysetRequest page) {
+        return KeysetPaging.page(rmaRequestRepository, RmaRequest.class,
+                KeysetPaging.allOf(KeysetPaging.equal("status", status),
+                        KeysetPaging.between("createdAt", from, to)),
+                page, "id");
     }
 
     public Optional<RmaRequest> getRmaRequestById(Integer id) {
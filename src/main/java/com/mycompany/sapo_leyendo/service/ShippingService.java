@@ -1,7 +1,12 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import com.mycompany.sapo_leyendo.jfr.LoadDispatchEvent;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.*;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,13 +33,16 @@ public class ShippingService {
     @Autowired
     private OutboundOrderRepository outboundOrderRepository;
 
+    @Autowired
+    private IdentifierService identifierService;
+
     @Transactional
     public TransportLoad createLoad(Integer carrierId, String trailerNumber, String driverName, String driverPhone) {
         Carrier carrier = carrierRepository.findById(carrierId)
                 .orElseThrow(() -> new RuntimeException("Carrier not found"));
 
         TransportLoad load = new TransportLoad();
-        load.setLoadNumber("LOAD-" + System.currentTimeMillis());
+        load.setLoadNumber(identifierService.next(IdentifierType.TRANSPORT_LOAD));
         load.setCarrier(carrier);
         load.setTrailerNumber(trailerNumber);
         load.setDriverName(driverName);
@@ -66,9 +74,12 @@ public class ShippingService {
         }
     }
 
+    @Timed(value = "wms.operation", histogram = true)
     @Transactional
     public Manifest dispatchLoad(Integer loadId) {
-        TransportLoad load = transportLoadRepository.findById(loadId)
+        LoadDispatchEvent event = new LoadDispatchEvent();
+        event.begin();
+        TransportLoad load = transportLoadRepository.findWithShipmentsById(loadId)
                 .orElseThrow(() -> new RuntimeException("Load not found"));
 
         if (load.getStatus() == LoadStatus.IN_TRANSIT) {
@@ -80,6 +91,10 @@ public class ShippingService {
             throw new RuntimeException("Cannot dispatch an empty load");
         }
 
+        initializeManifestContents(shipments);
+
+        // Load, shipments and orders are managed here: the changes are flushed as batched updates.
+        // save() per row would merge and cascade into every order's lines and parcels one by one.
         for (Shipment shipment : shipments) {
             shipment.setStatus(ShipmentStatus.SHIPPED);
             shipment.setShippedAt(LocalDateTime.now()); 
@@ -88,10 +103,7 @@ public class ShippingService {
             OutboundOrder order = shipment.getOutboundOrder();
             if (order != null) {
                 order.setStatus("SHIPPED");
-                outboundOrderRepository.save(order);
             }
-            
-            shipmentRepository.save(shipment);
         }
 
         load.setStatus(LoadStatus.IN_TRANSIT);
@@ -99,11 +111,37 @@ public class ShippingService {
         transportLoadRepository.save(load);
 
         Manifest manifest = new Manifest();
-        manifest.setManifestNumber("MAN-" + System.currentTimeMillis());
+        manifest.setManifestNumber(identifierService.next(IdentifierType.MANIFEST));
         manifest.setTransportLoad(load);
         manifest.setCreatedAt(LocalDateTime.now());
+        manifest = manifestRepository.save(manifest);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setIds(loadId, manifest.getId());
+            event.shipments = shipments.size();
+            event.orders = (int) shipments.stream().filter(shipment -> shipment.getOutboundOrder() != null).count();
+            event.parcels = shipments.stream().mapToInt(shipment -> shipment.getParcels() != null ? shipment.getParcels().size() : 0).sum();
+            event.commit();
+        }
+        return manifest;
+    }
 
-        return manifestRepository.save(manifest);
+    /**
+     * The manifest JSON renders every order's lines and every shipment's parcels. They are loaded
+     * here, in batches, before the status updates: once the updated rows are flushed their lazy
+     * collections leave the batch-fetch queue and would load one select per collection.
+     */
+    private void initializeManifestContents(List<Shipment> shipments) {
+        for (Shipment shipment : shipments) {
+            if (shipment.getOutboundOrder() != null) {
+                Hibernate.initialize(shipment.getOutboundOrder().getItems());
+            }
+            Hibernate.initialize(shipment.getParcels());
+            if (shipment.getParcels() != null) {
+                shipment.getParcels().forEach(parcel -> Hibernate.initialize(parcel.getItems()));
+            }
+        }
     }
 
     // ===== CARRIER OPERATIONS =====
@@ -118,12 +156,18 @@ public class ShippingService {
 
     // ===== SHIPMENT OPERATIONS =====
     
-    public List<Shipment> getAllShipments() {
-        return shipmentRepository.findAll();
+    public KeysetPage<Shipment> getShipments(ShipmentStatus status, Integer carrierId, LocalDateTime from,
+                                             LocalDateTime to, KeysetRequest page) {
+        return KeysetPaging.page(shipmentRepository, Shipment.class,
+                KeysetPaging.allOf(KeysetPaging.equal("status", status),
+                        KeysetPaging.equal("carrierId", carrierId),
+                        KeysetPaging.between("shippedAt", from, to),
+                        KeysetPaging.fetch("outboundOrder")),
+                page, "id");
     }
 
     public java.util.Optional<Shipment> getShipmentById(Integer id) {
-        return shipmentRepository.findById(id);
+        return shipmentRepository.findWithOrderAndParcelsById(id);
     }
 
     @Transactional
@@ -153,7 +197,7 @@ public class ShippingService {
     }
 
     public List<TransportLoad> getAllLoads() {
-        return transportLoadRepository.findAll();
+        return transportLoadRepository.findAllWithShipmentsBy();
     }
 
     private String generateTrackingNumber() {
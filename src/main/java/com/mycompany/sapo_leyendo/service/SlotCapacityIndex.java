@@ -0,0 +1,83 @@
+package com.mycompany.sapo_leyendo.service;
+
+import java.util.Arrays;
+
+/**
+ * Free weight/volume of the open storage slots, indexed by position in pick order.
+ * A segment tree: every node keeps the largest free weight and the largest free volume
+ * below it, so "first slot in pick order with room for the load" only descends into
+ * subtrees that can hold it and an update is O(log n) - no scan of all locations.
+ * Closed slots are stored as negative infinity. Not thread-safe; SlottingService guards it.
+ */
+class SlotCapacityIndex {
+
+    private static final double CLOSED = Double.NEGATIVE_INFINITY;
+
+    private final int leaves;
+    private final double[] maxWeight;
+    private final double[] maxVolume;
+    private int visited;
+
+    SlotCapacityIndex(int size) {
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.leaves = capacity;
+        this.maxWeight = new double[2 * capacity];
+        this.maxVolume = new double[2 * capacity];
+        Arrays.fill(maxWeight, CLOSED);
+        Arrays.fill(maxVolume, CLOSED);
+    }
+
+    /** Sets the free capacity of the slot at {@code position}. */
+    void open(int position, double freeWeight, double freeVolume) {
+        set(position, freeWeight, freeVolume);
+    }
+
+    /** Takes the slot at {@code position} out of the search. */
+    void close(int position) {
+        set(position, CLOSED, CLOSED);
+    }
+
+    /** Position of the first slot with at least this free weight and volume, -1 if none. */
+    int first(double weight, double volume) {
+        visited = 0;
+        return room(1, weight, volume) ? descend(1, weight, volume) : -1;
+    }
+
+    /** Tree nodes visited by the last {@link #first} call. */
+    int visited() {
+        return visited;
+    }
+
+    private int descend(int node, double weight, double volume) {
+        visited++;
+        if (node >= leaves) {
+            return node - leaves;
+        }
+        int left = 2 * node;
+        if (room(left, weight, volume)) {
+            int found = descend(left, weight, volume);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        // Weight and volume maxima may come from different slots, so the left side can miss
+        return room(left + 1, weight, volume) ? descend(left + 1, weight, volume) : -1;
+    }
+
+    private boolean room(int node, double weight, double volume) {
+        return maxWeight[node] >= weight && maxVolume[node] >= volume;
+    }
+
+    private void set(int position, double freeWeight, double freeVolume) {
+        int node = position + leaves;
+        maxWeight[node] = freeWeight;
+        maxVolume[node] = freeVolume;
+        for (node >>= 1; node > 0; node >>= 1) {
+            maxWeight[node] = Math.max(maxWeight[2 * node], maxWeight[2 * node + 1]);
+            maxVolume[node] = Math.max(maxVolume[2 * node], maxVolume[2 * node + 1]);
+        }
+    }
+}
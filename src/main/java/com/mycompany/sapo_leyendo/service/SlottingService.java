@@ -0,0 +1,411 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.jfr.PutAwaySelectionEvent;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.LocationRepository;
+import com.mycompany.sapo_leyendo.repository.MoveTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory put-away slotting index.
+ * Keeps the free weight/volume of every storage location (LocationType limits minus the
+ * stock placed there and the put-aways already heading there), indexed by free capacity in
+ * pickSequence order (see SlotCapacityIndex). Built once from the database, then kept current
+ * from Inventory changes (see InventorySlottingListener) - put-away no longer scans Locations.
+ * Docks, secure zones and inactive locations are never put-away targets.
+ */
+@Service
+@Slf4j
+public class SlottingService {
+
+    private static final double EPSILON = 1e-9;
+    private static final Comparator<Slot> PICK_ORDER = Comparator
+            .comparingInt((Slot slot) -> slot.pickSequence)
+            .thenComparing(slot -> slot.locationId);
+
+    private final LocationRepository locationRepository;
+    private final InventoryRepository inventoryRepository;
+    private final MoveTaskRepository moveTaskRepository;
+
+    private final Object lock = new Object();
+    private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+    // Open slots (free capacity, mixing allowed or empty) by free capacity, positions in pick order
+    private SlotCapacityIndex openSlots = new SlotCapacityIndex(0);
+    private List<Slot> pickOrder = List.of();
+    // Slots already holding a product - preferred, keeps one SKU together
+    private final Map<Integer, ConcurrentSkipListSet<Slot>> slotsByProduct = new ConcurrentHashMap<>();
+    private final Map<Integer, Placement> placements = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> reservationByInventory = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private volatile boolean initialized;
+
+    public SlottingService(LocationRepository locationRepository,
+                           InventoryRepository inventoryRepository,
+                           MoveTaskRepository moveTaskRepository) {
+        this.locationRepository = locationRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.moveTaskRepository = moveTaskRepository;
+    }
+
+    /**
+     * Capacity booked for one put-away until the stock arrives at the location.
+     */
+    public record Reservation(long id, Integer locationId, Load load) {}
+
+    /**
+     * Weight (kg) and volume (m3) of a quantity of one product.
+     */
+    public record Load(Integer productId, double weight, double volume) {
+
+        public static Load of(Product product, int quantity) {
+            double weight = product.getWeightKg() != null ? product.getWeightKg() * quantity : 0.0;
+            double volume = 0.0;
+            if (product.getLengthCm() != null && product.getWidthCm() != null && product.getHeightCm() != null) {
+                volume = product.getLengthCm() * product.getWidthCm() * product.getHeightCm() / 1_000_000.0 * quantity;
+            }
+            return new Load(product.getId(), weight, volume);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            // Reservations of transactions still open are not in the database yet - carried over
+            List<Reservation> pending = new ArrayList<>(reservations.values());
+            Map<Long, Integer> boundTo = new HashMap<>();
+            reservationByInventory.forEach((inventoryId, reservationId) -> boundTo.put(reservationId, inventoryId));
+
+            slots.clear();
+            slotsByProduct.clear();
+            placements.clear();
+            reservations.clear();
+            reservationByInventory.clear();
+
+            for (Location location : locationRepository.findAll()) {
+                if (isStorage(location)) {
+                    slots.put(location.getId(), new Slot(location));
+                }
+            }
+            pickOrder = new ArrayList<>(slots.values());
+            pickOrder.sort(PICK_ORDER);
+            for (int position = 0; position < pickOrder.size(); position++) {
+                pickOrder.get(position).position = position;
+            }
+            openSlots = new SlotCapacityIndex(pickOrder.size());
+
+            for (Inventory inventory : inventoryRepository.findAll()) {
+                applyPlacement(inventory.getId(), inventory.getLocation().getId(), loadOf(inventory));
+            }
+            for (Reservation reservation : pending) {
+                Integer inventoryId = boundTo.get(reservation.id());
+                Placement placement = inventoryId != null ? placements.get(inventoryId) : null;
+                Slot slot = slots.get(reservation.locationId());
+                if (slot == null || (inventoryId != null
+                        && (placement == null || placement.locationId().equals(reservation.locationId())))) {
+                    continue; // location gone, stock removed or already arrived
+                }
+                // Same id, so a rollback still releases it
+                slot.add(reservation.load());
+                reservations.put(reservation.id(), reservation);
+                if (inventoryId != null) {
+                    reservationByInventory.put(inventoryId, reservation.id());
+                }
+            }
+            // Put-aways still in flight keep their target booked across restarts
+            for (MoveTask task : moveTaskRepository.findByStatus(MoveTaskStatus.PENDING)) {
+                if (task.getType() == MoveTaskType.PUTAWAY && task.getInventory() != null && task.getTargetLocation() != null
+                        && !reservationByInventory.containsKey(task.getInventory().getId())
+                        && !task.getTargetLocation().getId().equals(task.getInventory().getLocation().getId())) {
+                    Slot slot = slots.get(task.getTargetLocation().getId());
+                    if (slot != null) {
+                        Reservation reservation = book(slot, loadOf(task.getInventory()));
+                        reservationByInventory.put(task.getInventory().getId(), reservation.id());
+                    }
+                }
+            }
+            slots.values().forEach(this::reindex);
+            initialized = true;
+            log.info("Slotting index built: {} storage locations, {} inventory records", slots.size(), placements.size());
+        }
+    }
+
+    /**
+     * Location layout changed - the index is rebuilt on next use.
+     */
+    public void invalidate() {
+        initialized = false;
+    }
+
+    /**
+     * Picks the put-away target for a quantity of a product and books its capacity.
+     * Locations already holding the product come first, then the first open location in
+     * pick order with room for the load. Runs only inside a transaction and is released
+     * automatically if it rolls back, so a caller failing before {@link #bind} frees the capacity.
+     * Recorded as a sapo.PutAwaySelection JFR event, the wait for the index lock included.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Reservation> reserve(Product product, int quantity) {
+        PutAwaySelectionEvent event = new PutAwaySelectionEvent();
+        event.begin();
+        Load load = Load.of(product, quantity);
+        Reservation reservation;
+        synchronized (lock) {
+            ensureInitialized();
+            Slot target = null;
+            for (Slot slot : slotsByProduct.getOrDefault(product.getId(), emptySet())) {
+                event.slotsChecked++;
+                if (slot.fits(load)) {
+                    target = slot;
+                    event.sameProduct = true;
+                    break;
+                }
+            }
+            if (target == null) {
+                int position = openSlots.first(load.weight() - EPSILON, load.volume() - EPSILON);
+                event.slotsChecked += openSlots.visited();
+                target = position >= 0 ? pickOrder.get(position) : null;
+            }
+            if (target == null) {
+                commit(event, product, quantity, null);
+                return Optional.empty();
+            }
+            reservation = book(target, load);
+            reindex(target);
+        }
+        commit(event, product, quantity, reservation.locationId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(reservation.id());
+                }
+            }
+        });
+        return Optional.of(reservation);
+    }
+
+    private static void commit(PutAwaySelectionEvent event, Product product, int quantity, Integer locationId) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setIds(product.getId(), locationId);
+            event.quantity = quantity;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ties a reservation to the inventory record being put away, so it is released once
+     * that record reaches the location (or is removed).
+     */
+    public void bind(Reservation reservation, Integer inventoryId) {
+        if (inventoryId != null && reservations.containsKey(reservation.id())) {
+            reservationByInventory.put(inventoryId, reservation.id());
+        }
+    }
+
+    public void onInventoryStored(Integer inventoryId, Integer locationId, Load load) {
+        synchronized (lock) {
+            if (!initialized) {
+                return; // the next rebuild reads the committed state anyway
+            }
+            applyPlacement(inventoryId, locationId, load);
+            Long reservationId = reservationByInventory.get(inventoryId);
+            Reservation reservation = reservationId != null ? reservations.get(reservationId) : null;
+            if (reservation != null && reservation.locationId().equals(locationId)) {
+                // Arrived - now counted as a placement
+                reservationByInventory.remove(inventoryId);
+                cancel(reservationId);
+            }
+        }
+    }
+
+    public void onInventoryRemoved(Integer inventoryId) {
+        synchronized (lock) {
+            if (!initialized) {
+                return;
+            }
+            Placement previous = placements.remove(inventoryId);
+            if (previous != null) {
+                Slot slot = slots.get(previous.locationId());
+                if (slot != null) {
+                    slot.remove(previous.load());
+                    reindex(slot);
+                }
+            }
+            Long reservationId = reservationByInventory.remove(inventoryId);
+            if (reservationId != null) {
+                cancel(reservationId);
+            }
+        }
+    }
+
+    /**
+     * Remaining weight/volume of a storage location, empty for non-storage locations.
+     */
+    public Optional<Load> freeCapacity(Integer locationId) {
+        synchronized (lock) {
+            ensureInitialized();
+            Slot slot = slots.get(locationId);
+            return slot == null ? Optional.empty()
+                    : Optional.of(new Load(null, slot.maxWeight - slot.usedWeight, slot.maxVolume - slot.usedVolume));
+        }
+    }
+
+    static Load loadOf(Inventory inventory) {
+        return Load.of(inventory.getProduct(), inventory.getQuantity() != null ? inventory.getQuantity() : 0);
+    }
+
+    private void release(long reservationId) {
+        synchronized (lock) {
+            reservationByInventory.values().remove(reservationId);
+            cancel(reservationId);
+        }
+    }
+
+    private void cancel(long reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation != null) {
+            Slot slot = slots.get(reservation.locationId());
+            if (slot != null) {
+                slot.remove(reservation.load());
+                reindex(slot);
+            }
+        }
+    }
+
+    private Reservation book(Slot slot, Load load) {
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), slot.locationId, load);
+        slot.add(load);
+        reservations.put(reservation.id(), reservation);
+        return reservation;
+    }
+
+    private void applyPlacement(Integer inventoryId, Integer locationId, Load load) {
+        Placement previous = placements.put(inventoryId, new Placement(locationId, load));
+        if (previous != null) {
+            Slot from = slots.get(previous.locationId());
+            if (from != null) {
+                from.remove(previous.load());
+                reindex(from);
+            }
+        }
+        Slot to = slots.get(locationId);
+        if (to != null) {
+            to.add(load);
+            reindex(to);
+        }
+    }
+
+    private void reindex(Slot slot) {
+        if (slot.isOpen()) {
+            openSlots.open(slot.position, slot.maxWeight - slot.usedWeight, slot.maxVolume - slot.usedVolume);
+        } else {
+            openSlots.close(slot.position);
+        }
+        for (Integer productId : slot.productsSeen) {
+            ConcurrentSkipListSet<Slot> holders = slotsByProduct.computeIfAbsent(productId, key -> new ConcurrentSkipListSet<>(PICK_ORDER));
+            if (slot.products.containsKey(productId)) {
+                holders.add(slot);
+            } else {
+                holders.remove(slot);
+            }
+        }
+        slot.productsSeen.retainAll(slot.products.keySet());
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            rebuild();
+        }
+    }
+
+    private static boolean isStorage(Location location) {
+        if (!location.isActive() || (location.getStatus() != null && location.getStatus() != LocationStatus.ACTIVE)
+                || location.getLocationType() == null) {
+            return false;
+        }
+        if (location.getZone() != null && location.getZone().isSecure()) {
+            return false;
+        }
+        String type = location.getLocationType().getName();
+        return type == null || !type.toUpperCase(Locale.ROOT).contains("DOCK");
+    }
+
+    private static ConcurrentSkipListSet<Slot> emptySet() {
+        return new ConcurrentSkipListSet<>(PICK_ORDER);
+    }
+
+    private record Placement(Integer locationId, Load load) {}
+
+    /**
+     * Capacity bookkeeping of one storage location. Mutated only under the service lock.
+     */
+    private static final class Slot {
+        private final Integer locationId;
+        private final int pickSequence;
+        private final double maxWeight;
+        private final double maxVolume;
+        private final boolean mixedSku;
+        private final Map<Integer, Integer> products = new HashMap<>();
+        private final Set<Integer> productsSeen = new HashSet<>();
+        private double usedWeight;
+        private double usedVolume;
+        private int position;
+
+        private Slot(Location location) {
+            LocationType type = location.getLocationType();
+            this.locationId = location.getId();
+            this.pickSequence = location.getPickSequence() != null ? location.getPickSequence() : Integer.MAX_VALUE;
+            this.maxWeight = type.getMaxWeight() != null ? type.getMaxWeight() : Double.POSITIVE_INFINITY;
+            this.maxVolume = type.getMaxVolume() != null ? type.getMaxVolume() : Double.POSITIVE_INFINITY;
+            this.mixedSku = location.getZone() == null || location.getZone().isAllowMixedSku();
+        }
+
+        private void add(Load load) {
+            usedWeight += load.weight();
+            usedVolume += load.volume();
+            if (load.productId() != null) {
+                products.merge(load.productId(), 1, Integer::sum);
+                productsSeen.add(load.productId());
+            }
+        }
+
+        private void remove(Load load) {
+            usedWeight = Math.max(0.0, usedWeight - load.weight());
+            usedVolume = Math.max(0.0, usedVolume - load.volume());
+            if (load.productId() != null) {
+                products.computeIfPresent(load.productId(), (id, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        private boolean hasRoom() {
+            return usedWeight < maxWeight - EPSILON && usedVolume < maxVolume - EPSILON;
+        }
+
+        private boolean isOpen() {
+            return hasRoom() && (mixedSku || products.isEmpty());
+        }
+
+        private boolean fits(Load load) {
+            if (usedWeight + load.weight() > maxWeight + EPSILON || usedVolume + load.volume() > maxVolume + EPSILON) {
+                return false;
+            }
+            return mixedSku || products.isEmpty()
+                    || (products.size() == 1 && products.containsKey(load.productId()));
+        }
+    }
+}
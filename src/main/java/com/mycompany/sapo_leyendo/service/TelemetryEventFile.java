@@ -0,0 +1,76 @@
+package com.mycompany.sapo_leyendo.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only event file with a fixed window of rotated files: once {@code events.ndjson}
+ * would pass {@code maxBytes} it becomes {@code events.ndjson.1}, the older ones shift up and the
+ * one beyond {@code maxFiles} is deleted. Not thread-safe - written by the telemetry thread only.
+ */
+class TelemetryEventFile implements Closeable {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private OutputStream out;
+    private long size;
+
+    TelemetryEventFile(Path file, long maxBytes, int maxFiles) throws IOException {
+        this.file = file;
+        this.maxBytes = Math.max(1, maxBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        open();
+    }
+
+    void append(byte[] line) throws IOException {
+        if (size > 0 && size + line.length > maxBytes) {
+            rotate();
+        }
+        out.write(line);
+        size += line.length;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        size = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
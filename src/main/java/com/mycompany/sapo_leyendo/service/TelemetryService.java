@@ -0,0 +1,334 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryBatchResult;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryEvent;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryStats;
+import com.mycompany.sapo_leyendo.model.KpiMetric;
+import com.mycompany.sapo_leyendo.repository.KpiMetricRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Frontend telemetry (clicks, errors, timings from the handhelds) without work on the request
+ * thread: events are offered to a bounded queue - dropped and counted when it is full - and one
+ * background thread takes them from there. It appends each raw event as a JSON line to a
+ * rotating file ({@code app.telemetry.raw-file}) and keeps per event type and user a count and
+ * a sample of durations. Every {@code flush-interval-ms} the window is written to KpiMetrics:
+ * <pre>
+ * telemetry.&lt;type&gt;.count         events       dimension user:&lt;username&gt;
+ * telemetry.&lt;type&gt;.latency_p50   ms           (p95, p99 - only for events with durationMs)
+ * </pre>
+ * timestamp / period_end bound the window. Percentiles come from a uniform sample of at most
+ * {@code latency-samples} durations per key, so memory stays fixed however busy a key is; the sample
+ * array starts small and grows only as far as a key needs. Past {@code max-types} distinct types in
+ * a window, new types share the {@code _other} type, and past {@code max-keys} new users share the
+ * {@code _other} user of their type.
+ */
+@Service
+@Slf4j
+public class TelemetryService {
+
+    static final String OTHER = "_other";
+    private static final int INITIAL_SAMPLES = 16;
+    private static final int MAX_TYPE_LENGTH = 60;
+    private static final int MAX_USER_LENGTH = 80;
+
+    private final KpiMetricRepository kpiMetricRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<ReceivedEvent> queue;
+    private final int latencySamples;
+    private final int maxKeys;
+    private final int maxTypes;
+    private final TelemetryEventFile eventFile;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rawEventsWritten = new AtomicLong();
+    private final AtomicLong rollupRowsWritten = new AtomicLong();
+    private final ScheduledExecutorService aggregator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "telemetry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Owned by the aggregator thread
+    private Map<RollupKey, Rollup> window = new HashMap<>();
+    private Set<String> windowTypes = new HashSet<>();
+    private LocalDateTime windowStart = LocalDateTime.now();
+    private volatile int openRollups;
+
+    public TelemetryService(KpiMetricRepository kpiMetricRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            @Value("${app.telemetry.queue-capacity:20000}") int capacity,
+                            @Value("${app.telemetry.drain-ms:200}") long drainMs,
+                            @Value("${app.telemetry.flush-interval-ms:60000}") long flushIntervalMs,
+                            @Value("${app.telemetry.latency-samples:1024}") int latencySamples,
+                            @Value("${app.telemetry.max-keys:10000}") int maxKeys,
+                            @Value("${app.telemetry.max-types:200}") int maxTypes,
+                            @Value("${app.telemetry.raw-file:telemetry/events.ndjson}") String rawFile,
+                            @Value("${app.telemetry.raw-file-max-mb:50}") long rawFileMaxMb,
+                            @Value("${app.telemetry.raw-file-count:10}") int rawFileCount) {
+        this.kpiMetricRepository = kpiMetricRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.latencySamples = Math.max(1, latencySamples);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.maxTypes = Math.max(1, maxTypes);
+        this.eventFile = openEventFile(rawFile, rawFileMaxMb * 1024 * 1024, rawFileCount);
+        aggregator.scheduleWithFixedDelay(this::drain, drainMs, drainMs, TimeUnit.MILLISECONDS);
+        aggregator.scheduleWithFixedDelay(this::flushWindow, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the events; never blocks. Events the queue has no room for are dropped.
+     */
+    public TelemetryBatchResult submit(String user, String ip, List<TelemetryEvent> events) {
+        Instant now = Instant.now();
+        int accepted = 0;
+        for (TelemetryEvent event : events) {
+            if (queue.offer(new ReceivedEvent(now, user, ip, event))) {
+                accepted++;
+            }
+        }
+        received.addAndGet(accepted);
+        dropped.addAndGet(events.size() - accepted);
+        return new TelemetryBatchResult(accepted, events.size() - accepted);
+    }
+
+    public TelemetryStats getStats() {
+        return new TelemetryStats(received.get(), dropped.get(), queue.size(), rawEventsWritten.get(),
+                openRollups, rollupRowsWritten.get());
+    }
+
+    /**
+     * Aggregates everything queued so far and writes the current window to KpiMetrics now,
+     * instead of at the end of the interval. Waits until it is done.
+     */
+    public void flush() {
+        try {
+            aggregator.submit(this::flushWindow).get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Telemetry flush failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Telemetry flush did not complete within 30 s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while flushing telemetry", e);
+        }
+    }
+
+    private void drain() {
+        List<ReceivedEvent> batch = new ArrayList<>(1024);
+        try {
+            while (queue.drainTo(batch, 1024) > 0) {
+                for (ReceivedEvent event : batch) {
+                    writeRaw(event);
+                    aggregate(event);
+                }
+                batch.clear();
+            }
+            if (eventFile != null) {
+                eventFile.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Telemetry event file write failed: {}", e.toString());
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive - an exception would cancel it
+            log.error("Telemetry aggregation failed", e);
+        }
+        openRollups = window.size();
+    }
+
+    private void writeRaw(ReceivedEvent received) throws IOException {
+        if (eventFile == null) {
+            return;
+        }
+        TelemetryEvent event = received.event();
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("receivedAt", received.receivedAt().toString());
+        line.put("user", received.user());
+        line.put("ip", received.ip());
+        line.put("type", event.type());
+        line.put("ts", event.ts());
+        line.put("durationMs", event.durationMs());
+        line.put("payload", event.payload());
+        byte[] json = objectMapper.writeValueAsBytes(line);
+        byte[] withNewline = Arrays.copyOf(json, json.length + 1);
+        withNewline[json.length] = '\n';
+        eventFile.append(withNewline);
+        rawEventsWritten.incrementAndGet();
+    }
+
+    private void aggregate(ReceivedEvent received) {
+        String type = clean(received.event().type(), MAX_TYPE_LENGTH);
+        if (!windowTypes.contains(type)) {
+            if (windowTypes.size() >= maxTypes) {
+                // Bounded cardinality: further types of the window share one type
+                type = OTHER;
+            }
+            windowTypes.add(type);
+        }
+        RollupKey key = new RollupKey(type, truncate(received.user(), MAX_USER_LENGTH));
+        Rollup rollup = window.get(key);
+        if (rollup == null) {
+            if (window.size() >= maxKeys) {
+                // ... and further users share one bucket per type
+                key = new RollupKey(key.type(), OTHER);
+            }
+            rollup = window.computeIfAbsent(key, k -> new Rollup(latencySamples));
+        }
+        rollup.add(received.event().durationMs());
+    }
+
+    private void flushWindow() {
+        drain();
+        LocalDateTime start = windowStart;
+        LocalDateTime end = LocalDateTime.now();
+        Map<RollupKey, Rollup> closed = window;
+        window = new HashMap<>();
+        windowTypes = new HashSet<>();
+        windowStart = end;
+        openRollups = 0;
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        List<KpiMetric> rows = new ArrayList<>();
+        closed.forEach((key, rollup) -> {
+            String prefix = "telemetry." + key.type() + ".";
+            String dimension = "user:" + key.user();
+            rows.add(metric(prefix + "count", rollup.count, "events", start, end, dimension));
+            if (rollup.sampled > 0) {
+                double[] sorted = Arrays.copyOf(rollup.samples, (int) Math.min(rollup.sampled, rollup.capacity));
+                Arrays.sort(sorted);
+                rows.add(metric(prefix + "latency_p50", percentile(sorted, 50), "ms", start, end, dimension));
+                rows.add(metric(prefix + "latency_p95", percentile(sorted, 95), "ms", start, end, dimension));
+                rows.add(metric(prefix + "latency_p99", percentile(sorted, 99), "ms", start, end, dimension));
+            }
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> kpiMetricRepository.saveAll(rows));
+            rollupRowsWritten.addAndGet(rows.size());
+            log.debug("Telemetry window {} - {}: {} keys, {} KPI rows", start, end, closed.size(), rows.size());
+        } catch (RuntimeException e) {
+            // The raw events are in the event file - a lost rollup can be rebuilt from there
+            log.warn("Telemetry rollup for {} - {} not saved ({} rows): {}", start, end, rows.size(), e.toString());
+        }
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static KpiMetric metric(String name, double value, String unit, LocalDateTime start, LocalDateTime end,
+                                    String dimension) {
+        KpiMetric metric = new KpiMetric();
+        metric.setName(name);
+        metric.setValue(value);
+        metric.setUnit(unit);
+        metric.setTimestamp(start);
+        metric.setPeriodEnd(end);
+        metric.setDimension(dimension);
+        return metric;
+    }
+
+    /** Event types become part of a metric name: letters, digits, '-', '_' and '.' only. */
+    private static String clean(String type, int maxLength) {
+        if (type == null || type.isBlank()) {
+            return "unknown";
+        }
+        return truncate(type.trim().replaceAll("[^A-Za-z0-9._-]", "_"), maxLength);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private TelemetryEventFile openEventFile(String rawFile, long maxBytes, int maxFiles) {
+        if (rawFile == null || rawFile.isBlank()) {
+            return null;
+        }
+        try {
+            return new TelemetryEventFile(Path.of(rawFile), maxBytes, maxFiles);
+        } catch (IOException e) {
+            log.warn("Telemetry event file {} cannot be opened, raw events are not kept: {}", rawFile, e.toString());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            aggregator.submit(this::flushWindow).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Final telemetry flush failed: {}", e.toString());
+        }
+        aggregator.shutdownNow();
+        if (eventFile != null) {
+            try {
+                eventFile.close();
+            } catch (IOException e) {
+                log.warn("Telemetry event file not closed cleanly: {}", e.toString());
+            }
+        }
+    }
+
+    private record ReceivedEvent(Instant receivedAt, String user, String ip, TelemetryEvent event) {
+    }
+
+    private record RollupKey(String type, String user) {
+    }
+
+    /**
+     * Count and a reservoir sample (algorithm R) of the durations of one type and user. The array
+     * doubles while the reservoir fills, so a key that sees few durations stays small.
+     */
+    private static final class Rollup {
+        private final int capacity;
+        private double[] samples;
+        private long count;
+        private long sampled;
+
+        Rollup(int capacity) {
+            this.capacity = capacity;
+            this.samples = new double[Math.min(INITIAL_SAMPLES, capacity)];
+        }
+
+        void add(Double durationMs) {
+            count++;
+            if (durationMs == null || durationMs < 0 || durationMs.isNaN()) {
+                return;
+            }
+            if (sampled < capacity) {
+                if (sampled == samples.length) {
+                    samples = Arrays.copyOf(samples, Math.min(samples.length * 2, capacity));
+                }
+                samples[(int) sampled] = durationMs;
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(sampled + 1);
+                if (slot < capacity) {
+                    samples[(int) slot] = durationMs;
+                }
+            }
+            sampled++;
+        }
+    }
+}
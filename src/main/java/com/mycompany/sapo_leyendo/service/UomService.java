@@ -0,0 +1,279 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.model.UomConversion;
+import com.mycompany.sapo_leyendo.model.UomConversionId;
+import com.mycompany.sapo_leyendo.repository.UnitOfMeasureRepository;
+import com.mycompany.sapo_leyendo.repository.UomConversionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Units of measure and per-product conversions (UOM_Conversions), held in memory.
+ * Loaded at startup and reloaded after every change made through this service; a unit
+ * that was added behind its back is read through from the database on first use.
+ * Lookups and conversions never query the database once a unit is known.
+ *
+ * A conversion row is usable both ways (1 KAR = 12 SZT also gives 1 SZT = 1/12 KAR) and
+ * rows chain, so PAL -> KAR and KAR -> SZT are enough to convert pallets to pieces.
+ */
+@Service
+@Slf4j
+public class UomService {
+
+    /** Used when a product has no base unit (SZT in the seed data). */
+    public static final int DEFAULT_UOM_ID = 1;
+
+    private static final double WHOLE_NUMBER_TOLERANCE = 1e-6;
+
+    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final UomConversionRepository uomConversionRepository;
+
+    private final Object lock = new Object();
+    private final Map<Integer, UnitOfMeasure> byId = new ConcurrentHashMap<>();
+    private final Map<String, UnitOfMeasure> byCode = new ConcurrentHashMap<>();
+    // productId -> fromUomId -> toUomId -> factor, both directions; replaced as a whole on reload
+    private volatile Map<Integer, Map<Integer, Map<Integer, Double>>> conversions = Map.of();
+    private volatile boolean initialized;
+
+    public UomService(UnitOfMeasureRepository unitOfMeasureRepository,
+                      UomConversionRepository uomConversionRepository) {
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.uomConversionRepository = uomConversionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            List<UnitOfMeasure> uoms = unitOfMeasureRepository.findAll();
+            byId.clear();
+            byCode.clear();
+            uoms.forEach(this::register);
+
+            Map<Integer, Map<Integer, Map<Integer, Double>>> graph = new HashMap<>();
+            int rows = 0;
+            for (UomConversion conversion : uomConversionRepository.findAll()) {
+                if (conversion.getFactor() == null || conversion.getFactor() <= 0) {
+                    log.warn("Ignoring UOM conversion with factor {} for product {}", conversion.getFactor(), conversion.getProductId());
+                    continue;
+                }
+                Map<Integer, Map<Integer, Double>> edges = graph.computeIfAbsent(conversion.getProductId(), id -> new HashMap<>());
+                edges.computeIfAbsent(conversion.getFromUomId(), id -> new HashMap<>())
+                        .put(conversion.getToUomId(), conversion.getFactor());
+                edges.computeIfAbsent(conversion.getToUomId(), id -> new HashMap<>())
+                        .putIfAbsent(conversion.getFromUomId(), 1.0 / conversion.getFactor());
+                rows++;
+            }
+            conversions = graph;
+            initialized = true;
+            log.info("UOM registry ready: {} units, {} conversions for {} products", uoms.size(), rows, graph.size());
+        }
+    }
+
+    public List<UnitOfMeasure> getAll() {
+        ensureInitialized();
+        List<UnitOfMeasure> all = new ArrayList<>(byId.values());
+        all.sort(Comparator.comparing(UnitOfMeasure::getId));
+        return all;
+    }
+
+    public Optional<UnitOfMeasure> get(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ensureInitialized();
+        UnitOfMeasure uom = byId.get(id);
+        if (uom == null) {
+            uom = unitOfMeasureRepository.findById(id).map(this::register).orElse(null);
+        }
+        return Optional.ofNullable(uom);
+    }
+
+    public Optional<UnitOfMeasure> getByCode(String code) {
+        if (code == null || code.isBlank()) {
+            return Optional.empty();
+        }
+        ensureInitialized();
+        UnitOfMeasure uom = byCode.get(normalize(code));
+        if (uom == null) {
+            uom = unitOfMeasureRepository.findByCode(code.trim()).map(this::register).orElse(null);
+        }
+        return Optional.ofNullable(uom);
+    }
+
+    /** Unit given by id or code (id wins), or null when neither is given. */
+    public UnitOfMeasure resolve(Integer uomId, String uomCode) {
+        if (uomId != null) {
+            return get(uomId).orElseThrow(() -> new RuntimeException("UOM not found: " + uomId));
+        }
+        if (uomCode != null && !uomCode.isBlank()) {
+            return getByCode(uomCode).orElseThrow(() -> new RuntimeException("UOM not found: " + uomCode));
+        }
+        return null;
+    }
+
+    public UnitOfMeasure getDefault() {
+        return get(DEFAULT_UOM_ID).orElse(null);
+    }
+
+    /** The product's base unit, falling back to the default unit. */
+    public UnitOfMeasure baseUom(Product product) {
+        if (product != null && product.getIdBaseUom() != null) {
+            Optional<UnitOfMeasure> base = get(product.getIdBaseUom());
+            if (base.isPresent()) {
+                return base.get();
+            }
+        }
+        return getDefault();
+    }
+
+    /**
+     * Converts a quantity of a product between two units.
+     *
+     * @throws RuntimeException when the product has no conversion path between the units
+     */
+    public double convert(Integer productId, double quantity, Integer fromUomId, Integer toUomId) {
+        if (Objects.equals(fromUomId, toUomId)) {
+            return quantity;
+        }
+        ensureInitialized();
+        Double factor = factor(conversions.getOrDefault(productId, Map.of()), fromUomId, toUomId);
+        if (factor == null) {
+            throw new RuntimeException("No conversion from " + code(fromUomId) + " to " + code(toUomId)
+                    + " for product " + productId);
+        }
+        return quantity * factor;
+    }
+
+    /** A quantity in any unit, expressed in the product's base unit. */
+    public double toBase(Product product, double quantity, UnitOfMeasure uom) {
+        UnitOfMeasure base = baseUom(product);
+        if (uom == null || base == null) {
+            return quantity;
+        }
+        return convert(product.getId(), quantity, uom.getId(), base.getId());
+    }
+
+    /**
+     * Like {@link #toBase} for stock counted in whole units (receipts, inventory): the result
+     * must be a whole number, so 1 SZT cannot be booked as 1/12 KAR.
+     */
+    public int toBaseWhole(Product product, int quantity, UnitOfMeasure uom) {
+        double converted = toBase(product, quantity, uom);
+        long rounded = Math.round(converted);
+        if (Math.abs(converted - rounded) > WHOLE_NUMBER_TOLERANCE || rounded > Integer.MAX_VALUE) {
+            throw new RuntimeException(quantity + " " + uom.getCode() + " is not a whole number of "
+                    + baseUom(product).getCode() + " (" + converted + ")");
+        }
+        return (int) rounded;
+    }
+
+    @Transactional
+    public UnitOfMeasure save(UnitOfMeasure uom) {
+        UnitOfMeasure saved = unitOfMeasureRepository.save(uom);
+        rebuildAfterCommit();
+        return saved;
+    }
+
+    public List<UomConversion> getConversions(Integer productId) {
+        return uomConversionRepository.findByProductId(productId);
+    }
+
+    @Transactional
+    public UomConversion saveConversion(UomConversion conversion) {
+        if (conversion.getProductId() == null || conversion.getFromUomId() == null || conversion.getToUomId() == null) {
+            throw new RuntimeException("productId, fromUomId and toUomId are required");
+        }
+        if (conversion.getFromUomId().equals(conversion.getToUomId())) {
+            throw new RuntimeException("A conversion needs two different units");
+        }
+        if (conversion.getFactor() == null || conversion.getFactor() <= 0) {
+            throw new RuntimeException("factor must be a positive number");
+        }
+        resolve(conversion.getFromUomId(), null);
+        resolve(conversion.getToUomId(), null);
+        UomConversion saved = uomConversionRepository.save(conversion);
+        rebuildAfterCommit();
+        return saved;
+    }
+
+    @Transactional
+    public boolean deleteConversion(Integer productId, Integer fromUomId, Integer toUomId) {
+        UomConversionId id = new UomConversionId(productId, fromUomId, toUomId);
+        if (!uomConversionRepository.existsById(id)) {
+            return false;
+        }
+        uomConversionRepository.deleteById(id);
+        rebuildAfterCommit();
+        return true;
+    }
+
+    /** Breadth-first search over the product's conversions, multiplying factors along the path. */
+    private static Double factor(Map<Integer, Map<Integer, Double>> edges, Integer from, Integer to) {
+        Map<Integer, Double> reached = new HashMap<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        reached.put(from, 1.0);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Integer current = queue.poll();
+            double soFar = reached.get(current);
+            for (Map.Entry<Integer, Double> edge : edges.getOrDefault(current, Map.of()).entrySet()) {
+                if (reached.containsKey(edge.getKey())) {
+                    continue;
+                }
+                double factor = soFar * edge.getValue();
+                if (edge.getKey().equals(to)) {
+                    return factor;
+                }
+                reached.put(edge.getKey(), factor);
+                queue.add(edge.getKey());
+            }
+        }
+        return null;
+    }
+
+    private void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    private UnitOfMeasure register(UnitOfMeasure uom) {
+        byId.put(uom.getId(), uom);
+        if (uom.getCode() != null) {
+            byCode.put(normalize(uom.getCode()), uom);
+        }
+        return uom;
+    }
+
+    private String code(Integer uomId) {
+        UnitOfMeasure uom = uomId != null ? byId.get(uomId) : null;
+        return uom != null ? uom.getCode() : String.valueOf(uomId);
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            rebuild();
+        }
+    }
+}
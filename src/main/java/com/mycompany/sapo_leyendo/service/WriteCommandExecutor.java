@@ -0,0 +1,243 @@
+package com.mycompany.sapo_leyendo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs mutating commands (scanner confirms: receive, pick, pack) one after another on a single
+ * writer thread. SQLite has one writer anyway; queueing here instead of on the connection pool
+ * lets commands that arrive within {@code linger-ms} of each other share one transaction, so a
+ * burst pays for one commit instead of one per scan.
+ *
+ * Each caller gets its own result or exception. When a command of a group fails, the group is
+ * rolled back and every command is run again in a transaction of its own - commands must
+ * therefore keep their side effects in the database (or undo them on rollback).
+ * Results are detached once the group commits; callers that render them should load them again.
+ * A command still queued after {@code timeout-ms} is cancelled and never runs; one already
+ * running is waited for, so the caller never reports a failure for a write that commits.
+ *
+ * Enabled on the sqlite profile ({@code app.write-queue.enabled}); otherwise, and when called
+ * from inside a transaction or from the writer thread, the command simply runs in the caller.
+ */
+@Component
+@Slf4j
+public class WriteCommandExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long lingerNanos;
+    private final int maxBatch;
+    private final long timeoutMs;
+    private final BlockingQueue<Command<?>> queue;
+
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong splitGroups = new AtomicLong();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Thread writerThread;
+    private volatile boolean running = true;
+
+    public WriteCommandExecutor(PlatformTransactionManager transactionManager,
+                                @Value("${app.write-queue.enabled:false}") boolean enabled,
+                                @Value("${app.write-queue.linger-ms:2}") long lingerMs,
+                                @Value("${app.write-queue.max-batch:64}") int maxBatch,
+                                @Value("${app.write-queue.capacity:10000}") int capacity,
+                                @Value("${app.write-queue.timeout-ms:30000}") long timeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMs = timeoutMs;
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, capacity));
+        if (enabled) {
+            writer.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs the command on the writer thread and waits until its transaction has committed.
+     * Exceptions thrown by the command are rethrown unchanged.
+     */
+    public <T> T execute(Supplier<T> command) {
+        if (runsInCaller()) {
+            return command.get();
+        }
+        Command<T> queued = enqueue(command);
+        try {
+            try {
+                return queued.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (queued.claim()) {
+                    // Not picked up by the writer - it never runs
+                    queue.remove(queued);
+                    queued.future().cancel(false);
+                    throw new RuntimeException("Write command not started within " + timeoutMs + " ms, cancelled");
+                }
+                // Already running: its transaction decides the outcome, not the timeout
+                log.warn("Write command running for more than {} ms, waiting for it to finish", timeoutMs);
+                return queued.future().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for write command", e);
+        }
+    }
+
+    /**
+     * Queues the command; the future completes after its transaction committed or failed.
+     * Where {@link #execute} would run in the caller, so does this - the future is already done.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> command) {
+        if (runsInCaller()) {
+            try {
+                return CompletableFuture.completedFuture(command.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return enqueue(command).future();
+    }
+
+    private boolean runsInCaller() {
+        // No writer thread when disabled; joining the caller's transaction keeps its atomicity
+        // and queueing from the writer or inside a transaction would deadlock on it
+        return !enabled || Thread.currentThread() == writerThread
+                || TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private <T> Command<T> enqueue(Supplier<T> command) {
+        Command<T> queued = new Command<>(command, new CompletableFuture<>(), new AtomicBoolean());
+        if (!running || !queue.offer(queued)) {
+            throw new RuntimeException(running ? "Write queue is full" : "Write queue is shut down");
+        }
+        return queued;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getCommandCount() {
+        return commands.get();
+    }
+
+    public long getTransactionCount() {
+        return transactions.get();
+    }
+
+    public long getSplitGroupCount() {
+        return splitGroups.get();
+    }
+
+    private void drain() {
+        writerThread = Thread.currentThread();
+        List<Command<?>> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (group.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Command<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                // Commands whose caller gave up while they were queued are skipped
+                group.removeIf(command -> !command.claim());
+                if (!group.isEmpty()) {
+                    run(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(command -> command.future().completeExceptionally(
+                        new RuntimeException("Write queue is shut down")));
+                break;
+            } catch (RuntimeException e) {
+                log.error("Write command group failed unexpectedly", e);
+                group.forEach(command -> command.future().completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void run(List<Command<?>> group) {
+        commands.addAndGet(group.size());
+        if (group.size() == 1) {
+            runAlone(group.get(0));
+            return;
+        }
+        List<Object> results = new ArrayList<>(group.size());
+        try {
+            transactions.incrementAndGet();
+            transactionTemplate.executeWithoutResult(status -> group.forEach(command -> results.add(command.work().get())));
+        } catch (RuntimeException | Error e) {
+            // Nothing of the group was committed - find out which command failed
+            log.debug("Write group of {} rolled back ({}), running the commands one by one", group.size(), e.toString());
+            splitGroups.incrementAndGet();
+            group.forEach(this::runAlone);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            complete(group.get(i), results.get(i));
+        }
+    }
+
+    private <T> void runAlone(Command<T> command) {
+        try {
+            transactions.incrementAndGet();
+            command.future().complete(transactionTemplate.execute(status -> command.work().get()));
+        } catch (RuntimeException | Error e) {
+            command.future().completeExceptionally(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(Command<T> command, Object result) {
+        command.future().complete((T) result);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        writer.shutdownNow();
+        for (Command<?> command; (command = queue.poll()) != null; ) {
+            command.future().completeExceptionally(new RuntimeException("Write queue is shut down"));
+        }
+    }
+
+    /** {@code claimed} is set once - by the writer before it runs the command, or by a timed-out caller. */
+    private record Command<T>(Supplier<T> work, CompletableFuture<T> future, AtomicBoolean claimed) {
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -91,6 +91,7 @@ CREATE TABLE ProductCategories (
     id_category INTEGER PRIMARY KEY, -- ID jest podawane w skrypcie FillDatabase
     name VARCHAR(100) NOT NULL,
     parent_category_id INTEGER NULL,
+    allocation_strategy TEXT NULL CHECK(allocation_strategy IN ('FIFO', 'FEFO')), -- NULL = dziedziczona z kategorii nadrzędnej
     FOREIGN KEY (parent_category_id) REFERENCES ProductCategories(id_category) ON DELETE SET NULL
 );
 
@@ -182,6 +183,7 @@ CREATE TABLE Inventory (
     unit_price DECIMAL(10, 2) NULL, -- Override product price for this specific inventory
     status TEXT NOT NULL DEFAULT 'AVAILABLE' CHECK(status IN ('AVAILABLE', 'ALLOCATED', 'QC_HOLD', 'BLOCKED', 'DAMAGED')),
     received_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
+    version INTEGER NOT NULL DEFAULT 0, -- optimistic lock (JPA @Version)
     
     FOREIGN KEY (id_product) REFERENCES Products(id_product) ON DELETE RESTRICT,
     FOREIGN KEY (id_location) REFERENCES Locations(id_location) ON DELETE RESTRICT,
@@ -294,19 +296,41 @@ CREATE TABLE ReceiptLines (
 -- SEKCJA 4b: ALOKACJA I ZADANIA
 -- ########################################
 DROP TABLE IF EXISTS PickingTasks;
+DROP TABLE IF EXISTS InventoryAllocations;
+
+-- Tabela `InventoryAllocations` (Alokacje - linia zlecenia -> konkretny rekord Inventory)
+CREATE TABLE InventoryAllocations (
+    id_allocation INTEGER PRIMARY KEY AUTOINCREMENT,
+    id_outbound_order_item INTEGER NOT NULL,
+    id_inventory INTEGER NULL,
+    id_wave INTEGER NULL,
+    quantity INTEGER NOT NULL,
+    quantity_picked INTEGER NOT NULL DEFAULT 0,
+    status TEXT NOT NULL DEFAULT 'ALLOCATED' CHECK(status IN ('ALLOCATED', 'TASKED', 'PICKED', 'CANCELLED')),
+    created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
+
+    FOREIGN KEY (id_outbound_order_item) REFERENCES OutboundOrderItems(id_outbound_order_item) ON DELETE CASCADE,
+    FOREIGN KEY (id_inventory) REFERENCES Inventory(id_inventory) ON DELETE SET NULL,
+    FOREIGN KEY (id_wave) REFERENCES Waves(id_wave) ON DELETE SET NULL
+);
 
 -- Tabela `PickingTasks`
 CREATE TABLE PickingTasks (
     id_picking_task INTEGER PRIMARY KEY AUTOINCREMENT,
+    id_pick_list INTEGER NULL,
     id_outbound_order_item INTEGER NOT NULL,
-    id_inventory INTEGER NOT NULL,
+    id_inventory INTEGER NULL, -- NULL gdy zebrany rekord Inventory został usunięty
+    id_allocation INTEGER NULL,
     quantity_to_pick REAL NOT NULL,
     id_user_assigned INTEGER NULL,
     status TEXT NOT NULL DEFAULT 'PENDING' CHECK(status IN ('PENDING', 'IN_PROGRESS', 'PICKED', 'CANCELLED')),
     created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
+    version INTEGER NOT NULL DEFAULT 0, -- optimistic lock (JPA @Version)
     
+    FOREIGN KEY (id_pick_list) REFERENCES PickLists(id_pick_list) ON DELETE SET NULL,
     FOREIGN KEY (id_outbound_order_item) REFERENCES OutboundOrderItems(id_outbound_order_item) ON DELETE CASCADE,
-    FOREIGN KEY (id_inventory) REFERENCES Inventory(id_inventory) ON DELETE RESTRICT,
+    FOREIGN KEY (id_inventory) REFERENCES Inventory(id_inventory) ON DELETE SET NULL,
+    FOREIGN KEY (id_allocation) REFERENCES InventoryAllocations(id_allocation) ON DELETE SET NULL,
     FOREIGN KEY (id_user_assigned) REFERENCES Users(id_user) ON DELETE SET NULL
 );
 
@@ -383,6 +407,7 @@ CREATE TABLE Waves (
     released_at TEXT NULL,
     completed_at TEXT NULL,
     id_user_created INTEGER NULL,
+    version INTEGER NOT NULL DEFAULT 0, -- optimistic lock (JPA @Version)
     FOREIGN KEY (id_user_created) REFERENCES Users(id_user)
 );
 
@@ -472,36 +497,33 @@ CREATE TABLE MoveTasks (
     priority INTEGER DEFAULT 5,
     status TEXT NOT NULL DEFAULT 'PENDING' CHECK(status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED')),
     created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
+    version INTEGER NOT NULL DEFAULT 0, -- optimistic lock (JPA @Version)
     FOREIGN KEY (id_inventory) REFERENCES Inventory(id_inventory),
     FOREIGN KEY (id_source_location) REFERENCES Locations(id_location),
     FOREIGN KEY (id_target_location) REFERENCES Locations(id_location)
 );
 
--- Tabela `AuditLogs` (Logi audytowe)
+-- Tabela `AuditLogs` (Logi audytowe - zmiany encji z @AuditTrail, zapisywane przez AuditLogWriter)
 CREATE TABLE AuditLogs (
-    id_audit_log INTEGER PRIMARY KEY AUTOINCREMENT,
-    entity_type VARCHAR(50) NOT NULL,
-    entity_id INTEGER NOT NULL,
-    action TEXT NOT NULL CHECK(action IN ('CREATE', 'UPDATE', 'DELETE', 'STATUS_CHANGE')),
-    old_value TEXT NULL,
+    id_audit INTEGER PRIMARY KEY AUTOINCREMENT,
+    action VARCHAR(20) NOT NULL, -- CREATE, UPDATE, STATUS_CHANGE, DELETE
+    entity VARCHAR(100) NOT NULL,
+    entity_id VARCHAR(50) NULL,
+    old_value TEXT NULL, -- JSON zmienionych pól
     new_value TEXT NULL,
-    id_user INTEGER NULL,
-    timestamp TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
-    ip_address VARCHAR(45) NULL,
-    FOREIGN KEY (id_user) REFERENCES Users(id_user)
+    username VARCHAR(100) NULL,
+    timestamp TEXT NOT NULL
 );
 
--- Tabela `KpiMetrics` (Metryki KPI)
+-- Tabela `KpiMetrics` (Metryki KPI - także agregaty telemetrii; timestamp = początek okresu)
 CREATE TABLE KpiMetrics (
     id_kpi INTEGER PRIMARY KEY AUTOINCREMENT,
-    metric_name VARCHAR(100) NOT NULL,
-    metric_value REAL NOT NULL,
-    metric_unit VARCHAR(30) NULL,
-    period_start TEXT NOT NULL,
-    period_end TEXT NOT NULL,
-    dimension_type VARCHAR(50) NULL,
-    dimension_value VARCHAR(100) NULL,
-    created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now'))
+    name VARCHAR(100) NOT NULL,
+    value REAL NOT NULL,
+    unit VARCHAR(30) NULL,
+    timestamp TEXT NOT NULL,
+    period_end TEXT NULL,
+    dimension VARCHAR(100) NULL
 );
 
 -- Tabela `Receipts` (Potwierdzenia przyjęć - szczegóły pozycji)
@@ -701,6 +723,29 @@ CREATE TABLE InventoryTransactions (
     FOREIGN KEY (to_location_id) REFERENCES Locations(id_location) ON DELETE RESTRICT
 );
 
+-- ########################################
+-- SEKCJA 5b: SEKWENCJE IDENTYFIKATORÓW
+-- ########################################
+
+DROP TABLE IF EXISTS IdSequences;
+
+-- Tabela `IdSequences` (Liczniki numerów LPN / referencji i identyfikatorów encji - rezerwowane blokami przez IdentifierService i PooledIdGenerator)
+CREATE TABLE IdSequences (
+    sequence_name VARCHAR(100) PRIMARY KEY,
+    next_val INTEGER NOT NULL
+);
+
+DROP TABLE IF EXISTS CacheInvalidations;
+
+-- Tabela `CacheInvalidations` (Zmiany danych podstawowych do unieważnienia cache L2 na pozostałych instancjach)
+CREATE TABLE CacheInvalidations (
+    id_invalidation INTEGER PRIMARY KEY AUTOINCREMENT,
+    entity_name VARCHAR(255) NOT NULL,
+    entity_id VARCHAR(100) NULL,
+    node_id VARCHAR(64) NOT NULL,
+    created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now'))
+);
+
 -- Włączamy z powrotem sprawdzanie kluczy obcych
 PRAGMA foreign_keys = ON;
 
@@ -710,8 +755,9 @@ PRAGMA foreign_keys = ON;
 
 CREATE INDEX IF NOT EXISTS idx_products_sku ON Products(sku);
 CREATE INDEX IF NOT EXISTS idx_locations_code ON Locations(barcode);
-CREATE INDEX IF NOT EXISTS idx_inventory_product ON Inventory(id_product);
-CREATE INDEX IF NOT EXISTS idx_inventory_location ON Inventory(id_location);
+CREATE INDEX IF NOT EXISTS idx_inventory_product_status_received ON Inventory(id_product, status, received_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_product_status_expiry ON Inventory(id_product, status, expiry_date);
+CREATE INDEX IF NOT EXISTS idx_inventory_location_status ON Inventory(id_location, status);
 CREATE INDEX IF NOT EXISTS idx_inventory_lpn ON Inventory(lpn);
 CREATE INDEX IF NOT EXISTS idx_transactions_product ON InventoryTransactions(id_product);
 CREATE INDEX IF NOT EXISTS idx_transactions_time ON InventoryTransactions(timestamp);
@@ -719,7 +765,23 @@ CREATE INDEX IF NOT EXISTS idx_transactions_reference ON InventoryTransactions(r
 CREATE INDEX IF NOT EXISTS idx_picking_tasks_order_line ON PickingTasks(id_outbound_order_item);
 CREATE INDEX IF NOT EXISTS idx_picking_tasks_inventory ON PickingTasks(id_inventory);
 CREATE INDEX IF NOT EXISTS idx_picking_tasks_status ON PickingTasks(status);
+CREATE INDEX IF NOT EXISTS idx_picking_tasks_pick_list_status ON PickingTasks(id_pick_list, status);
+CREATE INDEX IF NOT EXISTS idx_pick_lists_wave ON PickLists(id_wave);
+CREATE INDEX IF NOT EXISTS idx_allocations_order_line ON InventoryAllocations(id_outbound_order_item);
+CREATE INDEX IF NOT EXISTS idx_allocations_inventory ON InventoryAllocations(id_inventory);
 CREATE INDEX IF NOT EXISTS idx_shipments_order ON Shipments(id_outbound_order);
 CREATE INDEX IF NOT EXISTS idx_shipments_carrier ON Shipments(id_carrier);
 CREATE INDEX IF NOT EXISTS idx_shipments_load ON Shipments(id_load);
-CREATE INDEX IF NOT EXISTS idx_shipment_lines_shipment ON ShipmentLines(id_shipment);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_shipment_lines_shipment ON ShipmentLines(id_shipment);
+CREATE INDEX IF NOT EXISTS idx_outbound_orders_status ON OutboundOrders(status, id_outbound_order);
+CREATE INDEX IF NOT EXISTS idx_outbound_orders_created ON OutboundOrders(created_at);
+CREATE INDEX IF NOT EXISTS idx_inbound_orders_status ON InboundOrders(status, id_inbound_order);
+CREATE INDEX IF NOT EXISTS idx_inbound_orders_expected ON InboundOrders(expected_date);
+CREATE INDEX IF NOT EXISTS idx_shipments_status ON Shipments(status, id_shipment);
+CREATE INDEX IF NOT EXISTS idx_rma_requests_status ON RmaRequests(status, id_rma);
+CREATE INDEX IF NOT EXISTS idx_products_category ON Products(id_category, id_product);
+CREATE INDEX IF NOT EXISTS idx_products_name ON Products(name);
+CREATE INDEX IF NOT EXISTS idx_locations_zone ON Locations(id_zone, id_location);
+CREATE INDEX IF NOT EXISTS idx_kpi_metrics_name_time ON KpiMetrics(name, timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON AuditLogs(entity, entity_id);
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created ON CacheInvalidations(created_at);
\ No newline at end of file
@@ -133,18 +133,18 @@ INSERT INTO Locations (name, id_location_type, id_zone) VALUES
 ('P-B-01', 2, 1);
 
 -- Tabela `ProductCategories` (Kategorie Produktów) - 11 rekordów
-INSERT INTO ProductCategories (id_category, name, parent_category_id) VALUES
-(1, 'Elektronika', NULL),
-(2, 'Odzież', NULL),
-(3, 'Dom i Ogród', NULL),
-(4, 'Spożywcze', NULL),
-(5, 'Laptopy i Komputery', 1),
-(6, 'Telefony i Akcesoria', 1),
-(7, 'Koszulki', 2),
-(8, 'Spodnie', 2),
-(9, 'Narzędzia', 3),
-(10, 'Napoje', 4),
-(11, 'AGD', 1);
+INSERT INTO ProductCategories (id_category, name, parent_category_id, allocation_strategy) VALUES
+(1, 'Elektronika', NULL, 'FIFO'),
+(2, 'Odzież', NULL, 'FIFO'),
+(3, 'Dom i Ogród', NULL, 'FIFO'),
+(4, 'Spożywcze', NULL, 'FEFO'),
+(5, 'Laptopy i Komputery', 1, NULL),
+(6, 'Telefony i Akcesoria', 1, NULL),
+(7, 'Koszulki', 2, NULL),
+(8, 'Spodnie', 2, NULL),
+(9, 'Narzędzia', 3, NULL),
+(10, 'Napoje', 4, NULL),
+(11, 'AGD', 1, NULL);
 
 -- Tabela `Users` (Użytkownicy) - 10 rekordów (id_user będzie AUTOINCREMENT)
 INSERT INTO Users (login, email, password_hash, first_name, last_name, is_active) VALUES
@@ -0,0 +1,85 @@
+-- Aktualizacja istniejącej bazy SQLite do bieżącego CreateDB_sqlite.sql (bez utraty danych).
+-- Uruchamiany przy każdym starcie przez DatabaseResetRunner - wszystkie polecenia muszą być idempotentne.
+-- Nowe kolumny w istniejących tabelach dodaje DatabaseResetRunner (SQLite nie ma ADD COLUMN IF NOT EXISTS).
+
+-- Tabela `InventoryAllocations` (Alokacje - linia zlecenia -> konkretny rekord Inventory)
+CREATE TABLE IF NOT EXISTS InventoryAllocations (
+    id_allocation INTEGER PRIMARY KEY AUTOINCREMENT,
+    id_outbound_order_item INTEGER NOT NULL,
+    id_inventory INTEGER NULL,
+    id_wave INTEGER NULL,
+    quantity INTEGER NOT NULL,
+    quantity_picked INTEGER NOT NULL DEFAULT 0,
+    status TEXT NOT NULL DEFAULT 'ALLOCATED' CHECK(status IN ('ALLOCATED', 'TASKED', 'PICKED', 'CANCELLED')),
+    created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now')),
+
+    FOREIGN KEY (id_outbound_order_item) REFERENCES OutboundOrderItems(id_outbound_order_item) ON DELETE CASCADE,
+    FOREIGN KEY (id_inventory) REFERENCES Inventory(id_inventory) ON DELETE SET NULL,
+    FOREIGN KEY (id_wave) REFERENCES Waves(id_wave) ON DELETE SET NULL
+);
+
+-- Tabela `IdSequences` (Liczniki numerów LPN / referencji i identyfikatorów encji - rezerwowane blokami przez IdentifierService i PooledIdGenerator)
+CREATE TABLE IF NOT EXISTS IdSequences (
+    sequence_name VARCHAR(100) PRIMARY KEY,
+    next_val INTEGER NOT NULL
+);
+
+-- Tabela `CacheInvalidations` (Zmiany danych podstawowych do unieważnienia cache L2 na pozostałych instancjach)
+CREATE TABLE IF NOT EXISTS CacheInvalidations (
+    id_invalidation INTEGER PRIMARY KEY AUTOINCREMENT,
+    entity_name VARCHAR(255) NOT NULL,
+    entity_id VARCHAR(100) NULL,
+    node_id VARCHAR(64) NOT NULL,
+    created_at TEXT NOT NULL DEFAULT (STRFTIME('%Y-%m-%d %H:%M:%S', 'now'))
+);
+
+-- Tabela `KpiMetrics` (Metryki KPI - także agregaty telemetrii; timestamp = początek okresu)
+-- Wcześniejsza wersja tabeli (metric_name, period_start, ...) nie pasowała do encji - DatabaseResetRunner ją usuwa
+CREATE TABLE IF NOT EXISTS KpiMetrics (
+    id_kpi INTEGER PRIMARY KEY AUTOINCREMENT,
+    name VARCHAR(100) NOT NULL,
+    value REAL NOT NULL,
+    unit VARCHAR(30) NULL,
+    timestamp TEXT NOT NULL,
+    period_end TEXT NULL,
+    dimension VARCHAR(100) NULL
+);
+
+-- Tabela `AuditLogs` (Logi audytowe - zmiany encji z @AuditTrail, zapisywane przez AuditLogWriter)
+-- Wcześniejsza wersja tabeli (id_audit_log, entity_type, ...) nie pasowała do encji - DatabaseResetRunner ją usuwa
+CREATE TABLE IF NOT EXISTS AuditLogs (
+    id_audit INTEGER PRIMARY KEY AUTOINCREMENT,
+    action VARCHAR(20) NOT NULL, -- CREATE, UPDATE, STATUS_CHANGE, DELETE
+    entity VARCHAR(100) NOT NULL,
+    entity_id VARCHAR(50) NULL,
+    old_value TEXT NULL, -- JSON zmienionych pól
+    new_value TEXT NULL,
+    username VARCHAR(100) NULL,
+    timestamp TEXT NOT NULL
+);
+
+-- Indeksy
+DROP INDEX IF EXISTS idx_inventory_product;
+DROP INDEX IF EXISTS idx_inventory_location;
+CREATE INDEX IF NOT EXISTS idx_inventory_product_status_received ON Inventory(id_product, status, received_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_product_status_expiry ON Inventory(id_product, status, expiry_date);
+CREATE INDEX IF NOT EXISTS idx_inventory_location_status ON Inventory(id_location, status);
+CREATE INDEX IF NOT EXISTS idx_allocations_order_line ON InventoryAllocations(id_outbound_order_item);
+CREATE INDEX IF NOT EXISTS idx_allocations_inventory ON InventoryAllocations(id_inventory);
+CREATE INDEX IF NOT EXISTS idx_picking_tasks_pick_list_status ON PickingTasks(id_pick_list, status);
+CREATE INDEX IF NOT EXISTS idx_picking_tasks_order_line ON PickingTasks(id_outbound_order_item);
+CREATE INDEX IF NOT EXISTS idx_picking_tasks_inventory ON PickingTasks(id_inventory);
+CREATE INDEX IF NOT EXISTS idx_picking_tasks_status ON PickingTasks(status);
+CREATE INDEX IF NOT EXISTS idx_pick_lists_wave ON PickLists(id_wave);
+CREATE INDEX IF NOT EXISTS idx_outbound_orders_status ON OutboundOrders(status, id_outbound_order);
+CREATE INDEX IF NOT EXISTS idx_outbound_orders_created ON OutboundOrders(created_at);
+CREATE INDEX IF NOT EXISTS idx_inbound_orders_status ON InboundOrders(status, id_inbound_order);
+CREATE INDEX IF NOT EXISTS idx_inbound_orders_expected ON InboundOrders(expected_date);
+CREATE INDEX IF NOT EXISTS idx_shipments_status ON Shipments(status, id_shipment);
+CREATE INDEX IF NOT EXISTS idx_rma_requests_status ON RmaRequests(status, id_rma);
+CREATE INDEX IF NOT EXISTS idx_products_category ON Products(id_category, id_product);
+CREATE INDEX IF NOT EXISTS idx_products_name ON Products(name);
+CREATE INDEX IF NOT EXISTS idx_locations_zone ON Locations(id_zone, id_location);
+CREATE INDEX IF NOT EXISTS idx_kpi_metrics_name_time ON KpiMetrics(name, timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON AuditLogs(entity, entity_id);
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created ON CacheInvalidations(created_at);
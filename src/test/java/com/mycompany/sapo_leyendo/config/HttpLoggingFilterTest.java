@@ -0,0 +1,244 @@
+package com.mycompany.sapo_leyendo.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpLoggingFilterTest {
+
+    private static final int MAX_BODY = 64;
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private HttpLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        ((Logger) LoggerFactory.getLogger("HTTP_LOG")).addAppender(appender);
+        writer = new HttpLogWriter(1024, "Authorization,Cookie", "password,token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+        ((Logger) LoggerFactory.getLogger("HTTP_LOG")).detachAppender(appender);
+    }
+
+    @Test
+    void bodiesAreCappedButTheClientGetsEverything() throws Exception {
+        String large = "x".repeat(100_000);
+        MockHttpServletResponse response = run(filter(1.0, Map.of()), post("/api/inventory", "{\"sku\":\"A\"}"),
+                (req, res) -> {
+                    res.setContentType("application/json");
+                    res.getOutputStream().write(large.getBytes(StandardCharsets.UTF_8));
+                });
+
+        assertThat(response.getContentAsString()).isEqualTo(large);
+        String line = awaitLines(1).get(0);
+        assertThat(line).contains("path=/api/inventory", "status=200", "reqBody={\"sku\":\"A\"}");
+        assertThat(line).contains("resBody=" + "x".repeat(MAX_BODY) + "...[truncated, 100000 bytes]");
+        assertThat(line).doesNotContain("x".repeat(MAX_BODY + 1));
+    }
+
+    @Test
+    void writerBodiesAreCapturedToo() throws Exception {
+        MockHttpServletResponse response = run(filter(1.0, Map.of()), get("/api/products"), (req, res) -> {
+            res.setContentType("text/plain;charset=UTF-8");
+            res.getWriter().write("żółw");
+        });
+
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("żółw");
+        assertThat(awaitLines(1).get(0)).contains("resBody=żółw");
+    }
+
+    @Test
+    void secretsAreRedacted() throws Exception {
+        MockHttpServletRequest request = post("/api/users",
+                "{\"username\":\"ola\",\"password\" : \"tajne \\\" hasło\",\"token\":12345,\"roles\":[\"ADMIN\"]}");
+        request.addHeader("Authorization", "Basic b2xhOnRham5l");
+        request.addHeader("X-Request-Id", "r-1");
+        run(filter(1.0, Map.of()), request, (req, res) -> {
+            res.setContentType("application/json");
+            res.addHeader("Set-Cookie", "JSESSIONID=abc");
+            res.getWriter().write("{\"id\":7}");
+        });
+
+        String line = awaitLines(1).get(0);
+        assertThat(line).contains("Authorization=***", "X-Request-Id=r-1");
+        assertThat(line).contains("\"username\":\"ola\"", "\"password\" : \"***\"", "\"token\":***");
+        assertThat(line).doesNotContain("b2xhOnRham5l", "tajne", "hasło", "12345");
+
+        assertThat(writer.redactFields("username=ola&password=tajne&next=/")).isEqualTo("username=ola&password=***&next=/");
+        // A prefix cut inside the value
+        assertThat(writer.redactFields("{\"password\":\"taj")).isEqualTo("{\"password\":\"***");
+    }
+
+    @Test
+    void unsampledPathsAreLoggedOnlyWhenTheyFail() throws Exception {
+        HttpLoggingFilter filter = filter(1.0, Map.of("/api/inventory", 0.0, "/api/inventory/audit", 1.0));
+
+        run(filter, get("/api/inventory"), (req, res) -> res.getWriter().write("[]"));
+        run(filter, get("/api/inventory/404"), (req, res) -> res.setStatus(HttpServletResponse.SC_NOT_FOUND));
+        run(filter, get("/api/inventory/audit"), (req, res) -> res.getWriter().write("[]"));
+
+        List<String> lines = awaitLines(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("path=/api/inventory/404", "status=404", "reqBody=-", "resBody=-");
+        assertThat(lines.get(1)).contains("path=/api/inventory/audit", "resBody=[]");
+    }
+
+    @Test
+    void bypassedPathsAreNotWrapped() throws Exception {
+        AtomicBoolean unwrapped = new AtomicBoolean();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new HttpLoggingFilter(writer, MAX_BODY, 1.0, Map.of(), List.of("/api/export/"))
+                .doFilter(get("/api/export/inventory"), response, new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse res) {
+                        unwrapped.set(res == response);
+                    }
+                }));
+
+        assertThat(unwrapped).isTrue();
+        assertThat(awaitLines(1).get(0)).contains("path=/api/export/inventory", "resBody=-");
+    }
+
+    @Test
+    void sampleRatesAreValidated() {
+        assertThat(HttpLoggingConfig.parseSampleRates(" /api/inventory=0.1, /api/telemetry=0 "))
+                .containsExactly(Map.entry("/api/inventory", 0.1), Map.entry("/api/telemetry", 0.0));
+        assertThatThrownBy(() -> HttpLoggingConfig.parseSampleRates("/api/inventory")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HttpLoggingConfig.parseSampleRates("/api/inventory=2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ringBufferRejectsWhenFullInsteadOfBlocking() {
+        HttpLogRingBuffer<Integer> buffer = new HttpLogRingBuffer<>(3);
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        List<Integer> rest = new ArrayList<>();
+        for (Integer item; (item = buffer.poll()) != null; ) {
+            rest.add(item);
+        }
+        assertThat(rest).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void ringBufferKeepsEveryRecordOfConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        HttpLogRingBuffer<long[]> buffer = new HttpLogRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        Map<Long, Long> lastSeen = new HashMap<>();
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (received < producers * perProducer && System.currentTimeMillis() < deadline) {
+            long[] item = buffer.poll();
+            if (item == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // Each producer's records arrive in the order it offered them
+            assertThat(item[1]).isEqualTo(lastSeen.getOrDefault(item[0], -1L) + 1);
+            lastSeen.put(item[0], item[1]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    private HttpLoggingFilter filter(double sampleRate, Map<String, Double> pathRates) {
+        return new HttpLoggingFilter(writer, MAX_BODY, sampleRate, pathRates, List.of());
+    }
+
+    private MockHttpServletResponse run(HttpLoggingFilter filter, MockHttpServletRequest request, Handler handler) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                req.getInputStream().readAllBytes();
+                handler.handle(req, res);
+            }
+        }));
+        return response;
+    }
+
+    private List<String> awaitLines(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (appender.list.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Give a record that should not be there a moment to show up
+        Thread.sleep(50);
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String uri, String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+}
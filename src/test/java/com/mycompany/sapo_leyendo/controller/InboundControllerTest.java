@@ -100,4 +100,13 @@ public class InboundControllerTest {
             .andExpect(jsonPath("$.orderReference").value("INB-INT-001"))
             .andExpect(jsonPath("$.items", hasSize(1)));
     }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void shouldRejectMalformedNextFreeSlotStart() throws Exception {
+        mockMvc.perform(get("/api/inbound/appointments/next-free")
+                .param("durationMinutes", "30")
+                .param("from", "tomorrow"))
+                .andExpect(status().isBadRequest());
+    }
 }
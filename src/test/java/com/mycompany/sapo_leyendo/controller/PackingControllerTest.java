@@ -2,6 +2,7 @@ package com.mycompany.sapo_leyendo.controller;
 
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.service.PackingService;
+import com.mycompany.sapo_leyendo.service.WriteCommandExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +29,9 @@ class PackingControllerTest {
     @Mock
     private PackingService packingService;
 
+    @Mock
+    private WriteCommandExecutor writeCommands;
+
     @InjectMocks
     private PackingController packingController;
 
@@ -38,6 +43,9 @@ class PackingControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Run queued commands in the calling thread
+        lenient().when(writeCommands.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
         // Create test outbound order
         testOrder = new OutboundOrder();
         testOrder.setId(1);
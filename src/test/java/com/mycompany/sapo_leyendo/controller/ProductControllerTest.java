@@ -1,5 +1,7 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.Product;
 import com.mycompany.sapo_leyendo.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,7 +23,7 @@ import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for ProductController - tests product management:
- * - List all products
+ * - List products (keyset-paged)
  * - Get product by ID
  * - Create product
  * - Update product
@@ -58,32 +60,47 @@ class ProductControllerTest {
         testProduct2.setIdBaseUom(1);
     }
 
-    // ==================== Get All Products Tests ====================
+    // ==================== List Products Tests ====================
+
+    private final KeysetRequest firstPage = new KeysetRequest(null, null, null);
 
     @Test
     void shouldGetAllProductsSuccessfully() {
         List<Product> products = Arrays.asList(testProduct, testProduct2);
-        when(productService.getAllProducts()).thenReturn(products);
+        when(productService.getProducts(null, null, firstPage)).thenReturn(new KeysetPage<>(products, null));
 
-        List<Product> result = productController.getAllProducts();
+        ResponseEntity<List<Product>> response = productController.getProducts(null, null, firstPage);
+        List<Product> result = response.getBody();
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("TEST-SKU-001", result.get(0).getSku());
         assertEquals("TEST-SKU-002", result.get(1).getSku());
-        verify(productService, times(1)).getAllProducts();
+        assertFalse(response.getHeaders().containsKey(KeysetPage.NEXT_CURSOR_HEADER));
+        verify(productService, times(1)).getProducts(null, null, firstPage);
     }
 
     @Test
     void shouldReturnEmptyListWhenNoProducts() {
-        when(productService.getAllProducts()).thenReturn(new ArrayList<>());
+        when(productService.getProducts(null, null, firstPage)).thenReturn(new KeysetPage<>(new ArrayList<>(), null));
 
-        List<Product> result = productController.getAllProducts();
+        List<Product> result = productController.getProducts(null, null, firstPage).getBody();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void shouldPassFiltersAndReturnNextCursorHeader() {
+        KeysetRequest page = new KeysetRequest(null, 1, "sku");
+        when(productService.getProducts(3, "TEST-", page)).thenReturn(new KeysetPage<>(List.of(testProduct), "abc"));
+
+        ResponseEntity<List<Product>> response = productController.getProducts(3, "TEST-", page);
+
+        assertEquals(1, response.getBody().size());
+        assertEquals("abc", response.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+    }
+
     @Test
     void shouldGetManyProducts() {
         List<Product> manyProducts = new ArrayList<>();
@@ -93,9 +110,9 @@ class ProductControllerTest {
             p.setSku("SKU-" + i);
             manyProducts.add(p);
         }
-        when(productService.getAllProducts()).thenReturn(manyProducts);
+        when(productService.getProducts(null, null, firstPage)).thenReturn(new KeysetPage<>(manyProducts, null));
 
-        List<Product> result = productController.getAllProducts();
+        List<Product> result = productController.getProducts(null, null, firstPage).getBody();
 
         assertEquals(100, result.size());
     }
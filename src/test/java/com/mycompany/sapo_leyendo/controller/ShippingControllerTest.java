@@ -1,5 +1,7 @@
 package com.mycompany.sapo_leyendo.controller;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.service.ShippingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -128,22 +130,25 @@ class ShippingControllerTest {
 
     @Test
     void shouldGetAllShipments() {
+        KeysetRequest page = new KeysetRequest(null, null, null);
         List<Shipment> shipments = Arrays.asList(testShipment);
-        when(shippingService.getAllShipments()).thenReturn(shipments);
+        when(shippingService.getShipments(null, null, null, null, page)).thenReturn(new KeysetPage<>(shipments, null));
 
-        List<Shipment> result = shippingController.getAllShipments();
+        List<Shipment> result = shippingController.getShipments(null, null, null, null, page).getBody();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("TRACK-001", result.get(0).getTrackingNumber());
-        verify(shippingService, times(1)).getAllShipments();
+        verify(shippingService, times(1)).getShipments(null, null, null, null, page);
     }
 
     @Test
     void shouldReturnEmptyShipmentList() {
-        when(shippingService.getAllShipments()).thenReturn(new ArrayList<>());
+        KeysetRequest page = new KeysetRequest(null, null, null);
+        when(shippingService.getShipments(ShipmentStatus.SHIPPED, 1, null, null, page))
+                .thenReturn(new KeysetPage<>(new ArrayList<>(), null));
 
-        List<Shipment> result = shippingController.getAllShipments();
+        List<Shipment> result = shippingController.getShipments(ShipmentStatus.SHIPPED, 1, null, null, page).getBody();
 
         assertTrue(result.isEmpty());
     }
@@ -0,0 +1,139 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.model.AuditLog;
+import com.mycompany.sapo_leyendo.model.OutboundOrder;
+import com.mycompany.sapo_leyendo.model.User;
+import com.mycompany.sapo_leyendo.repository.AuditLogRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Changes of @AuditTrail entities leave AuditLogs rows with the changed values, written in the
+ * changing transaction (the test profile runs with commit durability).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "auditor")
+class AuditTrailTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void orderLifecycleIsAudited() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer id = tx.execute(status -> {
+            OutboundOrder order = new OutboundOrder();
+            order.setReferenceNumber("AUDIT-1");
+            order.setCustomerName("Audit customer");
+            order.setCreatedAt(LocalDateTime.of(2034, 1, 1, 8, 0));
+            return outboundOrderRepository.save(order).getId();
+        });
+        tx.executeWithoutResult(status -> outboundOrderRepository.findById(id).orElseThrow().setStatus("ALLOCATED"));
+        tx.executeWithoutResult(status -> outboundOrderRepository.findById(id).orElseThrow().setCustomerName("Renamed"));
+        // Saving unchanged values writes nothing
+        tx.executeWithoutResult(status -> outboundOrderRepository.save(outboundOrderRepository.findById(id).orElseThrow()));
+        tx.executeWithoutResult(status -> outboundOrderRepository.deleteById(id));
+
+        List<AuditLog> rows = rowsOf("OutboundOrder", id);
+        assertThat(rows).extracting(AuditLog::getAction).containsExactly("CREATE", "STATUS_CHANGE", "UPDATE", "DELETE");
+        assertThat(rows).extracting(AuditLog::getUsername).containsOnly("auditor");
+
+        JsonNode created = objectMapper.readTree(rows.get(0).getNewValue());
+        assertThat(created.get("referenceNumber").asText()).isEqualTo("AUDIT-1");
+        assertThat(created.get("status").asText()).isEqualTo("NEW");
+        assertThat(rows.get(0).getOldValue()).isNull();
+
+        assertThat(objectMapper.readTree(rows.get(1).getOldValue()).toString()).isEqualTo("{\"status\":\"NEW\"}");
+        assertThat(objectMapper.readTree(rows.get(1).getNewValue()).toString()).isEqualTo("{\"status\":\"ALLOCATED\"}");
+        assertThat(objectMapper.readTree(rows.get(2).getNewValue()).toString()).isEqualTo("{\"customerName\":\"Renamed\"}");
+
+        assertThat(objectMapper.readTree(rows.get(3).getOldValue()).get("customerName").asText()).isEqualTo("Renamed");
+        assertThat(rows.get(3).getNewValue()).isNull();
+
+        mockMvc.perform(get("/api/reporting/audit").param("entity", "OutboundOrder").param("entityId", id.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].action").value("DELETE"));
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoRows() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer id = tx.execute(status -> {
+            OutboundOrder order = new OutboundOrder();
+            order.setReferenceNumber("AUDIT-2");
+            order.setCreatedAt(LocalDateTime.of(2034, 1, 2, 8, 0));
+            return outboundOrderRepository.save(order).getId();
+        });
+
+        tx.executeWithoutResult(status -> {
+            outboundOrderRepository.findById(id).orElseThrow().setStatus("CANCELLED");
+            outboundOrderRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(rowsOf("OutboundOrder", id)).extracting(AuditLog::getAction).containsExactly("CREATE");
+    }
+
+    @Test
+    void maskedPropertiesOnlyShowThatTheyChanged() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer id = tx.execute(status -> {
+            User user = new User();
+            user.setLogin("audit-user");
+            user.setPasswordHash("$2a$10$first");
+            return userRepository.save(user).getId();
+        });
+        tx.executeWithoutResult(status -> userRepository.findById(id).orElseThrow().setPasswordHash("$2a$10$second"));
+
+        List<AuditLog> rows = rowsOf("User", id);
+        assertThat(rows).hasSize(2);
+        assertThat(rows).allSatisfy(row -> assertThat(String.valueOf(row.getOldValue()) + row.getNewValue())
+                .doesNotContain("first", "second"));
+        assertThat(objectMapper.readTree(rows.get(1).getNewValue()).toString()).isEqualTo("{\"passwordHash\":\"***\"}");
+    }
+
+    private List<AuditLog> rowsOf(String entity, Integer id) {
+        return auditLogRepository.findAll().stream()
+                .filter(row -> entity.equals(row.getEntity()) && id.toString().equals(row.getEntityId()))
+                .sorted(Comparator.comparing(AuditLog::getId))
+                .toList();
+    }
+}
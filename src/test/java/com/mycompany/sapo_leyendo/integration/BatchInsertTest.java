@@ -0,0 +1,74 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.repository.IdSequenceRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entity ids come from pooled blocks, so Hibernate sends inserts as JDBC batches:
+ * a few thousand products reuse a handful of prepared statements instead of one per row.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchInsertTest {
+
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertsAreBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Product product = new Product();
+            product.setSku("BATCH-" + i);
+            product.setName("Batch insert " + i);
+            product.setIdBaseUom(1);
+            product.setUnitPrice(BigDecimal.ONE);
+            products.add(product);
+        }
+
+        long start = System.nanoTime();
+        List<Product> saved = new TransactionTemplate(transactionManager).execute(status -> productRepository.saveAll(products));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Set<Integer> ids = saved.stream().map(Product::getId).collect(Collectors.toSet());
+        assertThat(ids).hasSize(ROWS).doesNotContainNull();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // With IDENTITY every row would be a statement of its own
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ROWS / 10);
+        assertThat(idSequenceRepository.findNextVal("Products")).isGreaterThan(ids.stream().mapToLong(Integer::longValue).max().orElseThrow());
+
+        System.out.printf("Batch insert: %d products in %.0f ms (%.0f rows/s, %d statements)%n",
+                ROWS, seconds * 1000, ROWS / seconds, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,243 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.*;
+import com.mycompany.sapo_leyendo.service.IdentifierService;
+import com.mycompany.sapo_leyendo.service.IdentifierType;
+import com.mycompany.sapo_leyendo.service.PickingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs several waves in parallel against the same stock rows and checks that optimistic
+ * locking plus retry never hands out more than is on the shelf.
+ * Uses H2 with a real connection pool - the SQLite test profile has a single connection,
+ * which would serialize the waves and hide the race. For the same reason identifier blocks,
+ * reserved in a transaction of their own, are checked here.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:allocation-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "app.retry.optimistic.max-attempts=20",
+        "app.retry.optimistic.initial-backoff-ms=5"
+})
+@ActiveProfiles("test")
+class ConcurrentAllocationStressTest {
+
+    private static final int STOCK_ROWS = 5;
+    private static final int QTY_PER_ROW = 10;
+    private static final int WAVES = 8;
+    private static final double QTY_PER_ORDER = 7.0;
+
+    @Autowired
+    private PickingService pickingService;
+
+    @Autowired
+    private UnitOfMeasureRepository uomRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Autowired
+    private OutboundOrderItemRepository outboundOrderItemRepository;
+
+    @Autowired
+    private WaveRepository waveRepository;
+
+    @Autowired
+    private InventoryAllocationRepository inventoryAllocationRepository;
+
+    @Autowired
+    private IdentifierService identifierService;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelWavesNeverOversellStock() throws Exception {
+        UnitOfMeasure uom = uomRepository.save(new UnitOfMeasure(1, "PCS", "Piece"));
+
+        Product product = new Product();
+        product.setSku("STRESS-001");
+        product.setName("Stress Test Product");
+        product.setIdBaseUom(uom.getId());
+        product.setUnitPrice(new BigDecimal("1.00"));
+        product = productRepository.save(product);
+
+        Location location = new Location();
+        location.setName("STRESS-A-01");
+        location = locationRepository.save(location);
+
+        for (int i = 0; i < STOCK_ROWS; i++) {
+            Inventory stock = new Inventory();
+            stock.setProduct(product);
+            stock.setLocation(location);
+            stock.setUom(uom);
+            stock.setLpn("LPN-STRESS-" + i);
+            stock.setQuantity(QTY_PER_ROW);
+            stock.setStatus(InventoryStatus.AVAILABLE);
+            stock.setReceivedAt(LocalDateTime.now().minusDays(STOCK_ROWS - i));
+            inventoryRepository.save(stock);
+        }
+
+        List<Integer> waveIds = new ArrayList<>();
+        List<Integer> orderIds = new ArrayList<>();
+        for (int i = 0; i < WAVES; i++) {
+            OutboundOrder order = new OutboundOrder();
+            order.setReferenceNumber("SO-STRESS-" + i);
+            order = outboundOrderRepository.save(order);
+
+            OutboundOrderItem line = new OutboundOrderItem();
+            line.setOutboundOrder(order);
+            line.setProduct(product);
+            line.setUom(uom);
+            line.setQuantityOrdered(QTY_PER_ORDER);
+            outboundOrderItemRepository.save(line);
+
+            Wave wave = new Wave();
+            wave.setName("WAVE-STRESS-" + i);
+            wave.setCreatedAt(LocalDateTime.now());
+            waveIds.add(waveRepository.save(wave).getId());
+            orderIds.add(order.getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(WAVES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WaveAllocationResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < WAVES; i++) {
+                Integer waveId = waveIds.get(i);
+                Integer orderId = orderIds.get(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return pickingService.allocateWave(waveId, List.of(orderId));
+                }));
+            }
+            start.countDown();
+
+            double allocatedByWaves = 0;
+            double shortByWaves = 0;
+            for (Future<WaveAllocationResult> future : futures) {
+                WaveAllocationResult result = future.get(60, TimeUnit.SECONDS);
+                allocatedByWaves += result.quantityAllocated();
+                shortByWaves += result.shortages().stream().mapToDouble(s -> s.quantityShort()).sum();
+            }
+
+            int onHand = STOCK_ROWS * QTY_PER_ROW;
+            List<Inventory> stock = inventoryRepository.findByProductId(product.getId());
+            int total = stock.stream().mapToInt(Inventory::getQuantity).sum();
+            int allocatedRows = stock.stream()
+                    .filter(inv -> inv.getStatus() == InventoryStatus.ALLOCATED)
+                    .mapToInt(Inventory::getQuantity).sum();
+            int recorded = inventoryAllocationRepository.findAll().stream()
+                    .mapToInt(InventoryAllocation::getQuantity).sum();
+
+            assertThat(stock).allSatisfy(inv -> assertThat(inv.getQuantity()).isPositive());
+            assertThat(total).as("stock is conserved").isEqualTo(onHand);
+            assertThat(allocatedRows).as("demand exceeds stock, so all of it is allocated - once").isEqualTo(onHand);
+            assertThat(recorded).isEqualTo(onHand);
+            assertThat(allocatedByWaves).isEqualTo(onHand);
+            assertThat(allocatedByWaves + shortByWaves).isEqualTo(WAVES * QTY_PER_ORDER);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sameWaveAllocatedInParallelIsReleasedOnce() throws Exception {
+        UnitOfMeasure uom = uomRepository.save(new UnitOfMeasure(1, "PCS", "Piece"));
+
+        Product product = new Product();
+        product.setSku("STRESS-SAME-WAVE");
+        product.setName("Same Wave Product");
+        product.setIdBaseUom(uom.getId());
+        product.setUnitPrice(new BigDecimal("1.00"));
+        product = productRepository.save(product);
+
+        // No stock: the attempts never touch a common Inventory row, so only the wave itself can serialize them
+        OutboundOrder order = new OutboundOrder();
+        order.setReferenceNumber("SO-STRESS-SAME-WAVE");
+        order = outboundOrderRepository.save(order);
+
+        OutboundOrderItem line = new OutboundOrderItem();
+        line.setOutboundOrder(order);
+        line.setProduct(product);
+        line.setUom(uom);
+        line.setQuantityOrdered(QTY_PER_ORDER);
+        outboundOrderItemRepository.save(line);
+
+        Wave wave = new Wave();
+        wave.setName("WAVE-STRESS-SAME");
+        wave.setCreatedAt(LocalDateTime.now());
+        Integer waveId = waveRepository.save(wave).getId();
+        Integer orderId = order.getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WAVES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WaveAllocationResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < WAVES; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return pickingService.allocateWave(waveId, List.of(orderId));
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<WaveAllocationResult> future : futures) {
+                try {
+                    assertThat(future.get(60, TimeUnit.SECONDS).shortages()).hasSize(1);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).hasMessage("Wave must be in CREATED status to allocate");
+                }
+            }
+
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(waveRepository.findById(waveId).orElseThrow().getStatus()).isEqualTo(WaveStatus.RELEASED);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void identifierBlockStaysReservedWhenTheCallerRollsBack() {
+        String[] issued = new String[1];
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            issued[0] = identifierService.next(IdentifierType.NCR);
+            status.setRollbackOnly();
+        });
+
+        long number = Long.parseLong(issued[0].substring(issued[0].indexOf('-') + 1));
+        assertThat(idSequenceRepository.findNextVal(IdentifierType.NCR.getKey())).isGreaterThan(number);
+    }
+}
@@ -0,0 +1,219 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Statements per endpoint for orders, shipments and loads with lines, parcels and parcel items:
+ * the count stays the same however many rows there are, instead of growing with every order
+ * (lines), shipment (order, parcels) and parcel (items).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FetchPlanStatementCountTest {
+
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int PARCELS_PER_SHIPMENT = 2;
+    private static final String DATE_RANGE = "from=2033-01-01T00:00:00&to=2033-12-31T23:59:59";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+
+    @Autowired
+    private TransportLoadRepository transportLoadRepository;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UnitOfMeasureRepository unitOfMeasureRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (outboundOrderRepository.existsByReferenceNumber("FETCH-0")) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Product> products = productRepository.findAll();
+            UnitOfMeasure uom = unitOfMeasureRepository.findAll().get(0);
+            TransportLoad load = new TransportLoad();
+            load.setLoadNumber("FETCH-LOAD");
+            load.setCreatedAt(LocalDateTime.of(2033, 6, 1, 8, 0));
+            transportLoadRepository.save(load);
+
+            // FETCH-0..: shipped in 2033, for the lists; FETCH-LOAD-0..: on the load, for dispatch
+            for (int o = 0; o < 2 * ORDERS; o++) {
+                boolean onLoad = o >= ORDERS;
+                String reference = onLoad ? "FETCH-LOAD-" + (o - ORDERS) : "FETCH-" + o;
+                OutboundOrder order = new OutboundOrder();
+                order.setReferenceNumber(reference);
+                order.setStatus("PACKED");
+                order.setCreatedAt(LocalDateTime.of(2033, 6, 1, 8, 0).plusMinutes(o));
+                // No itemsCount / totalAmount: the JSON totals come from the lines
+                List<OutboundOrderItem> items = new ArrayList<>();
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    OutboundOrderItem item = new OutboundOrderItem();
+                    item.setOutboundOrder(order);
+                    item.setProduct(products.get((o + i) % products.size()));
+                    item.setUom(uom);
+                    item.setQuantityOrdered(2.0);
+                    item.setUnitPrice(BigDecimal.TEN);
+                    items.add(item);
+                }
+                order.setItems(items);
+                outboundOrderRepository.save(order);
+
+                Shipment shipment = new Shipment();
+                shipment.setOutboundOrder(order);
+                shipment.setStatus(ShipmentStatus.PACKED);
+                shipment.setTrackingNumber("TRK-" + reference);
+                if (onLoad) {
+                    shipment.setTransportLoad(load);
+                } else {
+                    shipment.setShippedAt(LocalDateTime.of(2033, 6, 1, 9, 0).plusMinutes(o));
+                }
+                shipmentRepository.save(shipment);
+
+                for (int p = 0; p < PARCELS_PER_SHIPMENT; p++) {
+                    Parcel parcel = new Parcel();
+                    parcel.setShipment(shipment);
+                    parcel.setWeightKg(1.5);
+                    ParcelItem parcelItem = new ParcelItem();
+                    parcelItem.setParcel(parcel);
+                    parcelItem.setProduct(items.get(p).getProduct());
+                    parcelItem.setQuantity(1);
+                    parcel.setItems(List.of(parcelItem));
+                    parcelRepository.save(parcel);
+                }
+            }
+        });
+    }
+
+    @Test
+    void orderListLoadsLinesInOneBatch() throws Exception {
+        JsonNode orders = json(count("order list", get("/api/outbound?" + DATE_RANGE), 3));
+
+        assertThat(orders).hasSize(2 * ORDERS);
+        assertThat(orders.get(0).get("items").asInt()).isEqualTo(ITEMS_PER_ORDER * 2);
+        assertThat(orders.get(0).get("total").decimalValue()).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void orderDetailIsOneSelect() throws Exception {
+        Integer id = outboundOrderRepository.findAll().stream()
+                .filter(order -> "FETCH-0".equals(order.getReferenceNumber())).findFirst().orElseThrow().getId();
+
+        JsonNode order = json(count("order detail", get("/api/outbound/" + id), 1));
+
+        assertThat(order.get("total").decimalValue()).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void shipmentListJoinsOrdersAndBatchesParcels() throws Exception {
+        JsonNode shipments = json(count("shipment list", get("/api/shipping/shipments?" + DATE_RANGE), 5));
+
+        assertThat(shipments).hasSize(ORDERS);
+        assertThat(shipments.get(0).get("outboundOrder").get("orderNumber").asText()).startsWith("FETCH-");
+        assertThat(shipments.get(0).get("parcels")).hasSize(PARCELS_PER_SHIPMENT);
+        assertThat(shipments.get(0).get("parcels").get(0).get("items")).hasSize(1);
+    }
+
+    @Test
+    void shipmentDetailFetchesOrderAndParcels() throws Exception {
+        Integer id = shipmentRepository.findAll().stream()
+                .filter(shipment -> "TRK-FETCH-0".equals(shipment.getTrackingNumber())).findFirst().orElseThrow().getId();
+
+        JsonNode shipment = json(count("shipment detail", get("/api/shipping/shipments/" + id), 4));
+
+        assertThat(shipment.get("parcels")).hasSize(PARCELS_PER_SHIPMENT);
+    }
+
+    @Test
+    void loadListAndDispatchDoNotWalkShipmentsOneByOne() throws Exception {
+        JsonNode loads = json(count("load list", get("/api/shipping/loads"), 5));
+        JsonNode load = null;
+        for (JsonNode candidate : loads) {
+            if ("FETCH-LOAD".equals(candidate.get("loadNumber").asText())) {
+                load = candidate;
+            }
+        }
+        assertThat(load).isNotNull();
+        assertThat(load.get("shipments")).hasSize(ORDERS);
+
+        // Load, shipments and orders in one select, the batched reads the manifest JSON needs,
+        // the manifest and its number, and the status updates as JDBC batches
+        count("dispatch", post("/api/shipping/loads/" + load.get("id").asInt() + "/dispatch"), 20);
+        assertThat(statistics.getCollectionFetchCount()).isLessThanOrEqualTo(3);
+        assertThat(outboundOrderRepository.findAll().stream()
+                .filter(order -> order.getReferenceNumber().startsWith("FETCH-LOAD-"))
+                .allMatch(order -> "SHIPPED".equals(order.getStatus()))).isTrue();
+    }
+
+    /**
+     * Runs the request with a cold second-level cache and checks the statements it prepared.
+     */
+    private MockHttpServletResponse count(String name, RequestBuilder request, int maxStatements) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        long statements = statistics.getPrepareStatementCount();
+        System.out.printf("%s: %d statements%n", name, statements);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(statements).as(name).isLessThanOrEqualTo(maxStatements);
+        return response;
+    }
+
+    private JsonNode json(MockHttpServletResponse response) throws Exception {
+        return objectMapper.readTree(response.getContentAsString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import com.mycompany.sapo_leyendo.service.FlightRecorderService;
+import com.mycompany.sapo_leyendo.service.SlottingService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * A recording started through /api/diagnostics/jfr carries the sapo.* events and is downloaded as a .jfr file.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+class FlightRecorderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+
+    @Autowired
+    private SlottingService slottingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderService.stop();
+    }
+
+    @Test
+    void recordingIsStartedDumpedAndStopped(@TempDir Path dir) throws Exception {
+        mockMvc.perform(post("/api/diagnostics/jfr/start").param("maxAgeMinutes", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recording").value(true))
+                .andExpect(jsonPath("$.settings").value("default"))
+                .andExpect(jsonPath("$.maxAgeMinutes").value(5));
+        mockMvc.perform(post("/api/diagnostics/jfr/start"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Recording already running"));
+
+        Product product = productRepository.findById(1).orElseThrow();
+        // Rolled back, so the booked capacity is given back to the slotting index
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            slottingService.reserve(product, 17);
+            status.setRollbackOnly();
+        });
+
+        byte[] dump = mockMvc.perform(post("/api/diagnostics/jfr/dump"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", endsWith(".jfr\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+        Path file = Files.write(dir.resolve("dump.jfr"), dump);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+        List<RecordedEvent> selections = events.stream()
+                .filter(event -> event.getEventType().getName().equals("sapo.PutAwaySelection"))
+                .filter(event -> event.getInt("productId") == 1 && event.getInt("quantity") == 17)
+                .toList();
+        assertThat(selections).hasSize(1);
+        assertThat(selections.get(0).getEventType().getCategoryNames()).containsExactly("Sapo WMS", "Inbound");
+
+        mockMvc.perform(get("/api/diagnostics/jfr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastDump").value(endsWith(".jfr")));
+        mockMvc.perform(post("/api/diagnostics/jfr/stop"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recording").value(false));
+    }
+
+    @Test
+    void dumpWithoutRecordingIsRejected() throws Exception {
+        mockMvc.perform(post("/api/diagnostics/jfr/dump"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("No recording running"));
+        mockMvc.perform(post("/api/diagnostics/jfr/start").param("settings", "no-such-settings"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown recording settings: no-such-settings (default or profile)"));
+        mockMvc.perform(post("/api/diagnostics/jfr/start").param("settings", "/tmp/custom.jfc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "operator", roles = {"OPERATOR"})
+    void recordingNeedsTheAdminRole() throws Exception {
+        mockMvc.perform(get("/api/diagnostics/jfr")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/diagnostics/jfr/start")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/diagnostics/jfr/dump")).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,96 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.repository.IdSequenceRepository;
+import com.mycompany.sapo_leyendo.service.IdentifierService;
+import com.mycompany.sapo_leyendo.service.IdentifierType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hands out identifiers from several threads against the real sequence table, with a small
+ * block so that refills race each other.
+ */
+@SpringBootTest(properties = {
+        "app.ids.block-size=10",
+        "app.ids.ncr.prefix=QN-"
+})
+@ActiveProfiles("test")
+class IdentifierServiceIntegrationTest {
+
+    @Autowired
+    private IdentifierService identifierService;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCallersNeverGetTheSameLpn() throws Exception {
+        int threads = 8;
+        int perThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Set<String> lpns = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        lpns.add(identifierService.next(IdentifierType.LPN));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lpns).hasSize(threads * perThread);
+        assertThat(lpns).allMatch(lpn -> lpn.matches("LPN-\\d{8}"));
+        // 800 values in blocks of 10 - the table is only touched once per block
+        assertThat(idSequenceRepository.findNextVal("lpn")).isGreaterThanOrEqualTo(threads * perThread + 1L);
+    }
+
+    @Test
+    void rolledBackReservationIsNotReused() {
+        List<String> issued = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < 15; i++) {
+                issued.add(identifierService.next(IdentifierType.PICK_LIST));
+            }
+            status.setRollbackOnly();
+        });
+        long lastIssued = number(issued.get(issued.size() - 1));
+
+        // The rolled-back block is dropped - the next one is reserved past it
+        for (int i = 0; i < 20; i++) {
+            assertThat(number(identifierService.next(IdentifierType.PICK_LIST))).isGreaterThan(lastIssued);
+        }
+        assertThat(idSequenceRepository.findNextVal("pick-list")).isGreaterThan(lastIssued);
+    }
+
+    @Test
+    void usesConfiguredPrefix() {
+        assertThat(identifierService.next(IdentifierType.NCR)).matches("QN-\\d{8}");
+        assertThat(identifierService.next(IdentifierType.MANIFEST)).matches("MAN-\\d{8}");
+    }
+
+    private static long number(String identifier) {
+        return Long.parseLong(identifier.substring(identifier.indexOf('-') + 1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.dto.importer.ImportResult;
+import com.mycompany.sapo_leyendo.repository.InboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.InboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import com.mycompany.sapo_leyendo.service.ImportFormat;
+import com.mycompany.sapo_leyendo.service.ImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports a generated catalog and ASN through the real repositories and reports rows per second.
+ * The input is produced line by line while it is read, as a large upload would be.
+ * Run with -Dspring.profiles.active=mysql against a MySQL instance to compare the profiles.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportThroughputTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int ORDERS = 100;
+    private static final int LINES_PER_ORDER = 10;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InboundOrderRepository inboundOrderRepository;
+
+    @Autowired
+    private InboundOrderItemRepository inboundOrderItemRepository;
+
+    @Test
+    void importsCatalogAndAsnInBatches() {
+        ImportResult catalog = importService.importProducts(generate("sku,name,weight_kg,unit_price\n", PRODUCTS,
+                i -> "PERF-" + i + ",Import test product " + i + "," + (i % 50) / 10.0 + ",1." + (i % 100) + "\n"),
+                ImportFormat.CSV);
+
+        assertThat(catalog.rowsImported()).isEqualTo(PRODUCTS);
+        assertThat(catalog.rowsRejected()).isZero();
+        assertThat(catalog.rowsPerSecond()).isPositive();
+        assertThat(productRepository.findBySkuIn(List.of("PERF-0", "PERF-" + (PRODUCTS - 1)))).hasSize(2);
+
+        // Re-importing the same SKUs updates instead of duplicating
+        ImportResult refresh = importService.importProducts(generate("sku,unit_price\n", PRODUCTS,
+                i -> "PERF-" + i + ",2.00\n"), ImportFormat.CSV);
+        assertThat(refresh.rowsImported()).isEqualTo(PRODUCTS);
+        assertThat(productRepository.findBySku("PERF-7").orElseThrow().getUnitPrice()).isEqualByComparingTo("2.00");
+
+        ImportResult asn = importService.importAsn(generate("", ORDERS * LINES_PER_ORDER,
+                i -> "{\"reference\":\"ASN-PERF-" + i / LINES_PER_ORDER + "\",\"supplier\":\"Perf Supplier\","
+                        + "\"sku\":\"PERF-" + i + "\",\"quantity\":" + (i % 20 + 1) + "}\n"),
+                ImportFormat.NDJSON);
+
+        assertThat(asn.rowsImported()).isEqualTo(ORDERS * LINES_PER_ORDER);
+        assertThat(asn.rowsRejected()).isZero();
+        Integer orderId = inboundOrderRepository.findByReferenceNumberIn(List.of("ASN-PERF-0")).get(0).getId();
+        assertThat(inboundOrderItemRepository.findByInboundOrderId(orderId)).hasSize(LINES_PER_ORDER);
+
+        System.out.printf("Import throughput: catalog %.0f rows/s, refresh %.0f rows/s, ASN %.0f rows/s%n",
+                catalog.rowsPerSecond(), refresh.rowsPerSecond(), asn.rowsPerSecond());
+    }
+
+    private static InputStream generate(String header, int rows, IntFunction<String> row) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String line = next < 0 ? header : row.apply(next);
+                next++;
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
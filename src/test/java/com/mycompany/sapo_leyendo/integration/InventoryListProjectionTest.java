@@ -0,0 +1,163 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The inventory list endpoints return the same JSON as the serialised Inventory entities did,
+ * with one SQL statement however many rows there are.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class InventoryListProjectionTest {
+
+    private static final int PRODUCTS = 20;
+    private static final int ROWS_PER_PRODUCT = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UnitOfMeasureRepository unitOfMeasureRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (productRepository.findBySku("PROJ-0").isPresent()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<ProductCategory> categories = productCategoryRepository.findAll();
+            List<Location> locations = locationRepository.findAll();
+            UnitOfMeasure uom = unitOfMeasureRepository.findAll().get(0);
+            for (int p = 0; p < PRODUCTS; p++) {
+                Product product = new Product();
+                product.setSku("PROJ-" + p);
+                product.setName("Projection product " + p);
+                product.setIdBaseUom(uom.getId());
+                product.setUnitPrice(BigDecimal.valueOf(10 + p));
+                product.setMinStockLevel(p % 3 == 0 ? null : 5);
+                // Every fifth product without a category: the LEFT JOIN must keep it
+                product.setCategory(p % 5 == 0 ? null : categories.get(p % categories.size()));
+                productRepository.save(product);
+                for (int r = 0; r < ROWS_PER_PRODUCT; r++) {
+                    Inventory inventory = new Inventory();
+                    inventory.setProduct(product);
+                    inventory.setLocation(locations.get((p + r) % locations.size()));
+                    inventory.setUom(uom);
+                    inventory.setQuantity(r);
+                    inventory.setReorderLevel(r % 2 == 0 ? null : 3);
+                    inventory.setUnitPrice(r % 4 == 0 ? BigDecimal.valueOf(99) : null);
+                    inventory.setLpn("PROJ-LPN-" + p + "-" + r);
+                    inventory.setExpiryDate(r % 3 == 0 ? LocalDateTime.of(2030, 1, 1, 0, 0) : null);
+                    inventory.setReceivedAt(LocalDateTime.of(2026, 1, 1 + r, 8, 30));
+                    inventoryRepository.save(inventory);
+                }
+            }
+        });
+    }
+
+    @Test
+    void listJsonMatchesEntityJson() throws Exception {
+        String entities = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                return objectMapper.writeValueAsString(inventoryRepository.findAll(Sort.by("id")));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        JsonNode expected = objectMapper.readTree(entities);
+        assertThat(expected.size()).isGreaterThanOrEqualTo(PRODUCTS * ROWS_PER_PRODUCT);
+        assertThat(objectMapper.readTree(body("/api/inventory"))).isEqualTo(expected);
+        assertThat(objectMapper.readTree(body("/api/dashboard/inventory"))).isEqualTo(expected);
+
+        Integer productId = productRepository.findBySku("PROJ-1").orElseThrow().getId();
+        assertThat(objectMapper.readTree(body("/api/inventory/product/" + productId))).hasSize(ROWS_PER_PRODUCT);
+        assertThat(objectMapper.readTree(body("/api/inventory/product/" + productId + "?status=AVAILABLE")))
+                .hasSize(ROWS_PER_PRODUCT);
+    }
+
+    @Test
+    void listRunsOneStatementRegardlessOfRowCount() throws Exception {
+        body("/api/dashboard/inventory"); // warm-up
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        long start = System.nanoTime();
+        JsonNode rows = objectMapper.readTree(body("/api/dashboard/inventory"));
+        long projectionMs = (System.nanoTime() - start) / 1_000_000;
+        long projectionStatements = statistics.getPrepareStatementCount();
+
+        assertThat(rows.size()).isGreaterThanOrEqualTo(PRODUCTS * ROWS_PER_PRODUCT);
+        assertThat(projectionStatements).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        // The same rows through the entities, as the endpoints used to load them
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValueAsString(inventoryRepository.findAll());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        long entityMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Inventory list of %d rows: projection 1 statement in %d ms, entities %d statements in %d ms%n",
+                rows.size(), projectionMs, statistics.getPrepareStatementCount(), entityMs);
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(PRODUCTS);
+    }
+
+    private String body(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.model.OutboundOrder;
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The list endpoints page by cursor: following X-Next-Cursor walks every matching row exactly
+ * once, in the requested order, with the filters applied on every page.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KeysetPagingTest {
+
+    private static final int PRODUCTS = 23;
+    private static final int ORDERS = 17;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (productRepository.findBySku("KEYSET-00").isPresent()) {
+            return;
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            // Inserted out of SKU order, so sorting by sku differs from sorting by id
+            product.setSku(String.format("KEYSET-%02d", (i * 7) % PRODUCTS));
+            product.setName("Keyset product " + i);
+            product.setIdBaseUom(1);
+            product.setUnitPrice(BigDecimal.ONE);
+            productRepository.save(product);
+        }
+        for (int i = 0; i < ORDERS * 2; i++) {
+            OutboundOrder order = new OutboundOrder();
+            order.setReferenceNumber("KEYSET-ORD-" + i);
+            order.setCustomerName("Keyset customer");
+            // Half the orders in the filtered status, spread over four days in 2031
+            order.setStatus(i % 2 == 0 ? "PACKED" : "NEW");
+            order.setCreatedAt(LocalDateTime.of(2031, 3, 1 + i % 4, 10, i));
+            outboundOrderRepository.save(order);
+        }
+    }
+
+    @Test
+    void cursorWalksEveryRowOnceInSortOrder() throws Exception {
+        List<JsonNode> rows = walk("/api/products?sku=KEYSET-&sort=sku&limit=5");
+
+        List<String> skus = rows.stream().map(row -> row.get("sku").asText()).toList();
+        assertThat(skus).hasSize(PRODUCTS).doesNotHaveDuplicates().isSorted();
+        assertThat(skus).allMatch(sku -> sku.startsWith("KEYSET-"));
+    }
+
+    @Test
+    void descendingSortStartsWithNewest() throws Exception {
+        List<JsonNode> rows = walk("/api/products?sku=KEYSET-&sort=-id&limit=4");
+
+        List<Integer> ids = rows.stream().map(row -> row.get("id").asInt()).toList();
+        assertThat(ids).hasSize(PRODUCTS).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void filtersApplyOnEveryPage() throws Exception {
+        List<JsonNode> rows = walk("/api/outbound?status=PACKED&from=2031-03-01T00:00:00&to=2031-03-02T23:59:59&limit=3");
+
+        // PACKED (even i) and created on 1 or 2 March (i % 4 < 2)
+        long expected = IntStream.range(0, ORDERS * 2).filter(i -> i % 4 == 0).count();
+        assertThat(rows).hasSize((int) expected);
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.get("status").asText()).isEqualTo("PACKED");
+            assertThat(row.get("referenceNumber").asText()).startsWith("KEYSET-ORD-");
+        });
+    }
+
+    @Test
+    void limitIsClampedAndLastPageHasNoCursor() throws Exception {
+        MockHttpServletResponse one = mockMvc.perform(get("/api/products?sku=KEYSET-&limit=0")).andReturn().getResponse();
+        assertThat(objectMapper.readTree(one.getContentAsString(StandardCharsets.UTF_8))).hasSize(1);
+        assertThat(one.getHeader(KeysetPage.NEXT_CURSOR_HEADER)).isNotNull();
+
+        MockHttpServletResponse all = mockMvc.perform(get("/api/products?sku=KEYSET-&limit=100000")).andReturn().getResponse();
+        assertThat(objectMapper.readTree(all.getContentAsString(StandardCharsets.UTF_8))).hasSize(PRODUCTS);
+        assertThat(all.getHeader(KeysetPage.NEXT_CURSOR_HEADER)).isNull();
+    }
+
+    @Test
+    void unknownSortFieldAndBrokenCursorAreBadRequests() throws Exception {
+        assertThat(mockMvc.perform(get("/api/products?sort=description")).andReturn().getResponse().getStatus())
+                .isEqualTo(400);
+        assertThat(mockMvc.perform(get("/api/products?after=not-a-cursor")).andReturn().getResponse().getStatus())
+                .isEqualTo(400);
+        assertThat(mockMvc.perform(get("/api/outbound?sort=-referenceNumber")).andReturn().getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void cursorHeaderIsExposedToTheFrontendOrigin() throws Exception {
+        MockHttpServletResponse response = mockMvc
+                .perform(get("/api/products?sku=KEYSET-&limit=5").header("Origin", "http://localhost:5173"))
+                .andReturn().getResponse();
+
+        assertThat(response.getHeader(KeysetPage.NEXT_CURSOR_HEADER)).isNotNull();
+        assertThat(response.getHeader("Access-Control-Expose-Headers"))
+                .contains(KeysetPage.NEXT_CURSOR_HEADER, "X-Total-Count");
+    }
+
+    private List<JsonNode> walk(String url) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletResponse response = mockMvc
+                    .perform(get(cursor == null ? url : url + "&after=" + cursor))
+                    .andReturn().getResponse();
+            assertThat(response.getStatus()).isEqualTo(200);
+            objectMapper.readTree(response.getContentAsString(StandardCharsets.UTF_8)).forEach(rows::add);
+            cursor = response.getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+            assertThat(++pages).isLessThan(100);
+        } while (cursor != null);
+        return rows;
+    }
+}
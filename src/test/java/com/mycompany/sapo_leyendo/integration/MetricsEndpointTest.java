@@ -0,0 +1,52 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.service.ShippingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The Prometheus scrape carries endpoint and operation histograms, pool, Hibernate and JVM meters.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShippingService shippingService;
+
+    @Test
+    void prometheusScrapeCoversEndpointsServicesPoolHibernateAndJvm() throws Exception {
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        assertThatThrownBy(() -> shippingService.dispatchLoad(987654)).hasMessage("Load not found");
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape).containsPattern("http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/products\"");
+        assertThat(scrape).containsPattern("wms_operation_seconds_bucket\\{[^}]*method=\"dispatchLoad\"");
+        assertThat(scrape).containsPattern("wms_operation_seconds_count\\{[^}]*exception=\"RuntimeException\"[^}]*method=\"dispatchLoad\"");
+        assertThat(scrape).contains("hikaricp_connections_active", "hikaricp_connections_acquire_seconds");
+        assertThat(scrape).contains("hibernate_statements_total", "hibernate_entities_loads_total",
+                "hibernate_second_level_cache_requests_total");
+        assertThat(scrape).contains("jvm_memory_used_bytes", "jvm_threads_live_threads");
+        assertThat(scrape).contains("application=\"sapo_leyendo\"");
+    }
+}
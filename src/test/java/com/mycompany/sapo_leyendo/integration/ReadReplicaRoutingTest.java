@@ -0,0 +1,153 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.config.ReadWriteRoutingDataSource;
+import com.mycompany.sapo_leyendo.config.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Read/write routing over a primary and two replicas, with H2 databases standing in for the
+ * MySQL servers: each one knows its own name, so a query shows where it was routed.
+ */
+class ReadReplicaRoutingTest {
+
+    private final Map<String, Duration> lag = new ConcurrentHashMap<>();
+
+    private HikariDataSource primary;
+    private ReplicaDataSource replicas;
+    private ReadWriteRoutingDataSource routing;
+    private TransactionTemplate write;
+    private TransactionTemplate read;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primary = server("primary");
+        replicas = new ReplicaDataSource(List.of(
+                new ReplicaDataSource.Replica("replica-1", server("replica-1")),
+                new ReplicaDataSource.Replica("replica-2", server("replica-2"))),
+                primary, this::lagOf, Duration.ofSeconds(5));
+        routing = new ReadWriteRoutingDataSource(primary, replicas);
+
+        var dataSource = routing.lazy(Connection.TRANSACTION_READ_COMMITTED);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        write = new TransactionTemplate(transactionManager);
+        read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverReplicas() {
+        replicas.checkLag();
+
+        assertThat(writeServer()).isEqualTo("primary");
+        assertThat(List.of(readOnlyServer(), readOnlyServer()))
+                .containsExactlyInAnyOrder("replica-1", "replica-2");
+        // Outside a transaction (e.g. schema setup) the primary is used
+        assertThat(serverName()).isEqualTo("primary");
+
+        assertThat(routing.getReadConnectionCount()).isEqualTo(2);
+        assertThat(replicas.getReplicas()).allSatisfy(replica -> assertThat(replica.getConnectionCount()).isEqualTo(1));
+        assertThat(replicas.getFallbackCount()).isZero();
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        lag.put("replica-1", Duration.ofSeconds(30));
+        replicas.checkLag();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnlyServer()).isEqualTo("replica-2");
+        }
+        assertThat(replicas.getReplicas().get(0).isAvailable()).isFalse();
+        assertThat(replicas.getReplicas().get(0).getLag()).isEqualTo(Duration.ofSeconds(30));
+
+        lag.remove("replica-1");
+        replicas.checkLag();
+        assertThat(List.of(readOnlyServer(), readOnlyServer()))
+                .containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenNoReplicaIsUsable() {
+        lag.put("replica-1", Duration.ofMinutes(2));
+        lag.put("replica-2", Duration.ofMinutes(2));
+        replicas.checkLag();
+
+        assertThat(readOnlyServer()).isEqualTo("primary");
+        assertThat(replicas.getFallbackCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableReplicaIsTakenOutOfUse() {
+        replicas.checkLag();
+        ((HikariDataSource) replicas.getReplicas().get(1).getDataSource()).close();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnlyServer()).isEqualTo("replica-1");
+        }
+        assertThat(replicas.getReplicas().get(1).isAvailable()).isFalse();
+
+        replicas.checkLag();
+        assertThat(replicas.getReplicas().get(1).isAvailable()).isFalse();
+        assertThat(replicas.getReplicas().get(1).getLag()).isNull();
+    }
+
+    @Test
+    void perCallCredentialsAreNotSupported() {
+        assertThatThrownBy(() -> replicas.getConnection("reporting", "secret"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private String readOnlyServer() {
+        return read.execute(status -> serverName());
+    }
+
+    private String writeServer() {
+        return write.execute(status -> serverName());
+    }
+
+    private String serverName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server_name", String.class);
+    }
+
+    private Duration lagOf(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement();
+             var rs = statement.executeQuery("SELECT name FROM server_name")) {
+            rs.next();
+            return lag.getOrDefault(rs.getString(1), Duration.ZERO);
+        }
+    }
+
+    private static HikariDataSource server(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        new JdbcTemplate(dataSource).execute("CREATE TABLE server_name (name VARCHAR(20))");
+        new JdbcTemplate(dataSource).update("INSERT INTO server_name VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,175 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.*;
+import com.mycompany.sapo_leyendo.service.PickingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several waves drawing from one LPN/batch share a single ALLOCATED row - Inventory is unique
+ * on product, location, LPN, batch and status (CreateDB_sqlite.sql).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RepeatedWaveAllocationTest {
+
+    @Autowired
+    private PickingService pickingService;
+
+    @Autowired
+    private UnitOfMeasureRepository uomRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Autowired
+    private OutboundOrderItemRepository outboundOrderItemRepository;
+
+    @Autowired
+    private WaveRepository waveRepository;
+
+    @Autowired
+    private InventoryAllocationRepository inventoryAllocationRepository;
+
+    @Test
+    void secondAndThirdWaveTopUpTheAllocatedRowOfTheLpn() {
+        UnitOfMeasure uom = uomRepository.findById(1).orElseThrow();
+        Product product = product(uom, "REPEAT-WAVE-001");
+        Integer stockId = stock(product, uom, "REPEAT-WAVE-A-01", "LPN-REPEAT-WAVE");
+
+        WaveAllocationResult first = allocate(product, uom, 3.0, 1);
+        WaveAllocationResult second = allocate(product, uom, 4.0, 2);
+
+        assertThat(first.isFullyAllocated()).isTrue();
+        assertThat(second.isFullyAllocated()).isTrue();
+        assertThat(inventoryRepository.findById(stockId).orElseThrow().getQuantity()).isEqualTo(3);
+        List<Inventory> allocated = allocatedRows(product);
+        assertThat(allocated).hasSize(1);
+        assertThat(allocated.get(0).getQuantity()).isEqualTo(7);
+
+        // The rest is taken whole: merged into the existing ALLOCATED row, the emptied one is deleted
+        WaveAllocationResult third = allocate(product, uom, 3.0, 3);
+
+        assertThat(third.isFullyAllocated()).isTrue();
+        assertThat(inventoryRepository.findById(stockId)).isEmpty();
+        allocated = allocatedRows(product);
+        assertThat(allocated).hasSize(1);
+        assertThat(allocated.get(0).getQuantity()).isEqualTo(10);
+        assertThat(inventoryAllocationRepository.findByInventoryId(allocated.get(0).getId()))
+                .extracting(InventoryAllocation::getQuantity)
+                .containsExactlyInAnyOrder(3, 4, 3);
+    }
+
+    @Test
+    void tasksOfTwoWavesSharingOneRowPickOnlyTheirOwnQuantity() {
+        UnitOfMeasure uom = uomRepository.findById(1).orElseThrow();
+        Product product = product(uom, "REPEAT-WAVE-002");
+        Integer stockId = stock(product, uom, "REPEAT-WAVE-A-02", "LPN-REPEAT-PICK");
+
+        Integer firstWave = run(product, uom, 3.0, 11);
+        Integer secondWave = run(product, uom, 7.0, 12);
+
+        assertThat(inventoryRepository.findById(stockId)).isEmpty();
+        Inventory shared = allocatedRows(product).get(0);
+        assertThat(shared.getQuantity()).isEqualTo(10);
+
+        // The scanner reports more than the task asked for - the other wave's stock stays
+        pickingService.confirmPickTask(onlyTask(firstWave).getId(), 10);
+        assertThat(inventoryRepository.findById(shared.getId()).orElseThrow().getQuantity()).isEqualTo(7);
+
+        pickingService.confirmPickTask(onlyTask(secondWave).getId(), 7);
+        assertThat(inventoryRepository.findById(shared.getId())).isEmpty();
+        assertThat(pickingService.getPickingTasks(secondWave, PickingTaskStatus.PICKED, PageRequest.of(0, 10)))
+                .singleElement().extracting(PickingTask::getQuantityToPick).isEqualTo(7.0);
+    }
+
+    private Integer run(Product product, UnitOfMeasure uom, double quantity, int n) {
+        Integer orderId = order(product, uom, quantity, n);
+        Integer waveId = wave(n);
+        pickingService.runWave(waveId, List.of(orderId));
+        return waveId;
+    }
+
+    private PickingTask onlyTask(Integer waveId) {
+        return pickingService.getPickingTasks(waveId, PickingTaskStatus.PENDING, PageRequest.of(0, 10))
+                .getContent().get(0);
+    }
+
+    private WaveAllocationResult allocate(Product product, UnitOfMeasure uom, double quantity, int n) {
+        Integer orderId = order(product, uom, quantity, n);
+        return pickingService.allocateWave(wave(n), List.of(orderId));
+    }
+
+    private Product product(UnitOfMeasure uom, String sku) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName("Repeated wave product");
+        product.setIdBaseUom(uom.getId());
+        product.setUnitPrice(BigDecimal.ONE);
+        return productRepository.save(product);
+    }
+
+    private Integer stock(Product product, UnitOfMeasure uom, String locationName, String lpn) {
+        Location location = new Location();
+        location.setName(locationName);
+
+        Inventory stock = new Inventory();
+        stock.setProduct(product);
+        stock.setLocation(locationRepository.save(location));
+        stock.setUom(uom);
+        stock.setLpn(lpn);
+        stock.setBatchNumber("BATCH-REPEAT");
+        stock.setQuantity(10);
+        stock.setStatus(InventoryStatus.AVAILABLE);
+        stock.setReceivedAt(LocalDateTime.of(2030, 1, 1, 8, 0));
+        return inventoryRepository.save(stock).getId();
+    }
+
+    private Integer order(Product product, UnitOfMeasure uom, double quantity, int n) {
+        OutboundOrder order = new OutboundOrder();
+        order.setReferenceNumber("SO-REPEAT-WAVE-" + n);
+        order.setCreatedAt(LocalDateTime.now());
+        order = outboundOrderRepository.save(order);
+
+        OutboundOrderItem line = new OutboundOrderItem();
+        line.setOutboundOrder(order);
+        line.setProduct(product);
+        line.setUom(uom);
+        line.setQuantityOrdered(quantity);
+        outboundOrderItemRepository.save(line);
+        return order.getId();
+    }
+
+    private Integer wave(int n) {
+        Wave wave = new Wave();
+        wave.setName("WAVE-REPEAT-" + n);
+        wave.setCreatedAt(LocalDateTime.now());
+        return waveRepository.save(wave).getId();
+    }
+
+    private List<Inventory> allocatedRows(Product product) {
+        return inventoryRepository.findByProductId(product.getId()).stream()
+                .filter(row -> row.getStatus() == InventoryStatus.ALLOCATED)
+                .toList();
+    }
+}
@@ -0,0 +1,171 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.config.ClusterCacheInvalidator;
+import com.mycompany.sapo_leyendo.dto.cache.CacheStats;
+import com.mycompany.sapo_leyendo.model.CacheInvalidation;
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.repository.CacheInvalidationRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import com.mycompany.sapo_leyendo.service.CacheStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level and query cache for master data, plus the table-based invalidation between
+ * instances (the poller is driven by hand; a second instance is simulated by inserting its rows).
+ */
+@SpringBootTest(properties = {
+        "app.cache.invalidation.enabled=true",
+        "app.cache.invalidation.poll-ms=600000"
+})
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private ClusterCacheInvalidator invalidator;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictAllRegions();
+        cacheStatsService.resetStats();
+    }
+
+    @Test
+    void productsAreServedFromCacheAfterFirstLoad() {
+        Integer id = product("L2-1").getId();
+        cache.evictAllRegions();
+
+        transaction.executeWithoutResult(status -> productRepository.findById(id).orElseThrow());
+        transaction.executeWithoutResult(status -> productRepository.findById(id).orElseThrow());
+        transaction.executeWithoutResult(status -> productRepository.findBySku("L2-1").orElseThrow());
+        transaction.executeWithoutResult(status -> productRepository.findBySku("L2-1").orElseThrow());
+
+        CacheStats stats = cacheStatsService.getStats();
+        assertThat(stats.statisticsEnabled()).isTrue();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isPositive();
+        assertThat(stats.queryHits()).isEqualTo(1);
+        assertThat(stats.regions()).anySatisfy(region -> {
+            assertThat(region.region()).isEqualTo(Product.class.getName());
+            assertThat(region.hitRatio()).isPositive();
+        });
+    }
+
+    @Test
+    void localChangesArePublishedAndRemoteChangesEvicted() {
+        Product product = product("L2-2");
+        invalidator.poll();
+        long before = cacheInvalidationRepository.findMaxId();
+
+        product.setName("Renamed");
+        productRepository.save(product);
+        invalidator.poll();
+        assertThat(cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(before))
+                .anySatisfy(row -> {
+                    assertThat(row.getEntityName()).isEqualTo(Product.class.getName());
+                    assertThat(row.getEntityId()).isEqualTo(product.getId().toString());
+                    assertThat(row.getNodeId()).isEqualTo(invalidator.getNodeId());
+                });
+        // Our own change does not evict our (already updated) entry
+        assertThat(cache.containsEntity(Product.class, product.getId())).isTrue();
+
+        // Another instance changed the same product
+        cacheInvalidationRepository.save(new CacheInvalidation(null, Product.class.getName(),
+                product.getId().toString(), "other-node", LocalDateTime.now()));
+        invalidator.poll();
+        assertThat(cache.containsEntity(Product.class, product.getId())).isFalse();
+    }
+
+    @Test
+    void localChangeIsWrittenRightAfterCommitWithoutWaitingForThePoll() throws InterruptedException {
+        Product product = product("L2-4");
+        invalidator.poll();
+        long before = cacheInvalidationRepository.findMaxId();
+
+        product.setName("Renamed");
+        productRepository.save(product);
+
+        // The poll interval is ten minutes here, so only the post-commit write can produce the row
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(before).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(cacheInvalidationRepository.findTop500ByIdGreaterThanOrderByIdAsc(before))
+                .anySatisfy(row -> assertThat(row.getEntityId()).isEqualTo(product.getId().toString()));
+    }
+
+    @Test
+    void changeCommittedBelowTheWatermarkIsStillEvicted() {
+        Product product = product("L2-3");
+        transaction.executeWithoutResult(status -> productRepository.findById(product.getId()).orElseThrow());
+        assertThat(cache.containsEntity(Product.class, product.getId())).isTrue();
+
+        // The id the slow transaction took, and a later row that commits first and is read
+        Long lateId = cacheInvalidationRepository.save(remoteChange("Unknown", null)).getId();
+        cacheInvalidationRepository.deleteById(lateId);
+        cacheInvalidationRepository.save(remoteChange("Unknown", null));
+        invalidator.poll();
+
+        // The slow transaction commits its row with the lower id
+        Long committed = cacheInvalidationRepository.save(remoteChange(Product.class.getName(), product.getId().toString())).getId();
+        jdbcTemplate.update("UPDATE CacheInvalidations SET id_invalidation = ? WHERE id_invalidation = ?", lateId, committed);
+        invalidator.poll();
+        assertThat(cache.containsEntity(Product.class, product.getId())).isFalse();
+
+        // Applied once: reloaded and cached again, the next poll leaves it alone
+        transaction.executeWithoutResult(status -> productRepository.findById(product.getId()).orElseThrow());
+        invalidator.poll();
+        assertThat(cache.containsEntity(Product.class, product.getId())).isTrue();
+    }
+
+    private static CacheInvalidation remoteChange(String entityName, String entityId) {
+        return new CacheInvalidation(null, entityName, entityId, "other-node", LocalDateTime.now());
+    }
+
+    private Product product(String sku) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName("Cached " + sku);
+        product.setIdBaseUom(1);
+        product.setUnitPrice(BigDecimal.ONE);
+        return productRepository.save(product);
+    }
+}
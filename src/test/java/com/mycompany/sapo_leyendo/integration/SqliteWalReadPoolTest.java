@@ -0,0 +1,208 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.model.InboundOrderItem;
+import com.mycompany.sapo_leyendo.repository.InboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.InboundOrderRepository;
+import com.mycompany.sapo_leyendo.service.ImportFormat;
+import com.mycompany.sapo_leyendo.service.ImportService;
+import com.mycompany.sapo_leyendo.service.InboundService;
+import com.mycompany.sapo_leyendo.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SQLite in WAL mode on a database file: read-only transactions run on the read pool and are
+ * not held up by an open write, and read throughput is reported for 1..4 reader threads while
+ * a receiving workload writes. On a multi-core machine the reads per second grow with the
+ * reader count; with the single-connection sqlite profile they would stay flat.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/wal-read-pool-test.db",
+        "app.sqlite.wal.enabled=true",
+        "app.sqlite.wal.read-pool-size=4"
+})
+@ActiveProfiles("test")
+class SqliteWalReadPoolTest {
+
+    private static final long MEASURE_MS = 1_000;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private InboundService inboundService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InboundOrderRepository inboundOrderRepository;
+
+    @Autowired
+    private InboundOrderItemRepository inboundOrderItemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate write;
+    private TransactionTemplate read;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        write = new TransactionTemplate(transactionManager);
+        read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReadPool() throws Exception {
+        assertThat(jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class)).isEqualToIgnoringCase("wal");
+
+        // A read-only transaction gets a read-only connection
+        assertThrows(RuntimeException.class, () -> read.executeWithoutResult(status ->
+                insertZone("WAL-READ")));
+
+        // ... and is not queued behind a write that is still open on the writer connection
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> write.executeWithoutResult(status -> {
+                insertZone("WAL-OPEN");
+                written.countDown();
+                await(release);
+            }));
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Integer uncommitted = CompletableFuture.supplyAsync(() -> read.execute(status -> countZones("WAL-OPEN")))
+                    .get(2, TimeUnit.SECONDS);
+            assertThat(uncommitted).isZero();
+
+            release.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        Integer committed = read.execute(status -> countZones("WAL-OPEN"));
+        assertThat(committed).isEqualTo(1);
+    }
+
+    @Test
+    void poolsBehindTheRouterAreMetered() {
+        read.executeWithoutResult(status -> countZones("metrics"));
+
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "sqlite-writer").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "sqlite-reader").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.find("wms.datasource.connections").tag("route", "read").functionCounter().count())
+                .isGreaterThan(0);
+    }
+
+    @Test
+    void readThroughputWhileReceiving() throws Exception {
+        importService.importProducts(new ByteArrayInputStream(
+                "sku,name,unit_price\nWAL-1,WAL product,1.00\n".getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        importService.importAsn(new ByteArrayInputStream(
+                "{\"reference\":\"ASN-WAL\",\"supplier\":\"WAL Supplier\",\"sku\":\"WAL-1\",\"quantity\":100000}\n"
+                        .getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        Integer orderId = inboundOrderRepository.findByReferenceNumberIn(List.of("ASN-WAL")).get(0).getId();
+        InboundOrderItem item = inboundOrderItemRepository.findByInboundOrderId(orderId).get(0);
+        Integer productId = item.getProduct().getId();
+
+        AtomicBoolean receiving = new AtomicBoolean(true);
+        AtomicLong receipts = new AtomicLong();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<?> receiver = writer.submit(() -> {
+            while (receiving.get()) {
+                inboundService.receiveItem(item.getId(), inboundService.generateLpn(), 1, 1L, null);
+                receipts.incrementAndGet();
+            }
+        });
+        try {
+            StringBuilder report = new StringBuilder("SQLite WAL reads while receiving:");
+            for (int readers : new int[] {1, 2, 4}) {
+                long before = receipts.get();
+                long reads = measureReads(readers, () -> inventoryService.getInventoryByProduct(productId));
+                long written = receipts.get() - before;
+
+                assertThat(reads).isPositive();
+                report.append(String.format(" %d reader(s) %.0f reads/s (%d receipts);",
+                        readers, reads * 1000.0 / MEASURE_MS, written));
+            }
+            System.out.println(report);
+        } finally {
+            receiving.set(false);
+            writer.shutdown();
+        }
+        receiver.get(10, TimeUnit.SECONDS);
+        assertThat(receipts.get()).isPositive();
+        assertThat(inventoryService.getInventoryByProduct(productId)).hasSize((int) receipts.get());
+    }
+
+    private static long measureReads(int threads, Runnable query) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong reads = new AtomicLong();
+        long deadline = System.currentTimeMillis() + MEASURE_MS;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        query.run();
+                        reads.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return reads.get();
+    }
+
+    private void insertZone(String name) {
+        jdbcTemplate.update("INSERT INTO Zones (name, is_temperature_controlled, is_secure, allow_mixed_sku) "
+                + "VALUES (?, 0, 0, 1)", name);
+    }
+
+    private Integer countZones(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Zones WHERE name = ?", Integer.class, name);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.model.OutboundOrder;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import com.mycompany.sapo_leyendo.service.ExportFormat;
+import com.mycompany.sapo_leyendo.service.ExportRecordWriter;
+import com.mycompany.sapo_leyendo.service.ExportService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Exports stream every row as NDJSON or CSV, and the persistence context never holds more than
+ * one clear interval of entities however many rows go out.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StreamingExportTest {
+
+    private static final int ORDERS = 3000;
+    private static final int CLEAR_EVERY = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        if (outboundOrderRepository.existsByReferenceNumber("EXPORT-0")) {
+            return;
+        }
+        List<OutboundOrder> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            OutboundOrder order = new OutboundOrder();
+            order.setReferenceNumber("EXPORT-" + i);
+            // Separators, quotes and a line break, which CSV has to quote
+            order.setCustomerName(i == 0 ? "Box, \"large\" Ltd\nsecond line" : "Export customer " + i);
+            order.setItemsCount(1);
+            order.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i));
+            orders.add(order);
+        }
+        outboundOrderRepository.saveAll(orders);
+    }
+
+    @Test
+    void ndjsonHasOneLinePerRowWithTheEntityJson() throws Exception {
+        MockHttpServletResponse response = export("/api/export/outbound-orders");
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader("Content-Disposition")).contains("outbound-orders-").contains(".ndjson");
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize((int) outboundOrderRepository.count());
+
+        OutboundOrder first = outboundOrderRepository.findAll(Sort.by("id")).get(0);
+        assertThat(objectMapper.readTree(lines[0])).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(first)));
+        int previousId = 0;
+        for (String line : lines) {
+            int id = objectMapper.readTree(line).get("id").asInt();
+            assertThat(id).isGreaterThan(previousId);
+            previousId = id;
+        }
+    }
+
+    @Test
+    void csvHasHeaderFlattenedColumnsAndQuotedValues() throws Exception {
+        MockHttpServletResponse orders = export("/api/export/outbound-orders?format=csv");
+        String csv = orders.getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(orders.getContentType()).startsWith("text/csv");
+        assertThat(csv.substring(0, csv.indexOf("\r\n")).split(",")).contains("id", "orderNumber", "customer", "status");
+        assertThat(csv).contains(",\"Box, \"\"large\"\" Ltd\nsecond line\",");
+        // Header and one line per row - the line break inside the quoted value is a bare \n
+        assertThat(csv.split("\r\n")).hasSize((int) outboundOrderRepository.count() + 1);
+
+        String inventory = export("/api/export/inventory", "text/csv").getContentAsString(StandardCharsets.UTF_8);
+        String header = inventory.substring(0, inventory.indexOf("\r\n"));
+        assertThat(header).contains("product.sku", "uom.code", "location", "status");
+        assertThat(inventory.split("\r\n")).hasSize(inventoryRepository.findAllListItems().size() + 1);
+    }
+
+    @Test
+    void csvHeaderComesFromTheTypeNotTheFirstRecord() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExportRecordWriter writer = new ExportRecordWriter(bytes, ExportFormat.CSV, objectMapper, Row.class);
+        writer.write(new Row("first", null, null));
+        writer.write(new Row("second", new Row.Dimensions(2.5, 4.0), List.of("a", "b")));
+        writer.flush();
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8).split("\r\n")).containsExactly(
+                "name,dimensions.width,dimensions.height,tags",
+                "first,,,",
+                "second,2.5,4.0,\"[\"\"a\"\",\"\"b\"\"]\"");
+    }
+
+    @Test
+    void unknownFormatIsBadRequest() throws Exception {
+        assertThat(mockMvc.perform(get("/api/export/outbound-orders?format=xlsx")).andReturn().getResponse().getStatus())
+                .isEqualTo(400);
+        // The output is NDJSON, not one JSON document
+        assertThat(mockMvc.perform(get("/api/export/outbound-orders?format=json")).andReturn().getResponse().getStatus())
+                .isEqualTo(400);
+    }
+
+    @Test
+    void persistenceContextIsClearedWhileStreaming() {
+        // Looks at the session each time the writer's buffer reaches the output
+        int[] maxManaged = {0};
+        int[] writes = {0};
+        OutputStream probe = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                int managed = entityManager.unwrap(SessionImplementor.class)
+                        .getPersistenceContextInternal().getNumberOfManagedEntities();
+                maxManaged[0] = Math.max(maxManaged[0], managed);
+                writes[0]++;
+            }
+        };
+
+        long rows = exportService.exportOutboundOrders(probe, ExportFormat.NDJSON);
+
+        assertThat(rows).isGreaterThanOrEqualTo(ORDERS);
+        assertThat(writes[0]).isGreaterThan((int) (rows / CLEAR_EVERY));
+        assertThat(maxManaged[0]).isLessThanOrEqualTo(CLEAR_EVERY);
+    }
+
+    record Row(String name, Dimensions dimensions, List<String> tags) {
+
+        record Dimensions(double width, double height) {
+        }
+    }
+
+    private MockHttpServletResponse export(String url) throws Exception {
+        return export(url, null);
+    }
+
+    private MockHttpServletResponse export(String url, String accept) throws Exception {
+        var request = get(url);
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        MvcResult started = mockMvc.perform(request).andReturn();
+        assertThat(started.getRequest().isAsyncStarted()).isTrue();
+        mockMvc.perform(asyncDispatch(started));
+        // The body is written to the original response while the async dispatch waits for it
+        MockHttpServletResponse response = started.getResponse();
+        assertThat(response.getStatus()).isEqualTo(200);
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.model.KpiMetric;
+import com.mycompany.sapo_leyendo.repository.KpiMetricRepository;
+import com.mycompany.sapo_leyendo.service.TelemetryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Telemetry posted in batches comes back as KPI rollups per type and user.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "telemetry-tester")
+class TelemetryIngestionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TelemetryService telemetryService;
+
+    @Autowired
+    private KpiMetricRepository kpiMetricRepository;
+
+    @Test
+    void batchIsAcceptedAndRolledUpIntoKpiMetrics() throws Exception {
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 1; i <= 20; i++) {
+            batch.append("{\"type\":\"ingest-scan\",\"ts\":1700000000000,\"durationMs\":").append(i * 10)
+                    .append(",\"payload\":{\"screen\":\"receiving\"}},");
+        }
+        batch.append("{\"type\":\"ingest-click\",\"ts\":1700000000000,\"payload\":{\"id\":\"save\"}}]");
+
+        mockMvc.perform(post("/api/telemetry/batch").contentType(MediaType.APPLICATION_JSON).content(batch.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(21))
+                .andExpect(jsonPath("$.dropped").value(0));
+        mockMvc.perform(post("/api/telemetry").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"ingest-click\",\"ts\":1700000000001,\"payload\":{}}"))
+                .andExpect(status().isAccepted());
+
+        telemetryService.flush();
+
+        assertThat(value("telemetry.ingest-scan.count")).isEqualTo(20.0);
+        assertThat(value("telemetry.ingest-scan.latency_p50")).isEqualTo(100.0);
+        assertThat(value("telemetry.ingest-scan.latency_p95")).isEqualTo(190.0);
+        assertThat(value("telemetry.ingest-click.count")).isEqualTo(2.0);
+        assertThat(kpiMetricRepository.findByNameOrderByTimestampDesc("telemetry.ingest-click.latency_p50")).isEmpty();
+
+        mockMvc.perform(get("/api/telemetry/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queued").value(0));
+    }
+
+    @Test
+    void invalidBatchesAreRejected() throws Exception {
+        mockMvc.perform(post("/api/telemetry/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/telemetry/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"type\":\"ok\"},{\"payload\":{}}]"))
+                .andExpect(status().isBadRequest());
+        String tooLarge = "[" + "{\"type\":\"x\"},".repeat(500) + "{\"type\":\"x\"}]";
+        mockMvc.perform(post("/api/telemetry/batch").contentType(MediaType.APPLICATION_JSON).content(tooLarge))
+                .andExpect(status().isBadRequest());
+    }
+
+    private double value(String name) {
+        List<KpiMetric> rows = kpiMetricRepository.findByNameOrderByTimestampDesc(name);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getDimension()).isEqualTo("user:telemetry-tester");
+        return rows.get(0).getValue();
+    }
+}
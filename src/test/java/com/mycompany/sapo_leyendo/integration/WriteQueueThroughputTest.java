@@ -0,0 +1,119 @@
+package com.mycompany.sapo_leyendo.integration;
+
+import com.mycompany.sapo_leyendo.model.InboundOrderItem;
+import com.mycompany.sapo_leyendo.model.Receipt;
+import com.mycompany.sapo_leyendo.repository.InboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.InboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.ReceiptRepository;
+import com.mycompany.sapo_leyendo.service.ImportFormat;
+import com.mycompany.sapo_leyendo.service.ImportService;
+import com.mycompany.sapo_leyendo.service.InboundService;
+import com.mycompany.sapo_leyendo.service.WriteCommandExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent scanner receipts against a SQLite file on one connection, first with every caller
+ * running its own transaction, then through the write queue with group commit.
+ * Reports receipts per second for both; the queued run must not lose or mix up any receipt.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/write-queue-test.db",
+        "app.write-queue.enabled=true",
+        "app.write-queue.linger-ms=2"
+})
+@ActiveProfiles("test")
+class WriteQueueThroughputTest {
+
+    private static final int SCANNERS = 8;
+    private static final int SCANS_PER_SCANNER = 10;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private InboundService inboundService;
+
+    @Autowired
+    private WriteCommandExecutor writeCommands;
+
+    @Autowired
+    private InboundOrderRepository inboundOrderRepository;
+
+    @Autowired
+    private InboundOrderItemRepository inboundOrderItemRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Test
+    void groupCommitKeepsEveryCallersResult() throws Exception {
+        importService.importProducts(new ByteArrayInputStream(
+                "sku,name,unit_price\nWQ-1,Write queue product,1.00\n".getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        importService.importAsn(new ByteArrayInputStream(
+                "{\"reference\":\"ASN-WQ\",\"supplier\":\"WQ Supplier\",\"sku\":\"WQ-1\",\"quantity\":100000}\n"
+                        .getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        Integer orderId = inboundOrderRepository.findByReferenceNumberIn(List.of("ASN-WQ")).get(0).getId();
+        InboundOrderItem item = inboundOrderItemRepository.findByInboundOrderId(orderId).get(0);
+
+        double direct = scan(lpn -> () -> inboundService.receiveItem(item.getId(), lpn, 1, 1L, null)).perSecond();
+
+        long transactionsBefore = writeCommands.getTransactionCount();
+        Run queued = scan(lpn -> () -> writeCommands.execute(
+                () -> inboundService.receiveItem(item.getId(), lpn, 1, 1L, null)));
+        long transactions = writeCommands.getTransactionCount() - transactionsBefore;
+
+        int scans = SCANNERS * SCANS_PER_SCANNER;
+        assertThat(queued.receipts()).hasSize(scans);
+        // Each caller got back the receipt of its own LPN, and all of them were committed
+        queued.receipts().forEach((lpn, id) ->
+                assertThat(receiptRepository.findById(id).orElseThrow().getLpn()).isEqualTo(lpn));
+        assertThat(queued.receipts().values()).doesNotHaveDuplicates();
+        assertThat(transactions).isBetween(1L, (long) scans);
+
+        System.out.printf("Scanner receipts: %.0f/s with a transaction each, %.0f/s queued (%d commands in %d transactions)%n",
+                direct, queued.perSecond(), scans, transactions);
+    }
+
+    private Run scan(Function<String, Supplier<Receipt>> receive) throws Exception {
+        ExecutorService scanners = Executors.newFixedThreadPool(SCANNERS);
+        Map<String, Integer> receipts = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < SCANNERS; s++) {
+                futures.add(scanners.submit(() -> {
+                    for (int i = 0; i < SCANS_PER_SCANNER; i++) {
+                        String lpn = inboundService.generateLpn();
+                        Receipt receipt = receive.apply(lpn).get();
+                        assertThat(receipt.getLpn()).isEqualTo(lpn);
+                        receipts.put(lpn, receipt.getId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            scanners.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Run(receipts, receipts.size() / seconds);
+    }
+
+    private record Run(Map<String, Integer> receipts, double perSecond) {
+    }
+}
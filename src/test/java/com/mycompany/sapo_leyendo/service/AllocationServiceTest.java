@@ -0,0 +1,308 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.picking.AllocationShortage;
+import com.mycompany.sapo_leyendo.dto.picking.WaveAllocationResult;
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.InventoryAllocationRepository;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.MoveTaskRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.OutboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.PickTaskRepository;
+import com.mycompany.sapo_leyendo.repository.ProductCategoryRepository;
+import com.mycompany.sapo_leyendo.repository.QcInspectionRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AllocationServiceTest {
+
+    @InjectMocks
+    private AllocationService allocationService;
+
+    @Mock
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Mock
+    private OutboundOrderItemRepository outboundOrderItemRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryAllocationRepository inventoryAllocationRepository;
+
+    @Mock
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Mock
+    private MoveTaskRepository moveTaskRepository;
+
+    @Mock
+    private QcInspectionRepository qcInspectionRepository;
+
+    @Mock
+    private PickTaskRepository pickTaskRepository;
+
+    private Product product;
+    private Location location;
+    private OutboundOrder order;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setId(1);
+        product.setSku("PROD-001");
+
+        location = new Location();
+        location.setId(5);
+
+        order = new OutboundOrder();
+        order.setId(10);
+    }
+
+    @Test
+    void shouldSplitSourceOnceForSeveralLinesAndSaveInOneBatch() {
+        OutboundOrderItem first = item(100, 3.0);
+        OutboundOrderItem second = item(101, 4.0);
+        Inventory stock = stock(50, 10);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(second, first));
+        when(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(stock));
+
+        WaveAllocationResult result = allocationService.allocateOrders(7, List.of(10));
+
+        assertThat(result.waveId()).isEqualTo(7);
+        assertThat(result.linesProcessed()).isEqualTo(2);
+        assertThat(result.linesFullyAllocated()).isEqualTo(2);
+        assertThat(result.quantityAllocated()).isEqualTo(7.0);
+        assertThat(result.isFullyAllocated()).isTrue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Inventory>> saved = ArgumentCaptor.forClass(List.class);
+        verify(inventoryRepository, times(1)).saveAll(saved.capture());
+        verify(inventoryRepository, never()).save(any());
+        assertThat(saved.getValue()).hasSize(2);
+        assertThat(stock.getQuantity()).isEqualTo(3);
+        assertThat(stock.getStatus()).isEqualTo(InventoryStatus.AVAILABLE);
+        Inventory allocated = saved.getValue().get(1);
+        assertThat(allocated.getStatus()).isEqualTo(InventoryStatus.ALLOCATED);
+        assertThat(allocated.getQuantity()).isEqualTo(7);
+        assertThat(allocated.getLocation()).isEqualTo(location);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InventoryAllocation>> allocations = ArgumentCaptor.forClass(List.class);
+        verify(inventoryAllocationRepository).saveAll(allocations.capture());
+        assertThat(allocations.getValue()).hasSize(2);
+        assertThat(allocations.getValue()).allSatisfy(allocation -> {
+            assertThat(allocation.getInventory()).isSameAs(allocated);
+            assertThat(allocation.getWaveId()).isEqualTo(7);
+            assertThat(allocation.getStatus()).isEqualTo(AllocationStatus.ALLOCATED);
+        });
+        assertThat(allocations.getValue().get(0).getOutboundOrderItem()).isEqualTo(first);
+        assertThat(allocations.getValue().get(0).getQuantity()).isEqualTo(3);
+        assertThat(allocations.getValue().get(1).getOutboundOrderItem()).isEqualTo(second);
+        assertThat(allocations.getValue().get(1).getQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldReportShortageAndTakeWholeRecords() {
+        OutboundOrderItem line = item(100, 12.0);
+        Inventory firstStock = stock(50, 5);
+        Inventory secondStock = stock(51, 4);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(line));
+        when(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(firstStock, secondStock));
+
+        WaveAllocationResult result = allocationService.allocateOrders(7, List.of(10));
+
+        assertThat(firstStock.getStatus()).isEqualTo(InventoryStatus.ALLOCATED);
+        assertThat(secondStock.getStatus()).isEqualTo(InventoryStatus.ALLOCATED);
+        assertThat(result.linesFullyAllocated()).isZero();
+        assertThat(result.shortages()).hasSize(1);
+        AllocationShortage shortage = result.shortages().get(0);
+        assertThat(shortage.outboundOrderItemId()).isEqualTo(100);
+        assertThat(shortage.sku()).isEqualTo("PROD-001");
+        assertThat(shortage.quantityAllocated()).isEqualTo(9.0);
+        assertThat(shortage.quantityShort()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldTopUpAllocatedRowOfTheSameLpnInsteadOfSplittingAgain() {
+        OutboundOrderItem line = item(100, 4.0);
+        Inventory stock = stock(50, 7);
+        stock.setLpn("LPN-1");
+        stock.setBatchNumber("B-1");
+        Inventory earlierWave = stock(51, 3);
+        earlierWave.setLpn("LPN-1");
+        earlierWave.setBatchNumber("B-1");
+        earlierWave.setStatus(InventoryStatus.ALLOCATED);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(line));
+        when(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(stock));
+        when(inventoryRepository.findByProductIdInAndLocationIdInAndStatus(anyCollection(), anyCollection(), eq(InventoryStatus.ALLOCATED)))
+                .thenReturn(List.of(earlierWave));
+
+        allocationService.allocateOrders(8, List.of(10));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Inventory>> saved = ArgumentCaptor.forClass(List.class);
+        verify(inventoryRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).containsExactly(stock, earlierWave);
+        assertThat(stock.getQuantity()).isEqualTo(3);
+        assertThat(stock.getStatus()).isEqualTo(InventoryStatus.AVAILABLE);
+        assertThat(earlierWave.getQuantity()).isEqualTo(7);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InventoryAllocation>> allocations = ArgumentCaptor.forClass(List.class);
+        verify(inventoryAllocationRepository).saveAll(allocations.capture());
+        assertThat(allocations.getValue()).singleElement().satisfies(allocation -> {
+            assertThat(allocation.getInventory()).isSameAs(earlierWave);
+            assertThat(allocation.getQuantity()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    void shouldDeleteSourceTakenWholeIntoAnExistingAllocatedRow() {
+        OutboundOrderItem line = item(100, 7.0);
+        Inventory stock = stock(50, 7);
+        stock.setLpn("LPN-1");
+        stock.setBatchNumber("B-1");
+        Inventory earlierWave = stock(51, 3);
+        earlierWave.setLpn("LPN-1");
+        earlierWave.setBatchNumber("B-1");
+        earlierWave.setStatus(InventoryStatus.ALLOCATED);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(line));
+        when(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(stock));
+        when(inventoryRepository.findByProductIdInAndLocationIdInAndStatus(anyCollection(), anyCollection(), eq(InventoryStatus.ALLOCATED)))
+                .thenReturn(List.of(earlierWave));
+
+        allocationService.allocateOrders(8, List.of(10));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Inventory>> saved = ArgumentCaptor.forClass(List.class);
+        verify(inventoryRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).containsExactly(earlierWave);
+        assertThat(earlierWave.getQuantity()).isEqualTo(10);
+        verify(moveTaskRepository).reassignInventory(stock, earlierWave);
+        verify(qcInspectionRepository).reassignInventory(stock, earlierWave);
+        verify(pickTaskRepository).reassignInventory(stock, earlierWave);
+        verify(inventoryRepository).delete(stock);
+    }
+
+    @Test
+    void shouldUseFefoQueryForProductsInheritingFefoCategory() {
+        ProductCategory food = new ProductCategory(4, "Spożywcze", null, AllocationStrategy.FEFO);
+        ProductCategory drinks = new ProductCategory(10, "Napoje", 4, null);
+        product.setCategory(drinks);
+        OutboundOrderItem line = item(100, 2.0);
+        Inventory stock = stock(50, 5);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(line));
+        when(productCategoryRepository.findAll()).thenReturn(List.of(food, drinks));
+        when(inventoryRepository.findFefoCandidates(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(stock));
+
+        WaveAllocationResult result = allocationService.allocateOrders(7, List.of(10));
+
+        assertThat(result.isFullyAllocated()).isTrue();
+        verify(inventoryRepository, never()).findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), any());
+    }
+
+    @Test
+    void shouldRecordOneFlightRecorderEventPerLine(@TempDir Path dir) throws Exception {
+        OutboundOrderItem first = item(100, 3.0);
+        OutboundOrderItem second = item(101, 9.0);
+        Inventory firstStock = stock(50, 5);
+        Inventory secondStock = stock(51, 5);
+
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(outboundOrderItemRepository.findByOutboundOrderIdIn(List.of(10))).thenReturn(List.of(first, second));
+        when(inventoryRepository.findByProductIdInAndStatusOrderByReceivedAtAscIdAsc(anyCollection(), eq(InventoryStatus.AVAILABLE)))
+                .thenReturn(List.of(firstStock, secondStock));
+
+        Path file = dir.resolve("allocation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("sapo.ItemAllocation");
+            recording.start();
+            allocationService.allocateOrders(7, List.of(10));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("sapo.ItemAllocation"))
+                .filter(event -> event.getInt("waveId") == 7)
+                .toList();
+        assertThat(events).hasSize(2);
+        assertThat(events).extracting(event -> event.getInt("orderItemId")).containsExactly(100, 101);
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getInt("orderId")).isEqualTo(10);
+            assertThat(event.getInt("productId")).isEqualTo(1);
+            assertThat(event.getInt("candidateRows")).isEqualTo(2);
+        });
+        assertThat(events.get(0).getInt("sourceRows")).isEqualTo(1);
+        assertThat(events.get(1).getInt("sourceRows")).isEqualTo(2);
+        assertThat(events.get(1).getDouble("quantityAllocated")).isEqualTo(7.0);
+    }
+
+    @Test
+    void shouldDefaultToFifoWithoutCategoryStrategy() {
+        assertThat(allocationService.resolveStrategy(product, Map.of())).isEqualTo(AllocationStrategy.FIFO);
+    }
+
+    @Test
+    void shouldFailWhenOrderDoesNotExist() {
+        when(outboundOrderRepository.findAllById(List.of(10, 11))).thenReturn(List.of(order));
+
+        assertThrows(RuntimeException.class, () -> allocationService.allocateOrders(7, List.of(10, 11)));
+        verify(inventoryRepository, never()).saveAll(any());
+    }
+
+    private OutboundOrderItem item(int id, double quantity) {
+        OutboundOrderItem item = new OutboundOrderItem();
+        item.setId(id);
+        item.setOutboundOrder(order);
+        item.setProduct(product);
+        item.setQuantityOrdered(quantity);
+        return item;
+    }
+
+    private Inventory stock(int id, int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        inventory.setProduct(product);
+        inventory.setLocation(location);
+        inventory.setQuantity(quantity);
+        inventory.setStatus(InventoryStatus.AVAILABLE);
+        return inventory;
+    }
+}
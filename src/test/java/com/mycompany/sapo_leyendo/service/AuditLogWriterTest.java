@@ -0,0 +1,120 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.AuditLog;
+import com.mycompany.sapo_leyendo.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void queuedRowsAreWrittenInBatches() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(auditLogRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<AuditLog> batch = new ArrayList<>(invocation.getArgument(0));
+            batchSizes.add(batch.size());
+            return batch;
+        });
+        writer = new AuditLogWriter(auditLogRepository, transactionManager, true, "async", 1000, 40);
+
+        assertThat(writer.tryReserve(100)).isTrue();
+        writer.enqueue(rows(100));
+        writer.flush();
+
+        assertThat(writer.getWrittenCount()).isEqualTo(100);
+        assertThat(batchSizes).allMatch(size -> size <= 40);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(100);
+        assertThat(writer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void fullQueueRefusesReservationsUntilRowsAreWritten() {
+        writer = new AuditLogWriter(auditLogRepository, transactionManager, true, "async", 10, 500);
+
+        assertThat(writer.tryReserve(8)).isTrue();
+        assertThat(writer.tryReserve(3)).isFalse();
+        writer.release(8);
+        assertThat(writer.tryReserve(10)).isTrue();
+        writer.enqueue(rows(10));
+        writer.flush();
+
+        assertThat(writer.tryReserve(10)).isTrue();
+    }
+
+    @Test
+    void failedBatchIsCountedAndFreesItsRoom() {
+        when(auditLogRepository.saveAll(any())).thenThrow(new RuntimeException("database is locked"));
+        writer = new AuditLogWriter(auditLogRepository, transactionManager, true, "async", 5, 500);
+
+        assertThat(writer.tryReserve(5)).isTrue();
+        writer.enqueue(rows(5));
+        writer.flush();
+
+        assertThat(writer.getFailedCount()).isEqualTo(5);
+        assertThat(writer.getWrittenCount()).isZero();
+        assertThat(writer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void singleRowsAreQueuedOnlyInAsyncMode() {
+        writer = new AuditLogWriter(auditLogRepository, transactionManager, true, "commit", 10, 500);
+        writer.submit(rows(1).get(0));
+        verify(auditLogRepository).save(any());
+        writer.shutdown();
+
+        reset(auditLogRepository);
+        writer = new AuditLogWriter(auditLogRepository, transactionManager, true, "async", 10, 500);
+        writer.submit(rows(1).get(0));
+        writer.flush();
+        verify(auditLogRepository, never()).save(any());
+        verify(auditLogRepository).saveAll(any());
+    }
+
+    private static List<AuditLog> rows(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            AuditLog row = new AuditLog();
+            row.setAction("UPDATE");
+            row.setEntity("OutboundOrder");
+            row.setEntityId(String.valueOf(i));
+            row.setTimestamp(LocalDateTime.now());
+            return row;
+        }).toList();
+    }
+}
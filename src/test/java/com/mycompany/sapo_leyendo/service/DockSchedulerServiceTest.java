@@ -0,0 +1,206 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.inbound.DockSlot;
+import com.mycompany.sapo_leyendo.model.DockAppointment;
+import com.mycompany.sapo_leyendo.model.Location;
+import com.mycompany.sapo_leyendo.model.LocationType;
+import com.mycompany.sapo_leyendo.repository.DockAppointmentRepository;
+import com.mycompany.sapo_leyendo.repository.LocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DockSchedulerServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    @InjectMocks
+    private DockSchedulerService scheduler;
+
+    @Mock
+    private DockAppointmentRepository dockAppointmentRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    private final List<DockAppointment> appointments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocationType dockDoor = new LocationType(4, "Dock Door", null, null, null, null, null);
+        LocationType rack = new LocationType(1, "Standard Pallet Rack", 1000.0, 2.0, null, null, null);
+        lenient().when(locationRepository.findAll()).thenReturn(List.of(
+                location(1, dockDoor), location(2, dockDoor), location(3, rack)));
+        lenient().when(dockAppointmentRepository.findAll()).thenReturn(appointments);
+    }
+
+    @Test
+    void shouldRejectOverlapUnlessAutoShifted() {
+        appointment(100, 1, at(8, 0), at(10, 0));
+
+        RuntimeException conflict = assertThrows(RuntimeException.class,
+                () -> committed(() -> scheduler.book(1, at(9, 0), at(9, 30), false)));
+        assertThat(conflict.getMessage()).contains("Dock 1").contains("T08:00").contains("T10:00");
+
+        DockSchedulerService.Booking shifted = committed(() -> scheduler.book(1, at(9, 0), at(9, 30), true));
+        assertThat(shifted.startTime()).isEqualTo(at(10, 0));
+        assertThat(shifted.endTime()).isEqualTo(at(10, 30));
+
+        // Touching slots are not an overlap
+        assertThat(committed(() -> scheduler.book(1, at(7, 0), at(8, 0), false)).startTime()).isEqualTo(at(7, 0));
+    }
+
+    @Test
+    void shouldFindEarliestSlotAcrossDocks() {
+        appointment(100, 1, at(8, 0), at(12, 0));
+        appointment(101, 2, at(8, 0), at(9, 0));
+        appointment(102, 2, at(9, 30), at(11, 0));
+
+        // Dock 2 has a 30 minute gap at 9:00 - too short for an hour
+        assertThat(scheduler.nextFreeSlot(Duration.ofHours(1), at(8, 0)))
+                .contains(new DockSlot(2, at(11, 0), at(12, 0)));
+        assertThat(scheduler.nextFreeSlot(Duration.ofMinutes(30), at(8, 0)))
+                .contains(new DockSlot(2, at(9, 0), at(9, 30)));
+        assertThat(scheduler.nextFreeSlot(1, Duration.ofMinutes(30), at(8, 0)).startTime()).isEqualTo(at(12, 0));
+        verify(dockAppointmentRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldFreeTimeWhenAppointmentIsReleased() {
+        // Legacy overlapping rows are merged into one busy block
+        appointment(100, 1, at(8, 0), at(10, 0));
+        appointment(101, 1, at(9, 0), at(11, 0));
+
+        assertThat(scheduler.nextFreeSlot(1, Duration.ofHours(1), at(8, 0)).startTime()).isEqualTo(at(11, 0));
+
+        scheduler.releaseAppointment(101);
+        assertThat(scheduler.nextFreeSlot(1, Duration.ofHours(1), at(8, 0)).startTime()).isEqualTo(at(10, 0));
+
+        scheduler.releaseAppointment(100);
+        assertThat(scheduler.nextFreeSlot(1, Duration.ofHours(1), at(8, 0)).startTime()).isEqualTo(at(8, 0));
+    }
+
+    @Test
+    void shouldDropBookingWhenTransactionRollsBack() {
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> scheduler.book(1, at(8, 0), at(9, 0), false));
+
+        assertThat(scheduler.nextFreeSlot(1, Duration.ofHours(1), at(8, 0)).startTime()).isEqualTo(at(8, 0));
+    }
+
+    @Test
+    void shouldRejectUnknownDocksWithoutCreatingThem() {
+        LocationType rack = new LocationType(1, "Standard Pallet Rack", 1000.0, 2.0, null, null, null);
+        when(locationRepository.findById(3)).thenReturn(Optional.of(location(3, rack)));
+        when(locationRepository.findById(99)).thenReturn(Optional.empty());
+
+        RuntimeException unknown = assertThrows(RuntimeException.class,
+                () -> scheduler.nextFreeSlot(99, Duration.ofHours(1), at(8, 0)));
+        assertThat(unknown.getMessage()).isEqualTo("Dock 99 not found");
+        assertThrows(RuntimeException.class, () -> committed(() -> scheduler.book(3, at(8, 0), at(9, 0), false)));
+
+        // The failed lookups did not add phantom docks to the search
+        assertThat(scheduler.nextFreeSlot(Duration.ofHours(1), at(8, 0)))
+                .hasValueSatisfying(slot -> assertThat(slot.dockId()).isIn(1, 2));
+    }
+
+    @Test
+    void shouldAcceptDockAddedAfterRebuild() {
+        LocationType dockDoor = new LocationType(4, "Dock Door", null, null, null, null, null);
+        scheduler.rebuild();
+        when(locationRepository.findById(7)).thenReturn(Optional.of(location(7, dockDoor)));
+
+        assertThat(committed(() -> scheduler.book(7, at(8, 0), at(9, 0), false)).dockId()).isEqualTo(7);
+        assertThat(scheduler.nextFreeSlot(7, Duration.ofHours(1), at(8, 0)).startTime()).isEqualTo(at(9, 0));
+        verify(locationRepository, times(1)).findById(7);
+    }
+
+    @Test
+    void timelineShouldMatchBruteForce() {
+        Random random = new Random(42);
+        DockTimeline timeline = new DockTimeline();
+        boolean[] busy = new boolean[2_000];
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(1_900);
+            int end = start + 1 + random.nextInt(20);
+            timeline.add(start, end);
+            for (int t = start; t < end; t++) {
+                busy[t] = true;
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(1_900);
+            int length = 1 + random.nextInt(15);
+            int expected = from;
+            while (!free(busy, expected, length)) {
+                expected++;
+            }
+            assertThat(timeline.nextFree(from, length)).as("from %d length %d", from, length).isEqualTo(expected);
+            assertThat(timeline.conflict(from, from + length) == null).isEqualTo(free(busy, from, length));
+        }
+    }
+
+    private static <T> T committed(Supplier<T> work) {
+        return inTransaction(TransactionSynchronization.STATUS_COMMITTED, work);
+    }
+
+    /** Runs {@code work} as if inside a transaction that then ends with {@code status}. */
+    private static <T> T inTransaction(int status, Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.get();
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static boolean free(boolean[] busy, int start, int length) {
+        for (int t = start; t < start + length; t++) {
+            if (t < busy.length && busy[t]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+
+    private void appointment(int id, int dockId, LocalDateTime start, LocalDateTime end) {
+        DockAppointment appointment = new DockAppointment();
+        appointment.setId(id);
+        appointment.setDockId(dockId);
+        appointment.setStartTime(start);
+        appointment.setEndTime(end);
+        appointments.add(appointment);
+    }
+
+    private static Location location(int id, LocationType type) {
+        Location location = new Location();
+        location.setId(id);
+        location.setName("LOC-" + id);
+        location.setLocationType(type);
+        location.setActive(true);
+        return location;
+    }
+}
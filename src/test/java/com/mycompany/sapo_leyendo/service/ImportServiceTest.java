@@ -0,0 +1,200 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.dto.importer.ImportResult;
+import com.mycompany.sapo_leyendo.model.InboundOrder;
+import com.mycompany.sapo_leyendo.model.InboundOrderItem;
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.model.ProductCategory;
+import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.repository.InboundOrderItemRepository;
+import com.mycompany.sapo_leyendo.repository.InboundOrderRepository;
+import com.mycompany.sapo_leyendo.repository.ProductCategoryRepository;
+import com.mycompany.sapo_leyendo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Mock
+    private InboundOrderRepository inboundOrderRepository;
+
+    @Mock
+    private InboundOrderItemRepository inboundOrderItemRepository;
+
+    @Mock
+    private UomService uomService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImportService importService;
+    private Product existing;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ImportService(productRepository, productCategoryRepository, inboundOrderRepository,
+                inboundOrderItemRepository, uomService, entityManager, transactionManager, 2);
+
+        existing = new Product();
+        existing.setId(1);
+        existing.setSku("SKU-1");
+        existing.setName("Old name");
+        existing.setIdBaseUom(1);
+        existing.setUnitPrice(new BigDecimal("9.99"));
+    }
+
+    @Test
+    void shouldUpsertProductsFromCsvInBatches() {
+        ProductCategory tools = new ProductCategory(3, "Tools", null, null);
+        when(productCategoryRepository.findAll()).thenReturn(List.of(tools));
+        when(productCategoryRepository.getReferenceById(3)).thenReturn(tools);
+        when(productRepository.findBySkuIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).contains("SKU-1") ? List.of(existing) : List.of());
+        List<Product> saved = new ArrayList<>();
+        when(productRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            invocation.<Iterable<Product>>getArgument(0).forEach(saved::add);
+            return null;
+        });
+
+        String csv = "sku,name,Description,category,weight_kg,unit_price\r\n"
+                + "SKU-1,New name,\"Steel, 10 mm\",Tools,1.5,\r\n"
+                + "SKU-2,Hammer,\"Says \"\"hit\"\"\nhard\",,0.8,12.50\r\n"
+                + "SKU-3,,no name,,,\r\n"
+                + "SKU-4,Saw,,Gardening,,\r\n"
+                + "SKU-5,Drill,,,heavy,\r\n"
+                + "SKU-6,Level\r\n";
+
+        ImportResult result = importService.importProducts(stream(csv), ImportFormat.CSV);
+
+        assertThat(result.status()).isEqualTo("COMPLETED");
+        assertThat(result.rowsRead()).isEqualTo(6);
+        assertThat(result.rowsImported()).isEqualTo(2);
+        assertThat(result.rowsRejected()).isEqualTo(4);
+        assertThat(result.batches()).isEqualTo(3);
+        assertThat(result.rejections()).extracting(r -> r.row()).containsExactly(5L, 6L, 8L, 7L);
+        assertThat(result.rejections().get(0).reason()).contains("name is required");
+        assertThat(result.rejections().get(1).reason()).contains("Unknown category");
+        assertThat(result.rejections().get(2).reason()).contains("columns");
+        assertThat(result.rejections().get(3).reason()).contains("weightkg");
+
+        // Existing product updated in place, absent columns left alone
+        assertThat(existing.getName()).isEqualTo("New name");
+        assertThat(existing.getDescription()).isEqualTo("Steel, 10 mm");
+        assertThat(existing.getCategory()).isSameAs(tools);
+        assertThat(existing.getUnitPrice()).isEqualByComparingTo("9.99");
+        assertThat(saved).hasSize(2);
+        Product hammer = saved.get(1);
+        assertThat(hammer.getSku()).isEqualTo("SKU-2");
+        assertThat(hammer.getDescription()).isEqualTo("Says \"hit\"\nhard");
+        assertThat(hammer.getUnitPrice()).isEqualByComparingTo("12.50");
+        assertThat(hammer.getIdBaseUom()).isEqualTo(1);
+
+        verify(productRepository, times(3)).saveAll(anyIterable());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void shouldRejectOnlyRowsWithAnUnknownUnit() {
+        when(productRepository.findBySkuIn(anyCollection())).thenReturn(List.of());
+        when(uomService.get(1)).thenReturn(Optional.of(new UnitOfMeasure(1, "EA", "Each")));
+        when(uomService.get(99)).thenReturn(Optional.empty());
+
+        String csv = "sku,name,uom\n"
+                + "SKU-7,Bolt,1\n"
+                + "SKU-8,Nut,99\n";
+
+        ImportResult result = importService.importProducts(stream(csv), ImportFormat.CSV);
+
+        assertThat(result.rowsImported()).isEqualTo(1);
+        assertThat(result.rejections()).singleElement().satisfies(rejection -> {
+            assertThat(rejection.row()).isEqualTo(3L);
+            assertThat(rejection.reason()).isEqualTo("Unknown unit of measure: 99");
+        });
+        verify(productRepository).saveAll(argThat(products -> products.iterator().next().getSku().equals("SKU-7")));
+    }
+
+    @Test
+    void shouldCreateInboundOrdersFromNdjson() {
+        InboundOrder received = new InboundOrder();
+        received.setReferenceNumber("ASN-OLD");
+        received.setStatus("RECEIVED");
+        Product bolt = new Product();
+        bolt.setSku("BOLT");
+        when(inboundOrderRepository.findByReferenceNumberIn(anyCollection())).thenReturn(List.of(received));
+        when(productRepository.findBySkuIn(anyCollection())).thenReturn(List.of(bolt));
+
+        String ndjson = "{\"reference\":\"ASN-1\",\"supplier\":\"ACME\",\"expected_date\":\"2026-03-01\",\"sku\":\"BOLT\",\"quantity\":10}\n"
+                + "{\"reference\":\"ASN-1\",\"sku\":\"BOLT\",\"quantity\":5,\"batchNumber\":\"B-7\"}\n"
+                + "\n"
+                + "{\"reference\":\"ASN-1\",\"sku\":\"NUT\",\"quantity\":5}\n"
+                + "{\"reference\":\"ASN-OLD\",\"sku\":\"BOLT\",\"quantity\":1}\n"
+                + "not json\n";
+
+        ImportResult result = importService.importAsn(stream(ndjson), ImportFormat.NDJSON);
+
+        assertThat(result.rowsImported()).isEqualTo(2);
+        assertThat(result.rowsRejected()).isEqualTo(3);
+        assertThat(result.rejections()).extracting(r -> r.row()).containsExactly(4L, 5L, 6L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InboundOrder>> orders = ArgumentCaptor.forClass(List.class);
+        verify(inboundOrderRepository, times(2)).saveAll(orders.capture());
+        assertThat(orders.getAllValues().get(0)).singleElement().satisfies(order -> {
+            assertThat(order.getReferenceNumber()).isEqualTo("ASN-1");
+            assertThat(order.getSupplier()).isEqualTo("ACME");
+            assertThat(order.getStatus()).isEqualTo("PLANNED");
+            assertThat(order.getExpectedDate()).isEqualTo("2026-03-01T00:00");
+        });
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InboundOrderItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(inboundOrderItemRepository, times(2)).saveAll(items.capture());
+        List<InboundOrderItem> firstBatch = items.getAllValues().get(0);
+        assertThat(firstBatch).hasSize(2);
+        assertThat(firstBatch).allSatisfy(item -> assertThat(item.getInboundOrder()).isSameAs(orders.getAllValues().get(0).get(0)));
+        assertThat(firstBatch.get(1).getQuantityExpected()).isEqualTo(5);
+        assertThat(firstBatch.get(1).getBatchNumber()).isEqualTo("B-7");
+    }
+
+    @Test
+    void shouldResolveFormatFromParameterOrContentType() {
+        assertThat(ImportFormat.resolve("jsonl", "text/csv")).isEqualTo(ImportFormat.NDJSON);
+        assertThat(ImportFormat.resolve(null, "text/csv; charset=UTF-8")).isEqualTo(ImportFormat.CSV);
+        assertThat(ImportFormat.resolve(null, "application/x-ndjson")).isEqualTo(ImportFormat.NDJSON);
+        assertThat(ImportFormat.resolve("xml", null)).isNull();
+        assertThat(ImportFormat.resolve(null, null)).isNull();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,10 @@
 package com.mycompany.sapo_leyendo.service;
 
+import com.mycompany.sapo_leyendo.dto.KeysetPage;
+import com.mycompany.sapo_leyendo.dto.KeysetRequest;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchLine;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchRequest;
+import com.mycompany.sapo_leyendo.dto.inbound.ReceiveBatchResult;
 import com.mycompany.sapo_leyendo.model.*;
 import com.mycompany.sapo_leyendo.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,14 +13,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,7 +58,16 @@ class InboundServiceTest {
     private DockAppointmentRepository dockAppointmentRepository;
 
     @Mock
-    private UnitOfMeasureRepository unitOfMeasureRepository;
+    private UomService uomService;
+
+    @Mock
+    private SlottingService slottingService;
+
+    @Mock
+    private DockSchedulerService dockSchedulerService;
+
+    @Mock
+    private IdentifierService identifierService;
 
     private InboundOrder testOrder;
     private InboundOrderItem testItem;
@@ -54,6 +75,7 @@ class InboundServiceTest {
     private Location shelfLocation;
     private Product testProduct;
     private UnitOfMeasure testUom;
+    private SlottingService.Reservation shelfSlot;
 
     @BeforeEach
     void setUp() {
@@ -94,17 +116,23 @@ class InboundServiceTest {
         LocationType shelfType = new LocationType();
         shelfType.setName("SHELF");
         shelfLocation.setLocationType(shelfType);
+        shelfSlot = new SlottingService.Reservation(1L, 20, SlottingService.Load.of(testProduct, 50));
+        // Quantities are already in the base unit unless a test says otherwise
+        lenient().when(uomService.toBaseWhole(any(), anyInt(), any())).thenAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
-    void getAllInboundOrders_shouldReturnAllOrders() {
+    void getInboundOrders_shouldReturnOnePage() {
         List<InboundOrder> orders = Arrays.asList(testOrder, new InboundOrder());
-        when(inboundOrderRepository.findAll()).thenReturn(orders);
+        when(inboundOrderRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(orders, i -> ScrollPosition.keyset(), false));
 
-        List<InboundOrder> result = inboundService.getAllInboundOrders();
+        KeysetPage<InboundOrder> result = inboundService.getInboundOrders("PLANNED", null, null, null,
+                new KeysetRequest(null, null, null));
 
-        assertEquals(2, result.size());
-        verify(inboundOrderRepository).findAll();
+        assertEquals(2, result.items().size());
+        assertNull(result.nextCursor());
+        verify(inboundOrderRepository).findBy(any(Specification.class), any());
     }
 
     @Test
@@ -143,6 +171,8 @@ class InboundServiceTest {
         LocalDateTime endTime = startTime.plusHours(2);
 
         when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        DockSchedulerService.Booking booking = new DockSchedulerService.Booking(1L, 10, startTime, endTime);
+        when(dockSchedulerService.book(10, startTime, endTime, false)).thenReturn(booking);
         when(dockAppointmentRepository.save(any(DockAppointment.class))).thenAnswer(invocation -> {
             DockAppointment apt = invocation.getArgument(0);
             apt.setId(1);
@@ -156,6 +186,36 @@ class InboundServiceTest {
         assertEquals(10, result.getDockId());
         assertEquals("Test Carrier", result.getCarrierName());
         verify(dockAppointmentRepository).save(any(DockAppointment.class));
+        verify(dockSchedulerService).bind(booking, 1);
+    }
+
+    @Test
+    void scheduleDock_shouldUseShiftedSlot() {
+        LocalDateTime startTime = LocalDateTime.of(2026, 5, 4, 8, 0);
+        LocalDateTime shifted = startTime.plusHours(3);
+
+        when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        when(dockSchedulerService.book(10, startTime, startTime.plusHours(1), true))
+                .thenReturn(new DockSchedulerService.Booking(1L, 10, shifted, shifted.plusHours(1)));
+        when(dockAppointmentRepository.save(any(DockAppointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DockAppointment result = inboundService.scheduleDock(1, 10, startTime, startTime.plusHours(1), "Carrier", true);
+
+        assertEquals(shifted, result.getStartTime());
+        assertEquals(shifted.plusHours(1), result.getEndTime());
+    }
+
+    @Test
+    void scheduleDock_shouldNotSave_whenDockIsTaken() {
+        LocalDateTime startTime = LocalDateTime.of(2026, 5, 4, 8, 0);
+
+        when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        when(dockSchedulerService.book(10, startTime, startTime.plusHours(1), false))
+                .thenThrow(new RuntimeException("Dock 10 is already booked"));
+
+        assertThrows(RuntimeException.class, () ->
+            inboundService.scheduleDock(1, 10, startTime, startTime.plusHours(1), "Carrier"));
+        verify(dockAppointmentRepository, never()).save(any());
     }
 
     @Test
@@ -166,8 +226,30 @@ class InboundServiceTest {
             inboundService.scheduleDock(999, 10, LocalDateTime.now(), LocalDateTime.now().plusHours(1), "Carrier"));
     }
 
+    @Test
+    void cancelDockAppointment_shouldDeleteAndReleaseTheSlot() {
+        DockAppointment appointment = new DockAppointment();
+        appointment.setId(5);
+        when(dockAppointmentRepository.findById(5)).thenReturn(Optional.of(appointment));
+
+        inboundService.cancelDockAppointment(5);
+
+        verify(dockAppointmentRepository).delete(appointment);
+        verify(dockSchedulerService).releaseAppointment(5);
+    }
+
+    @Test
+    void cancelDockAppointment_shouldThrowException_whenNotFound() {
+        when(dockAppointmentRepository.findById(6)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> inboundService.cancelDockAppointment(6));
+        verify(dockSchedulerService, never()).releaseAppointment(any());
+    }
+
     @Test
     void generateLpn_shouldReturnUniqueLpn() {
+        when(identifierService.next(IdentifierType.LPN)).thenReturn("LPN-00000001", "LPN-00000002");
+
         String lpn1 = inboundService.generateLpn();
         String lpn2 = inboundService.generateLpn();
 
@@ -182,8 +264,9 @@ class InboundServiceTest {
     void receiveItem_shouldCreateReceiptAndInventory() {
         when(inboundOrderItemRepository.findById(1)).thenReturn(Optional.of(testItem));
         when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
-        when(unitOfMeasureRepository.findById(1)).thenReturn(Optional.of(testUom));
-        when(locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")).thenReturn(Optional.of(shelfLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findById(20)).thenReturn(Optional.of(shelfLocation));
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> {
             Receipt r = invocation.getArgument(0);
             r.setId(1);
@@ -214,8 +297,9 @@ class InboundServiceTest {
     void receiveItem_shouldSetUomFromProduct() {
         when(inboundOrderItemRepository.findById(1)).thenReturn(Optional.of(testItem));
         when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
-        when(unitOfMeasureRepository.findById(1)).thenReturn(Optional.of(testUom));
-        when(locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")).thenReturn(Optional.of(shelfLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findById(20)).thenReturn(Optional.of(shelfLocation));
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(moveTaskRepository.save(any(MoveTask.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -233,8 +317,9 @@ class InboundServiceTest {
 
         when(inboundOrderItemRepository.findById(1)).thenReturn(Optional.of(testItem));
         when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
-        when(unitOfMeasureRepository.findById(1)).thenReturn(Optional.of(testUom));
-        when(locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")).thenReturn(Optional.of(shelfLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findById(20)).thenReturn(Optional.of(shelfLocation));
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(moveTaskRepository.save(any(MoveTask.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -267,8 +352,9 @@ class InboundServiceTest {
     void receiveItem_shouldCreatePutAwayTask() {
         when(inboundOrderItemRepository.findById(1)).thenReturn(Optional.of(testItem));
         when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
-        when(unitOfMeasureRepository.findById(1)).thenReturn(Optional.of(testUom));
-        when(locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")).thenReturn(Optional.of(shelfLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findById(20)).thenReturn(Optional.of(shelfLocation));
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(moveTaskRepository.save(any(MoveTask.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -289,8 +375,9 @@ class InboundServiceTest {
     void receiveItem_shouldHandleDamageCode() {
         when(inboundOrderItemRepository.findById(1)).thenReturn(Optional.of(testItem));
         when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
-        when(unitOfMeasureRepository.findById(1)).thenReturn(Optional.of(testUom));
-        when(locationRepository.findFirstByLocationTypeNameAndIsActiveTrue("SHELF")).thenReturn(Optional.of(shelfLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findById(20)).thenReturn(Optional.of(shelfLocation));
         when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(moveTaskRepository.save(any(MoveTask.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -301,4 +388,115 @@ class InboundServiceTest {
 
         verify(receiptRepository).save(argThat(receipt -> "DAMAGED_CARTON".equals(receipt.getDamageCode())));
     }
+
+    @Test
+    void receiveBatch_shouldReceiveValidLinesAndRejectOthers() {
+        when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        when(inboundOrderItemRepository.findByInboundOrderId(1)).thenReturn(List.of(testItem));
+        when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(slottingService.reserve(eq(testProduct), anyInt())).thenReturn(Optional.of(shelfSlot));
+        when(locationRepository.findAllById(anyCollection())).thenReturn(List.of(shelfLocation));
+
+        ReceiveBatchRequest request = new ReceiveBatchRequest();
+        request.setOperatorId(1L);
+        request.setLines(List.of(
+                line(1, "LPN-001", 30),
+                line(1, "LPN-002", 20),
+                line(999, "LPN-003", 5),   // not part of this order
+                line(1, "LPN-004", 0),     // nothing to receive
+                line(1, "LPN-001", 10)));  // LPN already used in this batch
+
+        ReceiveBatchResult result = inboundService.receiveBatch(1, request);
+
+        assertEquals(2, result.linesReceived());
+        assertEquals(3, result.linesRejected());
+        assertEquals("IN_PROGRESS", result.orderStatus());
+        assertTrue(result.lines().get(0).received());
+        assertEquals(20, result.lines().get(1).targetLocationId());
+        assertFalse(result.lines().get(2).received());
+        assertFalse(result.lines().get(3).received());
+        assertFalse(result.lines().get(4).received());
+        assertEquals(50, testItem.getQuantityReceived());
+
+        // One write per table, no per-line lookups
+        verify(receiptRepository).saveAll(argThat(receipts -> ((List<Receipt>) receipts).size() == 2));
+        verify(inventoryRepository).saveAll(argThat(stock -> ((List<Inventory>) stock).stream()
+                .allMatch(inv -> inv.getLocation() == dockLocation && inv.getUom() == testUom)));
+        verify(moveTaskRepository).saveAll(argThat(tasks -> ((List<MoveTask>) tasks).stream()
+                .allMatch(task -> task.getType() == MoveTaskType.PUTAWAY && task.getTargetLocation() == shelfLocation)));
+        verify(inventoryRepository, never()).save(any());
+        verify(locationRepository, never()).findById(20);
+    }
+
+    @Test
+    void receiveBatch_shouldRejectLpnsAlreadyInStock() {
+        when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        when(inboundOrderItemRepository.findByInboundOrderId(1)).thenReturn(List.of(testItem));
+        when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        when(inventoryRepository.findExistingLpns(Set.of("LPN-001", "LPN-002"))).thenReturn(Set.of("LPN-002"));
+
+        ReceiveBatchRequest request = new ReceiveBatchRequest();
+        request.setOperatorId(1L);
+        request.setLines(List.of(line(1, "LPN-001", 30), line(1, "LPN-002", 20)));
+
+        ReceiveBatchResult result = inboundService.receiveBatch(1, request);
+
+        assertEquals(1, result.linesReceived());
+        assertTrue(result.lines().get(0).received());
+        assertFalse(result.lines().get(1).received());
+        assertEquals("LPN already in stock: LPN-002", result.lines().get(1).message());
+        assertEquals(30, testItem.getQuantityReceived());
+        verify(inventoryRepository, times(1)).findExistingLpns(anyCollection());
+    }
+
+    @Test
+    void receiveBatch_shouldThrowException_whenOrderNotFound() {
+        when(inboundOrderRepository.findById(999)).thenReturn(Optional.empty());
+
+        ReceiveBatchRequest request = new ReceiveBatchRequest();
+        request.setLines(List.of(line(1, "LPN-001", 1)));
+
+        assertThrows(RuntimeException.class, () -> inboundService.receiveBatch(999, request));
+        verify(receiptRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void receiveBatch_shouldConvertLinesCountedInOtherUnits() {
+        UnitOfMeasure carton = new UnitOfMeasure(6, "KAR", "Karton");
+        when(inboundOrderRepository.findById(1)).thenReturn(Optional.of(testOrder));
+        when(inboundOrderItemRepository.findByInboundOrderId(1)).thenReturn(List.of(testItem));
+        when(locationRepository.findById(10)).thenReturn(Optional.of(dockLocation));
+        when(uomService.baseUom(testProduct)).thenReturn(testUom);
+        UnitOfMeasure pallet = new UnitOfMeasure(7, "PAL", "Paleta");
+        when(uomService.resolve(null, "KAR")).thenReturn(carton);
+        when(uomService.resolve(null, "PAL")).thenReturn(pallet);
+        when(uomService.toBaseWhole(testProduct, 3, carton)).thenReturn(36);
+        when(uomService.toBaseWhole(testProduct, 1, pallet))
+                .thenThrow(new RuntimeException("No conversion from PAL to SZT for product 1"));
+
+        ReceiveBatchLine cartons = line(1, "LPN-010", 3);
+        cartons.setUomCode("KAR");
+        ReceiveBatchLine pallets = line(1, "LPN-011", 1);
+        pallets.setUomCode("PAL");
+        ReceiveBatchRequest request = new ReceiveBatchRequest();
+        request.setLines(List.of(cartons, pallets));
+
+        ReceiveBatchResult result = inboundService.receiveBatch(1, request);
+
+        assertEquals(1, result.linesReceived());
+        assertEquals("No conversion from PAL to SZT for product 1", result.lines().get(1).message());
+        assertEquals(36, testItem.getQuantityReceived());
+        verify(inventoryRepository).saveAll(argThat(stock -> ((List<Inventory>) stock).stream()
+                .allMatch(inv -> inv.getQuantity() == 36 && inv.getUom() == testUom)));
+    }
+
+    private static ReceiveBatchLine line(Integer itemId, String lpn, Integer quantity) {
+        ReceiveBatchLine line = new ReceiveBatchLine();
+        line.setInboundOrderItemId(itemId);
+        line.setLpn(lpn);
+        line.setQuantity(quantity);
+        return line;
+    }
 }
@@ -0,0 +1,221 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PickingServiceTest {
+
+    @InjectMocks
+    private PickingService pickingService;
+
+    @Mock
+    private OutboundOrderRepository outboundOrderRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private PickingTaskRepository pickingTaskRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WaveRepository waveRepository;
+
+    @Mock
+    private PickListRepository pickListRepository;
+
+    @Mock
+    private AllocationService allocationService;
+
+    @Mock
+    private InventoryAllocationRepository inventoryAllocationRepository;
+
+    @Mock
+    private OptimisticRetryExecutor optimisticRetry;
+
+    @Mock
+    private IdentifierService identifierService;
+
+    private OutboundOrder order;
+    private OutboundOrderItem item;
+    private Inventory allocatedStock;
+
+    @BeforeEach
+    void setUp() {
+        // Run the unit of work inline - transactions and retries are covered by the stress test
+        lenient().when(optimisticRetry.execute(anyString(), any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(1);
+            return work.get();
+        });
+
+        order = new OutboundOrder();
+        order.setId(10);
+
+        item = new OutboundOrderItem();
+        item.setId(100);
+        item.setOutboundOrder(order);
+        item.setQuantityOrdered(6.0);
+
+        allocatedStock = new Inventory();
+        allocatedStock.setId(50);
+        allocatedStock.setQuantity(6);
+        allocatedStock.setStatus(InventoryStatus.ALLOCATED);
+    }
+
+    @Test
+    void shouldCreateOneTaskPerAllocationOnRelease() {
+        Wave wave = new Wave();
+        wave.setId(1);
+        wave.setStatus(WaveStatus.RELEASED);
+        InventoryAllocation allocation = allocation(6);
+
+        when(waveRepository.findById(1)).thenReturn(Optional.of(wave));
+        when(outboundOrderRepository.findAllById(List.of(10))).thenReturn(List.of(order));
+        when(inventoryAllocationRepository.findByOutboundOrderItemOutboundOrderIdInAndStatus(anyCollection(), eq(AllocationStatus.ALLOCATED)))
+                .thenReturn(List.of(allocation));
+        when(pickListRepository.save(any(PickList.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        pickingService.releaseWave(1, List.of(10));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PickingTask>> tasks = ArgumentCaptor.forClass(List.class);
+        verify(pickingTaskRepository).saveAll(tasks.capture());
+        assertThat(tasks.getValue()).hasSize(1);
+        PickingTask task = tasks.getValue().get(0);
+        assertThat(task.getInventory()).isSameAs(allocatedStock);
+        assertThat(task.getAllocation()).isSameAs(allocation);
+        assertThat(task.getPickList().getWave()).isSameAs(wave);
+        assertThat(task.getQuantityToPick()).isEqualTo(6.0);
+        assertThat(allocation.getStatus()).isEqualTo(AllocationStatus.TASKED);
+        assertThat(wave.getStatus()).isEqualTo(WaveStatus.IN_PROGRESS);
+        verify(inventoryRepository, never()).findByProductId(any());
+    }
+
+    @Test
+    void shouldDecrementAllocatedRowOnPartialPick() {
+        InventoryAllocation allocation = allocation(6);
+        PickingTask task = task(allocation);
+        when(pickingTaskRepository.findById(7)).thenReturn(Optional.of(task));
+
+        pickingService.confirmPickTask(7, 4);
+
+        assertThat(task.getStatus()).isEqualTo(PickingTaskStatus.PICKED);
+        assertThat(allocatedStock.getQuantity()).isEqualTo(2);
+        assertThat(allocation.getQuantityPicked()).isEqualTo(4);
+        assertThat(allocation.getStatus()).isEqualTo(AllocationStatus.PICKED);
+        verify(inventoryRepository).save(allocatedStock);
+        verify(inventoryRepository, never()).findByLocationId(any());
+    }
+
+    @Test
+    void shouldRemoveAllocatedRowWhenPickedFully() {
+        InventoryAllocation allocation = allocation(6);
+        PickingTask task = task(allocation);
+        when(pickingTaskRepository.findById(7)).thenReturn(Optional.of(task));
+        when(inventoryAllocationRepository.findByInventoryId(50)).thenReturn(List.of(allocation));
+
+        pickingService.confirmPickTask(7, 6);
+
+        assertThat(allocation.getInventory()).isNull();
+        verify(inventoryRepository).delete(allocatedStock);
+    }
+
+    @Test
+    void shouldTakeOnlyThisTasksQuantityOffARowSharedWithOtherWaves() {
+        allocatedStock.setQuantity(10); // 6 for this wave, 4 for another
+        InventoryAllocation allocation = allocation(6);
+        PickingTask task = task(allocation);
+        when(pickingTaskRepository.findById(7)).thenReturn(Optional.of(task));
+
+        pickingService.confirmPickTask(7, 10);
+
+        assertThat(allocatedStock.getQuantity()).isEqualTo(4);
+        assertThat(allocation.getQuantityPicked()).isEqualTo(6);
+        verify(inventoryRepository).save(allocatedStock);
+    }
+
+    @Test
+    void shouldKeepEmptiedRowWhileAnotherTaskStillReferencesIt() {
+        InventoryAllocation allocation = allocation(6);
+        PickingTask task = task(allocation);
+        when(pickingTaskRepository.findById(7)).thenReturn(Optional.of(task));
+        when(pickingTaskRepository.existsByInventoryIdAndStatusIn(eq(50), anyCollection())).thenReturn(true);
+
+        pickingService.confirmPickTask(7, 6);
+
+        assertThat(allocatedStock.getQuantity()).isZero();
+        assertThat(allocation.getInventory()).isSameAs(allocatedStock);
+        verify(inventoryRepository, never()).delete(any());
+    }
+
+    @Test
+    void shouldIgnoreRepeatedConfirmation() {
+        InventoryAllocation allocation = allocation(6);
+        PickingTask task = task(allocation);
+        task.setStatus(PickingTaskStatus.PICKED);
+        when(pickingTaskRepository.findById(7)).thenReturn(Optional.of(task));
+
+        pickingService.confirmPickTask(7, 6);
+
+        assertThat(allocatedStock.getQuantity()).isEqualTo(6);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void shouldQueryTasksByWaveAndStatus() {
+        Pageable pageable = PageRequest.of(0, 50);
+        Page<PickingTask> page = new PageImpl<>(List.of());
+        when(pickingTaskRepository.findByPickListWaveIdAndStatus(1, PickingTaskStatus.PENDING, pageable)).thenReturn(page);
+
+        assertThat(pickingService.getPickingTasks(1, PickingTaskStatus.PENDING, pageable)).isSameAs(page);
+        verify(pickingTaskRepository, never()).findAll();
+    }
+
+    private InventoryAllocation allocation(int quantity) {
+        InventoryAllocation allocation = new InventoryAllocation();
+        allocation.setId(20);
+        allocation.setOutboundOrderItem(item);
+        allocation.setInventory(allocatedStock);
+        allocation.setQuantity(quantity);
+        return allocation;
+    }
+
+    private PickingTask task(InventoryAllocation allocation) {
+        PickingTask task = new PickingTask();
+        task.setId(7);
+        task.setOutboundOrderItem(item);
+        task.setInventory(allocatedStock);
+        task.setAllocation(allocation);
+        task.setQuantityToPick(allocation.getQuantity().doubleValue());
+        task.setStatus(PickingTaskStatus.PENDING);
+        return task;
+    }
+}
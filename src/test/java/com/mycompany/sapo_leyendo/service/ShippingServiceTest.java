@@ -37,6 +37,9 @@ class ShippingServiceTest {
     @Mock
     private OutboundOrderRepository outboundOrderRepository;
 
+    @Mock
+    private IdentifierService identifierService;
+
     @Test
     void shouldCreateLoadWithPlanningStatus() {
         Carrier carrier = new Carrier();
@@ -90,9 +93,7 @@ class ShippingServiceTest {
         load.setStatus(LoadStatus.LOADING);
         load.setShipments(List.of(shipment));
 
-        when(transportLoadRepository.findById(1)).thenReturn(Optional.of(load));
-        when(shipmentRepository.save(any(Shipment.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(outboundOrderRepository.save(any(OutboundOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transportLoadRepository.findWithShipmentsById(1)).thenReturn(Optional.of(load));
         when(transportLoadRepository.save(any(TransportLoad.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(manifestRepository.save(any(Manifest.class))).thenAnswer(invocation -> {
             Manifest manifest = invocation.getArgument(0);
@@ -100,14 +101,16 @@ class ShippingServiceTest {
             return manifest;
         });
 
+        when(identifierService.next(IdentifierType.MANIFEST)).thenReturn("MAN-00000001");
+
         Manifest manifest = shippingService.dispatchLoad(1);
 
         assertThat(load.getStatus()).isEqualTo(LoadStatus.IN_TRANSIT);
         assertThat(manifest.getId()).isEqualTo(5);
-        assertThat(manifest.getManifestNumber()).isNotNull();
+        assertThat(manifest.getManifestNumber()).isEqualTo("MAN-00000001");
         assertThat(shipment.getStatus()).isEqualTo(ShipmentStatus.SHIPPED);
         assertThat(shipment.getShippedAt()).isNotNull();
-        verify(outboundOrderRepository).save(order);
+        assertThat(order.getStatus()).isEqualTo("SHIPPED");
     }
 
     @Test
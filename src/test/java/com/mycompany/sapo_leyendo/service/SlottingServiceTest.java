@@ -0,0 +1,214 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.*;
+import com.mycompany.sapo_leyendo.repository.InventoryRepository;
+import com.mycompany.sapo_leyendo.repository.LocationRepository;
+import com.mycompany.sapo_leyendo.repository.MoveTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlottingServiceTest {
+
+    @InjectMocks
+    private SlottingService slottingService;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private MoveTaskRepository moveTaskRepository;
+
+    private Zone general;
+    private Zone cold;
+    private LocationType smallBin;
+    private LocationType rack;
+    private Product mouse;
+    private Product yoghurt;
+    private final List<Location> locations = new ArrayList<>();
+    private final List<Inventory> stock = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        general = zone(1, true, false);
+        cold = zone(2, false, false);
+        smallBin = type(2, "Small Bin", 20.0, 0.1);
+        rack = type(1, "Standard Pallet Rack", 1000.0, 2.0);
+
+        mouse = product(1, 0.5);
+        yoghurt = product(2, 1.0);
+
+        when(locationRepository.findAll()).thenReturn(locations);
+        when(inventoryRepository.findAll()).thenReturn(stock);
+        when(moveTaskRepository.findByStatus(MoveTaskStatus.PENDING)).thenReturn(List.of());
+    }
+
+    @Test
+    void shouldPickLowestPickSequenceWithEnoughWeightCapacity() {
+        location(10, general, smallBin, 1);
+        location(11, general, rack, 2);
+        location(12, general, rack, 3);
+
+        // 30 x 0.5 kg = 15 kg fits the small bin, 60 x 0.5 kg = 30 kg does not
+        assertThat(committed(() -> slottingService.reserve(mouse, 30))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(10);
+        assertThat(committed(() -> slottingService.reserve(mouse, 60))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(11);
+        assertThat(slottingService.freeCapacity(10)).get()
+                .satisfies(free -> assertThat(free.weight()).isEqualTo(5.0));
+    }
+
+    @Test
+    void shouldNotMixSkusInZonesThatForbidIt() {
+        Location coldBin = location(20, cold, rack, 1);
+        location(21, cold, rack, 2);
+        stock(100, coldBin, mouse, 1);
+
+        // Yoghurt may not join the mouse, but more mice consolidate into the same bin
+        assertThat(committed(() -> slottingService.reserve(yoghurt, 1))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(21);
+        assertThat(committed(() -> slottingService.reserve(mouse, 1))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(20);
+    }
+
+    @Test
+    void shouldSkipDocksAndSecureZones() {
+        location(30, general, type(4, "Dock Door", null, null), 1);
+        location(31, zone(3, false, true), rack, 2);
+
+        assertThat(committed(() -> slottingService.reserve(mouse, 1))).isEmpty();
+        assertThat(slottingService.freeCapacity(30)).isEmpty();
+    }
+
+    @Test
+    void shouldTrackMovesAndReleaseReservationOnArrival() {
+        Location dock = location(40, general, type(4, "Dock Door", null, null), 1);
+        Location bin = location(41, general, smallBin, 2);
+        Inventory full = stock(200, bin, mouse, 40); // 20 kg - bin is full
+
+        assertThat(committed(() -> slottingService.reserve(mouse, 1))).isEmpty();
+
+        // Stock leaves the bin: capacity comes back without a rebuild
+        slottingService.onInventoryStored(full.getId(), dock.getId(), SlottingService.Load.of(mouse, 40));
+        SlottingService.Reservation slot = committed(() -> slottingService.reserve(mouse, 10)).orElseThrow();
+        slottingService.bind(slot, 201);
+        assertThat(slottingService.freeCapacity(41).orElseThrow().weight()).isEqualTo(15.0);
+
+        // The reserved stock arrives - counted once, as a placement
+        slottingService.onInventoryStored(201, bin.getId(), SlottingService.Load.of(mouse, 10));
+        assertThat(slottingService.freeCapacity(41).orElseThrow().weight()).isEqualTo(15.0);
+        verify(locationRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldFindFirstLocationWithBothWeightAndVolumeFree() {
+        location(50, general, type(5, "Shelf", 100.0, 0.01), 1); // weight free, no volume
+        location(51, general, type(6, "Hook", 1.0, 2.0), 2);    // volume free, no weight
+        location(52, general, rack, 3);
+        location(53, general, rack, 4);
+        Product crate = product(3, 10.0);
+        crate.setLengthCm(100.0);
+        crate.setWidthCm(10.0);
+        crate.setHeightCm(100.0); // 0.1 m3
+
+        assertThat(committed(() -> slottingService.reserve(crate, 1))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(52);
+        assertThat(committed(() -> slottingService.reserve(mouse, 1))).get().extracting(SlottingService.Reservation::locationId).isEqualTo(50);
+    }
+
+    @Test
+    void shouldKeepPendingReservationsWhenIndexIsRebuilt() {
+        location(60, general, rack, 1);
+        stock(300, location(61, general, type(4, "Dock Door", null, null), 2), mouse, 400);
+
+        double free = inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            slottingService.reserve(mouse, 200).orElseThrow();                      // 100 kg
+            slottingService.bind(slottingService.reserve(mouse, 400).orElseThrow(), 300); // 200 kg
+            // Layout change while neither put-away is committed as a MoveTask yet
+            slottingService.invalidate();
+            return slottingService.freeCapacity(60).orElseThrow().weight();
+        });
+
+        assertThat(free).isEqualTo(700.0);
+        verify(locationRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldReleaseReservationWhenTransactionRollsBack() {
+        location(70, general, smallBin, 1);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> slottingService.reserve(mouse, 30));
+
+        assertThat(slottingService.freeCapacity(70).orElseThrow().weight()).isEqualTo(20.0);
+    }
+
+    private static Optional<SlottingService.Reservation> committed(Supplier<Optional<SlottingService.Reservation>> work) {
+        return inTransaction(TransactionSynchronization.STATUS_COMMITTED, work);
+    }
+
+    /** Runs {@code work} as if inside a transaction that then ends with {@code status}. */
+    private static <T> T inTransaction(int status, Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.get();
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Location location(int id, Zone zone, LocationType type, int pickSequence) {
+        Location location = new Location();
+        location.setId(id);
+        location.setName("LOC-" + id);
+        location.setZone(zone);
+        location.setLocationType(type);
+        location.setPickSequence(pickSequence);
+        locations.add(location);
+        return location;
+    }
+
+    private Inventory stock(int id, Location location, Product product, int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        inventory.setLocation(location);
+        inventory.setProduct(product);
+        inventory.setQuantity(quantity);
+        stock.add(inventory);
+        return inventory;
+    }
+
+    private static Zone zone(int id, boolean allowMixedSku, boolean secure) {
+        Zone zone = new Zone();
+        zone.setId(id);
+        zone.setName("Z-" + id);
+        zone.setAllowMixedSku(allowMixedSku);
+        zone.setSecure(secure);
+        return zone;
+    }
+
+    private static LocationType type(int id, String name, Double maxWeight, Double maxVolume) {
+        return new LocationType(id, name, maxWeight, maxVolume, null, null, null);
+    }
+
+    private static Product product(int id, double weightKg) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku("SKU-" + id);
+        product.setWeightKg(weightKg);
+        return product;
+    }
+}
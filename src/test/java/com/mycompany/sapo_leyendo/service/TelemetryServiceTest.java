@@ -0,0 +1,207 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryBatchResult;
+import com.mycompany.sapo_leyendo.dto.telemetry.TelemetryEvent;
+import com.mycompany.sapo_leyendo.model.KpiMetric;
+import com.mycompany.sapo_leyendo.repository.KpiMetricRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryServiceTest {
+
+    private static final long NEVER = 3_600_000;
+
+    @Mock
+    private KpiMetricRepository kpiMetricRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<KpiMetric>> rowsCaptor;
+
+    @TempDir
+    Path tempDir;
+
+    private TelemetryService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void windowIsRolledUpIntoCountsAndPercentiles() throws Exception {
+        service = service(1000, 10_000);
+        List<TelemetryEvent> events = new ArrayList<>();
+        for (int i = 100; i >= 1; i--) {
+            events.add(new TelemetryEvent("api call", 0L, (double) i, Map.of("url", "/api/inventory")));
+        }
+        service.submit("ola", "10.0.0.1", events);
+        service.submit("ola", "10.0.0.1", List.of(click(), click(), click()));
+
+        service.flush();
+
+        verify(kpiMetricRepository).saveAll(rowsCaptor.capture());
+        Map<String, KpiMetric> rows = rowsCaptor.getValue().stream()
+                .collect(Collectors.toMap(KpiMetric::getName, Function.identity()));
+        assertThat(rows.keySet()).containsExactlyInAnyOrder("telemetry.api_call.count", "telemetry.api_call.latency_p50",
+                "telemetry.api_call.latency_p95", "telemetry.api_call.latency_p99", "telemetry.click.count");
+        assertThat(rows.get("telemetry.api_call.count").getValue()).isEqualTo(100.0);
+        assertThat(rows.get("telemetry.api_call.latency_p50").getValue()).isEqualTo(50.0);
+        assertThat(rows.get("telemetry.api_call.latency_p95").getValue()).isEqualTo(95.0);
+        assertThat(rows.get("telemetry.api_call.latency_p99").getValue()).isEqualTo(99.0);
+        assertThat(rows.get("telemetry.click.count").getValue()).isEqualTo(3.0);
+        KpiMetric count = rows.get("telemetry.api_call.count");
+        assertThat(count.getDimension()).isEqualTo("user:ola");
+        assertThat(count.getUnit()).isEqualTo("events");
+        assertThat(count.getPeriodEnd()).isAfterOrEqualTo(count.getTimestamp());
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("events.ndjson"), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(103);
+        assertThat(lines.get(0)).contains("\"user\":\"ola\"", "\"type\":\"api call\"", "\"durationMs\":100.0",
+                "\"payload\":{\"url\":\"/api/inventory\"}");
+        assertThat(service.getStats().rollupRowsWritten()).isEqualTo(5);
+        assertThat(service.getStats().openRollups()).isZero();
+
+        // The next window starts empty
+        service.flush();
+        verify(kpiMetricRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void fullQueueDropsEventsInsteadOfBlocking() {
+        service = service(5, 10_000);
+
+        TelemetryBatchResult result = service.submit("ola", "10.0.0.1", List.of(click(), click(), click(), click(),
+                click(), click(), click(), click()));
+
+        assertThat(result.accepted()).isEqualTo(5);
+        assertThat(result.dropped()).isEqualTo(3);
+        assertThat(service.getStats().queued()).isEqualTo(5);
+        assertThat(service.getStats().dropped()).isEqualTo(3);
+
+        service.flush();
+        assertThat(service.getStats().queued()).isZero();
+        assertThat(service.submit("ola", "10.0.0.1", List.of(click())).accepted()).isEqualTo(1);
+    }
+
+    @Test
+    void usersBeyondTheKeyLimitShareOneBucket() {
+        service = service(100, 2);
+
+        service.submit("ala", "10.0.0.1", List.of(click()));
+        service.submit("ola", "10.0.0.2", List.of(click()));
+        service.submit("ela", "10.0.0.3", List.of(click()));
+        service.submit("ula", "10.0.0.4", List.of(click()));
+        service.flush();
+
+        verify(kpiMetricRepository).saveAll(rowsCaptor.capture());
+        assertThat(rowsCaptor.getValue()).extracting(KpiMetric::getDimension)
+                .containsExactlyInAnyOrder("user:ala", "user:ola", "user:" + TelemetryService.OTHER);
+        assertThat(rowsCaptor.getValue()).filteredOn(row -> row.getDimension().endsWith(TelemetryService.OTHER))
+                .extracting(KpiMetric::getValue).containsExactly(2.0);
+    }
+
+    @Test
+    void typesBeyondTheTypeLimitShareOneType() {
+        service = service(100, 10_000, 2);
+
+        for (String type : List.of("scan", "click", "swipe", "zoom")) {
+            service.submit("ola", "10.0.0.1", List.of(new TelemetryEvent(type, 0L, 5.0, Map.of())));
+        }
+        service.flush();
+
+        verify(kpiMetricRepository).saveAll(rowsCaptor.capture());
+        assertThat(rowsCaptor.getValue()).filteredOn(row -> row.getName().endsWith(".count"))
+                .extracting(KpiMetric::getName)
+                .containsExactlyInAnyOrder("telemetry.scan.count", "telemetry.click.count",
+                        "telemetry." + TelemetryService.OTHER + ".count");
+        assertThat(rowsCaptor.getValue()).filteredOn(row -> row.getName().equals("telemetry._other.count"))
+                .extracting(KpiMetric::getValue).containsExactly(2.0);
+    }
+
+    @Test
+    void failedRollupIsLoggedAndTheServiceKeepsRunning() {
+        service = service(100, 10_000);
+        when(kpiMetricRepository.saveAll(any())).thenThrow(new RuntimeException("database is locked"));
+
+        service.submit("ola", "10.0.0.1", List.of(click()));
+        service.flush();
+        service.submit("ola", "10.0.0.1", List.of(click()));
+        service.flush();
+
+        verify(kpiMetricRepository, times(2)).saveAll(any());
+        assertThat(service.getStats().rollupRowsWritten()).isZero();
+        assertThat(service.getStats().rawEventsWritten()).isEqualTo(2);
+    }
+
+    @Test
+    void percentilesUseTheNearestRank() {
+        double[] sorted = {10, 20, 30, 40};
+
+        assertThat(TelemetryService.percentile(sorted, 50)).isEqualTo(20);
+        assertThat(TelemetryService.percentile(sorted, 95)).isEqualTo(40);
+        assertThat(TelemetryService.percentile(new double[]{7}, 99)).isEqualTo(7);
+    }
+
+    @Test
+    void eventFileRotatesThroughAFixedNumberOfFiles() throws Exception {
+        Path file = tempDir.resolve("rotating/events.ndjson");
+        try (TelemetryEventFile eventFile = new TelemetryEventFile(file, 100, 2)) {
+            for (int i = 0; i < 10; i++) {
+                // 29 bytes a line: three lines per file
+                eventFile.append(String.format("{\"n\":%02d,\"pad\":\"xxxxxxxxxxx\"}\n", i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(Files.readAllLines(file)).hasSize(1).allMatch(line -> line.contains("\"n\":09"));
+        assertThat(Files.readAllLines(file.resolveSibling("events.ndjson.1"))).hasSize(3).first().asString().contains("\"n\":06");
+        assertThat(Files.readAllLines(file.resolveSibling("events.ndjson.2"))).hasSize(3).first().asString().contains("\"n\":03");
+        assertThat(file.resolveSibling("events.ndjson.3")).doesNotExist();
+    }
+
+    private TelemetryService service(int capacity, int maxKeys) {
+        return service(capacity, maxKeys, 200);
+    }
+
+    private TelemetryService service(int capacity, int maxKeys, int maxTypes) {
+        return new TelemetryService(kpiMetricRepository, transactionManager, new ObjectMapper(), capacity,
+                NEVER, NEVER, 1024, maxKeys, maxTypes, tempDir.resolve("events.ndjson").toString(), 1, 3);
+    }
+
+    private static TelemetryEvent click() {
+        return new TelemetryEvent("click", 0L, null, Map.of("id", "save"));
+    }
+}
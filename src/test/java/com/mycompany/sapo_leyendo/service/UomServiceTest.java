@@ -0,0 +1,109 @@
+package com.mycompany.sapo_leyendo.service;
+
+import com.mycompany.sapo_leyendo.model.Product;
+import com.mycompany.sapo_leyendo.model.UnitOfMeasure;
+import com.mycompany.sapo_leyendo.model.UomConversion;
+import com.mycompany.sapo_leyendo.repository.UnitOfMeasureRepository;
+import com.mycompany.sapo_leyendo.repository.UomConversionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UomServiceTest {
+
+    private static final UnitOfMeasure SZT = new UnitOfMeasure(1, "SZT", "Sztuka");
+    private static final UnitOfMeasure KAR = new UnitOfMeasure(6, "KAR", "Karton");
+    private static final UnitOfMeasure PAL = new UnitOfMeasure(7, "PAL", "Paleta");
+
+    @InjectMocks
+    private UomService uomService;
+
+    @Mock
+    private UnitOfMeasureRepository unitOfMeasureRepository;
+
+    @Mock
+    private UomConversionRepository uomConversionRepository;
+
+    private final List<UomConversion> conversions = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(unitOfMeasureRepository.findAll()).thenReturn(List.of(SZT, KAR, PAL));
+        lenient().when(uomConversionRepository.findAll()).thenReturn(conversions);
+        // Product 5: 1 KAR = 12 SZT, 1 PAL = 40 KAR
+        conversions.add(new UomConversion(5, 6, 1, 12.0));
+        conversions.add(new UomConversion(5, 7, 6, 40.0));
+
+        product = new Product();
+        product.setId(5);
+        product.setIdBaseUom(1);
+    }
+
+    @Test
+    void shouldConvertBothWaysAndAlongChains() {
+        assertThat(uomService.convert(5, 2, 6, 1)).isEqualTo(24.0);
+        assertThat(uomService.convert(5, 24, 1, 6)).isCloseTo(2.0, within(1e-9));
+        assertThat(uomService.convert(5, 1, 7, 1)).isCloseTo(480.0, within(1e-9));
+        assertThat(uomService.toBaseWhole(product, 2, PAL)).isEqualTo(960);
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> uomService.convert(9, 1, 6, 1));
+        assertThat(missing.getMessage()).isEqualTo("No conversion from KAR to SZT for product 9");
+
+        // Everything above came from the one load at startup
+        verify(unitOfMeasureRepository, times(1)).findAll();
+        verify(uomConversionRepository, times(1)).findAll();
+        verify(unitOfMeasureRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldRejectQuantitiesThatAreNotWholeBaseUnits() {
+        product.setIdBaseUom(6); // stock of this product is kept in cartons
+
+        assertThat(uomService.toBaseWhole(product, 24, SZT)).isEqualTo(2);
+        RuntimeException partial = assertThrows(RuntimeException.class, () -> uomService.toBaseWhole(product, 5, SZT));
+        assertThat(partial.getMessage()).startsWith("5 SZT is not a whole number of KAR");
+    }
+
+    @Test
+    void shouldResolveUnitsFromRegistryAndReadThroughNewOnes() {
+        assertThat(uomService.resolve(null, " kar ")).isSameAs(KAR);
+        assertThat(uomService.baseUom(product)).isSameAs(SZT);
+        assertThat(uomService.baseUom(null)).isSameAs(SZT);
+
+        UnitOfMeasure kg = new UnitOfMeasure(2, "KG", "Kilogram");
+        when(unitOfMeasureRepository.findById(2)).thenReturn(Optional.of(kg));
+        assertThat(uomService.resolve(2, null)).isSameAs(kg);
+        assertThat(uomService.resolve(2, null)).isSameAs(kg);
+        verify(unitOfMeasureRepository, times(1)).findById(2);
+
+        assertThrows(RuntimeException.class, () -> uomService.resolve(99, null));
+    }
+
+    @Test
+    void shouldReloadConversionsAfterChange() {
+        when(uomConversionRepository.save(any(UomConversion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertThrows(RuntimeException.class, () -> uomService.convert(8, 1, 7, 1));
+
+        UomConversion palletOfPieces = new UomConversion(8, 7, 1, 100.0);
+        conversions.add(palletOfPieces);
+        uomService.saveConversion(palletOfPieces);
+
+        assertThat(uomService.convert(8, 3, 7, 1)).isEqualTo(300.0);
+        assertThrows(RuntimeException.class, () -> uomService.saveConversion(new UomConversion(8, 7, 1, 0.0)));
+    }
+}
@@ -0,0 +1,171 @@
+package com.mycompany.sapo_leyendo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteCommandExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WriteCommandExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldGroupCommandsArrivingTogetherIntoOneTransaction() throws Exception {
+        executor = new WriteCommandExecutor(transactionManager, true, 200, 4, 100, 5_000);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int value = i;
+            futures.add(executor.submit(() -> value * 10));
+        }
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i * 10);
+        }
+        // max-batch 4: one group of 4 and one of 2
+        assertThat(executor.getCommandCount()).isEqualTo(6);
+        assertThat(executor.getTransactionCount()).isEqualTo(2);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldRerunGroupOneByOneWhenACommandFails() throws Exception {
+        executor = new WriteCommandExecutor(transactionManager, true, 200, 64, 100, 5_000);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> first = executor.submit(() -> record(runs, "first"));
+        CompletableFuture<String> failing = executor.submit(() -> {
+            runs.add("failing");
+            throw new RuntimeException("Task not found");
+        });
+        CompletableFuture<String> last = executor.submit(() -> record(runs, "last"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(last.get(5, TimeUnit.SECONDS)).isEqualTo("last");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertThat(error.getCause()).hasMessage("Task not found");
+
+        // The group was rolled back, then each command got a transaction of its own
+        assertThat(runs).containsExactly("first", "failing", "first", "failing", "last");
+        assertThat(executor.getSplitGroupCount()).isEqualTo(1);
+        assertThat(executor.getTransactionCount()).isEqualTo(4);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldRethrowCommandExceptionToCaller() {
+        executor = new WriteCommandExecutor(transactionManager, true, 0, 64, 100, 5_000);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> executor.execute(() -> {
+            throw new IllegalStateException("Product already packed in another parcel.");
+        }));
+        assertThat(error).hasMessage("Product already packed in another parcel.");
+        assertThat(executor.<String>execute(() -> Thread.currentThread().getName())).isEqualTo("write-commands");
+    }
+
+    @Test
+    void shouldCancelCommandStillQueuedAtTimeout() throws Exception {
+        executor = new WriteCommandExecutor(transactionManager, true, 0, 1, 100, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocker = executor.submit(() -> await(release));
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        RuntimeException timeout = assertThrows(RuntimeException.class,
+                () -> executor.execute(() -> record(runs, "late")));
+        assertThat(timeout).hasMessage("Write command not started within 200 ms, cancelled");
+
+        release.countDown();
+        assertThat(blocker.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.submit(() -> record(runs, "next")).get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(runs).containsExactly("next");
+    }
+
+    @Test
+    void shouldWaitForCommandAlreadyRunningAtTimeout() {
+        executor = new WriteCommandExecutor(transactionManager, true, 0, 64, 100, 100);
+        CountDownLatch never = new CountDownLatch(1);
+
+        String result = executor.execute(() -> {
+            try {
+                never.await(400, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "committed";
+        });
+
+        assertThat(result).isEqualTo("committed");
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldRunInCallerWhenDisabled() {
+        executor = new WriteCommandExecutor(transactionManager, false, 2, 64, 100, 5_000);
+
+        assertThat(executor.<String>execute(() -> Thread.currentThread().getName()))
+                .isEqualTo(Thread.currentThread().getName());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void shouldCompleteSubmittedCommandInCallerWhenDisabled() {
+        executor = new WriteCommandExecutor(transactionManager, false, 2, 64, 100, 5_000);
+
+        assertThat(executor.submit(() -> "done")).isCompletedWithValue("done");
+        CompletableFuture<String> failing = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThat(failing).isCompletedExceptionally();
+        ExecutionException e = assertThrows(ExecutionException.class, failing::get);
+        assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(transactionManager);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String record(List<String> runs, String name) {
+        runs.add(name);
+        return name;
+    }
+}